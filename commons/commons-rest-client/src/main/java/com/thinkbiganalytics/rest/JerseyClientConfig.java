@@ -54,6 +54,21 @@ public class JerseyClientConfig {
      **/
     private boolean useConnectionPooling = false;
 
+    /**
+     * the maximum number of pooled connections to a single host when {@link #useConnectionPooling} is enabled
+     */
+    private int maxConnectionsPerRoute = 100;
+
+    /**
+     * the maximum number of pooled connections in total when {@link #useConnectionPooling} is enabled
+     */
+    private int maxConnectionsTotal = 200;
+
+    /**
+     * flag to request gzip compressed responses from the server
+     */
+    private boolean gzip = false;
+
 
     public JerseyClientConfig() {
 
@@ -187,6 +202,30 @@ public class JerseyClientConfig {
         this.useConnectionPooling = useConnectionPooling;
     }
 
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    public void setMaxConnectionsTotal(int maxConnectionsTotal) {
+        this.maxConnectionsTotal = maxConnectionsTotal;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
     public Integer getPort() {
         return port;
     }
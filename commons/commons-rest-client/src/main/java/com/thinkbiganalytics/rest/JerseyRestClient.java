@@ -20,6 +20,8 @@ package com.thinkbiganalytics.rest;
  * #L%
  */
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.io.ByteStreams;
 
@@ -34,16 +36,18 @@ import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.glassfish.jersey.SslConfigurator;
 import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
-import org.glassfish.jersey.client.HttpUrlConnectorProvider;
 import org.glassfish.jersey.client.JerseyClientBuilder;
 import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
+import org.glassfish.jersey.client.filter.EncodingFilter;
 import org.glassfish.jersey.jackson.JacksonFeature;
 import org.glassfish.jersey.media.multipart.Boundary;
 import org.glassfish.jersey.media.multipart.MultiPart;
 import org.glassfish.jersey.media.multipart.MultiPartFeature;
 import org.glassfish.jersey.media.multipart.file.StreamDataBodyPart;
+import org.glassfish.jersey.message.GZipEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,10 +55,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.ws.rs.NotAcceptableException;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
@@ -105,6 +112,11 @@ public class JerseyRestClient {
      */
     private boolean useConnectionPooling = false;
 
+    /**
+     * Records the latency of each request per endpoint
+     */
+    private final LatencyRecordingFilter latencyRecordingFilter = new LatencyRecordingFilter();
+
 
     public JerseyRestClient(JerseyClientConfig config) {
         useConnectionPooling = config.isUseConnectionPooling();
@@ -188,12 +200,14 @@ public class JerseyRestClient {
             } else {
                 connectionManager = new PoolingHttpClientConnectionManager();
             }
-            connectionManager.setDefaultMaxPerRoute(100); // # of connections allowed per host/address
-            connectionManager.setMaxTotal(200); // number of connections allowed in total
+            connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute()); // # of connections allowed per host/address
+            connectionManager.setMaxTotal(config.getMaxConnectionsTotal()); // number of connections allowed in total
+            // check kept-alive connections that have been idle for a while before reusing them, in case the server has closed them
+            connectionManager.setValidateAfterInactivity(2000);
 
             clientConfig.property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager);
-            HttpUrlConnectorProvider connectorProvider = new HttpUrlConnectorProvider();
-            clientConfig.connectorProvider(connectorProvider);
+            // the Apache connector is required for the pooled connection manager to be used
+            clientConfig.connectorProvider(new ApacheConnectorProvider());
 
         }
 
@@ -211,6 +225,13 @@ public class JerseyRestClient {
 
         client.register(JacksonObjectMapperProvider.class);
         client.register(JacksonFeature.class);
+        client.register(latencyRecordingFilter);
+
+        // Request compressed responses
+        if (config.isGzip()) {
+            client.register(GZipEncoder.class);
+            client.register(EncodingFilter.class);
+        }
 
         // Configure authentication
         if (StringUtils.isNotBlank(config.getUsername())) {
@@ -248,6 +269,16 @@ public class JerseyRestClient {
     }
 
 
+    /**
+     * Get the latency of the requests made by this client, per endpoint
+     *
+     * @return a map of the endpoint, such as {@code GET /nifi-api/processors/{id}}, to its latency histogram
+     */
+    public Map<String, LatencyHistogram> getLatencyHistograms() {
+        return latencyRecordingFilter.getHistograms();
+    }
+
+
     /**
      * The base target that will be used upon each request.
      * All rest calls will go through this method.
@@ -427,6 +458,84 @@ public class JerseyRestClient {
         return target.request(MediaType.APPLICATION_JSON_TYPE).accept(MediaType.APPLICATION_JSON_TYPE, MediaType.APPLICATION_XML_TYPE).get(type);
     }
 
+    /**
+     * Perform a GET request and return the response body without reading it into memory.
+     * The caller must close the returned stream.
+     *
+     * @param path   the path to access
+     * @param params key, value parameters to add to the request
+     * @return the response body
+     */
+    public InputStream getStream(String path, Map<String, Object> params) {
+        WebTarget target = buildTarget(path, params);
+        return target.request(MediaType.APPLICATION_JSON_TYPE).accept(MediaType.APPLICATION_JSON_TYPE, MediaType.APPLICATION_XML_TYPE).get(InputStream.class);
+    }
+
+    /**
+     * Perform a GET request and deserialize the elements of a JSON array in the response one at a time, so the full response is never held in memory.
+     *
+     * @param path        the path to access
+     * @param params      key, value parameters to add to the request
+     * @param arrayField  the name of the field containing the array, or {@code null} if the response itself is an array
+     * @param elementType the class of the array elements
+     * @param consumer    called with each element, in order
+     * @param <T>         the type of the array elements
+     * @return the number of elements read
+     */
+    public <T> long streamJsonArray(String path, Map<String, Object> params, String arrayField, Class<T> elementType, Consumer<T> consumer) {
+        return streamJsonArrayWhile(path, params, arrayField, elementType, element -> {
+            consumer.accept(element);
+            return true;
+        });
+    }
+
+    /**
+     * Perform a GET request and deserialize the elements of a JSON array in the response one at a time until the visitor returns {@code false}.
+     * The rest of the response is not read.
+     *
+     * @param path        the path to access
+     * @param params      key, value parameters to add to the request
+     * @param arrayField  the name of the field containing the array, or {@code null} if the response itself is an array
+     * @param elementType the class of the array elements
+     * @param visitor     called with each element, in order, returns {@code false} to stop reading
+     * @param <T>         the type of the array elements
+     * @return the number of elements read
+     */
+    public <T> long streamJsonArrayWhile(String path, Map<String, Object> params, String arrayField, Class<T> elementType, Predicate<T> visitor) {
+        long count = 0;
+        try (InputStream stream = getStream(path, params); JsonParser parser = objectMapper.getFactory().createParser(stream)) {
+            if (!moveToArray(parser, arrayField)) {
+                return 0;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY && parser.getCurrentToken() != null) {
+                count++;
+                if (!visitor.test(objectMapper.readValue(parser, elementType))) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new WebApplicationException("Unable to read the response of " + path, e);
+        }
+        return count;
+    }
+
+    /**
+     * Advance the parser to the start of the array with the given field name
+     *
+     * @param parser     the parser
+     * @param arrayField the name of the field, or {@code null} for a root array
+     * @return {@code true} if the parser is at the start of the array, {@code false} if it could not be found
+     */
+    private boolean moveToArray(JsonParser parser, String arrayField) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == JsonToken.START_ARRAY && (arrayField == null || arrayField.equals(parser.getCurrentName()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * POST an object to a given url
      *
@@ -0,0 +1,106 @@
+package com.thinkbiganalytics.rest;
+
+/*-
+ * #%L
+ * thinkbig-commons-rest-client
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histogram of request latencies with fixed buckets
+ */
+public class LatencyHistogram {
+
+    /**
+     * Upper bound, in milliseconds, of each bucket.  A last bucket collects everything slower than the final bound.
+     */
+    private static final long[] BUCKET_BOUNDS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalMillis = new LongAdder();
+
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record the latency of a request
+     *
+     * @param millis the time the request took, in milliseconds
+     */
+    public void record(long millis) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && millis > BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        totalMillis.add(millis);
+        maxMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMaxMillis() {
+        return maxMillis.get();
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n > 0 ? (double) totalMillis.sum() / n : 0.0;
+    }
+
+    /**
+     * Estimate a percentile as the upper bound of the bucket that contains it
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the estimated latency in milliseconds, or 0 if nothing was recorded
+     */
+    public long getPercentileMillis(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(n * Math.min(Math.max(percentile, 0.0), 100.0) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= Math.max(target, 1)) {
+                return Math.min(BUCKET_BOUNDS[i], getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", mean=" + String.format("%.1f", getMeanMillis()) + "ms, p50=" + getPercentileMillis(50) + "ms, p95=" + getPercentileMillis(95)
+               + "ms, p99=" + getPercentileMillis(99) + "ms, max=" + getMaxMillis() + "ms";
+    }
+}
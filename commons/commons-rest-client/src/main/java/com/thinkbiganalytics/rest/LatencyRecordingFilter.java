@@ -0,0 +1,117 @@
+package com.thinkbiganalytics.rest;
+
+/*-
+ * #%L
+ * thinkbig-commons-rest-client
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+
+/**
+ * Records the latency of each request in a {@link LatencyHistogram} per endpoint.
+ *
+ * Endpoints are identified by the HTTP method and the request path with the id segments, such as UUIDs and numbers, replaced by {@code {id}}
+ * so that requests for different components of the same type share a histogram.  The latency is measured until the response headers are received.
+ * Once {@link #MAX_ENDPOINTS} endpoints are tracked, requests to any new endpoint are recorded under {@link #OTHER_ENDPOINT} so that paths
+ * containing names or other unbounded values cannot grow the map without limit.
+ */
+public class LatencyRecordingFilter implements ClientRequestFilter, ClientResponseFilter {
+
+    private static final String START_TIME_PROPERTY = LatencyRecordingFilter.class.getName() + ".startTime";
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("^([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9]+)$");
+
+    /**
+     * Maximum number of endpoints with their own histogram
+     */
+    public static final int MAX_ENDPOINTS = 200;
+
+    /**
+     * Endpoint for the requests recorded after the maximum number of endpoints is reached
+     */
+    public static final String OTHER_ENDPOINT = "OTHER";
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final int maxEndpoints;
+
+    public LatencyRecordingFilter() {
+        this(MAX_ENDPOINTS);
+    }
+
+    LatencyRecordingFilter(int maxEndpoints) {
+        this.maxEndpoints = maxEndpoints;
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext) throws IOException {
+        requestContext.setProperty(START_TIME_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
+        Object startTime = requestContext.getProperty(START_TIME_PROPERTY);
+        if (startTime instanceof Long) {
+            long millis = (System.nanoTime() - (Long) startTime) / 1000000L;
+            record(endpoint(requestContext.getMethod(), requestContext.getUri().getPath()), millis);
+        }
+    }
+
+    /**
+     * Record the latency of a request to the endpoint
+     *
+     * @param endpoint the endpoint
+     * @param millis   the latency in milliseconds
+     */
+    void record(String endpoint, long millis) {
+        LatencyHistogram histogram = histograms.get(endpoint);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(histograms.size() < maxEndpoints ? endpoint : OTHER_ENDPOINT, key -> new LatencyHistogram());
+        }
+        histogram.record(millis);
+    }
+
+    /**
+     * Get the latency histograms recorded so far
+     *
+     * @return a map of the endpoint to its histogram
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    static String endpoint(String method, String path) {
+        StringBuilder endpoint = new StringBuilder(method).append(' ');
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                endpoint.append('/').append(ID_SEGMENT.matcher(segment).matches() ? "{id}" : segment);
+            }
+        }
+        return endpoint.toString();
+    }
+}
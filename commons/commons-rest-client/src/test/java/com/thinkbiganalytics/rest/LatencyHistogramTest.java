@@ -0,0 +1,71 @@
+package com.thinkbiganalytics.rest;
+
+/*-
+ * #%L
+ * thinkbig-commons-rest-client
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(3);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(800);
+        }
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(800, histogram.getMaxMillis());
+        Assert.assertEquals(5, histogram.getPercentileMillis(50));
+        Assert.assertEquals(800, histogram.getPercentileMillis(95));
+        Assert.assertEquals(82.7, histogram.getMeanMillis(), 0.01);
+    }
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getPercentileMillis(99));
+        Assert.assertEquals(0.0, histogram.getMeanMillis(), 0.0);
+    }
+
+    @Test
+    public void testEndpointReplacesIds() {
+        Assert.assertEquals("GET /nifi-api/processors/{id}",
+                            LatencyRecordingFilter.endpoint("GET", "/nifi-api/processors/015a1000-6ab4-1c1f-c0c1-b1f2ef7fb7b4"));
+        Assert.assertEquals("PUT /nifi-api/process-groups/{id}/variable-registry/{id}",
+                            LatencyRecordingFilter.endpoint("PUT", "/nifi-api/process-groups/015a1000-6ab4-1c1f-c0c1-b1f2ef7fb7b4/variable-registry/12"));
+    }
+
+    @Test
+    public void testEndpointsAreCapped() {
+        LatencyRecordingFilter filter = new LatencyRecordingFilter(2);
+        filter.record("GET /a", 1);
+        filter.record("GET /b", 1);
+        filter.record("GET /c", 1);
+        filter.record("GET /d", 1);
+        filter.record("GET /a", 1);
+        Assert.assertEquals(3, filter.getHistograms().size());
+        Assert.assertEquals(2, filter.getHistograms().get("GET /a").getCount());
+        Assert.assertEquals(2, filter.getHistograms().get(LatencyRecordingFilter.OTHER_ENDPOINT).getCount());
+    }
+}
@@ -20,6 +20,7 @@ package com.thinkbiganalytics.json;
  * #L%
  */
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -29,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 
 /**
@@ -75,6 +77,23 @@ public class ObjectMapperSerializer {
         return json;
     }
 
+    /**
+     * serialize an Object as JSON directly to a stream using Jackson2.  The stream is flushed but not closed.
+     *
+     * @param obj the object to serialize
+     * @param out the stream to write the JSON to
+     */
+    public static void serialize(Object obj, OutputStream out) {
+        try {
+            JsonGenerator generator = getMapper().getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            getMapper().writeValue(generator, obj);
+            generator.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Error serializing object", e);
+        }
+    }
+
     /**
      * deserialize an string as JSON converting it to an object of the supplied class type
      *
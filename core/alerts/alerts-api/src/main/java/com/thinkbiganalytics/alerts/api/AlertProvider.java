@@ -61,6 +61,13 @@ public interface AlertProvider {
      */
     void addListener(AlertListener listener);
 
+    /**
+     * Removes a listener previously registered with {@link #addListener(AlertListener)}.
+     *
+     * @param listener the listener being removed
+     */
+    void removeListener(AlertListener listener);
+
     /**
      * Registers a responder that will be invoked whenever an respondable alert has transitioned new
      * state other than CLEARED.
@@ -169,6 +169,17 @@ public class AggregatingAlertProvider implements AlertProvider, AlertSourceAggre
         this.listeners.put(listener, reg);
     }
 
+    /* (non-Javadoc)
+     * @see com.thinkbiganalytics.alerts.api.AlertProvider#removeListener(com.thinkbiganalytics.alerts.api.AlertListener)
+     */
+    @Override
+    public void removeListener(AlertListener listener) {
+        Registration<?, ?> reg = this.listeners.remove(listener);
+        if (reg != null) {
+            reg.cancel();
+        }
+    }
+
     /* (non-Javadoc)
      * @see com.thinkbiganalytics.alerts.api.AlertProvider#addResponder(com.thinkbiganalytics.alerts.api.AlertResponder)
      */
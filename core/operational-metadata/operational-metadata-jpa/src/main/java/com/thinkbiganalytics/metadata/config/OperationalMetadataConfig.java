@@ -28,6 +28,7 @@ import com.thinkbiganalytics.metadata.sla.spi.ServiceLevelAssessor;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
@@ -57,6 +58,12 @@ import javax.sql.DataSource;
     repositoryFactoryBeanClass = AugmentableQueryRepositoryFactoryBean.class)
 public class OperationalMetadataConfig {
 
+    /**
+     * The number of inserts or updates sent to the database in a single JDBC batch
+     */
+    @Value("${kylo.ops.mgr.jdbc.batchSize:50}")
+    private int jdbcBatchSize;
+
     @Bean(name = "operationalMetadataDateTimeFormatter")
     public DateTimeFormatter dateTimeFormatter() {
         return DateTimeFormat.forPattern("YYYY-MM-dd HH:mm:ss");
@@ -111,6 +118,7 @@ public class OperationalMetadataConfig {
         emfBean.setDataSource(dataSource);
         emfBean.setPackagesToScan("com.thinkbiganalytics.jobrepo.jpa", "com.thinkbiganalytics.metadata.jpa");
         emfBean.setJpaVendorAdapter(jpaVendorAdapter());
+        emfBean.getJpaPropertyMap().put("hibernate.jdbc.batch_size", jdbcBatchSize);
         emfBean.afterPropertiesSet();
         return emfBean.getObject();
     }
@@ -20,8 +20,10 @@ package com.thinkbiganalytics.metadata.jpa.feed;
  * #L%
  */
 
+import com.thinkbiganalytics.metadata.jpa.feed.security.FeedAclCache;
 import com.thinkbiganalytics.security.AccessController;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
 import org.springframework.data.repository.core.support.RepositoryFactorySupport;
@@ -41,8 +43,11 @@ public class AugmentableQueryRepositoryFactoryBean<R extends JpaRepository<T, I>
     @Inject
     AccessController accessController;
 
+    @Autowired(required = false)
+    FeedAclCache feedAclCache;
+
     protected RepositoryFactorySupport createRepositoryFactory(EntityManager em) {
-        return new AugmentableQueryRepositoryFactory(em, accessController);
+        return new AugmentableQueryRepositoryFactory(em, accessController, feedAclCache);
     }
 
 }
@@ -26,6 +26,7 @@ import com.querydsl.core.types.dsl.ComparablePath;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.JPQLQuery;
 import com.thinkbiganalytics.metadata.config.RoleSetExposingSecurityExpressionRoot;
+import com.thinkbiganalytics.metadata.jpa.feed.security.FeedAclCache;
 import com.thinkbiganalytics.metadata.jpa.feed.security.JpaFeedOpsAclEntry;
 import com.thinkbiganalytics.metadata.jpa.feed.security.QJpaFeedOpsAclEntry;
 
@@ -41,6 +42,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.persistence.EntityManager;
@@ -52,7 +54,10 @@ import javax.persistence.criteria.Subquery;
 
 /**
  * Secures queries by checking whether access to them is allowed by having matching roles for current
- * user principal in FeedAclIndex table
+ * user principal in FeedAclIndex table.
+ * <p>
+ * When a {@link FeedAclCache} is set the feeds visible to the current principals are looked up in the cache and
+ * the query is restricted to those feed ids, falling back to the ACL subquery when the cache cannot be used.
  */
 public abstract class FeedAclIndexQueryAugmentor implements QueryAugmentor {
 
@@ -62,12 +67,39 @@ public abstract class FeedAclIndexQueryAugmentor implements QueryAugmentor {
 
     protected abstract ComparablePath<UUID> getFeedId();
 
+    /**
+     * Gets the path to the UUID of the feed, compared to the cached visible feed ids.
+     */
+    protected <S, T, ID extends Serializable> Path<?> getFeedUuid(JpaEntityInformation<T, ID> entityInformation, Root<S> root) {
+        return getFeedId(entityInformation, root);
+    }
+
+    private FeedAclCache feedAclCache;
+    private EntityManager entityManager;
+
+    /**
+     * Sets the cache of visible feeds used in place of the ACL subquery.
+     *
+     * @param feedAclCache  the cache of visible feeds
+     * @param entityManager the entity manager for loading the ACL entries
+     */
+    public void setFeedAclCache(FeedAclCache feedAclCache, EntityManager entityManager) {
+        this.feedAclCache = feedAclCache;
+        this.entityManager = entityManager;
+    }
+
     @Override
     public <S, T, ID extends Serializable> Specification<S> augment(Specification<S> spec, Class<S> domainClass,
                                                                     JpaEntityInformation<T, ID> entityInformation) {
         LOG.debug("QueryAugmentor.augment");
 
         return (root, query, criteriaBuilder) -> {
+            Set<UUID> visibleFeedIds = getVisibleFeedIds();
+            if (visibleFeedIds != null) {
+                javax.persistence.criteria.Predicate securingPredicate = getFeedUuid(entityInformation, root).in(visibleFeedIds);
+                return spec != null ? criteriaBuilder.and(spec.toPredicate(root, query, criteriaBuilder), securingPredicate) : securingPredicate;
+            }
+
             //and exists (select 1 from JpaFeedOpsAclEntry as x where {root}.id = x.feedId and x.principalName in :#{principal.roleSet})
 
             Subquery<Integer> subquery = query.subquery(Integer.class);
@@ -98,15 +130,20 @@ public abstract class FeedAclIndexQueryAugmentor implements QueryAugmentor {
     public List<Predicate> augment(Predicate[] predicate) {
         LOG.debug("FeedAclIndexQueryAugmentor.augment(Predicate[])");
 
-        QJpaFeedOpsAclEntry aclEntry = QJpaFeedOpsAclEntry.jpaFeedOpsAclEntry;
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.addAll(Arrays.asList(predicate));
 
-        JPQLQuery<JpaFeedOpsAclEntry> subquery = JPAExpressions.selectFrom(aclEntry).where(aclEntry.feedId.eq(getFeedId()).and(aclEntry.principalName.in(getPrincipalRoles())));
+        Set<UUID> visibleFeedIds = getVisibleFeedIds();
+        if (visibleFeedIds != null) {
+            predicates.add(getFeedId().in(visibleFeedIds));
+        } else {
+            QJpaFeedOpsAclEntry aclEntry = QJpaFeedOpsAclEntry.jpaFeedOpsAclEntry;
 
-        BooleanExpression exists = subquery.exists();
+            JPQLQuery<JpaFeedOpsAclEntry> subquery = JPAExpressions.selectFrom(aclEntry).where(aclEntry.feedId.eq(getFeedId()).and(aclEntry.principalName.in(getPrincipalRoles())));
 
-        List<Predicate> predicates = new ArrayList<>();
-        predicates.addAll(Arrays.asList(predicate));
-        predicates.add(exists);
+            BooleanExpression exists = subquery.exists();
+            predicates.add(exists);
+        }
 
         return predicates;
     }
@@ -129,6 +166,19 @@ public abstract class FeedAclIndexQueryAugmentor implements QueryAugmentor {
         return query;
     }
 
+    /**
+     * Gets the ids of the feeds visible to the current principals from the cache.
+     *
+     * @return the visible feed ids, or {@code null} if the ACL subquery should be used
+     */
+    private Set<UUID> getVisibleFeedIds() {
+        if (feedAclCache == null) {
+            return null;
+        }
+        Set<UUID> feedIds = feedAclCache.getVisibleFeedIds(entityManager, getPrincipalRoles());
+        return feedIds != null && !feedIds.isEmpty() ? feedIds : null;
+    }
+
     private Collection<String> getPrincipalRoles() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return authentication == null ? new ArrayList<>(0) : new RoleSetExposingSecurityExpressionRoot(authentication).getRoleSet();
@@ -0,0 +1,285 @@
+package com.thinkbiganalytics.metadata.jpa.feed;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeed;
+import com.thinkbiganalytics.metadata.api.jobrepo.ExecutionConstants;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.JpaBatchJobExecution;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.QJpaBatchJobExecution;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.QJpaBatchJobInstance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * Maintains the {@link JpaFeedJobSummary} of each feed.
+ *
+ * <p>The job counts are adjusted as each job execution is saved, using the status the execution had when it was last counted.  Changes made
+ * outside of the job execution provider, such as the stored procedures for abandoning and deleting jobs, rebuild the summary of the feed from the
+ * job history.  All summaries are also periodically rebuilt to repair any drift.</p>
+ *
+ * <p>A summary is locked before its job counts are read while being rebuilt, so counts added by jobs saved at the same time are not lost.  Each
+ * node runs the periodic repair, but every summary is claimed by a single node per interval, so a summary is only rebuilt once per interval.</p>
+ */
+@Service
+public class FeedJobSummaryProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedJobSummaryProvider.class);
+
+    @Autowired
+    private JPAQueryFactory factory;
+
+    @Inject
+    private FeedJobSummaryRepository repository;
+
+    @Inject
+    @Named("operationalMetadataAccess")
+    private MetadataAccess metadataAccess;
+
+    /**
+     * Seconds between rebuilding all summaries, or 0 to disable
+     */
+    @Value("${kylo.ops.mgr.feed.summary.repair.interval.seconds:3600}")
+    private long repairIntervalSeconds;
+
+    private ScheduledExecutorService repairExecutor;
+
+    @PostConstruct
+    public void scheduleRepair() {
+        if (repairIntervalSeconds > 0) {
+            repairExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("feed-job-summary-repair").setDaemon(true).build());
+            repairExecutor.scheduleWithFixedDelay(this::repair, repairIntervalSeconds, repairIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (repairExecutor != null) {
+            repairExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates an empty summary for a new feed.
+     *
+     * @param feedId the feed id
+     */
+    public void createSummary(OpsManagerFeed.ID feedId) {
+        UUID uuid = UUID.fromString(feedId.toString());
+        if (!repository.exists(uuid)) {
+            repository.save(new JpaFeedJobSummary(uuid));
+        }
+    }
+
+    /**
+     * Removes the summary of a deleted feed.
+     *
+     * @param feedId the feed id
+     */
+    public void deleteSummary(OpsManagerFeed.ID feedId) {
+        UUID uuid = UUID.fromString(feedId.toString());
+        if (repository.exists(uuid)) {
+            repository.delete(uuid);
+        }
+    }
+
+    /**
+     * Updates the summary of the feed with the change in status of a job execution since it was last counted.
+     *
+     * @param jobExecution the saved job execution
+     */
+    public void updateSummary(JpaBatchJobExecution jobExecution) {
+        OpsManagerFeed feed = jobExecution.getJobInstance() != null ? jobExecution.getJobInstance().getFeed() : null;
+        if (feed == null || jobExecution.getJobExecutionId() == null) {
+            return;
+        }
+
+        BatchJobExecution.JobStatus previousStatus = jobExecution.getSummarizedStatus();
+        ExecutionConstants.ExitCode previousExitCode = jobExecution.getSummarizedExitCode();
+        BatchJobExecution.JobStatus status = jobExecution.getStatus();
+        ExecutionConstants.ExitCode exitCode = jobExecution.getExitCode();
+        boolean isNew = previousStatus == null;
+
+        long failed = delta(JpaFeedJobSummary.isFailed(status, exitCode), !isNew && JpaFeedJobSummary.isFailed(previousStatus, previousExitCode));
+        long completed = delta(JpaFeedJobSummary.isCompleted(status, exitCode), !isNew && JpaFeedJobSummary.isCompleted(previousStatus, previousExitCode));
+        long abandoned = delta(JpaFeedJobSummary.isAbandoned(status), !isNew && JpaFeedJobSummary.isAbandoned(previousStatus));
+        long running = delta(JpaFeedJobSummary.isRunning(status), !isNew && JpaFeedJobSummary.isRunning(previousStatus));
+
+        UUID feedId = UUID.fromString(feed.getId().toString());
+        if (isNew || failed != 0 || completed != 0 || abandoned != 0 || running != 0) {
+            if (repository.addCounts(feedId, isNew ? 1 : 0, failed, completed, abandoned, running) == 0) {
+                rebuildSummary(feedId);
+            } else if (isNew) {
+                repository.updateLatestJobExecution(feedId, jobExecution.getJobExecutionId());
+            }
+        }
+        jobExecution.markSummarized();
+    }
+
+    /**
+     * Rebuilds the summary of a feed from its job history.
+     *
+     * @param feedId the feed id
+     */
+    public void rebuildSummary(OpsManagerFeed.ID feedId) {
+        rebuildSummary(UUID.fromString(feedId.toString()));
+    }
+
+    private void rebuildSummary(UUID feedId) {
+        JpaFeedJobSummary summary = repository.findOneForUpdate(feedId);
+        save(summary != null ? summary : new JpaFeedJobSummary(feedId), countJobs(feedId));
+    }
+
+    /**
+     * Rebuilds the summary of a feed unless another node rebuilt it after the specified time.
+     *
+     * @param feedId        the feed id
+     * @param now           the current time in milliseconds
+     * @param rebuiltBefore the time in milliseconds after which a rebuilt summary is left alone
+     * @return {@code true} if the summary was rebuilt
+     */
+    boolean repairSummary(UUID feedId, long now, long rebuiltBefore) {
+        if (repository.claimRebuild(feedId, now, rebuiltBefore) == 0) {
+            if (repository.exists(feedId)) {
+                return false;
+            }
+            repository.save(new JpaFeedJobSummary(feedId));
+            repository.flush();
+            if (repository.claimRebuild(feedId, now, rebuiltBefore) == 0) {
+                return false;
+            }
+        }
+
+        // the claim holds the row lock, so the counts cannot change until the transaction ends
+        JpaFeedJobSummary summary = repository.findOne(feedId);
+        summary.setRebuiltTime(now);
+        save(summary, countJobs(feedId));
+        return true;
+    }
+
+    private void repair() {
+        try {
+            long start = System.currentTimeMillis();
+            long rebuiltBefore = start - TimeUnit.SECONDS.toMillis(repairIntervalSeconds) / 2;
+            Set<UUID> feedIds = metadataAccess.read(this::findFeedIds, MetadataAccess.SERVICE);
+
+            int rebuilt = 0;
+            for (UUID feedId : feedIds) {
+                try {
+                    if (metadataAccess.commit(() -> repairSummary(feedId, start, rebuiltBefore), MetadataAccess.SERVICE)) {
+                        rebuilt++;
+                    }
+                } catch (Exception e) {
+                    log.warn("Unable to rebuild the job summary of feed {}: {}", feedId, e.toString());
+                }
+            }
+            log.debug("Rebuilt {} of {} feed job summaries in {} ms", rebuilt, feedIds.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Unable to rebuild the feed job summaries", e);
+        }
+    }
+
+    /**
+     * Gets the ids of every feed and every summary
+     */
+    private Set<UUID> findFeedIds() {
+        QJpaOpsManagerFeed feed = QJpaOpsManagerFeed.jpaOpsManagerFeed;
+        QJpaFeedJobSummary summary = QJpaFeedJobSummary.jpaFeedJobSummary;
+        Set<UUID> feedIds = new LinkedHashSet<>(factory.select(feed.id.uuid).from(feed).fetch());
+        feedIds.addAll(factory.select(summary.feedId).from(summary).fetch());
+        return feedIds;
+    }
+
+    /**
+     * Counts the jobs of a feed, or returns {@code null} if the feed has no jobs
+     */
+    private Tuple countJobs(UUID feedId) {
+        QJpaOpsManagerFeed feed = QJpaOpsManagerFeed.jpaOpsManagerFeed;
+        List<Tuple> counts = summaryQuery(feed).where(feed.id.uuid.eq(feedId)).groupBy(feed.id.uuid).fetch();
+        return counts.isEmpty() ? null : counts.get(0);
+    }
+
+    /**
+     * Selects the feed id, job counts and latest job execution id
+     */
+    private JPAQuery<Tuple> summaryQuery(QJpaOpsManagerFeed feed) {
+        QJpaBatchJobExecution job = QJpaBatchJobExecution.jpaBatchJobExecution;
+        QJpaBatchJobInstance jobInstance = QJpaBatchJobInstance.jpaBatchJobInstance;
+        BooleanExpression notAbandoned = job.status.ne(BatchJobExecution.JobStatus.ABANDONED);
+        return factory.select(feed.id.uuid,
+                              job.count(),
+                              count(notAbandoned.and(job.status.eq(BatchJobExecution.JobStatus.FAILED).or(job.exitCode.eq(ExecutionConstants.ExitCode.FAILED)))),
+                              count(notAbandoned.and(job.exitCode.eq(ExecutionConstants.ExitCode.COMPLETED))),
+                              count(job.status.eq(BatchJobExecution.JobStatus.ABANDONED)),
+                              count(job.status.in(BatchJobExecution.JobStatus.STARTING, BatchJobExecution.JobStatus.STARTED)),
+                              job.jobExecutionId.max())
+            .from(job)
+            .join(job.jobInstance, jobInstance)
+            .join(jobInstance.feed, feed);
+    }
+
+    private NumberExpression<Long> count(BooleanExpression condition) {
+        return new CaseBuilder().when(condition).then(1L).otherwise(0L).sum();
+    }
+
+    private void save(JpaFeedJobSummary summary, Tuple counts) {
+        summary.setAllCount(counts != null ? value(counts.get(1, Long.class)) : 0);
+        summary.setFailedCount(counts != null ? value(counts.get(2, Long.class)) : 0);
+        summary.setCompletedCount(counts != null ? value(counts.get(3, Long.class)) : 0);
+        summary.setAbandonedCount(counts != null ? value(counts.get(4, Long.class)) : 0);
+        summary.setRunningCount(counts != null ? value(counts.get(5, Long.class)) : 0);
+        summary.setLatestJobExecutionId(counts != null ? counts.get(6, Long.class) : null);
+        repository.save(summary);
+    }
+
+    private static long value(Long count) {
+        return count != null ? count : 0;
+    }
+
+    private static long delta(boolean current, boolean previous) {
+        return (current ? 1 : 0) - (previous ? 1 : 0);
+    }
+}
@@ -0,0 +1,78 @@
+package com.thinkbiganalytics.metadata.jpa.feed;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.UUID;
+
+import javax.persistence.LockModeType;
+
+/**
+ * Spring data repository to access the {@link JpaFeedJobSummary}
+ */
+public interface FeedJobSummaryRepository extends JpaRepository<JpaFeedJobSummary, UUID> {
+
+    /**
+     * Adds to the job counts of a feed.
+     *
+     * @return the number of summaries updated, or 0 if the feed does not have a summary
+     */
+    @Modifying
+    @Query("update JpaFeedJobSummary as summary set summary.allCount = summary.allCount + :allCount, "
+           + "summary.failedCount = summary.failedCount + :failedCount, "
+           + "summary.completedCount = summary.completedCount + :completedCount, "
+           + "summary.abandonedCount = summary.abandonedCount + :abandonedCount, "
+           + "summary.runningCount = summary.runningCount + :runningCount "
+           + "where summary.feedId = :feedId")
+    int addCounts(@Param("feedId") UUID feedId, @Param("allCount") long allCount, @Param("failedCount") long failedCount,
+                  @Param("completedCount") long completedCount, @Param("abandonedCount") long abandonedCount, @Param("runningCount") long runningCount);
+
+    /**
+     * Sets the latest job execution of a feed if it is newer than the current one.
+     */
+    @Modifying
+    @Query("update JpaFeedJobSummary as summary set summary.latestJobExecutionId = :jobExecutionId "
+           + "where summary.feedId = :feedId and (summary.latestJobExecutionId is null or summary.latestJobExecutionId < :jobExecutionId)")
+    int updateLatestJobExecution(@Param("feedId") UUID feedId, @Param("jobExecutionId") Long jobExecutionId);
+
+    /**
+     * Gets the summary of a feed and locks it until the end of the transaction, so job count changes wait for the summary to be rebuilt.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select summary from JpaFeedJobSummary as summary where summary.feedId = :feedId")
+    JpaFeedJobSummary findOneForUpdate(@Param("feedId") UUID feedId);
+
+    /**
+     * Marks the summary of a feed as rebuilt unless it was rebuilt after the specified time.  The summary stays locked until the end of the
+     * transaction.
+     *
+     * @return the number of summaries updated, or 0 if the feed does not have a summary or it was rebuilt recently
+     */
+    @Modifying
+    @Query("update JpaFeedJobSummary as summary set summary.rebuiltTime = :now "
+           + "where summary.feedId = :feedId and (summary.rebuiltTime is null or summary.rebuiltTime < :rebuiltBefore)")
+    int claimRebuild(@Param("feedId") UUID feedId, @Param("now") long now, @Param("rebuiltBefore") long rebuiltBefore);
+}
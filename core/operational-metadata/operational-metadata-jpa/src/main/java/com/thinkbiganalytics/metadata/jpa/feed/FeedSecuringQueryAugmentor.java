@@ -44,6 +44,11 @@ public class FeedSecuringQueryAugmentor extends FeedAclIndexQueryAugmentor {
         return root.get(idAttribute.getName());
     }
 
+    @Override
+    protected <S, T, ID extends Serializable> Path<?> getFeedUuid(JpaEntityInformation<T, ID> entityInformation, Root<S> root) {
+        return getFeedId(entityInformation, root).get("uuid");
+    }
+
     @Override
     protected ComparablePath<UUID> getFeedId() {
         QJpaOpsManagerFeed root = QJpaOpsManagerFeed.jpaOpsManagerFeed;
@@ -0,0 +1,163 @@
+package com.thinkbiganalytics.metadata.jpa.feed;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.jobrepo.ExecutionConstants;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Job counts and the latest job execution of a feed, maintained as jobs start and finish so that the feed health views do not need to aggregate the
+ * job history.
+ */
+@Entity
+@Table(name = "FEED_JOB_SUMMARY")
+public class JpaFeedJobSummary {
+
+    @Id
+    @Column(name = "FEED_ID")
+    private UUID feedId;
+
+    @Column(name = "ALL_COUNT")
+    private long allCount;
+
+    @Column(name = "FAILED_COUNT")
+    private long failedCount;
+
+    @Column(name = "COMPLETED_COUNT")
+    private long completedCount;
+
+    @Column(name = "ABANDONED_COUNT")
+    private long abandonedCount;
+
+    @Column(name = "RUNNING_COUNT")
+    private long runningCount;
+
+    @Column(name = "LATEST_JOB_EXECUTION_ID")
+    private Long latestJobExecutionId;
+
+    /**
+     * Time in milliseconds the counts were last rebuilt by the periodic repair
+     */
+    @Column(name = "REBUILT_TIME")
+    private Long rebuiltTime;
+
+    public JpaFeedJobSummary() {
+    }
+
+    public JpaFeedJobSummary(UUID feedId) {
+        this.feedId = feedId;
+    }
+
+    /**
+     * Determines whether a job with the specified status is counted as failed.
+     */
+    public static boolean isFailed(BatchJobExecution.JobStatus status, ExecutionConstants.ExitCode exitCode) {
+        return status != BatchJobExecution.JobStatus.ABANDONED && (status == BatchJobExecution.JobStatus.FAILED || exitCode == ExecutionConstants.ExitCode.FAILED);
+    }
+
+    /**
+     * Determines whether a job with the specified status is counted as completed.
+     */
+    public static boolean isCompleted(BatchJobExecution.JobStatus status, ExecutionConstants.ExitCode exitCode) {
+        return status != BatchJobExecution.JobStatus.ABANDONED && exitCode == ExecutionConstants.ExitCode.COMPLETED;
+    }
+
+    /**
+     * Determines whether a job with the specified status is counted as abandoned.
+     */
+    public static boolean isAbandoned(BatchJobExecution.JobStatus status) {
+        return status == BatchJobExecution.JobStatus.ABANDONED;
+    }
+
+    /**
+     * Determines whether a job with the specified status is counted as running.
+     */
+    public static boolean isRunning(BatchJobExecution.JobStatus status) {
+        return status == BatchJobExecution.JobStatus.STARTING || status == BatchJobExecution.JobStatus.STARTED;
+    }
+
+    public UUID getFeedId() {
+        return feedId;
+    }
+
+    public long getAllCount() {
+        return allCount;
+    }
+
+    public void setAllCount(long allCount) {
+        this.allCount = allCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(long completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public long getAbandonedCount() {
+        return abandonedCount;
+    }
+
+    public void setAbandonedCount(long abandonedCount) {
+        this.abandonedCount = abandonedCount;
+    }
+
+    public long getRunningCount() {
+        return runningCount;
+    }
+
+    public void setRunningCount(long runningCount) {
+        this.runningCount = runningCount;
+    }
+
+    public Long getLatestJobExecutionId() {
+        return latestJobExecutionId;
+    }
+
+    public void setLatestJobExecutionId(Long latestJobExecutionId) {
+        this.latestJobExecutionId = latestJobExecutionId;
+    }
+
+    public Long getRebuiltTime() {
+        return rebuiltTime;
+    }
+
+    public void setRebuiltTime(Long rebuiltTime) {
+        this.rebuiltTime = rebuiltTime;
+    }
+}
@@ -65,6 +65,9 @@ public class OpsFeedManagerFeedProvider implements OpsManagerFeedProvider {
     @Autowired
     private JPAQueryFactory factory;
 
+    @Inject
+    private FeedJobSummaryProvider feedJobSummaryProvider;
+
     /**
      * list of delete feed listeners
      **/
@@ -109,6 +112,7 @@ public class OpsFeedManagerFeedProvider implements OpsManagerFeedProvider {
 
     public void save(List<? extends OpsManagerFeed> feeds) {
         repository.save((List<JpaOpsManagerFeed>) feeds);
+        feeds.forEach(feed -> feedJobSummaryProvider.createSummary(feed.getId()));
     }
 
     @Override
@@ -119,6 +123,7 @@ public class OpsFeedManagerFeedProvider implements OpsManagerFeedProvider {
             ((JpaOpsManagerFeed) feed).setName(systemName);
             ((JpaOpsManagerFeed) feed).setId((OpsManagerFeedId) feedManagerId);
             repository.save((JpaOpsManagerFeed) feed);
+            feedJobSummaryProvider.createSummary(feedManagerId);
         }
         return feed;
     }
@@ -130,6 +135,7 @@ public class OpsFeedManagerFeedProvider implements OpsManagerFeedProvider {
             log.info("Deleting feed {} ({})  and all job executions. ", feed.getName(), feed.getId());
             //first delete all jobs for this feed
             deleteFeedJobs(FeedNameUtil.category(feed.getName()), FeedNameUtil.feed(feed.getName()));
+            feedJobSummaryProvider.deleteSummary(feed.getId());
             repository.delete(feed.getId());
             //notify the listeners
             notifyOnFeedDeleted(feed);
@@ -213,6 +219,7 @@ public class OpsFeedManagerFeedProvider implements OpsManagerFeedProvider {
      */
     public void deleteFeedJobs(String category, String feed) {
         repository.deleteFeedJobs(category, feed);
+        rebuildFeedJobSummary(FeedNameUtil.fullName(category, feed));
     }
 
     /**
@@ -223,6 +230,18 @@ public class OpsFeedManagerFeedProvider implements OpsManagerFeedProvider {
         String exitMessage = String.format("Job manually abandoned @ %s", DateTimeUtil.getNowFormattedWithTimeZone());
 
         repository.abandonFeedJobs(feed, exitMessage);
+        rebuildFeedJobSummary(feed);
+    }
+
+    /**
+     * Rebuilds the job summaries of a feed and its check data feeds after their jobs are changed by a stored procedure
+     */
+    private void rebuildFeedJobSummary(String feedName) {
+        JpaOpsManagerFeed feed = (JpaOpsManagerFeed) repository.findByName(feedName);
+        if (feed != null) {
+            feedJobSummaryProvider.rebuildSummary(feed.getId());
+            feed.getCheckDataFeeds().forEach(checkDataFeed -> feedJobSummaryProvider.rebuildSummary(checkDataFeed.getId()));
+        }
     }
 
 
@@ -0,0 +1,175 @@
+package com.thinkbiganalytics.metadata.jpa.feed.security;
+
+/*-
+ * #%L
+ * kylo-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Index of the feeds visible to each set of principals, used by the query augmentors instead of evaluating the ACL subquery for every row.
+ *
+ * <p>The visible feed ids are loaded from the FEED_ACL_INDEX table the first time a set of principals is seen and kept until any ACL entry changes.
+ * Changes to the ACL entries are detected by {@link JpaFeedOpsAclEntry} and {@link JpaFeedOpsAccessControlProvider} calling {@link #aclChanged()}.
+ * The index is not used by a transaction which has changed ACL entries itself, because those changes are not committed yet.  Entries also expire so
+ * that changes made by other Kylo instances are eventually seen.</p>
+ */
+public class FeedAclCache {
+
+    /**
+     * Transaction resource indicating that the current transaction changed ACL entries
+     */
+    private static final Object ACL_CHANGED_KEY = new Object();
+
+    /**
+     * Incremented whenever ACL entries change, invalidating every cached entry
+     */
+    private static final AtomicLong generation = new AtomicLong();
+
+    private final Cache<PrincipalSetKey, VisibleFeeds> cache;
+
+    /**
+     * The maximum number of visible feeds for which the index is used
+     */
+    private final int maxFeedIds;
+
+    /**
+     * @param expireSeconds    the number of seconds the visible feeds for a set of principals are cached
+     * @param maxPrincipalSets the maximum number of principal sets cached
+     * @param maxFeedIds       the maximum number of visible feeds for which the index is used; queries for principals with access to more feeds use the
+     *                         ACL subquery
+     */
+    public FeedAclCache(long expireSeconds, long maxPrincipalSets, int maxFeedIds) {
+        this.cache = CacheBuilder.newBuilder().expireAfterWrite(expireSeconds, TimeUnit.SECONDS).maximumSize(maxPrincipalSets).build();
+        this.maxFeedIds = maxFeedIds;
+    }
+
+    /**
+     * Notifies the index that ACL entries have been changed.  Cached entries are invalidated immediately and again once the current transaction completes.
+     */
+    public static void aclChanged() {
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !TransactionSynchronizationManager.hasResource(ACL_CHANGED_KEY)) {
+            TransactionSynchronizationManager.bindResource(ACL_CHANGED_KEY, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ACL_CHANGED_KEY);
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets the ids of the feeds visible to the specified principals.
+     *
+     * @param entityManager the entity manager for loading the ACL entries
+     * @param principals    the names of the user and group principals
+     * @return the visible feed ids, or {@code null} if the index cannot be used and the ACL should be checked by the query
+     */
+    public Set<UUID> getVisibleFeedIds(EntityManager entityManager, Collection<String> principals) {
+        if (TransactionSynchronizationManager.hasResource(ACL_CHANGED_KEY)) {
+            return null;
+        }
+
+        PrincipalSetKey key = new PrincipalSetKey(principals);
+        long currentGeneration = generation.get();
+        VisibleFeeds visible = cache.getIfPresent(key);
+
+        if (visible == null || visible.generation != currentGeneration) {
+            visible = new VisibleFeeds(currentGeneration, loadVisibleFeedIds(entityManager, key.names));
+            cache.put(key, visible);
+        }
+
+        return visible.feedIds.size() <= maxFeedIds ? visible.feedIds : null;
+    }
+
+    /**
+     * Removes all cached entries.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private Set<UUID> loadVisibleFeedIds(EntityManager entityManager, List<String> principals) {
+        if (principals.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<UUID> feedIds = entityManager.createQuery("select distinct acl.feedId from JpaFeedOpsAclEntry as acl where acl.principalName in (:names)", UUID.class)
+            .setParameter("names", principals)
+            .getResultList();
+        return ImmutableSet.copyOf(feedIds);
+    }
+
+    /**
+     * Key for an unordered set of principal names with a precomputed hash
+     */
+    private static class PrincipalSetKey {
+
+        private final List<String> names;
+        private final int hash;
+
+        PrincipalSetKey(Collection<String> principals) {
+            this.names = Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(principals)));
+            this.hash = names.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof PrincipalSetKey && ((PrincipalSetKey) obj).hash == hash && ((PrincipalSetKey) obj).names.equals(names);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The feeds visible to a set of principals as of a generation of the ACL entries
+     */
+    private static class VisibleFeeds {
+
+        private final long generation;
+        private final Set<UUID> feedIds;
+
+        VisibleFeeds(long generation, Set<UUID> feedIds) {
+            this.generation = generation;
+            this.feedIds = feedIds;
+        }
+    }
+}
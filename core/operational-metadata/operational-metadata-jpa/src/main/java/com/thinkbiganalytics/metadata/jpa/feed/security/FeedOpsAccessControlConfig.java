@@ -23,6 +23,7 @@ package com.thinkbiganalytics.metadata.jpa.feed.security;
  * #L%
  */
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -38,4 +39,11 @@ public class FeedOpsAccessControlConfig {
     public FeedOpsAccessControlProvider feedOpsAccessControlProvider() {
         return new JpaFeedOpsAccessControlProvider();
     }
+
+    @Bean
+    public FeedAclCache feedAclCache(@Value("${kylo.ops.mgr.feed.acl.cache.expireSeconds:10}") long expireSeconds,
+                                     @Value("${kylo.ops.mgr.feed.acl.cache.maxPrincipalSets:1000}") long maxPrincipalSets,
+                                     @Value("${kylo.ops.mgr.feed.acl.cache.maxFeedIds:500}") int maxFeedIds) {
+        return new FeedAclCache(expireSeconds, maxPrincipalSets, maxFeedIds);
+    }
 }
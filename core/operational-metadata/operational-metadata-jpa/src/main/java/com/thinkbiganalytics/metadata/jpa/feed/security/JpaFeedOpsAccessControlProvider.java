@@ -109,6 +109,7 @@ public class JpaFeedOpsAccessControlProvider implements FeedOpsAccessControlProv
         Set<String> principalNames = Stream.concat(Stream.of(principal), Arrays.stream(more))
                         .map(Principal::getName)
                         .collect(Collectors.toSet());
+        FeedAclCache.aclChanged();
         this.repository.deleteForPrincipals(principalNames);
     }
 
@@ -120,6 +121,7 @@ public class JpaFeedOpsAccessControlProvider implements FeedOpsAccessControlProv
         Set<String> principalNames = principals.stream()
                         .map(Principal::getName)
                         .collect(Collectors.toSet());
+        FeedAclCache.aclChanged();
         this.repository.deleteForPrincipals(principalNames);
     }
 
@@ -128,6 +130,7 @@ public class JpaFeedOpsAccessControlProvider implements FeedOpsAccessControlProv
      */
     @Override
     public void revokeAllAccess(ID feedId) {
+        FeedAclCache.aclChanged();
         this.repository.deleteForFeed(UUID.fromString(feedId.toString()));
     }
 
@@ -34,6 +34,8 @@ import javax.persistence.EmbeddedId;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.PrePersist;
+import javax.persistence.PreRemove;
 import javax.persistence.Table;
 
 import com.thinkbiganalytics.metadata.api.feed.Feed;
@@ -73,6 +75,15 @@ public class JpaFeedOpsAclEntry {
     }
     
     
+    /**
+     * Invalidates the cached feed visibility when an entry is added or removed.
+     */
+    @PrePersist
+    @PreRemove
+    protected void onChange() {
+        FeedAclCache.aclChanged();
+    }
+
     public UUID getFeedId() {
         return this.feedId;
     }
@@ -57,8 +57,10 @@ import javax.persistence.ManyToOne;
 import javax.persistence.NamedNativeQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.PostLoad;
 import javax.persistence.Table;
 import javax.persistence.TableGenerator;
+import javax.persistence.Transient;
 import javax.persistence.Version;
 
 /**
@@ -174,11 +176,37 @@ public class JpaBatchJobExecution implements BatchJobExecution {
     @OneToOne(targetEntity = JpaNifiEventJobExecution.class, mappedBy = "jobExecution", cascade = CascadeType.ALL, fetch = FetchType.LAZY, optional = false)
     private NifiEventJobExecution nifiEventJobExecution;
 
+    /**
+     * The status included in the feed job summary, or null if this execution has not been counted yet
+     */
+    @Transient
+    private JobStatus summarizedStatus;
+
+    @Transient
+    private ExecutionConstants.ExitCode summarizedExitCode;
+
 
     public JpaBatchJobExecution() {
 
     }
 
+    /**
+     * Records that the current status is included in the feed job summary.  Executions loaded from the database are already counted.
+     */
+    @PostLoad
+    public void markSummarized() {
+        this.summarizedStatus = status;
+        this.summarizedExitCode = exitCode;
+    }
+
+    public JobStatus getSummarizedStatus() {
+        return summarizedStatus;
+    }
+
+    public ExecutionConstants.ExitCode getSummarizedExitCode() {
+        return summarizedExitCode;
+    }
+
     @Override
     public BatchJobInstance getJobInstance() {
         return jobInstance;
@@ -41,6 +41,7 @@ import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobInstance;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.JobStatusCount;
 import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiEvent;
 import com.thinkbiganalytics.metadata.api.jobrepo.step.BatchStepExecutionProvider;
+import com.thinkbiganalytics.metadata.jpa.feed.FeedJobSummaryProvider;
 import com.thinkbiganalytics.metadata.jpa.feed.JpaOpsManagerFeed;
 import com.thinkbiganalytics.metadata.jpa.feed.OpsManagerFeedRepository;
 import com.thinkbiganalytics.metadata.jpa.feed.QJpaOpsManagerFeed;
@@ -110,6 +111,9 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
     @Inject
     private BatchStepExecutionProvider batchStepExecutionProvider;
 
+    @Inject
+    private FeedJobSummaryProvider feedJobSummaryProvider;
+
 
     @Autowired
     public JpaBatchJobExecutionProvider(BatchJobExecutionRepository jobExecutionRepository, BatchJobInstanceRepository jobInstanceRepository,
@@ -391,7 +395,8 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
             save = true;
         }
         if (save) {
-            jobExecutionRepository.save(jobExecution);
+            jobExecution = jobExecutionRepository.save(jobExecution);
+            feedJobSummaryProvider.updateSummary(jobExecution);
         }
         return jobExecution;
     }
@@ -430,7 +435,9 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
      */
     @Override
     public BatchJobExecution save(BatchJobExecution jobExecution) {
-        return jobExecutionRepository.save((JpaBatchJobExecution) jobExecution);
+        JpaBatchJobExecution saved = jobExecutionRepository.save((JpaBatchJobExecution) jobExecution);
+        feedJobSummaryProvider.updateSummary(saved);
+        return saved;
     }
 
     @Override
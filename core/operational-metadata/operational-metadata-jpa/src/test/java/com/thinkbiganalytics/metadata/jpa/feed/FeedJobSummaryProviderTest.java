@@ -0,0 +1,158 @@
+package com.thinkbiganalytics.metadata.jpa.feed;
+
+/*-
+ * #%L
+ * kylo-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.jobrepo.ExecutionConstants;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecutionProvider;
+import com.thinkbiganalytics.metadata.config.OperationalMetadataConfig;
+import com.thinkbiganalytics.metadata.jpa.TestJpaConfiguration;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.BatchJobInstanceRepository;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.JpaBatchJobExecution;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.JpaBatchJobInstance;
+import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+@SuppressWarnings("SpringJavaAutowiringInspection")
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(locations = "classpath:test-application.properties")
+@SpringApplicationConfiguration(classes = {CommonsSpringConfiguration.class, OperationalMetadataConfig.class, TestJpaConfiguration.class})
+@Transactional
+public class FeedJobSummaryProviderTest {
+
+    @Autowired
+    TestOpsManagerFeedRepository feedRepository;
+
+    @Autowired
+    BatchJobInstanceRepository jobInstanceRepository;
+
+    @Autowired
+    BatchJobExecutionProvider jobExecutionProvider;
+
+    @Autowired
+    FeedJobSummaryProvider summaryProvider;
+
+    @Autowired
+    FeedJobSummaryRepository summaryRepository;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Test
+    public void updateSummary_CountsStatusChanges() throws Exception {
+        JpaOpsManagerFeed feed = feedRepository.save(new JpaOpsManagerFeed(OpsManagerFeedId.create(), "summary.feed"));
+        summaryProvider.createSummary(feed.getId());
+
+        JpaBatchJobExecution first = (JpaBatchJobExecution) jobExecutionProvider.save(newJobExecution(feed, BatchJobExecution.JobStatus.STARTED));
+        jobExecutionProvider.save(newJobExecution(feed, BatchJobExecution.JobStatus.FAILED));
+        JpaFeedJobSummary summary = findSummary(feed);
+        Assert.assertEquals(2, summary.getAllCount());
+        Assert.assertEquals(1, summary.getRunningCount());
+        Assert.assertEquals(1, summary.getFailedCount());
+
+        first = entityManager.find(JpaBatchJobExecution.class, first.getJobExecutionId());
+        first.setStatus(BatchJobExecution.JobStatus.COMPLETED);
+        first.setExitCode(ExecutionConstants.ExitCode.COMPLETED);
+        jobExecutionProvider.save(first);
+        summary = findSummary(feed);
+        Assert.assertEquals(2, summary.getAllCount());
+        Assert.assertEquals(0, summary.getRunningCount());
+        Assert.assertEquals(1, summary.getCompletedCount());
+        Assert.assertEquals(1, summary.getFailedCount());
+        Long latestJobExecutionId = summary.getLatestJobExecutionId();
+        Assert.assertTrue(latestJobExecutionId > first.getJobExecutionId());
+
+        // rebuilding from the job history gives the same summary
+        summaryProvider.rebuildSummary(feed.getId());
+        summary = findSummary(feed);
+        Assert.assertEquals(2, summary.getAllCount());
+        Assert.assertEquals(0, summary.getRunningCount());
+        Assert.assertEquals(1, summary.getCompletedCount());
+        Assert.assertEquals(1, summary.getFailedCount());
+        Assert.assertEquals(latestJobExecutionId, summary.getLatestJobExecutionId());
+    }
+
+    @Test
+    public void repairSummary_OncePerInterval() throws Exception {
+        JpaOpsManagerFeed feed = feedRepository.save(new JpaOpsManagerFeed(OpsManagerFeedId.create(), "repair.feed"));
+        jobExecutionProvider.save(newJobExecution(feed, BatchJobExecution.JobStatus.FAILED));
+        UUID feedId = feed.getId().getUuid();
+
+        // a missing summary is created and rebuilt
+        Assert.assertTrue(summaryProvider.repairSummary(feedId, 1000, 500));
+        JpaFeedJobSummary summary = findSummary(feed);
+        Assert.assertEquals(1, summary.getAllCount());
+        Assert.assertEquals(1, summary.getFailedCount());
+        Assert.assertEquals(Long.valueOf(1000), summary.getRebuiltTime());
+
+        // a summary rebuilt within the interval, such as by another node, is left alone
+        summaryRepository.addCounts(feedId, 5, 0, 0, 0, 0);
+        Assert.assertFalse(summaryProvider.repairSummary(feedId, 1200, 700));
+        Assert.assertEquals(6, findSummary(feed).getAllCount());
+
+        // and rebuilt once the interval has passed
+        Assert.assertTrue(summaryProvider.repairSummary(feedId, 3000, 2500));
+        summary = findSummary(feed);
+        Assert.assertEquals(1, summary.getAllCount());
+        Assert.assertEquals(Long.valueOf(3000), summary.getRebuiltTime());
+    }
+
+    private JpaBatchJobExecution newJobExecution(JpaOpsManagerFeed feed, BatchJobExecution.JobStatus status) {
+        JpaBatchJobInstance jobInstance = new JpaBatchJobInstance();
+        jobInstance.setJobName(feed.getName());
+        jobInstance.setJobKey(feed.getName() + System.nanoTime());
+        jobInstance.setFeed(feed);
+        jobInstance = jobInstanceRepository.save(jobInstance);
+
+        JpaBatchJobExecution jobExecution = new JpaBatchJobExecution();
+        jobExecution.setJobInstance(jobInstance);
+        jobExecution.setCreateTime(DateTime.now());
+        jobExecution.setStartTime(DateTime.now());
+        jobExecution.setStatus(status);
+        if (status == BatchJobExecution.JobStatus.FAILED) {
+            jobExecution.setExitCode(ExecutionConstants.ExitCode.FAILED);
+        }
+        return jobExecution;
+    }
+
+    /**
+     * Reads the summary from the database rather than the persistence context since the counts are updated in bulk
+     */
+    private JpaFeedJobSummary findSummary(JpaOpsManagerFeed feed) {
+        entityManager.flush();
+        entityManager.clear();
+        return summaryRepository.findOne(feed.getId().getUuid());
+    }
+}
@@ -43,8 +43,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.StreamSupport;
 
@@ -455,4 +457,37 @@ public class OpsManagerFeedRepositoryTest {
 
 
 
+    /**
+     * Committed ACL entries are read from the feed ACL cache instead of the ACL subquery
+     */
+    @WithMockUser(username = "dladmin",
+                  password = "secret",
+                  roles = {"ADMIN", "DLADMIN", "USER"})
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void findAll_CommittedAclEntriesUseCache() throws Exception {
+        JpaOpsManagerFeed feed1 = new JpaOpsManagerFeed(OpsManagerFeedId.create(), "cached-feed1-name");
+        JpaOpsManagerFeed feed2 = new JpaOpsManagerFeed(OpsManagerFeedId.create(), "cached-feed2-name");
+        repo.save(Arrays.asList(feed1, feed2));
+
+        JpaFeedOpsAclEntry acl1 = new JpaFeedOpsAclEntry(new BaseFeed.FeedId(feed1.getId().getUuid()), "ROLE_ADMIN", JpaFeedOpsAclEntry.PrincipalType.GROUP);
+        JpaFeedOpsAclEntry acl2 = new JpaFeedOpsAclEntry(new BaseFeed.FeedId(feed2.getId().getUuid()), "ROLE_NON_MATCHING", JpaFeedOpsAclEntry.PrincipalType.GROUP);
+        aclRepo.save(Arrays.asList(acl1, acl2));
+
+        try {
+            List<JpaOpsManagerFeed> feeds = repo.findAll();
+            Assert.assertTrue(feeds.stream().anyMatch(it -> it.getName().equals("cached-feed1-name")));
+            Assert.assertFalse(feeds.stream().anyMatch(it -> it.getName().equals("cached-feed2-name")));
+
+            QJpaOpsManagerFeed qFeed = QJpaOpsManagerFeed.jpaOpsManagerFeed;
+            Iterable<JpaOpsManagerFeed> filtered = repo.findAll(qFeed.name.startsWith("cached-"));
+            Assert.assertEquals(1, StreamSupport.stream(filtered.spliterator(), false).count());
+
+            aclRepo.delete(acl1);
+            Assert.assertFalse(repo.findAll().stream().anyMatch(it -> it.getName().equals("cached-feed1-name")));
+        } finally {
+            aclRepo.deleteAll();
+            repo.delete(Arrays.asList(feed1, feed2));
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package com.thinkbiganalytics.metadata.jpa.feed.security;
+
+/*-
+ * #%L
+ * kylo-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+public class FeedAclCacheTest {
+
+    private final UUID feedId = UUID.randomUUID();
+
+    @Test
+    public void testCachedUntilAclChanged() {
+        TypedQuery<UUID> query = mockQuery(feedId);
+        EntityManager entityManager = Mockito.mock(EntityManager.class);
+        Mockito.when(entityManager.createQuery(Mockito.anyString(), Mockito.eq(UUID.class))).thenReturn(query);
+
+        FeedAclCache cache = new FeedAclCache(60, 10, 10);
+        Set<UUID> visible = cache.getVisibleFeedIds(entityManager, Arrays.asList("dladmin", "ROLE_ADMIN"));
+        Assert.assertEquals(Collections.singleton(feedId), visible);
+
+        // same principals in a different order are read from the cache
+        Assert.assertEquals(visible, cache.getVisibleFeedIds(entityManager, Arrays.asList("ROLE_ADMIN", "dladmin")));
+        Mockito.verify(query, Mockito.times(1)).getResultList();
+
+        FeedAclCache.aclChanged();
+        cache.getVisibleFeedIds(entityManager, Arrays.asList("dladmin", "ROLE_ADMIN"));
+        Mockito.verify(query, Mockito.times(2)).getResultList();
+    }
+
+    @Test
+    public void testTooManyFeedsUsesQuery() {
+        TypedQuery<UUID> query = mockQuery(feedId, UUID.randomUUID());
+        EntityManager entityManager = Mockito.mock(EntityManager.class);
+        Mockito.when(entityManager.createQuery(Mockito.anyString(), Mockito.eq(UUID.class))).thenReturn(query);
+
+        FeedAclCache cache = new FeedAclCache(60, 10, 1);
+        Assert.assertNull(cache.getVisibleFeedIds(entityManager, Collections.singletonList("dladmin")));
+    }
+
+    @Test
+    public void testNotUsedAfterChangeInTransaction() {
+        EntityManager entityManager = Mockito.mock(EntityManager.class);
+        FeedAclCache cache = new FeedAclCache(60, 10, 10);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            FeedAclCache.aclChanged();
+            Assert.assertNull(cache.getVisibleFeedIds(entityManager, Collections.singletonList("dladmin")));
+            Mockito.verifyZeroInteractions(entityManager);
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(0));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        Assert.assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedQuery<UUID> mockQuery(UUID... feedIds) {
+        TypedQuery<UUID> query = Mockito.mock(TypedQuery.class);
+        Mockito.when(query.setParameter(Mockito.anyString(), Mockito.any())).thenReturn(query);
+        Mockito.when(query.getResultList()).thenReturn(Arrays.asList(feedIds));
+        return query;
+    }
+}
@@ -61,7 +61,6 @@ public class ParserHelper {
      */
     public static String extractSampleLines(InputStream is, Charset charset, int rows) throws IOException {
 
-        StringWriter sw = new StringWriter();
         Validate.notNull(is, "empty input stream");
         Validate.notNull(charset, "charset cannot be null");
         Validate.exclusiveBetween(1, MAX_ROWS, rows, "invalid number of sample rows");
@@ -69,8 +68,34 @@ public class ParserHelper {
         // Sample the file in case there are no newlines
         StringWriter swBlock = new StringWriter();
         IOUtils.copyLarge(new InputStreamReader(is, charset), swBlock, -1, MAX_CHARS);
-        try (BufferedReader br = new BufferedReader(new StringReader(swBlock.toString()))) {
-            IOUtils.closeQuietly(swBlock);
+        return extractSampleLines(swBlock.toString(), rows);
+    }
+
+    /**
+     * Extracts the given number of rows from the start of the reader without consuming them. The reader is reset to its current position so that
+     * the file can then be parsed from the same reader.
+     * This method protects memory in the case where a large file can be submitted with no delimiters.
+     */
+    public static String extractSampleLines(BufferedReader reader, int rows) throws IOException {
+
+        Validate.notNull(reader, "empty reader");
+        Validate.exclusiveBetween(1, MAX_ROWS, rows, "invalid number of sample rows");
+
+        // Sample the file in case there are no newlines
+        reader.mark(MAX_CHARS + 1);
+        char[] block = new char[MAX_CHARS];
+        int length = 0;
+        int read;
+        while (length < MAX_CHARS && (read = reader.read(block, length, MAX_CHARS - length)) != -1) {
+            length += read;
+        }
+        reader.reset();
+        return extractSampleLines(new String(block, 0, length), rows);
+    }
+
+    private static String extractSampleLines(String block, int rows) throws IOException {
+        StringWriter sw = new StringWriter();
+        try (BufferedReader br = new BufferedReader(new StringReader(block))) {
             String line = br.readLine();
             int linesRead = 0;
             for (int i = 1; i <= rows && line != null; i++) {
@@ -137,30 +162,44 @@ public class ParserHelper {
         JDBCType guess = null;
         if (values != null) {
             for (String v : values) {
-                if (!StringUtils.isEmpty(v)) {
-                    JDBCType currentPass;
-                    try {
-                        Integer.parseInt(v);
-                        currentPass = JDBCType.INTEGER;
-                    } catch (NumberFormatException e) {
-                        try {
-                            Double.parseDouble(v);
-                            currentPass = JDBCType.DOUBLE;
-                        } catch (NumberFormatException ex) {
-                            // return immediately for non-numeric case
-                            return JDBCType.VARCHAR;
-                        }
-                    }
-                    // If a double is encountered, use that type
-                    if (guess == null || currentPass == JDBCType.DOUBLE) {
-                        guess = currentPass;
-                    }
+                guess = deriveJDBCDataType(guess, v);
+                if (guess == JDBCType.VARCHAR) {
+                    // return immediately for non-numeric case
+                    return guess;
                 }
             }
         }
         return (guess == null ? JDBCType.VARCHAR : guess);
     }
 
+    /**
+     * Refines a data type derived from the previous values with another value. Allows the type of a column to be derived one value at a time
+     * while streaming a file.
+     *
+     * @param guess the type derived from the previous values, or {@code null} if there were no values
+     * @param value the next value
+     * @return the JDBC data type, or {@code null} if no value was non-empty
+     */
+    public static JDBCType deriveJDBCDataType(JDBCType guess, String value) {
+        if (guess == JDBCType.VARCHAR || StringUtils.isEmpty(value)) {
+            return guess;
+        }
+        JDBCType currentPass;
+        try {
+            Integer.parseInt(value);
+            currentPass = JDBCType.INTEGER;
+        } catch (NumberFormatException e) {
+            try {
+                Double.parseDouble(value);
+                currentPass = JDBCType.DOUBLE;
+            } catch (NumberFormatException ex) {
+                return JDBCType.VARCHAR;
+            }
+        }
+        // If a double is encountered, use that type
+        return (guess == null || currentPass == JDBCType.DOUBLE) ? currentPass : guess;
+    }
+
     /**
      * Derive data types
      *
@@ -181,19 +220,30 @@ public class ParserHelper {
                     log.warn("Unable to convert data type [?] will be converted to VARCHAR", field.getNativeDataType());
                 }
 
-                switch (type) {
-                    case HIVE:
-                        String hiveType = sqlTypeToHiveType(jdbcType);
-                        field.setDerivedDataType(hiveType);
-                        field.setDataTypeDescriptor(hiveTypeToDescriptor(hiveType));
-                        break;
-                    case RDBMS:
-                        field.setDerivedDataType(jdbcType.getName());
-                }
+                deriveDataType(type, field, jdbcType);
             }
         }
     }
 
+    /**
+     * Sets the derived data type of a field
+     *
+     * @param type     the target database platform
+     * @param field    the field
+     * @param jdbcType the JDBC data type of the field
+     */
+    public static void deriveDataType(TableSchemaType type, Field field, JDBCType jdbcType) {
+        switch (type) {
+            case HIVE:
+                String hiveType = sqlTypeToHiveType(jdbcType);
+                field.setDerivedDataType(hiveType);
+                field.setDataTypeDescriptor(hiveTypeToDescriptor(hiveType));
+                break;
+            case RDBMS:
+                field.setDerivedDataType(jdbcType.getName());
+        }
+    }
+
     /*
     Returns whether the provided field represents a complex structure such as ARRAY, STRUCT, or BINARY
     */
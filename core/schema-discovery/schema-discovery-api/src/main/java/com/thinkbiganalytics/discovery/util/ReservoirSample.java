@@ -0,0 +1,118 @@
+package com.thinkbiganalytics.discovery.util;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Keeps a uniform random sample of a fixed number of items from a stream of unknown length.
+ *
+ * <p>Every item offered has the same probability of being in the sample, so a parser streaming a file sees values from the whole file rather
+ * than only the first lines. The sample is returned in the order the items were offered.</p>
+ *
+ * @param <T> the type of item
+ */
+public class ReservoirSample<T> {
+
+    private final int size;
+    private final Random random;
+
+    /**
+     * The sampled items with the index at which they were offered
+     */
+    private final List<Entry<T>> items;
+
+    private long count;
+
+    /**
+     * @param size the maximum number of items in the sample
+     */
+    public ReservoirSample(int size) {
+        this(size, new Random());
+    }
+
+    /**
+     * @param size   the maximum number of items in the sample
+     * @param random the source of randomness
+     */
+    public ReservoirSample(int size, Random random) {
+        this.size = Math.max(size, 0);
+        this.random = random;
+        this.items = new ArrayList<>(this.size);
+    }
+
+    /**
+     * Offers the next item of the stream
+     *
+     * @param item the item
+     */
+    public void add(T item) {
+        if (items.size() < size) {
+            items.add(new Entry<>(count, item));
+        } else if (size > 0) {
+            long index = (long) (random.nextDouble() * (count + 1));
+            if (index < size) {
+                items.set((int) index, new Entry<>(count, item));
+            }
+        }
+        count++;
+    }
+
+    /**
+     * @return the number of items offered
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sampled items in the order they were offered
+     */
+    public List<T> getSample() {
+        List<Entry<T>> sorted = new ArrayList<>(items);
+        Collections.sort(sorted, new Comparator<Entry<T>>() {
+            @Override
+            public int compare(Entry<T> e1, Entry<T> e2) {
+                return Long.compare(e1.index, e2.index);
+            }
+        });
+        List<T> sample = new ArrayList<>(sorted.size());
+        for (Entry<T> entry : sorted) {
+            sample.add(entry.item);
+        }
+        return sample;
+    }
+
+    private static class Entry<T> {
+
+        private final long index;
+        private final T item;
+
+        Entry(long index, T item) {
+            this.index = index;
+            this.item = item;
+        }
+    }
+}
@@ -24,9 +24,11 @@ import org.apache.commons.lang3.StringUtils;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.sql.JDBCType;
 import java.util.Arrays;
@@ -83,6 +85,28 @@ public class ParserHelperTest {
         assertEquals("VARCHAR", ParserHelper.deriveJDBCDataType(null).getName());
     }
 
+    @Test
+    public void testExtractSampleLinesFromReader() throws Exception {
+        String text = "col1,col2\nv1,v2\nv3,v4\nv5,v6\n";
+        try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+            String value = ParserHelper.extractSampleLines(reader, 2);
+            assertEquals(2, value.split("\n").length);
+            // the reader is reset so the whole text can still be parsed
+            assertEquals("col1,col2", reader.readLine());
+        }
+    }
+
+    @Test
+    public void testDeriveJDBCDataTypeIncrementally() throws Exception {
+        JDBCType type = null;
+        for (String value : Arrays.asList("", "1", "20000", "-64.2001", "7")) {
+            type = ParserHelper.deriveJDBCDataType(type, value);
+        }
+        assertEquals(JDBCType.DOUBLE, type);
+        assertEquals(JDBCType.VARCHAR, ParserHelper.deriveJDBCDataType(type, "BOB"));
+        assertEquals(null, ParserHelper.deriveJDBCDataType(null, ""));
+    }
+
     @Test
 
     public void testSqlTypeToHiveType() throws Exception {
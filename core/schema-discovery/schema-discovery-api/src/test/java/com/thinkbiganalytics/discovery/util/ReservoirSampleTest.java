@@ -0,0 +1,58 @@
+package com.thinkbiganalytics.discovery.util;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReservoirSampleTest {
+
+    @Test
+    public void testKeepsAllItemsWhenSmallerThanSample() {
+        ReservoirSample<String> sample = new ReservoirSample<>(5);
+        sample.add("a");
+        sample.add("b");
+        assertEquals(Arrays.asList("a", "b"), sample.getSample());
+        assertEquals(2, sample.getCount());
+    }
+
+    @Test
+    public void testSampleIsBoundedAndOrdered() {
+        ReservoirSample<Integer> sample = new ReservoirSample<>(10, new Random(42));
+        for (int i = 0; i < 10000; i++) {
+            sample.add(i);
+        }
+        List<Integer> items = sample.getSample();
+        assertEquals(10, items.size());
+        assertEquals(10000, sample.getCount());
+        for (int i = 1; i < items.size(); i++) {
+            assertTrue(items.get(i - 1) < items.get(i));
+        }
+        // a uniform sample of a large stream is very unlikely to only contain the first items
+        assertTrue(items.get(items.size() - 1) >= 10);
+    }
+}
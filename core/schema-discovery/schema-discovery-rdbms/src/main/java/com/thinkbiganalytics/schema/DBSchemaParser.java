@@ -20,6 +20,8 @@ package com.thinkbiganalytics.schema;
  * #L%
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.thinkbiganalytics.discovery.model.DefaultField;
 import com.thinkbiganalytics.discovery.model.DefaultTableSchema;
 import com.thinkbiganalytics.discovery.schema.Field;
@@ -34,35 +36,100 @@ import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.sql.DataSource;
 
+/**
+ * Discovers the schemas, tables and columns of a JDBC data source.
+ *
+ * <p>Each operation borrows a single connection from the data source. Listing the tables of every schema is split across up to
+ * {@code parallelism} connections, and table descriptions may be cached for a number of seconds.</p>
+ */
 public class DBSchemaParser {
 
     private static final Logger log = LoggerFactory.getLogger(DBSchemaParser.class);
 
+    /**
+     * The default number of connections used to list the tables of every schema
+     */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
     private DataSource ds;
     private KerberosTicketConfiguration kerberosTicketConfiguration;
 
+    /**
+     * The maximum number of connections used at the same time to list tables
+     */
+    private final int parallelism;
+
+    /**
+     * Described tables keyed by the lower case {@code schema.table}, or {@code null} if descriptions are not cached
+     */
+    @Nullable
+    private final Cache<String, TableSchema> describeCache;
+
+    /**
+     * Runs the table listings, created when first needed
+     */
+    private ExecutorService executor;
+
+    /**
+     * The type of database, resolved from the first connection
+     */
+    private volatile DatabaseType databaseType;
+    private volatile boolean databaseTypeResolved;
+
     public DBSchemaParser(DataSource ds, KerberosTicketConfiguration kerberosTicketConfiguration) {
+        this(ds, kerberosTicketConfiguration, DEFAULT_PARALLELISM, 0);
+    }
+
+    /**
+     * @param ds                          the data source
+     * @param kerberosTicketConfiguration the kerberos configuration
+     * @param parallelism                 the maximum number of connections used at the same time to list tables
+     * @param describeCacheSeconds        the number of seconds a table description is cached, or {@code 0} to not cache descriptions
+     */
+    public DBSchemaParser(DataSource ds, KerberosTicketConfiguration kerberosTicketConfiguration, int parallelism, long describeCacheSeconds) {
         this.ds = ds;
         this.kerberosTicketConfiguration = kerberosTicketConfiguration;
+        this.parallelism = Math.max(parallelism, 1);
+        this.describeCache = (describeCacheSeconds > 0) ? CacheBuilder.newBuilder().expireAfterWrite(describeCacheSeconds, TimeUnit.SECONDS).build() : null;
     }
 
     public List<String> listSchemas() {
+        try (final Connection conn = getConnection()) {
+            return listSchemas(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to list schemas", e);
+        }
+    }
+
+    private List<String> listSchemas(Connection conn) throws SQLException {
         Vector<String> schemas = new Vector<>();
-        try (final Connection conn = KerberosUtil.getConnectionWithOrWithoutKerberos(ds, kerberosTicketConfiguration)) {
         try (ResultSet rs = conn.getMetaData().getSchemas()) {
             while (rs.next()) {
                 String schema = rs.getString("TABLE_SCHEM");
@@ -70,21 +137,16 @@ public class DBSchemaParser {
             }
             return schemas;
         }
-        } catch (SQLException e) {
-            throw new RuntimeException("Unable to list schemas", e);
-        }
     }
 
-    private List<String> listCatalogs() {
+    private List<String> listCatalogs(Connection conn) {
         Vector<String> catalogs = new Vector<>();
-        try (final Connection conn = KerberosUtil.getConnectionWithOrWithoutKerberos(ds, kerberosTicketConfiguration)) {
-        try ( ResultSet rs = conn.getMetaData().getCatalogs()) {
+        try (ResultSet rs = conn.getMetaData().getCatalogs()) {
             while (rs.next()) {
                 String cat = rs.getString("TABLE_CAT");
                 catalogs.add(cat);
             }
             return catalogs;
-        }
         } catch (SQLException e) {
             throw new RuntimeException("Unable to list catalogs", e);
         }
@@ -102,14 +164,7 @@ public class DBSchemaParser {
     @Nullable
     private ResultSet getTables(@Nonnull final Connection conn, @Nullable String catalog, @Nullable final String schema, @Nonnull final String tableName) {
         try {
-            DatabaseType databaseType = null;
-            try {
-                databaseType = DatabaseType.fromMetaData(conn);
-            } catch (MetaDataAccessException e) {
-                //if can't get the db type, then treat it as normal looking for TABLE and VIEW
-            }
-
-            if (DatabaseType.TERADATA.equals(databaseType)) {
+            if (DatabaseType.TERADATA.equals(getDatabaseType(conn))) {
                 return conn.getMetaData().getTables(catalog, schema, tableName, null);  //Teradata-specific
             } else {
                 return conn.getMetaData().getTables(catalog, schema, tableName, new String[]{"TABLE", "VIEW"});
@@ -120,6 +175,22 @@ public class DBSchemaParser {
         }
     }
 
+    /**
+     * Gets the type of database, or {@code null} if it cannot be determined.
+     */
+    @Nullable
+    private DatabaseType getDatabaseType(@Nonnull final Connection conn) {
+        if (!databaseTypeResolved) {
+            try {
+                databaseType = DatabaseType.fromMetaData(conn);
+            } catch (MetaDataAccessException e) {
+                //if can't get the db type, then treat it as normal looking for TABLE and VIEW
+            }
+            databaseTypeResolved = true;
+        }
+        return databaseType;
+    }
+
     private void addTableToList(final ResultSet result, final List<String> tables) throws SQLException {
         final String tableName = result.getString("TABLE_NAME");
         final String tableSchem = result.getString("TABLE_SCHEM");
@@ -127,12 +198,23 @@ public class DBSchemaParser {
         tables.add((tableSchem != null ? tableSchem : tableCat) + "." + tableName);
     }
 
+    private void addTablesToList(final Connection conn, final String catalog, final String schemaPattern, final String tableNamePattern, final List<String> tables)
+        throws SQLException {
+        try (final ResultSet result = getTables(conn, catalog, schemaPattern, tableNamePattern)) {
+            while (result != null && result.next()) {
+                addTableToList(result, tables);
+            }
+        }
+    }
+
 
     /**
      * Lists the tables in the specified schema.
      * Some databases use the catalog (i.e. MySQL), some don't (i.e. Teradata)
      * This should work for all cases.
      *
+     * <p>When neither a schema nor a table name is given, the catalogs or schemas are listed concurrently on up to {@code parallelism} connections.</p>
+     *
      * @param schema the schema name, or {@code null}
      * @return the list of table names prepended with the schema name, like: {@code <schema>.<table>}
      * @throws RuntimeException if a database access error occurs
@@ -143,67 +225,88 @@ public class DBSchemaParser {
 
         final String tableNamePattern = (tableName != null) ? tableName : "%";
 
-        final List<String> tables = new ArrayList<>();
-
-        List<String> catalogs = listCatalogs();
-        boolean hasCatalogs = catalogs != null && !catalogs.isEmpty();
-
-        if (StringUtils.isNotBlank(schema) || StringUtils.isNotBlank(tableName)) {
+        try (final Connection conn = getConnection()) {
+            List<String> catalogs = listCatalogs(conn);
+            boolean hasCatalogs = catalogs != null && !catalogs.isEmpty();
 
-            //try using the catalog
-            try (final Connection conn = KerberosUtil.getConnectionWithOrWithoutKerberos(ds, kerberosTicketConfiguration)) {
+            if (StringUtils.isNotBlank(schema) || StringUtils.isNotBlank(tableName)) {
+                //try using the catalog
+                final List<String> tables = new ArrayList<>();
                 if (hasCatalogs) {
                     for (final String catalog : catalogs) {
-                        try (final ResultSet result = getTables(conn, catalog, schemaPattern, tableNamePattern)) {
-                            while (result != null && result.next()) {
-                                addTableToList(result, tables);
-                            }
-                        }
+                        addTablesToList(conn, catalog, schemaPattern, tableNamePattern, tables);
                     }
                 } else {
-                    try (final ResultSet result = getTables(conn, null, schemaPattern, tableNamePattern)) {
-                        while (result != null && result.next()) {
-                            addTableToList(result, tables);
-                        }
-                    }
+                    addTablesToList(conn, null, schemaPattern, tableNamePattern, tables);
                 }
-
-
-            } catch (final SQLException e) {
-                throw new RuntimeException("Unable to obtain table list", e);
+                return tables;
+            } else if (hasCatalogs) {
+                return listTablesConcurrently(conn, catalogs, true, tableNamePattern);
+            } else {
+                return listTablesConcurrently(conn, listSchemas(conn), false, tableNamePattern);
             }
+        } catch (final SQLException e) {
+            throw new RuntimeException("Unable to obtain table list", e);
+        }
+    }
 
-        } else {
-
-
-            try  {
-                if (hasCatalogs) {
-                    try (final Connection conn = KerberosUtil.getConnectionWithOrWithoutKerberos(ds, kerberosTicketConfiguration)) {
-                        for (final String catalog : catalogs) {
-                            try (final ResultSet result = getTables(conn, catalog, "%", tableNamePattern)) {
-                                while (result != null && result.next()) {
-                                    addTableToList(result, tables);
-                                }
-                            }
-                        }
-                    }
-                } else {
-                    List<String> schemas =listSchemas();
-                    try (final Connection conn = KerberosUtil.getConnectionWithOrWithoutKerberos(ds, kerberosTicketConfiguration)) {
-                        for (final String dbSchema : schemas) {
-                            try (final ResultSet result = getTables(conn, null, dbSchema, tableNamePattern)) {
-                                while (result != null && result.next()) {
-                                    addTableToList(result, tables);
-                                }
-                            }
-                        }
-                    }
+    /**
+     * Lists the tables of each of the catalogs or schemas.
+     *
+     * <p>The names are split into at most {@code parallelism} slices. The first slice is listed using the current connection and each of the
+     * others using its own connection from the data source. Tables are returned in the order of the names.</p>
+     *
+     * <p>The slices run with the caller's security context, so that a data source which connects as the current user, such as an
+     * impersonating Hive data source, lists the tables as that user.</p>
+     *
+     * @param conn             the JDBC connection
+     * @param names            the catalog or schema names
+     * @param catalogs         {@code true} if the names are catalogs, or {@code false} if they are schemas
+     * @param tableNamePattern the table name pattern
+     * @return the list of table names
+     */
+    @Nonnull
+    private List<String> listTablesConcurrently(@Nonnull final Connection conn, @Nonnull final List<String> names, final boolean catalogs, @Nonnull final String tableNamePattern)
+        throws SQLException {
+        final int sliceCount = Math.min(parallelism, names.size());
+        final int sliceSize = (sliceCount > 0) ? (names.size() + sliceCount - 1) / sliceCount : 0;
+
+        final List<Future<List<String>>> futures = new ArrayList<>();
+        for (int start = sliceSize; start < names.size(); start += sliceSize) {
+            final List<String> slice = names.subList(start, Math.min(start + sliceSize, names.size()));
+            futures.add(getExecutor().submit(new DelegatingSecurityContextCallable<>(() -> {
+                try (final Connection sliceConn = getConnection()) {
+                    return listTables(sliceConn, slice, catalogs, tableNamePattern);
                 }
-            } catch (final SQLException e) {
-                throw new RuntimeException("Unable to obtain table list", e);
+            })));
+        }
+
+        final List<String> tables = new ArrayList<>();
+        try {
+            tables.addAll(listTables(conn, names.subList(0, Math.min(sliceSize, names.size())), catalogs, tableNamePattern));
+            for (final Future<List<String>> future : futures) {
+                tables.addAll(future.get());
             }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while obtaining table list", e);
+        } catch (final ExecutionException e) {
+            throw new RuntimeException("Unable to obtain table list", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
         }
+        return tables;
+    }
 
+    private List<String> listTables(final Connection conn, final List<String> names, final boolean catalogs, final String tableNamePattern) throws SQLException {
+        final List<String> tables = new ArrayList<>();
+        for (final String name : names) {
+            if (catalogs) {
+                addTablesToList(conn, name, "%", tableNamePattern, tables);
+            } else {
+                addTablesToList(conn, null, name, tableNamePattern, tables);
+            }
+        }
         return tables;
     }
 
@@ -221,30 +324,120 @@ public class DBSchemaParser {
     public TableSchema describeTable(@Nullable final String schema, @Nonnull final String table) {
         Validate.isTrue(!StringUtils.isEmpty(table), "Table expected");
 
-        final String catalog = StringUtils.isNotBlank(schema) ? listCatalogs().stream().filter(schema::equalsIgnoreCase).findFirst().orElse(null) : null;
-
-        try (final Connection conn = KerberosUtil.getConnectionWithOrWithoutKerberos(ds, kerberosTicketConfiguration)) {
-            try (final ResultSet result = getTables(conn, catalog, (catalog == null) ? schema : "%", table)) {
-                while (result != null && result.next()) {
-                    final String cat = result.getString(1);
-                    final String schem = result.getString(2);
-                    final String tableName = result.getString(3);
-                    if (table.equalsIgnoreCase(tableName) && (schema == null || schem == null || schema.equalsIgnoreCase(schem))) {
-                        final DefaultTableSchema tableSchema = new DefaultTableSchema();
-                        tableSchema.setFields(listColumns(conn, schema, tableName));
-                        tableSchema.setName(tableName);
-                        tableSchema.setSchemaName(StringUtils.isBlank(schem) ? cat : schem);
-                        return tableSchema;
-                    }
+        final TableSchema cached = getCachedTable(schema, table);
+        if (cached != null) {
+            return cached;
+        }
+
+        try (final Connection conn = getConnection()) {
+            final List<String> catalogs = StringUtils.isNotBlank(schema) ? listCatalogs(conn) : null;
+            return describeTable(conn, catalogs, schema, table);
+        } catch (final SQLException e) {
+            throw new RuntimeException("Unable to describe schema [" + schema + "] table [" + table + "]", e);
+        }
+    }
+
+    /**
+     * Gets the schemas for each of the specified tables using a single connection.
+     *
+     * @param schema the schema name
+     * @param tables the table names
+     * @return the table schemas keyed by table name, excluding tables that were not found
+     * @throws RuntimeException if a database access error occurs
+     */
+    @Nonnull
+    public Map<String, TableSchema> describeTables(@Nullable final String schema, @Nonnull final Collection<String> tables) {
+        final Map<String, TableSchema> tableSchemas = new LinkedHashMap<>();
+        final List<String> uncached = new ArrayList<>();
+        for (final String table : tables) {
+            final TableSchema cached = StringUtils.isNotEmpty(table) ? getCachedTable(schema, table) : null;
+            if (cached != null) {
+                tableSchemas.put(table, cached);
+            } else if (StringUtils.isNotEmpty(table)) {
+                uncached.add(table);
+            }
+        }
+        if (uncached.isEmpty()) {
+            return tableSchemas;
+        }
+
+        try (final Connection conn = getConnection()) {
+            final List<String> catalogs = StringUtils.isNotBlank(schema) ? listCatalogs(conn) : null;
+            for (final String table : uncached) {
+                final TableSchema tableSchema = describeTable(conn, catalogs, schema, table);
+                if (tableSchema != null) {
+                    tableSchemas.put(table, tableSchema);
                 }
             }
         } catch (final SQLException e) {
-            throw new RuntimeException("Unable to describe schema [" + schema + "] table [" + table + "]", e);
+            throw new RuntimeException("Unable to describe tables in schema [" + schema + "]", e);
         }
+        return tableSchemas;
+    }
+
+    /**
+     * Removes every table description from the cache.
+     */
+    public void invalidateCache() {
+        if (describeCache != null) {
+            describeCache.invalidateAll();
+        }
+    }
 
+    @Nullable
+    private TableSchema describeTable(@Nonnull final Connection conn, @Nullable final List<String> catalogs, @Nullable final String schema, @Nonnull final String table)
+        throws SQLException {
+        final String catalog = (catalogs != null) ? catalogs.stream().filter(schema::equalsIgnoreCase).findFirst().orElse(null) : null;
+
+        try (final ResultSet result = getTables(conn, catalog, (catalog == null) ? schema : "%", table)) {
+            while (result != null && result.next()) {
+                final String cat = result.getString(1);
+                final String schem = result.getString(2);
+                final String tableName = result.getString(3);
+                if (table.equalsIgnoreCase(tableName) && (schema == null || schem == null || schema.equalsIgnoreCase(schem))) {
+                    final DefaultTableSchema tableSchema = new DefaultTableSchema();
+                    tableSchema.setFields(listColumns(conn, schema, tableName));
+                    tableSchema.setName(tableName);
+                    tableSchema.setSchemaName(StringUtils.isBlank(schem) ? cat : schem);
+                    if (describeCache != null) {
+                        describeCache.put(getCacheKey(schema, table), tableSchema);
+                    }
+                    return tableSchema;
+                }
+            }
+        }
         return null;
     }
 
+    @Nullable
+    private TableSchema getCachedTable(@Nullable final String schema, @Nonnull final String table) {
+        return (describeCache != null) ? describeCache.getIfPresent(getCacheKey(schema, table)) : null;
+    }
+
+    private String getCacheKey(@Nullable final String schema, @Nonnull final String table) {
+        return (StringUtils.isNotBlank(schema) ? schema.toLowerCase() : "") + "." + table.toLowerCase();
+    }
+
+    private Connection getConnection() throws SQLException {
+        return KerberosUtil.getConnectionWithOrWithoutKerberos(ds, kerberosTicketConfiguration);
+    }
+
+    /**
+     * Gets the executor for listing tables. Idle threads are released so that a parser that is no longer used does not hold any threads.
+     */
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final ThreadPoolExecutor threadPool = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                final Thread thread = new Thread(runnable, "db-schema-parser-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            threadPool.allowCoreThreadTimeOut(true);
+            executor = threadPool;
+        }
+        return executor;
+    }
+
     private Set<String> listPrimaryKeys(Connection conn, String schema, String tableName) throws SQLException {
         HashSet<String> primaryKeys = new HashSet<>();
         try (ResultSet rs = conn.getMetaData().getPrimaryKeys(null, schema, tableName)) {
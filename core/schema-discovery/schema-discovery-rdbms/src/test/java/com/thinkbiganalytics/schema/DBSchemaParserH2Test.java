@@ -0,0 +1,135 @@
+package com.thinkbiganalytics.schema;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-rdbms
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.schema.TableSchema;
+import com.thinkbiganalytics.kerberos.KerberosTicketConfiguration;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DBSchemaParserH2Test {
+
+    private JdbcDataSource dataSource;
+
+    /**
+     * Keeps the in-memory database open during the test
+     */
+    private Connection connection;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:schemaparser;DB_CLOSE_DELAY=-1");
+        connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            for (String schema : Arrays.asList("SALES", "MARKETING", "HR")) {
+                statement.execute("CREATE SCHEMA " + schema);
+                statement.execute("CREATE TABLE " + schema + ".ITEMS (ID INT PRIMARY KEY, NAME VARCHAR(20))");
+            }
+            statement.execute("CREATE TABLE SALES.ORDERS (ID INT PRIMARY KEY, TOTAL DOUBLE)");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void testListTablesConcurrently() {
+        DBSchemaParser parser = new DBSchemaParser(dataSource, new KerberosTicketConfiguration(), 2, 0);
+        List<String> tables = parser.listTables(null, null);
+        assertThat(tables).contains("SALES.ITEMS", "SALES.ORDERS", "MARKETING.ITEMS", "HR.ITEMS");
+        assertThat(parser.listTables("SALES", null)).containsOnly("SALES.ITEMS", "SALES.ORDERS");
+    }
+
+    @Test
+    public void testListTablesConcurrentlyAsCurrentUser() {
+        final List<Object> principals = new Vector<>();
+        JdbcDataSource userDataSource = new JdbcDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                principals.add(authentication != null ? authentication.getPrincipal() : null);
+                return withoutCatalogs(super.getConnection());
+            }
+        };
+        userDataSource.setURL("jdbc:h2:mem:schemaparser;DB_CLOSE_DELAY=-1");
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("dladmin", "secret"));
+        try {
+            DBSchemaParser parser = new DBSchemaParser(userDataSource, new KerberosTicketConfiguration(), 2, 0);
+            assertThat(parser.listTables(null, null)).contains("SALES.ITEMS", "MARKETING.ITEMS", "HR.ITEMS");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        assertThat(principals).containsExactly("dladmin", "dladmin");
+    }
+
+    /**
+     * Hides the catalogs of the connection so that the schemas are listed in slices.
+     */
+    private static Connection withoutCatalogs(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = Mockito.spy(connection.getMetaData());
+        Mockito.doReturn(connection.getMetaData().getSchemas(null, "NO_SUCH_SCHEMA")).when(metaData).getCatalogs();
+        Connection spy = Mockito.spy(connection);
+        Mockito.doReturn(metaData).when(spy).getMetaData();
+        return spy;
+    }
+
+    @Test
+    public void testDescribeTablesIsCached() throws SQLException {
+        DBSchemaParser parser = new DBSchemaParser(dataSource, new KerberosTicketConfiguration(), 2, 60);
+        Map<String, TableSchema> tables = parser.describeTables("SALES", Arrays.asList("ITEMS", "ORDERS", "MISSING"));
+        assertThat(tables).containsOnlyKeys("ITEMS", "ORDERS");
+        assertThat(tables.get("ORDERS").getFields()).extracting("name").containsExactly("ID", "TOTAL");
+        assertThat(tables.get("ORDERS").getFields().get(0).isPrimaryKey()).isTrue();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE SALES.ORDERS");
+        }
+        assertThat(parser.describeTable("SALES", "ORDERS")).isNotNull();
+
+        parser.invalidateCache();
+        assertThat(parser.describeTable("SALES", "ORDERS")).isNull();
+    }
+}
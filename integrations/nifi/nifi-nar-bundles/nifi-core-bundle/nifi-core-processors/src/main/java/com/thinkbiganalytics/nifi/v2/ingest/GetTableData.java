@@ -24,10 +24,13 @@ import com.thinkbiganalytics.ingest.GetTableDataSupport;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProviderService;
 import com.thinkbiganalytics.nifi.processor.AbstractNiFiProcessor;
 import com.thinkbiganalytics.nifi.thrift.api.AbstractRowVisitor;
+import com.thinkbiganalytics.util.AvroSchemaCache;
 import com.thinkbiganalytics.util.ComponentAttributes;
 import com.thinkbiganalytics.util.JdbcCommon;
 
 import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.nifi.annotation.behavior.EventDriven;
@@ -69,6 +72,7 @@ import java.util.Set;
 import java.util.Vector;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.thinkbiganalytics.nifi.v2.common.CommonProperties.FEED_CATEGORY;
 import static com.thinkbiganalytics.nifi.v2.common.CommonProperties.FEED_NAME;
@@ -89,7 +93,6 @@ import static com.thinkbiganalytics.nifi.v2.ingest.IngestProperties.REL_SUCCESS;
 
 // Implements strategies outlined by https://thebibackend.wordpress.com/2011/05/18/incremental-load-part-i-overview/
 public class GetTableData extends AbstractNiFiProcessor {
-    private Schema avroSchema = null;
 
     public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ISO_DATE_TIME;
     public static final String RESULT_ROW_COUNT = "source.row.count";
@@ -196,9 +199,22 @@ public class GetTableData extends AbstractNiFiProcessor {
         .defaultValue(",")
         .expressionLanguageSupported(true)
         .build();
+    public static final PropertyDescriptor AVRO_COMPRESSION = new PropertyDescriptor.Builder()
+        .name("Avro Compression")
+        .description("Used only if the Output Type is 'AVRO'. The codec for compressing each block of records in the Avro data file. Compressed Avro data files"
+                     + " can still be split and read directly by Hive.")
+        .allowableValues(DataFileConstants.NULL_CODEC, DataFileConstants.DEFLATE_CODEC, DataFileConstants.SNAPPY_CODEC)
+        .required(true)
+        .defaultValue(DataFileConstants.NULL_CODEC)
+        .build();
     private final Set<Relationship> relationships;
     private final List<PropertyDescriptor> propDescriptors;
 
+    /**
+     * Avro schemas of the tables read
+     */
+    private final AvroSchemaCache schemaCache = new AvroSchemaCache(100);
+
     public GetTableData() {
         HashSet<Relationship> r = new HashSet<>();
         r.add(REL_SUCCESS);
@@ -222,6 +238,7 @@ public class GetTableData extends AbstractNiFiProcessor {
         pds.add(UNIT_SIZE);
         pds.add(OUTPUT_TYPE);
         pds.add(OUTPUT_DELIMITER);
+        pds.add(AVRO_COMPRESSION);
         this.propDescriptors = Collections.unmodifiableList(pds);
     }
 
@@ -290,6 +307,8 @@ public class GetTableData extends AbstractNiFiProcessor {
         final String outputType = context.getProperty(OUTPUT_TYPE).getValue();
         String outputDelimiter = context.getProperty(OUTPUT_DELIMITER).evaluateAttributeExpressions(incoming).getValue();
         final String delimiter = StringUtils.isBlank(outputDelimiter) ? "," : outputDelimiter;
+        final String avroCompression = context.getProperty(AVRO_COMPRESSION).getValue();
+        final CodecFactory codec = DataFileConstants.NULL_CODEC.equals(avroCompression) ? null : CodecFactory.fromString(avroCompression);
 
         final PropertyValue waterMarkPropName = context.getProperty(HIGH_WATER_MARK_PROP).evaluateAttributeExpressions(incoming);
 
@@ -302,6 +321,7 @@ public class GetTableData extends AbstractNiFiProcessor {
 
             FlowFile outgoing = (incoming == null ? session.create() : incoming);
             final AtomicLong nrOfRows = new AtomicLong(0L);
+            final AtomicReference<Schema> avroSchema = new AtomicReference<>();
             final LastFieldVisitor visitor = new LastFieldVisitor(dateField, null);
             final FlowFile current = outgoing;
 
@@ -326,8 +346,8 @@ public class GetTableData extends AbstractNiFiProcessor {
                         if (GetTableDataSupport.OutputType.DELIMITED.equals(GetTableDataSupport.OutputType.valueOf(outputType))) {
                             nrOfRows.set(JdbcCommon.convertToDelimitedStream(rs, out, (strategy == LoadStrategy.INCREMENTAL ? visitor : null), delimiter));
                         } else if (GetTableDataSupport.OutputType.AVRO.equals(GetTableDataSupport.OutputType.valueOf(outputType))){
-                            avroSchema = JdbcCommon.createSchema(rs);
-                            nrOfRows.set(JdbcCommon.convertToAvroStream(rs, out, (strategy == LoadStrategy.INCREMENTAL ? visitor : null), avroSchema));
+                            avroSchema.set(schemaCache.getSchema(rs));
+                            nrOfRows.set(JdbcCommon.convertToAvroStream(rs, out, (strategy == LoadStrategy.INCREMENTAL ? visitor : null), avroSchema.get(), codec));
                         } else {
                             throw new RuntimeException("Unsupported output format type [" + outputType + "]");
                         }
@@ -353,7 +373,7 @@ public class GetTableData extends AbstractNiFiProcessor {
 
             //set output format type and avro schema for feed setup, if available
             outgoing = session.putAttribute(outgoing, "db.table.output.format", outputType);
-            String avroSchemaForFeedSetup = (avroSchema != null) ? JdbcCommon.getAvroSchemaForFeedSetup(avroSchema) : EMPTY_STRING;
+            String avroSchemaForFeedSetup = (avroSchema.get() != null) ? JdbcCommon.getAvroSchemaForFeedSetup(avroSchema.get()) : EMPTY_STRING;
             outgoing = session.putAttribute(outgoing, "db.table.avro.schema", avroSchemaForFeedSetup);
 
             session.getProvenanceReporter().modifyContent(outgoing, "Retrieved " + nrOfRows.get() + " rows", stopWatch.getElapsed(TimeUnit.MILLISECONDS));
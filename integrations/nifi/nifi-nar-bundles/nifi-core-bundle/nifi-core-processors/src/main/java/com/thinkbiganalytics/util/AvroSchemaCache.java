@@ -0,0 +1,102 @@
+package com.thinkbiganalytics.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import com.google.common.base.Preconditions;
+import com.thinkbiganalytics.nifi.thrift.api.RowVisitor;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.apache.avro.Schema;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Caches the Avro schemas created by {@link JdbcCommon#createSchema(ResultSet)} by table and column set, so that repeated queries of the same
+ * table reuse the same schema.
+ */
+public class AvroSchemaCache {
+
+    /**
+     * Schemas by table name and column names and types
+     */
+    private final Cache<String, Schema> cache;
+
+    /**
+     * Constructs an {@code AvroSchemaCache} holding up to the specified number of schemas.
+     *
+     * @param maximumSize the maximum number of schemas
+     */
+    public AvroSchemaCache(final long maximumSize) {
+        cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Gets the Avro schema for the specified result set, creating it if the table and columns haven't been seen before.
+     *
+     * @param rs the SQL result set
+     * @return the Avro schema
+     * @throws SQLException if the result set metadata cannot be read
+     */
+    @Nonnull
+    public Schema getSchema(@Nonnull final ResultSet rs) throws SQLException {
+        final String key = getKey(rs.getMetaData());
+        Schema schema = cache.getIfPresent(key);
+        if (schema == null) {
+            schema = JdbcCommon.createSchema(rs);
+            cache.put(key, schema);
+        }
+        return schema;
+    }
+
+    /**
+     * Gets the number of schemas in the cache.
+     *
+     * @return the number of schemas
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Builds a key from the metadata used to create a schema.
+     */
+    @Nonnull
+    private String getKey(@Nonnull final ResultSetMetaData meta) throws SQLException {
+        final StringBuilder key = new StringBuilder();
+        try {
+            key.append(meta.getTableName(1));
+        } catch (final SQLException e) {
+            // ignored
+        }
+        final int nrOfColumns = meta.getColumnCount();
+        for (int i = 1; i <= nrOfColumns; i++) {
+            key.append('\u0000').append(meta.getColumnName(i)).append(':').append(meta.getColumnType(i));
+            if (meta.getColumnType(i) == Types.INTEGER) {
+                key.append(meta.isSigned(i) ? "s" : "u");
+            }
+        }
+        return key.toString();
+    }
+}
@@ -24,6 +24,7 @@ import com.thinkbiganalytics.nifi.thrift.api.RowVisitor;
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
 import org.apache.avro.SchemaBuilder.FieldAssembler;
+import org.apache.avro.file.CodecFactory;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumWriter;
@@ -44,7 +45,6 @@ import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.sql.Date;
 import java.sql.ResultSet;
@@ -91,6 +91,16 @@ public class JdbcCommon {
 
     public static Logger logger = LoggerFactory.getLogger(JdbcCommon.class);
 
+    /**
+     * Formats dates and timestamps written to Avro data files
+     */
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = ISODateTimeFormat.dateTime().withZoneUTC();
+
+    /**
+     * Formats times written to Avro data files
+     */
+    private static final DateTimeFormatter TIME_FORMATTER = ISODateTimeFormat.time().withZoneUTC();
+
     /**
      * Converts the specified SQL result set to a delimited text file written to the specified output stream.
      *
@@ -205,92 +215,83 @@ public class JdbcCommon {
 
 
     public static long convertToAvroStream(final ResultSet rs, final OutputStream outStream, final RowVisitor visitor, final Schema schema) throws SQLException, IOException {
+        return convertToAvroStream(rs, outStream, visitor, schema, null);
+    }
+
+    /**
+     * Converts the specified SQL result set to an Avro data file written to the specified output stream.
+     *
+     * <p>Each column is read with the getter for its SQL type, so numbers and booleans are not converted to and from objects or strings by the
+     * JDBC driver.</p>
+     *
+     * @param rs        the SQL result set
+     * @param outStream the output stream for the Avro data file
+     * @param visitor   records position of the result set
+     * @param schema    the Avro schema for the result set, as created by {@link #createSchema(ResultSet)}
+     * @param codec     the codec for compressing blocks of records, or {@code null} to not compress them
+     * @return the number of rows written
+     * @throws SQLException if a SQL error occurs while reading the result set
+     * @throws IOException  if an I/O error occurs while writing to the output stream
+     */
+    public static long convertToAvroStream(final ResultSet rs, final OutputStream outStream, final RowVisitor visitor, final Schema schema, final CodecFactory codec)
+        throws SQLException, IOException {
         int dateConversionWarning = 0;
         final GenericRecord rec = new GenericData.Record(schema);
 
         final DatumWriter<GenericRecord> datumWriter = new GenericDatumWriter<>(schema);
         try (final DataFileWriter<GenericRecord> dataFileWriter = new DataFileWriter<>(datumWriter)) {
+            if (codec != null) {
+                dataFileWriter.setCodec(codec);
+            }
             dataFileWriter.create(schema, outStream);
 
             final ResultSetMetaData meta = rs.getMetaData();
             final int nrOfColumns = meta.getColumnCount();
+            final int[] types = new int[nrOfColumns + 1];
+            final boolean[] signed = new boolean[nrOfColumns + 1];
+            final String[] names = new String[nrOfColumns + 1];
+            for (int i = 1; i <= nrOfColumns; i++) {
+                types[i] = meta.getColumnType(i);
+                signed[i] = (types[i] == INTEGER) && meta.isSigned(i);
+                names[i] = meta.getColumnName(i);
+            }
+
             long nrOfRows = 0;
             while (rs.next()) {
                 if (visitor != null) {
                     visitor.visitRow(rs);
                 }
                 for (int i = 1; i <= nrOfColumns; i++) {
-                    final int javaSqlType = meta.getColumnType(i);
-                    final Object value = rs.getObject(i);
-
-                    if (value == null) {
-                        rec.put(i - 1, null);
-
-                    } else if (javaSqlType == BINARY || javaSqlType == VARBINARY || javaSqlType == LONGVARBINARY || javaSqlType == ARRAY || javaSqlType == BLOB || javaSqlType == CLOB) {
-                        // bytes requires little bit different handling
-                        byte[] bytes = rs.getBytes(i);
-                        ByteBuffer bb = ByteBuffer.wrap(bytes);
-                        rec.put(i - 1, bb);
-
-                    } else if (value instanceof Byte) {
-                        // tinyint(1) type is returned by JDBC driver as java.sql.Types.TINYINT
-                        // But value is returned by JDBC as java.lang.Byte
-                        // (at least H2 JDBC works this way)
-                        // direct put to avro record results:
-                        // org.apache.avro.AvroRuntimeException: Unknown datum type java.lang.Byte
-                        rec.put(i - 1, ((Byte) value).intValue());
-
-                    } else if (value instanceof BigDecimal || value instanceof BigInteger) {
-                        // Avro can't handle BigDecimal and BigInteger as numbers - it will throw an AvroRuntimeException such as: "Unknown datum type: java.math.BigDecimal: 38"
-                        rec.put(i - 1, value.toString());
-
-                    } else if (value instanceof Number || value instanceof Boolean) {
-                        rec.put(i - 1, value);
-
-                    } else if (value instanceof Date) {
-                        final DateTimeFormatter formatter = ISODateTimeFormat.dateTime().withZoneUTC();
-                        rec.put(i - 1, formatter.print(new DateTime(((Date) value).getTime())));
-
-                    } else if (value instanceof Time) {
-                        final DateTimeFormatter formatter = ISODateTimeFormat.time().withZoneUTC();
-                        rec.put(i - 1, formatter.print(new DateTime(((Time) value).getTime())));
-
-                    } else if (value instanceof Timestamp) {
-                        final DateTimeFormatter formatter = ISODateTimeFormat.dateTime().withZoneUTC();
-                        rec.put(i - 1, formatter.print(new DateTime(((Timestamp) value).getTime())));
+                    final int javaSqlType = types[i];
 
-                    } else {
-                        // The different types that we support are numbers (int, long, double, float),
-                        // as well as boolean values and Strings. Since Avro doesn't provide
-                        // timestamp types, we want to convert those to Strings. So we will cast anything other
-                        // than numbers or booleans to strings by using the toString() method.
-                        rec.put(i - 1, value.toString());
-                    }
-
-                    //notify the visitor
-                    if (javaSqlType == Types.DATE || javaSqlType == Types.TIMESTAMP) {
+                    if (javaSqlType == DATE || javaSqlType == TIMESTAMP) {
                         Timestamp sqlDate = null;
+                        Object value = null;
                         try {
-                            // Extract timestamp
                             sqlDate = extractSqlDate(rs, i);
-
+                            value = (sqlDate != null) ? DATE_TIME_FORMATTER.print(sqlDate.getTime()) : null;
                         } catch (Exception e) {
+                            // Still failed, maybe exotic date type
                             if (dateConversionWarning++ < 10) {
-                                logger.warn("{} is not convertible to timestamp or date", rs.getMetaData().getColumnName(i));
+                                logger.warn("{} is not convertible to timestamp or date", names[i]);
                             }
+                            value = rs.getObject(i);
                         }
-
+                        rec.put(i - 1, (value != null) ? value.toString() : null);
                         if (visitor != null) {
-                            visitor.visitColumn(rs.getMetaData().getColumnName(i), javaSqlType, sqlDate);
+                            visitor.visitColumn(names[i], javaSqlType, sqlDate);
                         }
-                    } else if (javaSqlType == Types.TIME) {
-                        Time time = rs.getTime(i);
+                    } else if (javaSqlType == TIME) {
+                        final Time time = rs.getTime(i);
+                        rec.put(i - 1, (time != null) ? TIME_FORMATTER.print(time.getTime()) : null);
                         if (visitor != null) {
-                            visitor.visitColumn(rs.getMetaData().getColumnName(i), javaSqlType, time);
+                            visitor.visitColumn(names[i], javaSqlType, time);
                         }
                     } else {
+                        final Object value = readAvroValue(rs, i, javaSqlType, signed[i]);
+                        rec.put(i - 1, value);
                         if (visitor != null) {
-                            visitor.visitColumn(rs.getMetaData().getColumnName(i), javaSqlType, (value != null) ? value.toString() : null);
+                            visitor.visitColumn(names[i], javaSqlType, (value != null) ? value.toString() : null);
                         }
                     }
                 }
@@ -302,6 +303,78 @@ public class JdbcCommon {
         }
     }
 
+    /**
+     * Reads a column that isn't a date or time using the getter for its SQL type.
+     *
+     * @param rs          the SQL result set
+     * @param column      the column index
+     * @param javaSqlType the SQL type of the column
+     * @param signed      {@code true} if the column is a signed {@code INTEGER}
+     * @return the value matching the Avro type from {@link #createSchema(ResultSet)}, or {@code null} if the column is null
+     * @throws SQLException if the column cannot be read
+     */
+    private static Object readAvroValue(final ResultSet rs, final int column, final int javaSqlType, final boolean signed) throws SQLException {
+        final Object value;
+        switch (javaSqlType) {
+            case CHAR:
+            case LONGNVARCHAR:
+            case LONGVARCHAR:
+            case NCHAR:
+            case NVARCHAR:
+            case VARCHAR:
+                return rs.getString(column);
+
+            case BIT:
+            case BOOLEAN:
+                value = rs.getBoolean(column);
+                break;
+
+            case INTEGER:
+                value = signed ? (Object) rs.getInt(column) : (Object) rs.getLong(column);
+                break;
+
+            // tinyint(1) may be returned by JDBC as java.lang.Byte which Avro can't write
+            case SMALLINT:
+            case TINYINT:
+                value = rs.getInt(column);
+                break;
+
+            case BIGINT:
+                value = rs.getLong(column);
+                break;
+
+            case FLOAT:
+            case REAL:
+                value = rs.getFloat(column);
+                break;
+
+            case DOUBLE:
+                value = rs.getDouble(column);
+                break;
+
+            // Avro can't handle BigDecimal as numbers
+            case DECIMAL:
+            case NUMERIC:
+                final BigDecimal decimal = rs.getBigDecimal(column);
+                return (decimal != null) ? decimal.toString() : null;
+
+            case BINARY:
+            case VARBINARY:
+            case LONGVARBINARY:
+            case ARRAY:
+            case BLOB:
+            case CLOB:
+                final byte[] bytes = rs.getBytes(column);
+                return (bytes != null) ? ByteBuffer.wrap(bytes) : null;
+
+            // java.sql.RowId is interface, is seems to be database implementation specific, let's convert to String
+            default:
+                final Object object = rs.getObject(column);
+                return (object != null) ? object.toString() : null;
+        }
+        return rs.wasNull() ? null : value;
+    }
+
     public static Schema createSchema(final ResultSet rs) throws SQLException {
         final ResultSetMetaData meta = rs.getMetaData();
         final int nrOfColumns = meta.getColumnCount();
@@ -353,6 +353,10 @@ public class GetTableDataTest {
                 final int index = invocation.getArgumentAt(0, Integer.class) - 1;
                 return queue.peek()[index];
             });
+            Mockito.when(results.getInt(Mockito.anyInt())).then(invocation -> {
+                final int index = invocation.getArgumentAt(0, Integer.class) - 1;
+                return ((Number) queue.peek()[index]).intValue();
+            });
             Mockito.when(results.getString(Mockito.anyInt())).then(invocation -> {
                 final int index = invocation.getArgumentAt(0, Integer.class) - 1;
                 return queue.peek()[index].toString();
@@ -0,0 +1,66 @@
+package com.thinkbiganalytics.util;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.avro.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class AvroSchemaCacheTest {
+
+    /**
+     * Verify schemas are reused for the same table and columns.
+     */
+    @Test
+    public void getSchema() throws Exception {
+        final AvroSchemaCache cache = new AvroSchemaCache(10);
+        final Schema schema = cache.getSchema(results("orders", Types.INTEGER));
+
+        Assert.assertSame(schema, cache.getSchema(results("orders", Types.INTEGER)));
+        Assert.assertNotSame(schema, cache.getSchema(results("orders", Types.BIGINT)));
+        Assert.assertNotSame(schema, cache.getSchema(results("customers", Types.INTEGER)));
+        Assert.assertEquals(3, cache.size());
+    }
+
+    /**
+     * Mocks a result set with an id column of the specified type.
+     */
+    private ResultSet results(final String table, final int idType) throws SQLException {
+        final ResultSetMetaData metadata = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metadata.getColumnCount()).thenReturn(2);
+        Mockito.when(metadata.getColumnName(1)).thenReturn("id");
+        Mockito.when(metadata.getColumnName(2)).thenReturn("name");
+        Mockito.when(metadata.getColumnType(1)).thenReturn(idType);
+        Mockito.when(metadata.getColumnType(2)).thenReturn(Types.VARCHAR);
+        Mockito.when(metadata.getTableName(Mockito.anyInt())).thenReturn(table);
+        Mockito.when(metadata.isSigned(1)).thenReturn(true);
+
+        final ResultSet results = Mockito.mock(ResultSet.class);
+        Mockito.when(results.getMetaData()).thenReturn(metadata);
+        return results;
+    }
+}
@@ -24,6 +24,7 @@ import com.thinkbiganalytics.nifi.thrift.api.RowVisitor;
 
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.CodecFactory;
 import org.apache.avro.file.DataFileReader;
 import org.apache.avro.file.SeekableByteArrayInput;
 import org.apache.avro.file.SeekableInput;
@@ -110,6 +111,14 @@ public class JdbcCommonTest {
         Mockito.when(results.getObject(12)).thenReturn((RowId) () -> new byte[]{1});
         Mockito.when(results.getObject(13)).thenReturn(2.5f);
         Mockito.when(results.getObject(14)).thenReturn(1.61803);
+        Mockito.when(results.getString(1)).thenReturn("Fun Friday");
+        Mockito.when(results.getInt(4)).thenReturn(42);
+        Mockito.when(results.getBigDecimal(5)).thenReturn(new BigDecimal("3.14159265359"));
+        Mockito.when(results.getLong(6)).thenReturn(Long.MAX_VALUE);
+        Mockito.when(results.getBoolean(10)).thenReturn(true);
+        Mockito.when(results.getInt(11)).thenReturn(12);
+        Mockito.when(results.getFloat(13)).thenReturn(2.5f);
+        Mockito.when(results.getDouble(14)).thenReturn(1.61803);
         Mockito.when(results.getTime(8)).thenReturn(new Time(42600000L));
         Mockito.when(results.getTimestamp(7)).thenThrow(SQLException.class);
         Mockito.when(results.getTimestamp(9)).thenReturn(new Timestamp(1483703400000L));
@@ -180,6 +189,44 @@ public class JdbcCommonTest {
         Assert.assertFalse(dataReader.hasNext());
     }
 
+    /**
+     * Verify converting results to a compressed avro file with null primitive values.
+     */
+    @Test
+    public void convertToCompressedAvroStream() throws Exception {
+        // Mock result set metadata
+        final ResultSetMetaData metadata = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metadata.getColumnCount()).thenReturn(2);
+        Mockito.when(metadata.getColumnName(1)).thenReturn("int");
+        Mockito.when(metadata.getColumnName(2)).thenReturn("double");
+        Mockito.when(metadata.getColumnType(1)).thenReturn(Types.INTEGER);
+        Mockito.when(metadata.getColumnType(2)).thenReturn(Types.DOUBLE);
+        Mockito.when(metadata.isSigned(1)).thenReturn(true);
+
+        // Mock result set with a null double in the second row
+        final ResultSet results = Mockito.mock(ResultSet.class);
+        Mockito.when(results.getMetaData()).thenReturn(metadata);
+        Mockito.when(results.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+        Mockito.when(results.getInt(1)).thenReturn(1).thenReturn(2);
+        Mockito.when(results.getDouble(2)).thenReturn(0.5).thenReturn(0.0);
+        Mockito.when(results.wasNull()).thenReturn(false).thenReturn(false).thenReturn(false).thenReturn(true);
+
+        // Test converting to avro
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Schema avroSchema = JdbcCommon.createSchema(results);
+        assertEquals(2, JdbcCommon.convertToAvroStream(results, out, null, avroSchema, CodecFactory.deflateCodec(6)));
+
+        final DataFileReader<GenericRecord> dataReader = new DataFileReader<>(new SeekableByteArrayInput(out.toByteArray()), new GenericDatumReader<GenericRecord>(avroSchema));
+        assertEquals("deflate", dataReader.getMetaString("avro.codec"));
+        GenericRecord record = dataReader.next();
+        assertEquals(1, record.get(0));
+        assertEquals(0.5, record.get(1));
+        record = dataReader.next();
+        assertEquals(2, record.get(0));
+        assertEquals(null, record.get(1));
+        Assert.assertFalse(dataReader.hasNext());
+    }
+
     /**
      * Verify converting results to delimited text.
      */
@@ -0,0 +1,305 @@
+package com.thinkbiganalytics.nifi.v2.elasticsearch;
+
+/*-
+ * #%L
+ * thinkbig-nifi-elasticsearch-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.rest.RestStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends documents to elasticsearch in bulk requests bounded by the number of documents and the number of bytes.
+ *
+ * <p>Up to {@code concurrentRequests} bulk requests are in flight at the same time; adding a document blocks while all of them are busy so the
+ * documents held in memory stay bounded.  Items that are rejected because elasticsearch is busy are retried, on their own, with an exponential
+ * back off once the in-flight requests complete.  Any other item failure is reported and not retried.</p>
+ *
+ * <p>An indexer is used by a single thread for a single flow file.</p>
+ */
+public class ElasticSearchBulkIndexer {
+
+    /**
+     * The initial delay before retrying failed items
+     */
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+
+    /**
+     * The maximum number of failure messages kept
+     */
+    private static final int MAX_FAILURE_MESSAGES = 10;
+
+    private final Client client;
+    private final int maxDocuments;
+    private final long maxBytes;
+    private final int concurrentRequests;
+    private final int maxRetries;
+
+    /**
+     * Limits the number of bulk requests in flight
+     */
+    private final Semaphore permits;
+
+    /**
+     * Documents waiting to be sent in the next bulk request
+     */
+    private List<IndexRequest> pending = new ArrayList<>();
+    private long pendingBytes;
+
+    /**
+     * Items from completed bulk requests that should be sent again
+     */
+    private final Queue<IndexRequest> retries = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The messages of the items that could not be indexed
+     */
+    private final Queue<String> failureMessages = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong indexedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalBatchMillis = new AtomicLong();
+    private final AtomicLong maxBatchMillis = new AtomicLong();
+
+    /**
+     * @param client             the elasticsearch client
+     * @param maxDocuments       the maximum number of documents in a bulk request
+     * @param maxBytes           the maximum size, in bytes, of the documents in a bulk request
+     * @param concurrentRequests the maximum number of bulk requests in flight at the same time
+     * @param maxRetries         the number of times an item that was rejected by a busy cluster is retried
+     */
+    public ElasticSearchBulkIndexer(Client client, int maxDocuments, long maxBytes, int concurrentRequests, int maxRetries) {
+        this.client = client;
+        this.maxDocuments = Math.max(maxDocuments, 1);
+        this.maxBytes = Math.max(maxBytes, 1);
+        this.concurrentRequests = Math.max(concurrentRequests, 1);
+        this.maxRetries = Math.max(maxRetries, 0);
+        this.permits = new Semaphore(this.concurrentRequests);
+    }
+
+    /**
+     * Add a document to the next bulk request, sending the request if it is full
+     *
+     * @param request the index request for the document
+     */
+    public void add(IndexRequest request) throws InterruptedException {
+        pending.add(request);
+        pendingBytes += request.source().length();
+        if (pending.size() >= maxDocuments || pendingBytes >= maxBytes) {
+            flush(0);
+        }
+    }
+
+    /**
+     * Send the remaining documents, retry the failed items and wait for every bulk request to complete
+     *
+     * @return the outcome of indexing the documents
+     */
+    public Result finish() throws InterruptedException {
+        flush(0);
+        int attempt = 0;
+        while (true) {
+            awaitInFlight();
+            if (retries.isEmpty()) {
+                break;
+            }
+            attempt++;
+            Thread.sleep(RETRY_BACKOFF_MILLIS << Math.min(attempt - 1, 10));
+            IndexRequest request;
+            while ((request = retries.poll()) != null) {
+                retriedCount.incrementAndGet();
+                pending.add(request);
+                pendingBytes += request.source().length();
+                if (pending.size() >= maxDocuments || pendingBytes >= maxBytes) {
+                    flush(attempt);
+                }
+            }
+            flush(attempt);
+        }
+        return new Result(indexedCount.get(), failedCount.get(), retriedCount.get(), batchCount.get(), totalBatchMillis.get(), maxBatchMillis.get(),
+                          new ArrayList<>(failureMessages));
+    }
+
+    /**
+     * Send the pending documents as a bulk request
+     *
+     * @param attempt the number of times the documents have already been retried
+     */
+    private void flush(final int attempt) throws InterruptedException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        final List<IndexRequest> batch = pending;
+        pending = new ArrayList<>();
+        pendingBytes = 0;
+
+        final BulkRequest bulkRequest = new BulkRequest();
+        for (IndexRequest request : batch) {
+            bulkRequest.add(request);
+        }
+
+        permits.acquire();
+        final long start = System.currentTimeMillis();
+        try {
+            client.bulk(bulkRequest, new ActionListener<BulkResponse>() {
+                @Override
+                public void onResponse(BulkResponse response) {
+                    try {
+                        recordLatency(System.currentTimeMillis() - start);
+                        for (BulkItemResponse item : response.getItems()) {
+                            if (!item.isFailed()) {
+                                indexedCount.incrementAndGet();
+                            } else if (attempt < maxRetries && isRetryable(item.getFailure().getStatus())) {
+                                retries.add(batch.get(item.getItemId()));
+                            } else {
+                                recordFailure(item.getFailureMessage());
+                            }
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    try {
+                        recordLatency(System.currentTimeMillis() - start);
+                        if (attempt < maxRetries) {
+                            retries.addAll(batch);
+                        } else {
+                            for (int i = 0; i < batch.size(); i++) {
+                                recordFailure(e.toString());
+                            }
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for all the bulk requests in flight to complete
+     */
+    private void awaitInFlight() throws InterruptedException {
+        permits.acquire(concurrentRequests);
+        permits.release(concurrentRequests);
+    }
+
+    private boolean isRetryable(RestStatus status) {
+        return status == RestStatus.TOO_MANY_REQUESTS || status == RestStatus.SERVICE_UNAVAILABLE;
+    }
+
+    private void recordLatency(long millis) {
+        batchCount.incrementAndGet();
+        totalBatchMillis.addAndGet(millis);
+        maxBatchMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    private void recordFailure(String message) {
+        if (failedCount.incrementAndGet() <= MAX_FAILURE_MESSAGES) {
+            failureMessages.add(message);
+        }
+    }
+
+    /**
+     * The outcome of a bulk index
+     */
+    public static class Result {
+
+        private final long indexedCount;
+        private final long failedCount;
+        private final long retriedCount;
+        private final long batchCount;
+        private final long totalBatchMillis;
+        private final long maxBatchMillis;
+        private final List<String> failureMessages;
+
+        Result(long indexedCount, long failedCount, long retriedCount, long batchCount, long totalBatchMillis, long maxBatchMillis, List<String> failureMessages) {
+            this.indexedCount = indexedCount;
+            this.failedCount = failedCount;
+            this.retriedCount = retriedCount;
+            this.batchCount = batchCount;
+            this.totalBatchMillis = totalBatchMillis;
+            this.maxBatchMillis = maxBatchMillis;
+            this.failureMessages = failureMessages;
+        }
+
+        public boolean hasFailures() {
+            return failedCount > 0;
+        }
+
+        public long getIndexedCount() {
+            return indexedCount;
+        }
+
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        /**
+         * @return the number of times an item was sent again after being rejected
+         */
+        public long getRetriedCount() {
+            return retriedCount;
+        }
+
+        public long getBatchCount() {
+            return batchCount;
+        }
+
+        public long getMaxBatchMillis() {
+            return maxBatchMillis;
+        }
+
+        public long getAverageBatchMillis() {
+            return batchCount > 0 ? totalBatchMillis / batchCount : 0;
+        }
+
+        /**
+         * @return the messages of the first items that failed
+         */
+        public List<String> getFailureMessages() {
+            return failureMessages;
+        }
+
+        @Override
+        public String toString() {
+            return "indexed=" + indexedCount + ", failed=" + failedCount + ", retried=" + retriedCount + ", batches=" + batchCount
+                   + ", avgBatchMillis=" + getAverageBatchMillis() + ", maxBatchMillis=" + maxBatchMillis;
+        }
+    }
+}
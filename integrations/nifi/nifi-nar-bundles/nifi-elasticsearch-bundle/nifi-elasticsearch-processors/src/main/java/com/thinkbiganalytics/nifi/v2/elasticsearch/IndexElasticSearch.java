@@ -22,23 +22,25 @@ package com.thinkbiganalytics.nifi.v2.elasticsearch;
 
 import com.thinkbiganalytics.nifi.processor.AbstractNiFiProcessor;
 
-import org.apache.commons.io.IOUtils;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
 import org.apache.nifi.annotation.behavior.InputRequirement;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnStopped;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.processor.ProcessContext;
 import org.apache.nifi.processor.ProcessSession;
+import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.processor.io.InputStreamCallback;
 import org.apache.nifi.processor.util.StandardValidators;
-import org.codehaus.jettison.json.JSONArray;
-import org.codehaus.jettison.json.JSONObject;
-import org.elasticsearch.action.bulk.BulkRequestBuilder;
-import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.client.transport.TransportClient;
 import org.elasticsearch.common.settings.Settings;
@@ -46,14 +48,20 @@ import org.elasticsearch.common.transport.InetSocketTransportAddress;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.InetAddress;
-import java.nio.charset.Charset;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This processor indexes json data in elasticsearch
@@ -129,11 +137,66 @@ public class IndexElasticSearch extends AbstractNiFiProcessor {
      */
     public static final PropertyDescriptor ID_FIELD = new PropertyDescriptor.Builder()
         .name("IdField")
-        .description("Id that you want to use for indexing into elasticsearch. If it is empty then a UUID will be generated")
+        .description("Id that you want to use for indexing into elasticsearch. If it is empty, or a record has no value for the field, then a UUID will be generated")
         .required(false)
         .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
         .expressionLanguageSupported(true)
         .build();
+
+    /**
+     * Property for the maximum number of documents in a bulk request
+     */
+    public static final PropertyDescriptor BATCH_SIZE = new PropertyDescriptor.Builder()
+        .name("Batch Size")
+        .description("The maximum number of documents sent to elasticsearch in a single bulk request")
+        .required(true)
+        .defaultValue("1000")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .build();
+
+    /**
+     * Property for the maximum size of a bulk request
+     */
+    public static final PropertyDescriptor MAX_BATCH_BYTES = new PropertyDescriptor.Builder()
+        .name("Max Batch Size")
+        .description("The maximum size of the documents sent to elasticsearch in a single bulk request")
+        .required(true)
+        .defaultValue("5 MB")
+        .addValidator(StandardValidators.DATA_SIZE_VALIDATOR)
+        .build();
+
+    /**
+     * Property for the number of bulk requests sent at the same time
+     */
+    public static final PropertyDescriptor CONCURRENT_REQUESTS = new PropertyDescriptor.Builder()
+        .name("Concurrent Requests")
+        .description("The maximum number of bulk requests sent to elasticsearch at the same time for a flow file")
+        .required(true)
+        .defaultValue("2")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .build();
+
+    /**
+     * Property for the number of times rejected documents are retried
+     */
+    public static final PropertyDescriptor MAX_RETRIES = new PropertyDescriptor.Builder()
+        .name("Max Retries")
+        .description("The number of times documents rejected by a busy elasticsearch cluster are sent again. Only the rejected documents are retried.")
+        .required(true)
+        .defaultValue("3")
+        .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+        .build();
+
+    /**
+     * The port of the elasticsearch transport
+     */
+    private static final int TRANSPORT_PORT = 9300;
+
+    /**
+     * Clients shared by every flow file, keyed by cluster name and host name
+     */
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+
     private final Set<Relationship> relationships;
     private final List<PropertyDescriptor> propDescriptors;
 
@@ -152,6 +215,10 @@ public class IndexElasticSearch extends AbstractNiFiProcessor {
         pds.add(HOST_NAME);
         pds.add(CLUSTER_NAME);
         pds.add(ID_FIELD);
+        pds.add(BATCH_SIZE);
+        pds.add(MAX_BATCH_BYTES);
+        pds.add(CONCURRENT_REQUESTS);
+        pds.add(MAX_RETRIES);
         propDescriptors = Collections.unmodifiableList(pds);
     }
 
@@ -180,26 +247,45 @@ public class IndexElasticSearch extends AbstractNiFiProcessor {
             String clusterName = context.getProperty(CLUSTER_NAME).evaluateAttributeExpressions(flowFile).getValue();
             String idField = context.getProperty(ID_FIELD).evaluateAttributeExpressions(flowFile).getValue();
 
-            final StringBuffer sb = new StringBuffer();
+            final ElasticSearchBulkIndexer indexer = new ElasticSearchBulkIndexer(getClient(clusterName, hostName),
+                                                                                context.getProperty(BATCH_SIZE).asInteger(),
+                                                                                context.getProperty(MAX_BATCH_BYTES).asDataSize(DataUnit.B).longValue(),
+                                                                                context.getProperty(CONCURRENT_REQUESTS).asInteger(),
+                                                                                context.getProperty(MAX_RETRIES).asInteger());
+            final AtomicLong missingIds = new AtomicLong();
             session.read(flowFile, new InputStreamCallback() {
 
                 @Override
                 public void process(InputStream in) throws IOException {
-                    sb.append(IOUtils.toString(in, Charset.defaultCharset()));
+                    try {
+                        missingIds.set(sendToElasticSearch(in, indexer, indexName, type, idField));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while indexing into elasticsearch", e);
+                    }
                 }
 
             });
+            final ElasticSearchBulkIndexer.Result result = indexer.finish();
+            logger.debug("Indexed {} into elasticsearch: {}", new Object[]{flowFile, result});
+            if (missingIds.get() > 0) {
+                logger.warn("{} records in {} have no value for the id field {} and were indexed with a generated id", new Object[]{missingIds.get(), flowFile, idField});
+            }
 
-            logger.debug("The json that was received is: " + sb.toString());
-
-            boolean success = sendToElasticSearch(sb.toString(), hostName, indexName, type, clusterName, idField);
+            Map<String, String> attributes = new HashMap<>();
+            attributes.put("elasticsearch.indexed.count", String.valueOf(result.getIndexedCount()));
+            attributes.put("elasticsearch.failed.count", String.valueOf(result.getFailedCount()));
+            attributes.put("elasticsearch.batch.count", String.valueOf(result.getBatchCount()));
+            attributes.put("elasticsearch.batch.avg.millis", String.valueOf(result.getAverageBatchMillis()));
+            attributes.put("elasticsearch.batch.max.millis", String.valueOf(result.getMaxBatchMillis()));
+            flowFile = session.putAllAttributes(flowFile, attributes);
 
              /* Wait for job completion */
-            if (!success) {
-                logger.info("*** Completed with failed status ");
+            if (result.hasFailures()) {
+                logger.error("Error occurred while batch updating. {} documents failed: {}", new Object[]{result.getFailedCount(), result.getFailureMessages()});
                 session.transfer(flowFile, REL_FAILURE);
             } else {
-                logger.info("*** Completed with status ");
+                logger.info("*** Completed with status " + result);
                 session.transfer(flowFile, REL_SUCCESS);
             }
         } catch (final Exception e) {
@@ -209,34 +295,66 @@ public class IndexElasticSearch extends AbstractNiFiProcessor {
 
     }
 
-    private boolean sendToElasticSearch(String json, String hostName, String index, String type, String clusterName, String idField) throws Exception {
-        final ComponentLog logger = getLog();
-        Settings settings = Settings.settingsBuilder()
-            .put("cluster.name", clusterName).build();
-        Client client = TransportClient.builder().settings(settings).build()
-            .addTransportAddress(new InetSocketTransportAddress(InetAddress.getByName(hostName), 9300));
+    /**
+     * Close the elasticsearch clients when the processor is stopped
+     */
+    @OnStopped
+    public void closeClients() {
+        for (Client client : clients.values()) {
+            try {
+                client.close();
+            } catch (Exception e) {
+                getLog().warn("Unable to close the elasticsearch client", e);
+            }
+        }
+        clients.clear();
+    }
 
-        JSONArray array = new JSONArray(json);
-        BulkRequestBuilder bulkRequest = client.prepareBulk();
+    /**
+     * Get the client for the cluster, creating it the first time it is used
+     *
+     * @param clusterName the elasticsearch cluster
+     * @param hostName    the elasticsearch host
+     * @return the client
+     */
+    private Client getClient(String clusterName, String hostName) {
+        return clients.computeIfAbsent(clusterName + "@" + hostName, key -> {
+            try {
+                Settings settings = Settings.settingsBuilder()
+                    .put("cluster.name", clusterName).build();
+                return TransportClient.builder().settings(settings).build()
+                    .addTransportAddress(new InetSocketTransportAddress(InetAddress.getByName(hostName), TRANSPORT_PORT));
+            } catch (UnknownHostException e) {
+                throw new ProcessException("Unknown elasticsearch host: " + hostName, e);
+            }
+        });
+    }
 
-        for (int i = 0; i < array.length(); i++) {
-            JSONObject jsonObj = array.getJSONObject(i);
+    /**
+     * Read the json array one object at a time and add each object to the bulk indexer
+     *
+     * @return the number of objects without a value for the id field, which are indexed with a generated id
+     */
+    private long sendToElasticSearch(InputStream in, ElasticSearchBulkIndexer indexer, String index, String type, String idField) throws IOException, InterruptedException {
+        JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        JsonParser parser = new JsonParser();
+        long missingIds = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JsonObject jsonObj = parser.parse(reader).getAsJsonObject();
             String id;
-            if (idField != null && idField.length() > 0) {
-                id = jsonObj.getString(idField);
+            if (idField != null && idField.length() > 0 && jsonObj.has(idField) && !jsonObj.get(idField).isJsonNull()) {
+                id = jsonObj.get(idField).getAsString();
             } else {
+                if (idField != null && idField.length() > 0) {
+                    missingIds++;
+                }
                 id = UUID.randomUUID().toString();
             }
-            jsonObj.put("post_date", String.valueOf(System.currentTimeMillis()));
-            bulkRequest.add(client.prepareIndex(index, type, id)
-                                .setSource(jsonObj.toString())
-            );
-        }
-        BulkResponse bulkResponse = bulkRequest.get();
-        if (bulkResponse.hasFailures()) {
-            logger.error("Error occurred while batch updating" + bulkResponse.buildFailureMessage());
-            return false;
+            jsonObj.addProperty("post_date", String.valueOf(System.currentTimeMillis()));
+            indexer.add(new IndexRequest(index, type, id).source(jsonObj.toString()));
         }
-        return true;
+        reader.endArray();
+        return missingIds;
     }
 }
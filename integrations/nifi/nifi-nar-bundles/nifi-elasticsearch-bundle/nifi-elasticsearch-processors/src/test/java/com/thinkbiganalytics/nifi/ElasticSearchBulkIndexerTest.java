@@ -0,0 +1,121 @@
+package com.thinkbiganalytics.nifi;
+
+/*-
+ * #%L
+ * thinkbig-nifi-elasticsearch-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.v2.elasticsearch.ElasticSearchBulkIndexer;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.mapper.MapperParsingException;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ElasticSearchBulkIndexerTest {
+
+    @Test
+    public void testBatchesBoundedByDocumentCount() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        Client client = mockClient(request -> {
+            batchSizes.add(request.numberOfActions());
+            return null;
+        });
+
+        ElasticSearchBulkIndexer indexer = new ElasticSearchBulkIndexer(client, 2, 1024 * 1024, 2, 3);
+        for (int i = 0; i < 5; i++) {
+            indexer.add(document(i));
+        }
+        ElasticSearchBulkIndexer.Result result = indexer.finish();
+
+        assertEquals(5, result.getIndexedCount());
+        assertEquals(3, result.getBatchCount());
+        assertEquals(2, batchSizes.get(0).intValue());
+        assertEquals(1, batchSizes.get(2).intValue());
+        assertFalse(result.hasFailures());
+    }
+
+    @Test
+    public void testOnlyRejectedItemsAreRetried() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        Client client = mockClient(request -> {
+            batchSizes.add(request.numberOfActions());
+            // reject the second document of the first request and fail to parse the third
+            return batchSizes.size() == 1 ? new int[]{1, 2} : null;
+        });
+
+        ElasticSearchBulkIndexer indexer = new ElasticSearchBulkIndexer(client, 10, 1024 * 1024, 1, 3);
+        for (int i = 0; i < 3; i++) {
+            indexer.add(document(i));
+        }
+        ElasticSearchBulkIndexer.Result result = indexer.finish();
+
+        assertEquals(2, result.getIndexedCount());
+        assertEquals(1, result.getFailedCount());
+        assertEquals(1, result.getRetriedCount());
+        assertEquals(2, batchSizes.size());
+        assertEquals(1, batchSizes.get(1).intValue());
+        assertTrue(result.hasFailures());
+    }
+
+    private IndexRequest document(int id) {
+        return new IndexRequest("index", "type", String.valueOf(id)).source("{\"id\":" + id + "}");
+    }
+
+    /**
+     * Mock a client that responds to each bulk request.  The first failed item id is rejected because the cluster is busy and the second fails to parse.
+     */
+    @SuppressWarnings("unchecked")
+    private Client mockClient(Function<BulkRequest, int[]> failedItems) {
+        Client client = Mockito.mock(Client.class);
+        Mockito.doAnswer(invocation -> {
+            BulkRequest request = (BulkRequest) invocation.getArguments()[0];
+            ActionListener<BulkResponse> listener = (ActionListener<BulkResponse>) invocation.getArguments()[1];
+            int[] failed = failedItems.apply(request);
+            BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+            for (int i = 0; i < items.length; i++) {
+                IndexRequest indexRequest = (IndexRequest) request.requests().get(i);
+                if (failed != null && failed[0] == i) {
+                    items[i] = new BulkItemResponse(i, "index", new BulkItemResponse.Failure("index", "type", indexRequest.id(), new EsRejectedExecutionException("busy")));
+                } else if (failed != null && failed.length > 1 && failed[1] == i) {
+                    items[i] = new BulkItemResponse(i, "index", new BulkItemResponse.Failure("index", "type", indexRequest.id(), new MapperParsingException("bad document")));
+                } else {
+                    items[i] = new BulkItemResponse(i, "index", new IndexResponse("index", "type", indexRequest.id(), 1, true));
+                }
+            }
+            listener.onResponse(new BulkResponse(items, 5));
+            return null;
+        }).when(client).bulk(Mockito.any(BulkRequest.class), Mockito.any(ActionListener.class));
+        return client;
+    }
+}
@@ -21,18 +21,24 @@ package com.thinkbiganalytics.nifi.v2.hdfs;
  */
 
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 
 import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.nifi.annotation.behavior.EventDriven;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnScheduled;
+import org.apache.nifi.annotation.lifecycle.OnStopped;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.processor.ProcessContext;
@@ -43,10 +49,17 @@ import org.apache.nifi.processor.util.StandardValidators;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.annotation.Nonnull;
 
@@ -115,11 +128,45 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
         .expressionLanguageSupported(true)
         .build();
 
+    /**
+     * the number of checksums computed at the same time for a flow file
+     */
+    public static final PropertyDescriptor CONCURRENT_CHECKSUMS = new PropertyDescriptor.Builder()
+        .name("concurrentChecksums")
+        .description("The maximum number of file checksums computed in parallel for a flow file. Checksums are verified as they complete " +
+                     "and no more are started once one doesn't match. The default of 1 computes them one at a time in the order given.")
+        .required(true)
+        .defaultValue("1")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .build();
+
+    /**
+     * the number of computed checksums remembered so that unchanged files are not read again
+     */
+    public static final PropertyDescriptor CHECKSUM_CACHE_SIZE = new PropertyDescriptor.Builder()
+        .name("checksumCacheSize")
+        .description("The maximum number of computed checksums kept by this processor. A file whose length and modification time haven't " +
+                     "changed since its checksum was computed is not read again, which makes retries and re-runs cheap. Set to 0 to disable.")
+        .required(true)
+        .defaultValue("10000")
+        .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+        .build();
+
     /**
      * Output paths to other NiFi processors
      */
     private static final Set<Relationship> relationships = ImmutableSet.of(REL_FAILURE, REL_SUCCESS);
 
+    /**
+     * Computes the checksums, shared by all the flow files
+     */
+    private volatile ExecutorService executor;
+
+    /**
+     * Checksums already computed by file path, or {@code null} if disabled
+     */
+    private volatile Cache<Path, CachedChecksum> checksumCache;
+
     /**
      * methods to get the properties list
      *
@@ -128,7 +175,7 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
     @Override
     protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
         return ImmutableList.<PropertyDescriptor>builder().addAll(super.getSupportedPropertyDescriptors()).
-            add(DIRECTORY).add(FAIL_IF_INCORRECT_CHECKSUM).add(FILES).build();
+            add(DIRECTORY).add(FAIL_IF_INCORRECT_CHECKSUM).add(FILES).add(CONCURRENT_CHECKSUMS).add(CHECKSUM_CACHE_SIZE).build();
     }
 
     /**
@@ -141,6 +188,31 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
         return relationships;
     }
 
+    /**
+     * Creates the threads computing the checksums and the checksum cache
+     *
+     * @param context the process context
+     */
+    @OnScheduled
+    public void onScheduled(@Nonnull final ProcessContext context) {
+        final int concurrency = context.getProperty(CONCURRENT_CHECKSUMS).asInteger();
+        executor = Executors.newFixedThreadPool(concurrency, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("hdfs-checksum-%d").build());
+
+        final int cacheSize = context.getProperty(CHECKSUM_CACHE_SIZE).asInteger();
+        checksumCache = (cacheSize > 0) ? CacheBuilder.newBuilder().maximumSize(cacheSize).<Path, CachedChecksum>build() : null;
+    }
+
+    /**
+     * Stops the threads computing the checksums
+     */
+    @OnStopped
+    public void onStopped() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
     @Override
     public void onTrigger(@Nonnull final ProcessContext context, @Nonnull final ProcessSession session) throws ProcessException {
         FlowFile flowFile = session.get();
@@ -165,24 +237,13 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
                 filesList = new File[0];
             }
 
-            for (File f : filesList) {
-                String name = f.getName();
-                Path filePath;
-                if (absolutePath == null || absolutePath.isEmpty()) {
-                    filePath = new Path(name);
-                } else {
-                    filePath = new Path(absolutePath, name);
-                }
-                FileChecksum computed_checksum = fs.getFileChecksum(filePath);
-                String b64_checksum = Base64.getEncoder().encodeToString(computed_checksum.getBytes());
-                f.setComputedChecksum(new Checksum(b64_checksum.length(), b64_checksum,
-                                                   computed_checksum.getAlgorithmName()));
-                if (failIfWrongChecksum && !Objects.equals(b64_checksum, f.getChecksum().getValue())) {
-                    getLog().error("Checksums don't match! File: " + filePath.toString() + " checksum provided: " +
-                                   f.getChecksum().getValue() + " checksum computed: " + b64_checksum);
-                    session.transfer(flowFile, REL_FAILURE);
-                    return;
-                }
+            final int concurrency = context.getProperty(CONCURRENT_CHECKSUMS).asInteger();
+            final File mismatch = verifyChecksums(fs, absolutePath, filesList, concurrency, failIfWrongChecksum);
+            if (mismatch != null) {
+                getLog().error("Checksums don't match! File: " + mismatch.getName() + " checksum provided: " +
+                               mismatch.getChecksum().getValue() + " checksum computed: " + mismatch.getComputedChecksum().getValue());
+                session.transfer(flowFile, REL_FAILURE);
+                return;
             }
         } catch (JsonSyntaxException e) {
             getLog().error("Files list attribute does not contain a proper JSON array");
@@ -199,6 +260,83 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
         session.transfer(flowFile, REL_SUCCESS);
     }
 
+    /**
+     * Computes the checksums of the files with up to {@code concurrency} files in flight, checking each one as soon as it completes.
+     *
+     * @param fs                  the file system
+     * @param absolutePath        the directory of the files, or {@code null} if the names are absolute
+     * @param files               the files to check, updated with their computed checksums
+     * @param concurrency         the maximum number of checksums computed at the same time
+     * @param failIfWrongChecksum {@code true} to stop at the first file whose checksum doesn't match
+     * @return the first file whose checksum doesn't match, or {@code null} if all match or mismatches are ignored
+     * @throws IOException if a checksum cannot be computed
+     */
+    private File verifyChecksums(@Nonnull final FileSystem fs, final String absolutePath, @Nonnull final File[] files, final int concurrency,
+                                 final boolean failIfWrongChecksum) throws IOException {
+        final CompletionService<File> completionService = new ExecutorCompletionService<>(executor);
+        final List<Future<File>> futures = new ArrayList<>(files.length);
+        int submitted = 0;
+        int inFlight = 0;
+        try {
+            while (submitted < files.length || inFlight > 0) {
+                while (submitted < files.length && inFlight < concurrency) {
+                    final File file = files[submitted++];
+                    final Path filePath = (absolutePath == null || absolutePath.isEmpty()) ? new Path(file.getName()) : new Path(absolutePath, file.getName());
+                    futures.add(completionService.submit(() -> {
+                        file.setComputedChecksum(computeChecksum(fs, filePath));
+                        return file;
+                    }));
+                    inFlight++;
+                }
+
+                final File completed = completionService.take().get();
+                inFlight--;
+                if (failIfWrongChecksum && !Objects.equals(completed.getComputedChecksum().getValue(), completed.getChecksum().getValue())) {
+                    return completed;
+                }
+                getLog().debug("Computed checksum of {}", new Object[]{completed.getName()});
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessException("Interrupted while computing checksums", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new ProcessException(e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Computes the checksum of a file, or returns the cached checksum if the file hasn't changed since it was computed.
+     *
+     * @param fs       the file system
+     * @param filePath the path to the file
+     * @return the checksum
+     * @throws IOException if the checksum cannot be computed
+     */
+    private Checksum computeChecksum(@Nonnull final FileSystem fs, @Nonnull final Path filePath) throws IOException {
+        final Cache<Path, CachedChecksum> cache = checksumCache;
+        final FileStatus status = (cache != null) ? fs.getFileStatus(filePath) : null;
+        if (status != null) {
+            final CachedChecksum cached = cache.getIfPresent(filePath);
+            if (cached != null && cached.length == status.getLen() && cached.modificationTime == status.getModificationTime()) {
+                return cached.checksum;
+            }
+        }
+
+        final FileChecksum computed_checksum = fs.getFileChecksum(filePath);
+        final String b64_checksum = Base64.getEncoder().encodeToString(computed_checksum.getBytes());
+        final Checksum checksum = new Checksum(b64_checksum.length(), b64_checksum, computed_checksum.getAlgorithmName());
+        if (status != null) {
+            cache.put(filePath, new CachedChecksum(status.getLen(), status.getModificationTime(), checksum));
+        }
+        return checksum;
+    }
+
     class File {
 
         private String name;
@@ -275,4 +413,20 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
             this.algorithm = algorithm;
         }
     }
+
+    /**
+     * A checksum computed for a version of a file
+     */
+    private static class CachedChecksum {
+
+        private final long length;
+        private final long modificationTime;
+        private final Checksum checksum;
+
+        CachedChecksum(long length, long modificationTime, Checksum checksum) {
+            this.length = length;
+            this.modificationTime = modificationTime;
+            this.checksum = checksum;
+        }
+    }
 }
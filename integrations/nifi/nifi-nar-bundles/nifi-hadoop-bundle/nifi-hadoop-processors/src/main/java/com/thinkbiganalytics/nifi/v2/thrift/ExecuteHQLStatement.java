@@ -21,12 +21,15 @@ package com.thinkbiganalytics.nifi.v2.thrift;
  */
 
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.thinkbiganalytics.nifi.processor.AbstractNiFiProcessor;
 
 import org.apache.nifi.annotation.behavior.EventDriven;
 import org.apache.nifi.annotation.behavior.InputRequirement;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnScheduled;
+import org.apache.nifi.annotation.lifecycle.OnStopped;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.logging.ComponentLog;
@@ -44,13 +47,21 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nonnull;
+
 
 @EventDriven
 @InputRequirement(InputRequirement.Requirement.INPUT_REQUIRED)
 @Tags({"hive", "ddl", "dml", "jdbc", "thinkbig"})
-@CapabilityDescription("Execute provided HIVE or Spark statement. This can be any HQL DML or DDL statement that results in no results."
+@CapabilityDescription("Execute provided HIVE or Spark statement. This can be any HQL DML or DDL statement that results in no results. In script mode"
+                       + " the statements of a script that don't use the same tables are executed in parallel on separate connections."
 )
 public class ExecuteHQLStatement extends AbstractNiFiProcessor {
 
@@ -76,9 +87,34 @@ public class ExecuteHQLStatement extends AbstractNiFiProcessor {
         .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
         .expressionLanguageSupported(true)
         .build();
+    public static final String MODE_SINGLE_STATEMENT = "Single Statement";
+    public static final String MODE_SCRIPT = "Script";
+    public static final PropertyDescriptor EXECUTION_MODE = new PropertyDescriptor.Builder()
+        .name("Execution Mode")
+        .description("In Single Statement mode the statement is executed as is. In Script mode the statement is a script of statements separated by"
+                     + " semicolons. Statements in a script are executed after the earlier statements that use the same tables, and statements that"
+                     + " aren't recognized are executed after all earlier statements. SET, USE and ADD JAR statements are applied to every statement"
+                     + " after them.")
+        .required(true)
+        .allowableValues(MODE_SINGLE_STATEMENT, MODE_SCRIPT)
+        .defaultValue(MODE_SINGLE_STATEMENT)
+        .build();
+    public static final PropertyDescriptor MAX_CONCURRENT_STATEMENTS = new PropertyDescriptor.Builder()
+        .name("Max Concurrent Statements")
+        .description("The maximum number of statements of a script executed at the same time, each on its own connection. Should be no more than"
+                     + " the maximum number of connections of the connection pool.")
+        .required(true)
+        .defaultValue("4")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .build();
     private final Set<Relationship> relationships;
     private final List<PropertyDescriptor> propDescriptors;
 
+    /**
+     * Executes the statements of scripts
+     */
+    private volatile ExecutorService executor;
+
     public ExecuteHQLStatement() {
         final Set<Relationship> r = new HashSet<>();
         r.add(REL_SUCCESS);
@@ -88,6 +124,8 @@ public class ExecuteHQLStatement extends AbstractNiFiProcessor {
         final List<PropertyDescriptor> pds = new ArrayList<>();
         pds.add(THRIFT_SERVICE);
         pds.add(SQL_DDL_STATEMENT);
+        pds.add(EXECUTION_MODE);
+        pds.add(MAX_CONCURRENT_STATEMENTS);
         propDescriptors = Collections.unmodifiableList(pds);
     }
 
@@ -101,6 +139,30 @@ public class ExecuteHQLStatement extends AbstractNiFiProcessor {
         return propDescriptors;
     }
 
+    /**
+     * Creates the threads for executing the statements of scripts.
+     *
+     * @param context the process context
+     */
+    @OnScheduled
+    public void onScheduled(@Nonnull final ProcessContext context) {
+        if (MODE_SCRIPT.equals(context.getProperty(EXECUTION_MODE).getValue())) {
+            final int concurrency = context.getProperty(MAX_CONCURRENT_STATEMENTS).asInteger();
+            executor = Executors.newFixedThreadPool(concurrency, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("hql-statement-%d").build());
+        }
+    }
+
+    /**
+     * Stops the threads for executing the statements of scripts.
+     */
+    @OnStopped
+    public void onStopped() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
     @Override
     public void onTrigger(final ProcessContext context, final ProcessSession session) throws ProcessException {
         final ComponentLog logger = getLog();
@@ -114,6 +176,23 @@ public class ExecuteHQLStatement extends AbstractNiFiProcessor {
 
         final StopWatch stopWatch = new StopWatch(true);
 
+        if (MODE_SCRIPT.equals(context.getProperty(EXECUTION_MODE).getValue())) {
+            try {
+                final HQLScript script = HQLScript.parse(ddlQuery);
+                executeScript(thriftService, script, context.getProperty(MAX_CONCURRENT_STATEMENTS).asInteger());
+                session.getProvenanceReporter().modifyContent(flowFile, "Executed " + script.getStatements().size() + " statements",
+                                                              stopWatch.getElapsed(TimeUnit.MILLISECONDS));
+                session.transfer(flowFile, REL_SUCCESS);
+            } catch (final Exception e) {
+                logger.error("Unable to execute SQL script for {} due to {}; routing to failure", new Object[]{flowFile, e});
+                session.transfer(flowFile, REL_FAILURE);
+            }
+            if (thriftService.getMetrics() != null) {
+                logger.debug("Thrift connection pool metrics: {}", new Object[]{thriftService.getMetrics()});
+            }
+            return;
+        }
+
         try (final Connection con = thriftService.getConnection();
              final Statement st = con.createStatement()) {
 
@@ -126,5 +205,67 @@ public class ExecuteHQLStatement extends AbstractNiFiProcessor {
         }
     }
 
+    /**
+     * Executes the statements of a script, starting each one once the statements it depends on have completed. No more statements are started
+     * once one fails, but the statements already started are allowed to complete.
+     *
+     * @param thriftService  the connection pool
+     * @param script         the script to execute
+     * @param maxConcurrency the maximum number of statements executed at the same time
+     * @throws Exception if a statement fails
+     */
+    private void executeScript(@Nonnull final ThriftService thriftService, @Nonnull final HQLScript script, final int maxConcurrency) throws Exception {
+        final List<HQLScript.Statement> statements = script.getStatements();
+        final CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+        final Set<Integer> submitted = new HashSet<>();
+        final Set<Integer> completed = new HashSet<>();
+        Exception failure = null;
+        int inFlight = 0;
 
+        while (completed.size() < statements.size()) {
+            for (int i = 0; failure == null && i < statements.size() && inFlight < maxConcurrency; i++) {
+                final HQLScript.Statement statement = statements.get(i);
+                if (!submitted.contains(i) && completed.containsAll(statement.getDependencies())) {
+                    submitted.add(i);
+                    completionService.submit(() -> execute(thriftService, statement));
+                    inFlight++;
+                }
+            }
+            if (inFlight == 0) {
+                break;
+            }
+
+            try {
+                completed.add(completionService.take().get());
+            } catch (final ExecutionException e) {
+                if (failure == null) {
+                    failure = (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+                }
+            }
+            inFlight--;
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Executes a statement of a script, after its session statements, on a connection of its own.
+     *
+     * @return the index of the statement
+     */
+    private int execute(@Nonnull final ThriftService thriftService, @Nonnull final HQLScript.Statement statement) throws Exception {
+        try (final Connection con = thriftService.getConnection();
+             final Statement st = con.createStatement()) {
+            for (final String sessionStatement : statement.getSessionStatements()) {
+                st.execute(sessionStatement);
+            }
+            st.execute(statement.getSql());
+            getLog().debug("Executed statement {} of script: {}", new Object[]{statement.getIndex() + 1, statement.getSql()});
+            return statement.getIndex();
+        } catch (final Exception e) {
+            throw new ProcessException("Statement " + (statement.getIndex() + 1) + " failed: " + statement.getSql(), e);
+        }
+    }
 }
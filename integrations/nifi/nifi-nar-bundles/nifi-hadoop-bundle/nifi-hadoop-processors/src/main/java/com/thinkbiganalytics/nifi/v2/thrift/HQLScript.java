@@ -0,0 +1,342 @@
+package com.thinkbiganalytics.nifi.v2.thrift;
+
+/*-
+ * #%L
+ * thinkbig-nifi-hadoop-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A script of HQL statements and the order they must be executed in.
+ *
+ * <p>The script is split on semicolons outside of quotes and comments. Each statement is inspected for the tables it reads and writes, and a
+ * statement depends on every earlier statement that writes a table it reads or writes, or that reads a table it writes. Statements that are not
+ * recognized depend on, and are depended on by, every other statement so they always run in script order.</p>
+ *
+ * <p>Statements that change the session, like {@code SET} and {@code USE}, are not executed on their own. Instead each statement keeps the session
+ * statements that precede it so they can be replayed on whichever connection the statement is executed on.</p>
+ */
+public class HQLScript {
+
+    /**
+     * Matches a table or database name once quotes have been removed
+     */
+    private static final String NAME = "([a-z0-9_]+(?:\\.[a-z0-9_]+)?)";
+
+    private static final Pattern SESSION = Pattern.compile("^(?:set|use|reset|reload|list|add (?:jar|file|archive)|delete (?:jar|file|archive)"
+                                                           + "|(?:create|drop) temporary (?:function|macro))\\b.*");
+    private static final Pattern USE = Pattern.compile("^use " + NAME + "$");
+    private static final Pattern QUERY = Pattern.compile("^(?:select|with|from|insert|values|explain|show)\\b.*");
+    private static final Pattern DATABASE = Pattern.compile("^(?:create|drop|alter) (?:database|schema) (?:if (?:not )?exists )?" + NAME);
+    private static final Pattern READ = Pattern.compile("\\b(?:from|join|using|like) " + NAME);
+    private static final Pattern INSERT = Pattern.compile("\\binsert (?:overwrite|into) (?:table )?" + NAME);
+    private static final Pattern DESCRIBE = Pattern.compile("^(?:describe|desc)(?: formatted| extended)? " + NAME);
+    private static final Pattern SHOW = Pattern.compile("^show (?:partitions|create table|tblproperties) " + NAME);
+    private static final Pattern[] WRITE = {
+        Pattern.compile("^create (?:temporary |external |transactional )*table (?:if not exists )?" + NAME),
+        Pattern.compile("^(?:create|alter) (?:or replace )?(?:materialized )?view (?:if not exists )?" + NAME),
+        Pattern.compile("^drop (?:table|view|materialized view) (?:if exists )?" + NAME),
+        Pattern.compile("^alter table " + NAME),
+        Pattern.compile("^truncate table " + NAME),
+        Pattern.compile("^msck (?:repair )?table " + NAME),
+        Pattern.compile("^analyze table " + NAME),
+        Pattern.compile("^load data (?:local )?inpath '' (?:overwrite )?into table " + NAME),
+        Pattern.compile("^delete from " + NAME),
+        Pattern.compile("^update " + NAME),
+        Pattern.compile("^merge into " + NAME)
+    };
+
+    /**
+     * The database of a table name that is not qualified before a {@code USE} statement
+     */
+    private static final String UNKNOWN_DATABASE = "?";
+
+    /**
+     * The table name used when a statement changes a whole database
+     */
+    private static final String ALL_TABLES = "*";
+
+    private final List<Statement> statements;
+
+    private HQLScript(List<Statement> statements) {
+        this.statements = statements;
+    }
+
+    /**
+     * Parse the specified script
+     *
+     * @param script the HQL statements separated by semicolons
+     * @return the script
+     */
+    public static HQLScript parse(String script) {
+        final List<Statement> statements = new ArrayList<>();
+        final List<String> session = new ArrayList<>();
+        String database = UNKNOWN_DATABASE;
+
+        for (String sql : split(script)) {
+            final String normalized = normalize(sql);
+            if (SESSION.matcher(normalized).matches()) {
+                session.add(sql);
+                final Matcher use = USE.matcher(normalized);
+                if (use.matches()) {
+                    database = use.group(1);
+                }
+                continue;
+            }
+
+            final Statement statement = new Statement(statements.size(), sql, new ArrayList<>(session));
+            statement.barrier = !classify(normalized, database, statement.reads, statement.writes);
+            statement.reads.removeAll(statement.writes);
+            for (Statement previous : statements) {
+                if (statement.dependsOn(previous)) {
+                    statement.dependencies.add(previous.index);
+                }
+            }
+            statements.add(statement);
+        }
+        return new HQLScript(Collections.unmodifiableList(statements));
+    }
+
+    /**
+     * Split a script into statements on the semicolons that are not in quotes or comments
+     *
+     * @param script the HQL script
+     * @return the non-empty statements without comments
+     */
+    static List<String> split(String script) {
+        final List<String> statements = new ArrayList<>();
+        final StringBuilder current = new StringBuilder();
+        char quote = 0;
+
+        for (int i = 0; i < script.length(); i++) {
+            final char c = script.charAt(i);
+            if (quote != 0) {
+                current.append(c);
+                if (c == '\\' && i + 1 < script.length()) {
+                    current.append(script.charAt(++i));
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '-' && i + 1 < script.length() && script.charAt(i + 1) == '-') {
+                while (i + 1 < script.length() && script.charAt(i + 1) != '\n') {
+                    i++;
+                }
+            } else if (c == ';') {
+                addStatement(statements, current);
+            } else {
+                if (c == '\'' || c == '"' || c == '`') {
+                    quote = c;
+                }
+                current.append(c);
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        final String statement = current.toString().trim();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+
+    /**
+     * Lower case the statement, empty its string literals, remove the quotes around names and collapse whitespace
+     */
+    private static String normalize(String sql) {
+        final StringBuilder normalized = new StringBuilder();
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            final char c = sql.charAt(i);
+            if (quote == '\'' || quote == '"') {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    normalized.append('\'');
+                    quote = 0;
+                }
+            } else if (c == '`') {
+                quote = (quote == '`') ? 0 : c;
+            } else if (quote == 0 && (c == '\'' || c == '"')) {
+                normalized.append('\'');
+                quote = c;
+            } else {
+                normalized.append(Character.isWhitespace(c) ? ' ' : Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString().replaceAll(" +", " ").trim();
+    }
+
+    /**
+     * Find the tables read and written by a statement
+     *
+     * @return {@code true} if the statement was recognized, or {@code false} if its tables are not known
+     */
+    private static boolean classify(String normalized, String database, Set<String> reads, Set<String> writes) {
+        final Matcher databaseMatcher = DATABASE.matcher(normalized);
+        if (databaseMatcher.find()) {
+            writes.add(databaseMatcher.group(1) + "." + ALL_TABLES);
+            return true;
+        }
+
+        boolean known = QUERY.matcher(normalized).matches();
+        for (Pattern pattern : WRITE) {
+            final Matcher matcher = pattern.matcher(normalized);
+            if (matcher.find()) {
+                writes.add(qualify(matcher.group(1), database));
+                known = true;
+                break;
+            }
+        }
+        for (Pattern pattern : new Pattern[]{DESCRIBE, SHOW}) {
+            final Matcher matcher = pattern.matcher(normalized);
+            if (matcher.find()) {
+                reads.add(qualify(matcher.group(1), database));
+                known = true;
+            }
+        }
+
+        final Matcher insert = INSERT.matcher(normalized);
+        while (insert.find()) {
+            writes.add(qualify(insert.group(1), database));
+        }
+        final Matcher read = READ.matcher(normalized);
+        while (read.find()) {
+            reads.add(qualify(read.group(1), database));
+        }
+        return known;
+    }
+
+    private static String qualify(String name, String database) {
+        return name.contains(".") ? name : database + "." + name;
+    }
+
+    /**
+     * Indicates if two qualified table names could refer to the same table
+     */
+    private static boolean overlaps(String first, String second) {
+        final int firstDot = first.indexOf('.');
+        final int secondDot = second.indexOf('.');
+        final String firstDatabase = first.substring(0, firstDot);
+        final String secondDatabase = second.substring(0, secondDot);
+        final String firstTable = first.substring(firstDot + 1);
+        final String secondTable = second.substring(secondDot + 1);
+        return (firstDatabase.equals(secondDatabase) || UNKNOWN_DATABASE.equals(firstDatabase) || UNKNOWN_DATABASE.equals(secondDatabase))
+               && (firstTable.equals(secondTable) || ALL_TABLES.equals(firstTable) || ALL_TABLES.equals(secondTable));
+    }
+
+    private static boolean overlaps(Set<String> first, Set<String> second) {
+        for (String a : first) {
+            for (String b : second) {
+                if (overlaps(a, b)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the statements to execute, in script order, excluding the session statements
+     */
+    public List<Statement> getStatements() {
+        return statements;
+    }
+
+    /**
+     * A statement in a script
+     */
+    public static class Statement {
+
+        private final int index;
+        private final String sql;
+        private final List<String> sessionStatements;
+        private final Set<Integer> dependencies = new TreeSet<>();
+        private final Set<String> reads = new LinkedHashSet<>();
+        private final Set<String> writes = new LinkedHashSet<>();
+        private boolean barrier;
+
+        Statement(int index, String sql, List<String> sessionStatements) {
+            this.index = index;
+            this.sql = sql;
+            this.sessionStatements = Collections.unmodifiableList(sessionStatements);
+        }
+
+        private boolean dependsOn(Statement previous) {
+            return barrier || previous.barrier || overlaps(previous.writes, writes) || overlaps(previous.writes, reads) || overlaps(previous.reads, writes);
+        }
+
+        /**
+         * @return the position of this statement in {@link HQLScript#getStatements()}
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * @return the session statements to execute, in order, on a connection before this statement
+         */
+        public List<String> getSessionStatements() {
+            return sessionStatements;
+        }
+
+        /**
+         * @return the indexes of the statements that must complete before this statement is executed
+         */
+        public Set<Integer> getDependencies() {
+            return Collections.unmodifiableSet(dependencies);
+        }
+
+        /**
+         * @return the qualified names of the tables read, with {@code ?} as the database when it is not known
+         */
+        Set<String> getReads() {
+            return reads;
+        }
+
+        /**
+         * @return the qualified names of the tables written, with {@code *} as the table when a whole database is changed
+         */
+        Set<String> getWrites() {
+            return writes;
+        }
+
+        boolean isBarrier() {
+            return barrier;
+        }
+
+        @Override
+        public String toString() {
+            return sql;
+        }
+    }
+}
@@ -22,6 +22,7 @@ package com.thinkbiganalytics.nifi.v2.hdfs;
 
 import com.google.gson.Gson;
 
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.MD5MD5CRC32FileChecksum;
 import org.apache.hadoop.fs.Path;
@@ -321,6 +322,96 @@ public class ComputeHDFSChecksumsTest {
         verifyGetFileChecksumCall(fileName);
     }
 
+    @Test
+    public void testDefaultsComputeInOrderAndCacheChecksums() throws Exception {
+        String fileName = "000000_0";
+        String fileName2 = "000000_1";
+
+        Assert.assertEquals("1", ComputeHDFSChecksums.CONCURRENT_CHECKSUMS.getDefaultValue());
+        Assert.assertEquals("10000", ComputeHDFSChecksums.CHECKSUM_CACHE_SIZE.getDefaultValue());
+
+        Mockito.when(fileSystem.getFileChecksum(any(Path.class)))
+            .thenReturn(new MD5MD5CRC32FileChecksum(0, 512, new MD5Hash("112233445566778899aabbccddeeff00")))
+            .thenReturn(new MD5MD5CRC32FileChecksum(0, 512, new MD5Hash("112233445566778899aabbccddeeff01")));
+        Mockito.when(fileSystem.getFileStatus(any(Path.class)))
+            .thenAnswer(invocation -> new FileStatus(131665, false, 3, 128, 1000L, (Path) invocation.getArguments()[0]));
+
+        runner.setProperty(ComputeHDFSChecksums.FAIL_IF_INCORRECT_CHECKSUM, "True");
+        runner.setProperty(ComputeHDFSChecksums.FILES,
+                           String.format("[" + fileEntry + "," + fileEntry + "]",
+                                         fileName, "AAAAAAAAAAAAAAIAESIzRFVmd4iZqrvM3e7/AAAAAAA=",
+                                         fileName2, "AAAAAAAAAAAAAAIAESIzRFVmd4iZqrvM3e7/AQAAAAA="));
+        runner.enqueue(new byte[0]);
+        runner.enqueue(new byte[0]);
+        runner.run(2);
+
+        // Check relationships
+        Assert.assertEquals(2, runner.getFlowFilesForRelationship(ComputeHDFSChecksums.REL_SUCCESS).size());
+
+        // The checksums are computed in order on the first run and reused on the second
+        InOrder inOrder = Mockito.inOrder(fileSystem);
+        inOrder.verify(fileSystem).getFileChecksum(new Path(fileName));
+        inOrder.verify(fileSystem).getFileChecksum(new Path(fileName2));
+        Mockito.verify(fileSystem, Mockito.times(2)).getFileChecksum(any(Path.class));
+    }
+
+    @Test
+    public void testMultipleFilesInParallel() throws Exception {
+        String directory = "/dropzone";
+
+        // Each file gets the checksum matching its name, regardless of the order they are computed in
+        Mockito.when(fileSystem.getFileChecksum(any(Path.class))).thenAnswer(invocation -> {
+            String name = ((Path) invocation.getArguments()[0]).getName();
+            return new MD5MD5CRC32FileChecksum(0, 512, new MD5Hash("112233445566778899aabbccddeeff0" + name.charAt(name.length() - 1)));
+        });
+
+        runner.setProperty(ComputeHDFSChecksums.CONCURRENT_CHECKSUMS, "3");
+        runner.setProperty(ComputeHDFSChecksums.DIRECTORY, directory);
+        runner.setProperty(ComputeHDFSChecksums.FAIL_IF_INCORRECT_CHECKSUM, "True");
+        runner.setProperty(ComputeHDFSChecksums.FILES,
+                           String.format("[" + fileEntry + "," + fileEntry + "," + fileEntry + "]",
+                                         "000000_0", "AAAAAAAAAAAAAAIAESIzRFVmd4iZqrvM3e7/AAAAAAA=",
+                                         "000000_1", "AAAAAAAAAAAAAAIAESIzRFVmd4iZqrvM3e7/AQAAAAA=",
+                                         "000000_2", "AAAAAAAAAAAAAAIAESIzRFVmd4iZqrvM3e7/AgAAAAA="));
+        runner.enqueue(new byte[0]);
+        runner.run();
+
+        // Check relationships
+        Assert.assertEquals(0, runner.getFlowFilesForRelationship(ComputeHDFSChecksums.REL_FAILURE).size());
+        Assert.assertEquals(1, runner.getFlowFilesForRelationship(ComputeHDFSChecksums.REL_SUCCESS).size());
+
+        // Check file system calls
+        Mockito.verify(fileSystem, Mockito.times(3)).getFileChecksum(any(Path.class));
+    }
+
+    @Test
+    public void testUnchangedFileChecksumIsCached() throws Exception {
+        String fileName = "000000_0";
+
+        Mockito.doReturn(new MD5MD5CRC32FileChecksum(0, 512, new MD5Hash("112233445566778899aabbccddeeff00"))).
+            when(fileSystem).getFileChecksum(any(Path.class));
+        Mockito.when(fileSystem.getFileStatus(any(Path.class)))
+            .thenReturn(new FileStatus(131665, false, 3, 128, 1000L, new Path(fileName)))
+            .thenReturn(new FileStatus(131665, false, 3, 128, 1000L, new Path(fileName)))
+            .thenReturn(new FileStatus(131665, false, 3, 128, 2000L, new Path(fileName)));
+
+        runner.setProperty(ComputeHDFSChecksums.CHECKSUM_CACHE_SIZE, "10");
+        runner.setProperty(ComputeHDFSChecksums.FAIL_IF_INCORRECT_CHECKSUM, "True");
+        runner.setProperty(ComputeHDFSChecksums.FILES, String.format("[" + fileEntry + "]", fileName,
+                                                                     "AAAAAAAAAAAAAAIAESIzRFVmd4iZqrvM3e7/AAAAAAA="));
+        runner.enqueue(new byte[0]);
+        runner.enqueue(new byte[0]);
+        runner.enqueue(new byte[0]);
+        runner.run(3);
+
+        // Check relationships
+        Assert.assertEquals(3, runner.getFlowFilesForRelationship(ComputeHDFSChecksums.REL_SUCCESS).size());
+
+        // The second run finds the file unchanged and the third finds it modified
+        Mockito.verify(fileSystem, Mockito.times(3)).getFileStatus(new Path(fileName));
+        Mockito.verify(fileSystem, Mockito.times(2)).getFileChecksum(new Path(fileName));
+    }
+
     /**
      * Enqueues a {@code FlowFile} and validates its properties.
      *
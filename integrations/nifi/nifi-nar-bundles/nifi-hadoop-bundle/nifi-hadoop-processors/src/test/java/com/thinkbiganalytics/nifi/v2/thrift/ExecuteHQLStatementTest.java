@@ -0,0 +1,130 @@
+package com.thinkbiganalytics.nifi.v2.thrift;
+
+/*-
+ * #%L
+ * thinkbig-nifi-hadoop-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.nifi.controller.AbstractControllerService;
+import org.apache.nifi.processor.exception.ProcessException;
+import org.apache.nifi.util.TestRunner;
+import org.apache.nifi.util.TestRunners;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ExecuteHQLStatementTest {
+
+    /**
+     * Statements executed by the mock service
+     */
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Test runner
+     */
+    private final TestRunner runner = TestRunners.newTestRunner(ExecuteHQLStatement.class);
+
+    /**
+     * Waits for the independent statements to be executed at the same time
+     */
+    private final CountDownLatch latch = new CountDownLatch(2);
+
+    /**
+     * Initialize instance variables
+     */
+    @Before
+    public void setUp() throws Exception {
+        final MockThriftService thriftService = new MockThriftService();
+        runner.addControllerService("thrift", thriftService);
+        runner.enableControllerService(thriftService);
+        runner.setProperty(ExecuteHQLStatement.THRIFT_SERVICE, "thrift");
+        runner.setProperty(ExecuteHQLStatement.EXECUTION_MODE, ExecuteHQLStatement.MODE_SCRIPT);
+    }
+
+    /**
+     * Verify independent statements are executed in parallel and dependent statements after them.
+     */
+    @Test
+    public void testScript() {
+        runner.setProperty(ExecuteHQLStatement.SQL_DDL_STATEMENT, "set hive.exec.parallel=true; msck repair table a; msck repair table b;"
+                                                                  + "insert into table c select * from a join b on a.id = b.id");
+        runner.enqueue(new byte[0]);
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(ExecuteHQLStatement.REL_SUCCESS, 1);
+        Assert.assertEquals(6, executed.size());
+        Assert.assertEquals("insert into table c select * from a join b on a.id = b.id", executed.get(5));
+        Assert.assertEquals(Arrays.asList("set hive.exec.parallel=true", "set hive.exec.parallel=true", "set hive.exec.parallel=true"),
+                            Arrays.asList(executed.get(0), executed.get(1), executed.get(4)));
+    }
+
+    /**
+     * Verify statements that depend on a failed statement are not executed.
+     */
+    @Test
+    public void testScriptFailure() {
+        runner.setProperty(ExecuteHQLStatement.SQL_DDL_STATEMENT, "msck repair table a; drop table fail; msck repair table b; analyze table fail compute statistics");
+        runner.enqueue(new byte[0]);
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(ExecuteHQLStatement.REL_FAILURE, 1);
+        Assert.assertFalse(executed.contains("analyze table fail compute statistics"));
+    }
+
+    /**
+     * A Thrift service that records the statements executed
+     */
+    private class MockThriftService extends AbstractControllerService implements ThriftService {
+
+        @Override
+        public Connection getConnection() throws ProcessException {
+            try {
+                final Statement statement = Mockito.mock(Statement.class);
+                Mockito.when(statement.execute(Mockito.anyString())).then(invocation -> {
+                    final String sql = (String) invocation.getArguments()[0];
+                    if (sql.startsWith("msck")) {
+                        latch.countDown();
+                        Assert.assertTrue("statements not executed in parallel", latch.await(5, TimeUnit.SECONDS));
+                    }
+                    if (sql.equals("drop table fail")) {
+                        throw new SQLException("failed");
+                    }
+                    executed.add(sql);
+                    return false;
+                });
+                final Connection connection = Mockito.mock(Connection.class);
+                Mockito.when(connection.createStatement()).thenReturn(statement);
+                return connection;
+            } catch (final SQLException e) {
+                throw new ProcessException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.thinkbiganalytics.nifi.v2.thrift;
+
+/*-
+ * #%L
+ * thinkbig-nifi-hadoop-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+public class HQLScriptTest {
+
+    /**
+     * Verify splitting a script ignores semicolons in quotes and comments.
+     */
+    @Test
+    public void testSplit() {
+        final List<String> statements = HQLScript.split("select ';' from t; -- a comment; with a semicolon\n"
+                                                        + "select \"a\\\";b\" from `x;y`;;\n  ; analyze table t compute statistics");
+        Assert.assertEquals(Arrays.asList("select ';' from t", "select \"a\\\";b\" from `x;y`", "analyze table t compute statistics"), statements);
+    }
+
+    /**
+     * Verify statements on different tables are independent.
+     */
+    @Test
+    public void testIndependentStatements() {
+        final HQLScript script = HQLScript.parse("use sales; MSCK REPAIR TABLE orders; ANALYZE TABLE `sales`.`customers` COMPUTE STATISTICS;"
+                                                 + "analyze table orders compute statistics for columns");
+        final List<HQLScript.Statement> statements = script.getStatements();
+        Assert.assertEquals(3, statements.size());
+        Assert.assertEquals(Collections.singleton("sales.orders"), statements.get(0).getWrites());
+        Assert.assertEquals(Collections.singleton("sales.customers"), statements.get(1).getWrites());
+        Assert.assertEquals(Collections.emptySet(), statements.get(0).getDependencies());
+        Assert.assertEquals(Collections.emptySet(), statements.get(1).getDependencies());
+        Assert.assertEquals(Collections.singleton(0), statements.get(2).getDependencies());
+        Assert.assertEquals(Collections.singletonList("use sales"), statements.get(2).getSessionStatements());
+    }
+
+    /**
+     * Verify statements depend on the statements that write the tables they read.
+     */
+    @Test
+    public void testReadAfterWrite() {
+        final HQLScript script = HQLScript.parse("create table if not exists stage.orders (id int) location '/tmp/from x';\n"
+                                                 + "create table stage.customers like source.customers;\n"
+                                                 + "insert overwrite table target.summary select * from stage.orders o join stage.customers c on o.id = c.id;\n"
+                                                 + "select count(*) from source.customers;\n"
+                                                 + "drop database source cascade");
+        final List<HQLScript.Statement> statements = script.getStatements();
+        Assert.assertEquals(Collections.emptySet(), statements.get(0).getReads());
+        Assert.assertEquals(Collections.singleton("source.customers"), statements.get(1).getReads());
+        Assert.assertEquals(Collections.emptySet(), statements.get(1).getDependencies());
+        Assert.assertEquals(Collections.singleton("target.summary"), statements.get(2).getWrites());
+        Assert.assertEquals(new TreeSet<>(Arrays.asList(0, 1)), statements.get(2).getDependencies());
+        Assert.assertEquals(Collections.emptySet(), statements.get(3).getDependencies());
+        Assert.assertEquals(new TreeSet<>(Arrays.asList(1, 3)), statements.get(4).getDependencies());
+    }
+
+    /**
+     * Verify unqualified tables may be in any database before a {@code USE} statement.
+     */
+    @Test
+    public void testUnknownDatabase() {
+        final HQLScript script = HQLScript.parse("drop table orders; create table sales.orders (id int); use marketing; create table orders (id int)");
+        final List<HQLScript.Statement> statements = script.getStatements();
+        Assert.assertEquals(Collections.singleton(0), statements.get(1).getDependencies());
+        Assert.assertEquals(Collections.singleton(0), statements.get(2).getDependencies());
+        Assert.assertEquals(Collections.singleton("marketing.orders"), statements.get(2).getWrites());
+    }
+
+    /**
+     * Verify unrecognized statements run in script order.
+     */
+    @Test
+    public void testBarrier() {
+        final HQLScript script = HQLScript.parse("analyze table a compute statistics; grant select on table b to user bob; analyze table c compute statistics");
+        final List<HQLScript.Statement> statements = script.getStatements();
+        Assert.assertTrue(statements.get(1).isBarrier());
+        Assert.assertEquals(Collections.singleton(0), statements.get(1).getDependencies());
+        Assert.assertEquals(Collections.singleton(1), statements.get(2).getDependencies());
+    }
+}
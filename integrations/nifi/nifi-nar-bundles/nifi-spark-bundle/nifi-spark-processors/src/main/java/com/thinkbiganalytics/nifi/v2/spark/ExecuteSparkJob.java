@@ -38,6 +38,7 @@ import org.apache.nifi.annotation.behavior.EventDriven;
 import org.apache.nifi.annotation.behavior.InputRequirement;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnStopped;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.components.ValidationContext;
 import org.apache.nifi.components.ValidationResult;
@@ -236,6 +237,49 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
         .identifiesControllerService(MetadataProviderService.class)
         .build();
 
+    /**
+     * Launches a new Spark application for each flow file
+     */
+    public static final String MODE_SPARK_SUBMIT = "spark-submit";
+
+    /**
+     * Runs the job in a warm Spark context of a Livy server
+     */
+    public static final String MODE_JOB_SERVER = "Job Server";
+
+    public static final PropertyDescriptor EXECUTION_MODE = new PropertyDescriptor.Builder()
+        .name("Execution Mode")
+        .description("How the Spark job is run. " + MODE_SPARK_SUBMIT + " launches a new Spark application for each flow file. " + MODE_JOB_SERVER
+                     + " runs the job in a warm Spark context kept by a Livy server, avoiding the start up time of a Spark application. The main class "
+                     + "must have a static runJob(String[]) method. Jobs using Data Sources or Extra Files, or that cannot be submitted to the job server, "
+                     + "are run with " + MODE_SPARK_SUBMIT + ".")
+        .required(true)
+        .allowableValues(MODE_SPARK_SUBMIT, MODE_JOB_SERVER)
+        .defaultValue(MODE_SPARK_SUBMIT)
+        .build();
+    public static final PropertyDescriptor JOB_SERVER_URL = new PropertyDescriptor.Builder()
+        .name("Job Server URL")
+        .description("URL of the Livy server used in " + MODE_JOB_SERVER + " mode, like http://localhost:8998. The application JAR and extra JARs must be "
+                     + "readable by the Livy server.")
+        .required(false)
+        .addValidator(StandardValidators.URL_VALIDATOR)
+        .build();
+    public static final PropertyDescriptor JOB_SERVER_SESSIONS = new PropertyDescriptor.Builder()
+        .name("Job Server Sessions")
+        .description("The maximum number of warm Spark contexts kept for this application, which is the number of jobs that can run at the same time. "
+                     + "Contexts are shared by processors using the same job server and Spark properties.")
+        .required(true)
+        .defaultValue("2")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .build();
+    public static final PropertyDescriptor SCHEDULER_POOL = new PropertyDescriptor.Builder()
+        .name("Scheduler Pool")
+        .description("The fair scheduler pool for jobs run in " + MODE_JOB_SERVER + " mode. Leave empty to use the default pool.")
+        .required(false)
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+
     /**
      * Matches a comma-separated list of UUIDs
      */
@@ -348,6 +392,10 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
         pds.add(EXTRA_SPARK_FILES);
         pds.add(DATASOURCES);
         pds.add(METADATA_SERVICE);
+        pds.add(EXECUTION_MODE);
+        pds.add(JOB_SERVER_URL);
+        pds.add(JOB_SERVER_SESSIONS);
+        pds.add(SCHEDULER_POOL);
         propDescriptors = Collections.unmodifiableList(pds);
     }
 
@@ -361,6 +409,14 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
         return propDescriptors;
     }
 
+    /**
+     * Release the job server sessions used by this processor, deleting them if no other processor uses them
+     */
+    @OnStopped
+    public void releaseJobServerSessions() {
+        LivySessionPool.release(getIdentifier());
+    }
+
     @Override
     public void onTrigger(final ProcessContext context, final ProcessSession session) throws ProcessException {
         final ComponentLog logger = getLog();
@@ -495,6 +551,73 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
                 env.put("DATASOURCES", datasources.toString());
             }
 
+            /* Run the spark job in a warm Spark context */
+            if (MODE_JOB_SERVER.equals(context.getProperty(EXECUTION_MODE).getValue())) {
+                if (!env.isEmpty() || StringUtils.isNotEmpty(extraFiles)) {
+                    logger.info("Running Spark job for {} with spark-submit as it requires data sources or extra files", new Object[]{flowFile});
+                } else {
+                    final Map<String, Object> sessionRequest = new HashMap<>();
+                    sessionRequest.put("kind", "spark");
+                    sessionRequest.put("name", sparkApplicationName);
+                    final List<String> jars = new ArrayList<>();
+                    jars.add(appJar);
+                    jars.addAll(extraJarPaths);
+                    sessionRequest.put("jars", jars);
+                    sessionRequest.put("driverMemory", driverMemory);
+                    sessionRequest.put("executorMemory", executorMemory);
+                    sessionRequest.put("numExecutors", Integer.valueOf(numberOfExecutors.trim()));
+                    sessionRequest.put("executorCores", Integer.valueOf(executorCores.trim()));
+                    if (StringUtils.isNotEmpty(yarnQueue)) {
+                        sessionRequest.put("queue", yarnQueue);
+                    }
+                    final Map<String, String> sessionConf = new HashMap<>();
+                    sessionConf.put("spark.scheduler.mode", "FAIR");
+                    sessionConf.put(SPARK_NETWORK_TIMEOUT_CONFIG_NAME, networkTimeout);
+                    if (confs != null) {
+                        for (String conf : confs) {
+                            final String[] keyValue = conf.split("=", 2);
+                            if (keyValue.length == 2) {
+                                sessionConf.put(keyValue[0].trim(), keyValue[1].trim());
+                            }
+                        }
+                    }
+                    sessionRequest.put("conf", sessionConf);
+
+                    final String schedulerPool = context.getProperty(SCHEDULER_POOL).evaluateAttributeExpressions(flowFile).getValue();
+                    final String code = createJobServerCode(mainClass, args, schedulerPool);
+                    final LivySessionPool pool = LivySessionPool.getPool(new LivyClient(context.getProperty(JOB_SERVER_URL).getValue()), sessionRequest,
+                                                                         context.getProperty(JOB_SERVER_SESSIONS).asInteger(), getIdentifier());
+
+                    LivySessionPool.Result result = null;
+                    try {
+                        logger.info("Running Spark job in a job server session for {}", new Object[]{flowFile});
+                        result = pool.run(code, TimeUnit.SECONDS.toMillis(sparkProcessTimeout));
+                    } catch (final IOException e) {
+                        logger.warn("Unable to run Spark job in a job server session, falling back to spark-submit: {}", new Object[]{e.getMessage()});
+                    }
+
+                    if (result != null && !result.isSuccess() && result.getMessage() != null && result.getMessage().contains(NoSuchMethodException.class.getName())) {
+                        logger.warn("{} does not have a runJob(String[]) method, falling back to spark-submit", new Object[]{mainClass});
+                    } else if (result != null) {
+                        final int exitCode = result.isSuccess() ? 0 : 1;
+                        flowFile = session.putAttribute(flowFile, PROVENANCE_SPARK_EXIT_CODE_KEY, exitCode + "");
+                        flowFile = session.putAttribute(flowFile, context.getName() + " Job Server Session", String.valueOf(result.getSessionId()));
+                        if (result.isSuccess()) {
+                            logger.info("ExecuteSparkJob for {} and flowfile: {} completed in job server session {}",
+                                        new Object[]{context.getName(), flowFile, result.getSessionId()});
+                            flowFile = session.putAttribute(flowFile, PROVENANCE_JOB_STATUS_KEY, "Success");
+                            session.transfer(flowFile, REL_SUCCESS);
+                        } else {
+                            logger.error("ExecuteSparkJob for {} and flowfile: {} failed in job server session {}: {}",
+                                         new Object[]{context.getName(), flowFile, result.getSessionId(), result.getMessage()});
+                            flowFile = session.putAttribute(flowFile, PROVENANCE_JOB_STATUS_KEY, "Failed");
+                            session.transfer(flowFile, REL_FAILURE);
+                        }
+                        return;
+                    }
+                }
+            }
+
              /* Launch the spark job as a child process */
             SparkLauncher launcher = new SparkLauncher(env)
                 .setAppResource(appJar)
@@ -583,6 +706,15 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
     protected Collection<ValidationResult> customValidate(@Nonnull final ValidationContext validationContext) {
         final Set<ValidationResult> results = new HashSet<>();
 
+        if (MODE_JOB_SERVER.equals(validationContext.getProperty(EXECUTION_MODE).getValue()) && !validationContext.getProperty(JOB_SERVER_URL).isSet()) {
+            results.add(new ValidationResult.Builder()
+                            .subject(JOB_SERVER_URL.getName())
+                            .input(validationContext.getProperty(JOB_SERVER_URL).getValue())
+                            .valid(false)
+                            .explanation("Job Server URL is required in " + MODE_JOB_SERVER + " mode")
+                            .build());
+        }
+
         if (validationContext.getProperty(DATASOURCES).isSet() && !validationContext.getProperty(METADATA_SERVICE).isSet()) {
             results.add(new ValidationResult.Builder()
                             .subject(METADATA_SERVICE.getName())
@@ -594,4 +726,52 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
 
         return results;
     }
+
+    /**
+     * Creates the Scala code that runs a job in a Livy session. The job is run by the static {@code runJob(String[])} method of the main class,
+     * in the specified fair scheduler pool.
+     *
+     * @param mainClass     the main class of the job
+     * @param args          the job arguments, or {@code null} if none
+     * @param schedulerPool the fair scheduler pool, or {@code null} for the default pool
+     * @return the Scala code
+     */
+    @Nonnull
+    static String createJobServerCode(@Nonnull final String mainClass, final String[] args, final String schedulerPool) {
+        final StringBuilder code = new StringBuilder();
+        code.append("sc.setLocalProperty(\"spark.scheduler.pool\", ").append(StringUtils.isNotEmpty(schedulerPool) ? toScalaString(schedulerPool) : "null").append(")\n");
+        code.append("try {\n");
+        code.append("  Class.forName(").append(toScalaString(mainClass)).append(").getMethod(\"runJob\", classOf[Array[String]])");
+        code.append(".invoke(null, Array[String](");
+        if (args != null) {
+            for (int i = 0; i < args.length; ++i) {
+                code.append((i > 0) ? ", " : "").append(toScalaString(args[i]));
+            }
+        }
+        code.append("))\n");
+        code.append("} catch {\n");
+        code.append("  case e: java.lang.reflect.InvocationTargetException => throw e.getCause\n");
+        code.append("} finally {\n");
+        code.append("  sc.setLocalProperty(\"spark.scheduler.pool\", null)\n");
+        code.append("}\n");
+        return code.toString();
+    }
+
+    /**
+     * Quotes the specified value as a Scala string literal.
+     */
+    @Nonnull
+    private static String toScalaString(@Nonnull final String value) {
+        final StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for (final char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < ' ' || c > '~') {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
 }
@@ -0,0 +1,209 @@
+package com.thinkbiganalytics.nifi.v2.spark;
+
+/*-
+ * #%L
+ * thinkbig-nifi-spark-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A minimal client for the REST API of an Apache Livy server, which keeps Spark contexts running as interactive sessions.
+ */
+public class LivyClient {
+
+    /**
+     * Sessions that can run statements
+     */
+    public static final String SESSION_IDLE = "idle";
+
+    /**
+     * Sessions that are still being started
+     */
+    public static final String SESSION_STARTING = "starting";
+
+    /**
+     * Statements whose output is available
+     */
+    public static final String STATEMENT_AVAILABLE = "available";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final int TIMEOUT_MILLIS = 30000;
+
+    /**
+     * Base URL of the Livy server
+     */
+    private final String url;
+
+    /**
+     * Constructs a {@code LivyClient} for the specified server.
+     *
+     * @param url the base URL of the Livy server, like {@code http://localhost:8998}
+     */
+    public LivyClient(@Nonnull final String url) {
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * Gets the base URL of the Livy server.
+     *
+     * @return the URL
+     */
+    @Nonnull
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Starts a new interactive session.
+     *
+     * @param request the session properties, like {@code kind}, {@code jars} and {@code conf}
+     * @return the session id
+     * @throws IOException if the session cannot be created
+     */
+    public int createSession(@Nonnull final Map<String, Object> request) throws IOException {
+        return getId(send("POST", "/sessions", request));
+    }
+
+    /**
+     * Gets the state of a session, like {@code starting}, {@code idle}, {@code busy} or {@code dead}.
+     *
+     * @param sessionId the session id
+     * @return the session state
+     * @throws IOException if the session does not exist or the server cannot be reached
+     */
+    @Nonnull
+    public String getSessionState(final int sessionId) throws IOException {
+        return String.valueOf(send("GET", "/sessions/" + sessionId + "/state", null).get("state"));
+    }
+
+    /**
+     * Stops a session and its Spark context.
+     *
+     * @param sessionId the session id
+     * @throws IOException if the server cannot be reached
+     */
+    public void deleteSession(final int sessionId) throws IOException {
+        send("DELETE", "/sessions/" + sessionId, null);
+    }
+
+    /**
+     * Runs code in a session. Statements in the same session run one at a time.
+     *
+     * @param sessionId the session id
+     * @param code      the Scala code to run
+     * @return the statement id
+     * @throws IOException if the statement cannot be submitted
+     */
+    public int submitStatement(final int sessionId, @Nonnull final String code) throws IOException {
+        return getId(send("POST", "/sessions/" + sessionId + "/statements", Collections.singletonMap("code", code)));
+    }
+
+    /**
+     * Gets the state and output of a statement.
+     *
+     * @param sessionId   the session id
+     * @param statementId the statement id
+     * @return the statement with its {@code state} and {@code output}
+     * @throws IOException if the server cannot be reached
+     */
+    @Nonnull
+    public Map<String, Object> getStatement(final int sessionId, final int statementId) throws IOException {
+        return send("GET", "/sessions/" + sessionId + "/statements/" + statementId, null);
+    }
+
+    /**
+     * Cancels a running statement.
+     *
+     * @param sessionId   the session id
+     * @param statementId the statement id
+     * @throws IOException if the server cannot be reached
+     */
+    public void cancelStatement(final int sessionId, final int statementId) throws IOException {
+        send("POST", "/sessions/" + sessionId + "/statements/" + statementId + "/cancel", Collections.emptyMap());
+    }
+
+    /**
+     * Sends a request to the Livy server.
+     *
+     * @param method the HTTP method
+     * @param path   the path relative to the server URL
+     * @param body   the JSON body, or {@code null} if none
+     * @return the JSON response
+     * @throws IOException if the request fails
+     */
+    @Nonnull
+    protected Map<String, Object> send(@Nonnull final String method, @Nonnull final String path, @Nullable final Object body) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url + path).openConnection();
+        try {
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            connection.setRequestProperty("Accept", "application/json");
+            // required when the server protects against cross-site request forgery
+            connection.setRequestProperty("X-Requested-By", "kylo");
+
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    objectMapper.writeValue(out, body);
+                }
+            }
+
+            final int status = connection.getResponseCode();
+            if (status < 200 || status >= 300) {
+                final InputStream error = connection.getErrorStream();
+                final String message = (error != null) ? IOUtils.toString(error, StandardCharsets.UTF_8) : connection.getResponseMessage();
+                throw new IOException("Livy request " + method + " " + path + " failed with status " + status + ": " + message);
+            }
+
+            try (InputStream in = connection.getInputStream()) {
+                final String response = IOUtils.toString(in, StandardCharsets.UTF_8);
+                return response.trim().isEmpty() ? Collections.emptyMap() : objectMapper.readValue(response, new TypeReference<Map<String, Object>>() {
+                });
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private int getId(@Nonnull final Map<String, Object> response) throws IOException {
+        final Object id = response.get("id");
+        if (id instanceof Number) {
+            return ((Number) id).intValue();
+        }
+        throw new IOException("Livy response is missing an id: " + response);
+    }
+}
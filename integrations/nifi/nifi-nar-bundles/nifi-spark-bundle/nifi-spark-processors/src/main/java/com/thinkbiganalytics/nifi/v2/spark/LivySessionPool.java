@@ -0,0 +1,314 @@
+package com.thinkbiganalytics.nifi.v2.spark;
+
+/*-
+ * #%L
+ * thinkbig-nifi-spark-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A pool of warm Spark contexts, kept as Livy interactive sessions, that run jobs without paying the start up cost of a Spark application.
+ *
+ * <p>Each session runs one statement at a time so up to {@code maxSessions} jobs run at the same time. Sessions are started on demand and
+ * reused for as long as they stay healthy; idle sessions are stopped by the Livy server after its session timeout. Pools are shared by all
+ * processors using the same server and session properties. Once every processor using a pool has released it, the pool is removed and its
+ * sessions are deleted.</p>
+ */
+public class LivySessionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(LivySessionPool.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Pools by server URL and session properties
+     */
+    private static final ConcurrentMap<String, LivySessionPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Time between requests for the state of a session or statement
+     */
+    private static final long POLL_MILLIS = 500;
+
+    private final LivyClient client;
+    private final Map<String, Object> sessionRequest;
+
+    /**
+     * Limits the number of sessions running a statement
+     */
+    private final Semaphore permits;
+
+    /**
+     * Ids of the sessions not running a statement, most recently used first
+     */
+    private final BlockingDeque<Integer> idleSessions = new LinkedBlockingDeque<>();
+
+    /**
+     * Identifiers of the processors using this pool
+     */
+    private final Set<String> owners = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Indicates the pool was released by every processor and its sessions are being deleted
+     */
+    private volatile boolean closed;
+
+    /**
+     * Gets the pool for the specified server and session properties, creating it if necessary.
+     *
+     * @param client         the Livy client
+     * @param sessionRequest the properties of new sessions
+     * @param maxSessions    the maximum number of sessions running jobs at the same time
+     * @param owner          the identifier of the processor using the pool, which must call {@link #release(String)} when stopped
+     * @return the pool
+     */
+    @Nonnull
+    public static LivySessionPool getPool(@Nonnull final LivyClient client, @Nonnull final Map<String, Object> sessionRequest, final int maxSessions,
+                                          @Nonnull final String owner) {
+        String key;
+        try {
+            key = client.getUrl() + " " + maxSessions + " " + objectMapper.writeValueAsString(sessionRequest);
+        } catch (final JsonProcessingException e) {
+            key = client.getUrl() + " " + maxSessions + " " + sessionRequest;
+        }
+        return pools.compute(key, (k, pool) -> {
+            final LivySessionPool result = (pool != null) ? pool : new LivySessionPool(client, sessionRequest, maxSessions);
+            result.owners.add(owner);
+            return result;
+        });
+    }
+
+    /**
+     * Releases the pools used by the specified processor. Pools no longer used by any processor are removed and their sessions deleted.
+     *
+     * @param owner the identifier of the processor
+     */
+    public static void release(@Nonnull final String owner) {
+        for (final String key : pools.keySet()) {
+            pools.computeIfPresent(key, (k, pool) -> {
+                pool.owners.remove(owner);
+                if (pool.owners.isEmpty()) {
+                    pool.close();
+                    return null;
+                }
+                return pool;
+            });
+        }
+    }
+
+    /**
+     * Constructs a {@code LivySessionPool}.
+     *
+     * @param client         the Livy client
+     * @param sessionRequest the properties of new sessions
+     * @param maxSessions    the maximum number of sessions running jobs at the same time
+     */
+    LivySessionPool(@Nonnull final LivyClient client, @Nonnull final Map<String, Object> sessionRequest, final int maxSessions) {
+        this.client = client;
+        this.sessionRequest = sessionRequest;
+        this.permits = new Semaphore(Math.max(maxSessions, 1), true);
+    }
+
+    /**
+     * Runs code in one of the sessions, starting a session if none are available.
+     *
+     * <p>An {@code IOException} is only thrown if the code was never submitted, so the caller may safely run the job in another way.</p>
+     *
+     * @param code          the Scala code to run
+     * @param timeoutMillis the maximum time to wait for a session and for the code to complete
+     * @return the outcome of the code
+     * @throws IOException          if no session could be started or the code could not be submitted
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Nonnull
+    public Result run(@Nonnull final String code, final long timeoutMillis) throws IOException, InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new IOException("Timed out waiting for a Livy session");
+        }
+
+        Integer sessionId = null;
+        boolean healthy = false;
+        try {
+            sessionId = borrowSession(deadline);
+            final int statementId = client.submitStatement(sessionId, code);
+            healthy = true;
+
+            try {
+                return awaitStatement(sessionId, statementId, deadline);
+            } catch (final IOException e) {
+                healthy = false;
+                return new Result(false, "Lost track of Livy session " + sessionId + ": " + e.getMessage(), sessionId);
+            }
+        } finally {
+            if (sessionId != null) {
+                if (healthy) {
+                    idleSessions.addFirst(sessionId);
+                    if (closed) {
+                        deleteIdleSessions();
+                    }
+                } else {
+                    deleteSession(sessionId);
+                }
+            }
+            permits.release();
+        }
+    }
+
+    /**
+     * Gets an idle session, or starts a new one if none are idle.
+     */
+    private int borrowSession(final long deadline) throws IOException, InterruptedException {
+        Integer sessionId;
+        while ((sessionId = idleSessions.pollFirst()) != null) {
+            try {
+                final String state = client.getSessionState(sessionId);
+                if (LivyClient.SESSION_IDLE.equals(state)) {
+                    return sessionId;
+                }
+                log.info("Discarding Livy session {} in state {}", sessionId, state);
+            } catch (final IOException e) {
+                log.info("Discarding Livy session {}: {}", sessionId, e.getMessage());
+            }
+            deleteSession(sessionId);
+        }
+
+        sessionId = client.createSession(sessionRequest);
+        log.info("Starting Livy session {} on {}", sessionId, client.getUrl());
+        try {
+            while (true) {
+                final String state = client.getSessionState(sessionId);
+                if (LivyClient.SESSION_IDLE.equals(state)) {
+                    return sessionId;
+                } else if (!LivyClient.SESSION_STARTING.equals(state)) {
+                    throw new IOException("Livy session " + sessionId + " failed to start: " + state);
+                } else if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("Timed out waiting for Livy session " + sessionId + " to start");
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+        } catch (final IOException | InterruptedException e) {
+            deleteSession(sessionId);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for a statement to complete, cancelling it after the deadline.
+     */
+    @Nonnull
+    private Result awaitStatement(final int sessionId, final int statementId, final long deadline) throws IOException, InterruptedException {
+        while (true) {
+            final Map<String, Object> statement = client.getStatement(sessionId, statementId);
+            final Object state = statement.get("state");
+            if (LivyClient.STATEMENT_AVAILABLE.equals(state)) {
+                return toResult(statement.get("output"), sessionId);
+            } else if ("error".equals(state) || "cancelled".equals(state)) {
+                return new Result(false, "Livy statement " + state, sessionId);
+            } else if (System.currentTimeMillis() > deadline) {
+                client.cancelStatement(sessionId, statementId);
+                return new Result(false, "Timed out waiting for Livy statement to complete", sessionId);
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    @Nonnull
+    private Result toResult(final Object output, final int sessionId) {
+        if (output instanceof Map) {
+            final Map<?, ?> outputMap = (Map<?, ?>) output;
+            if ("ok".equals(outputMap.get("status"))) {
+                return new Result(true, null, sessionId);
+            }
+            return new Result(false, outputMap.get("ename") + ": " + outputMap.get("evalue"), sessionId);
+        }
+        return new Result(false, "Livy statement has no output", sessionId);
+    }
+
+    /**
+     * Deletes the idle sessions. Sessions running a statement are deleted once the statement completes.
+     */
+    void close() {
+        closed = true;
+        deleteIdleSessions();
+    }
+
+    private void deleteIdleSessions() {
+        Integer sessionId;
+        while ((sessionId = idleSessions.pollFirst()) != null) {
+            log.info("Deleting Livy session {} on {}", sessionId, client.getUrl());
+            deleteSession(sessionId);
+        }
+    }
+
+    private void deleteSession(final int sessionId) {
+        try {
+            client.deleteSession(sessionId);
+        } catch (final IOException e) {
+            log.debug("Unable to delete Livy session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    /**
+     * The outcome of running code in a session
+     */
+    public static class Result {
+
+        private final boolean success;
+        private final String message;
+        private final int sessionId;
+
+        Result(final boolean success, final String message, final int sessionId) {
+            this.success = success;
+            this.message = message;
+            this.sessionId = sessionId;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * @return the error message, or {@code null} if successful
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        public int getSessionId() {
+            return sessionId;
+        }
+    }
+}
@@ -130,6 +130,39 @@ public class ExecuteSparkJobTest {
         Assert.assertTrue(results.contains("'Spark Application Name' is invalid because Spark Application Name is required"));
     }
 
+    /**
+     * Verify the job server URL is required in job server mode.
+     */
+    @Test
+    public void testValidatorsForJobServer() {
+        runner.setProperty(ExecuteSparkJob.EXECUTION_MODE, ExecuteSparkJob.MODE_JOB_SERVER);
+        runner.enqueue(new byte[0]);
+
+        final Set<String> results = ((MockProcessContext) runner.getProcessContext()).validate().stream().map(Object::toString).collect(Collectors.toSet());
+        Assert.assertEquals(1, results.size());
+        Assert.assertTrue(results.contains("'Job Server URL' is invalid because Job Server URL is required in Job Server mode"));
+
+        runner.setProperty(ExecuteSparkJob.JOB_SERVER_URL, "http://localhost:8998");
+        runner.enqueue(new byte[0]);
+        Assert.assertEquals(0, ((MockProcessContext) runner.getProcessContext()).validate().size());
+    }
+
+    /**
+     * Verify the code run in a job server session.
+     */
+    @Test
+    public void testCreateJobServerCode() {
+        final String code = ExecuteSparkJob.createJobServerCode("com.example.App", new String[]{"db", "say \"hi\""}, "feeds");
+        Assert.assertEquals("sc.setLocalProperty(\"spark.scheduler.pool\", \"feeds\")\n"
+                            + "try {\n"
+                            + "  Class.forName(\"com.example.App\").getMethod(\"runJob\", classOf[Array[String]]).invoke(null, Array[String](\"db\", \"say \\\"hi\\\"\"))\n"
+                            + "} catch {\n"
+                            + "  case e: java.lang.reflect.InvocationTargetException => throw e.getCause\n"
+                            + "} finally {\n"
+                            + "  sc.setLocalProperty(\"spark.scheduler.pool\", null)\n"
+                            + "}\n", code);
+    }
+
     /**
      * A mock implementation of {@link MetadataProviderService} for testing.
      */
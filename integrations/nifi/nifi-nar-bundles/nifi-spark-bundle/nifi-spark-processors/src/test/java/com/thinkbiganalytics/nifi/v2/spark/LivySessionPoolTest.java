@@ -0,0 +1,171 @@
+package com.thinkbiganalytics.nifi.v2.spark;
+
+/*-
+ * #%L
+ * kylo-nifi-spark-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+public class LivySessionPoolTest {
+
+    /**
+     * Verify sessions are reused across jobs.
+     */
+    @Test
+    public void testReusesSession() throws Exception {
+        final MockLivyClient client = new MockLivyClient();
+        final LivySessionPool pool = new LivySessionPool(client, Collections.singletonMap("kind", "spark"), 2);
+
+        final LivySessionPool.Result first = pool.run("1 + 1", 10000);
+        final LivySessionPool.Result second = pool.run("2 + 2", 10000);
+
+        Assert.assertTrue(first.isSuccess());
+        Assert.assertTrue(second.isSuccess());
+        Assert.assertEquals(first.getSessionId(), second.getSessionId());
+        Assert.assertEquals(1, client.createdSessions);
+        Assert.assertEquals(2, client.statements.size());
+    }
+
+    /**
+     * Verify a failed statement is reported and its session is kept.
+     */
+    @Test
+    public void testFailedStatement() throws Exception {
+        final MockLivyClient client = new MockLivyClient();
+        client.output = new HashMap<>();
+        client.output.put("status", "error");
+        client.output.put("ename", "Error");
+        client.output.put("evalue", "java.lang.IllegalArgumentException: bad args");
+        final LivySessionPool pool = new LivySessionPool(client, Collections.singletonMap("kind", "spark"), 1);
+
+        final LivySessionPool.Result result = pool.run("fail()", 10000);
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertEquals("Error: java.lang.IllegalArgumentException: bad args", result.getMessage());
+        Assert.assertTrue(client.deletedSessions.isEmpty());
+    }
+
+    /**
+     * Verify dead sessions are replaced.
+     */
+    @Test
+    public void testReplacesDeadSession() throws Exception {
+        final MockLivyClient client = new MockLivyClient();
+        final LivySessionPool pool = new LivySessionPool(client, Collections.singletonMap("kind", "spark"), 1);
+
+        final int first = pool.run("1 + 1", 10000).getSessionId();
+        client.sessionState = "dead";
+        client.nextState = "idle";
+        final int second = pool.run("2 + 2", 10000).getSessionId();
+
+        Assert.assertNotEquals(first, second);
+        Assert.assertEquals(Collections.singletonList(first), client.deletedSessions);
+    }
+
+    /**
+     * Verify a session that fails to start is reported before any code is submitted.
+     */
+    @Test(expected = IOException.class)
+    public void testSessionFailsToStart() throws Exception {
+        final MockLivyClient client = new MockLivyClient();
+        client.sessionState = "error";
+        new LivySessionPool(client, Collections.singletonMap("kind", "spark"), 1).run("1 + 1", 10000);
+    }
+
+    /**
+     * Verify sessions are deleted once every processor using the pool releases it.
+     */
+    @Test
+    public void testReleaseDeletesSessions() throws Exception {
+        final MockLivyClient client = new MockLivyClient();
+        final Map<String, Object> request = Collections.singletonMap("kind", "spark");
+        final LivySessionPool pool = LivySessionPool.getPool(client, request, 1, "processor-1");
+        Assert.assertSame(pool, LivySessionPool.getPool(client, request, 1, "processor-2"));
+        final int sessionId = pool.run("1 + 1", 10000).getSessionId();
+
+        LivySessionPool.release("processor-1");
+        Assert.assertTrue(client.deletedSessions.isEmpty());
+        Assert.assertSame(pool, LivySessionPool.getPool(client, request, 1, "processor-2"));
+
+        LivySessionPool.release("processor-2");
+        Assert.assertEquals(Collections.singletonList(sessionId), client.deletedSessions);
+        Assert.assertNotSame(pool, LivySessionPool.getPool(client, request, 1, "processor-3"));
+        LivySessionPool.release("processor-3");
+    }
+
+    /**
+     * A Livy client that runs every statement immediately.
+     */
+    private static class MockLivyClient extends LivyClient {
+
+        int createdSessions;
+        final List<Integer> deletedSessions = new ArrayList<>();
+        final List<String> statements = new ArrayList<>();
+        String sessionState = "idle";
+        String nextState;
+        Map<String, Object> output = Collections.singletonMap("status", "ok");
+
+        MockLivyClient() {
+            super("http://localhost:8998");
+        }
+
+        @Override
+        public int createSession(@Nonnull Map<String, Object> request) {
+            if (nextState != null) {
+                sessionState = nextState;
+            }
+            return ++createdSessions;
+        }
+
+        @Nonnull
+        @Override
+        public String getSessionState(int sessionId) {
+            return sessionState;
+        }
+
+        @Override
+        public void deleteSession(int sessionId) {
+            deletedSessions.add(sessionId);
+        }
+
+        @Override
+        public int submitStatement(int sessionId, @Nonnull String code) {
+            statements.add(code);
+            return statements.size();
+        }
+
+        @Nonnull
+        @Override
+        public Map<String, Object> getStatement(int sessionId, int statementId) {
+            final Map<String, Object> statement = new HashMap<>();
+            statement.put("state", "available");
+            statement.put("output", output);
+            return statement;
+        }
+    }
+}
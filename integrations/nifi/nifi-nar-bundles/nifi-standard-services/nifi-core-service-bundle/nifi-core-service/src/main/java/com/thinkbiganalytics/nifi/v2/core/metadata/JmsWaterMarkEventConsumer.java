@@ -0,0 +1,79 @@
+package com.thinkbiganalytics.nifi.v2.core.metadata;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.event.jms.MetadataTopics;
+import com.thinkbiganalytics.metadata.rest.model.event.FeedWaterMarkChangeEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.annotation.JmsListener;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Consumes high-water mark change events from JMS and invalidates the cached values of the registered {@link WaterMarkBatcher}s.
+ */
+public class JmsWaterMarkEventConsumer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsWaterMarkEventConsumer.class);
+
+    /**
+     * High-water mark caches to be notified of changes
+     */
+    @Nonnull
+    private final Set<WaterMarkBatcher> listeners = new CopyOnWriteArraySet<>();
+
+    /**
+     * adds a high-water mark cache to be notified on receipt of change events
+     *
+     * @param listener the high-water mark cache
+     */
+    public void addListener(@Nonnull final WaterMarkBatcher listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Processes high-water mark change events.
+     *
+     * @param event the change event
+     */
+    @JmsListener(destination = MetadataTopics.WATER_MARK_CHANGE, containerFactory = "metadataTopicListenerContainerFactory")
+    public void receiveEvent(@Nonnull final FeedWaterMarkChangeEvent event) {
+        LOG.debug("Received JMS message - topic: {}, message: {}", MetadataTopics.WATER_MARK_CHANGE, event);
+
+        for (WaterMarkBatcher listener : listeners) {
+            listener.invalidate(event.getFeedId(), event.getWaterMarks().keySet());
+        }
+    }
+
+    /**
+     * removes the high-water mark cache that was previously added with addListener
+     *
+     * @param listener the high-water mark cache
+     */
+    public void removeListener(@Nonnull final WaterMarkBatcher listener) {
+        listeners.remove(listener);
+    }
+}
@@ -51,6 +51,7 @@ public class MetadataClientRecorder implements MetadataRecorder {
     private static final ObjectWriter WATER_MARKS_WRITER = new ObjectMapper().writer().forType(Map.class);
 
     private MetadataClient client;
+    private WaterMarkBatcher waterMarks;
     private Set<String> activeWaterMarks = Collections.synchronizedSet(new HashSet<>());
     private Map<String, InitializationStatus> activeInitStatuses = Collections.synchronizedMap(new HashMap<>());
 
@@ -79,6 +80,17 @@ public class MetadataClientRecorder implements MetadataRecorder {
         this.client = client;
     }
 
+    /**
+     * constructor creates a MetadataClientRecorder that reads and writes high-water marks through the given {@link WaterMarkBatcher}
+     *
+     * @param client     the MetadataClient will be used to connect with the Metadata store
+     * @param waterMarks caches and batches the high-water mark values
+     */
+    public MetadataClientRecorder(MetadataClient client, WaterMarkBatcher waterMarks) {
+        this.client = client;
+        this.waterMarks = waterMarks;
+    }
+
 
     /* (non-Javadoc)
      * @see com.thinkbiganalytics.nifi.core.api.metadata.MetadataRecorder#loadWaterMark(org.apache.nifi.processor.ProcessSession, org.apache.nifi.flowfile.FlowFile, java.lang.String, java.lang.String)
@@ -298,11 +310,15 @@ public class MetadataClientRecorder implements MetadataRecorder {
     }
 
     private Optional<String> getHighWaterMarkValue(String feedId, String waterMarkName) {
-        return this.client.getHighWaterMarkValue(feedId, waterMarkName);
+        return this.waterMarks != null ? this.waterMarks.getValue(feedId, waterMarkName) : this.client.getHighWaterMarkValue(feedId, waterMarkName);
     }
 
     private void updateHighWaterMarkValue(String feedId, String waterMarkName, String value) {
-        this.client.updateHighWaterMarkValue(feedId, waterMarkName, value);
+        if (this.waterMarks != null) {
+            this.waterMarks.setValue(feedId, waterMarkName, value);
+        } else {
+            this.client.updateHighWaterMarkValue(feedId, waterMarkName, value);
+        }
     }
 
     private String initValueParameterName(String parameterName) {
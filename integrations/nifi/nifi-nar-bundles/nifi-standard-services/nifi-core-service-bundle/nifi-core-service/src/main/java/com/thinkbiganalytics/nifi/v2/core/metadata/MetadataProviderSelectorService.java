@@ -25,14 +25,18 @@ import com.thinkbiganalytics.nifi.core.api.metadata.KyloNiFiFlowProvider;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProvider;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProviderService;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataRecorder;
+import com.thinkbiganalytics.nifi.core.api.spring.SpringContextService;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
 import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.nifi.annotation.lifecycle.OnDisabled;
 import org.apache.nifi.annotation.lifecycle.OnEnabled;
 import org.apache.nifi.components.AllowableValue;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.components.PropertyValue;
+import org.apache.nifi.components.ValidationContext;
+import org.apache.nifi.components.ValidationResult;
 import org.apache.nifi.controller.AbstractControllerService;
 import org.apache.nifi.controller.ConfigurationContext;
 import org.apache.nifi.processor.util.StandardValidators;
@@ -51,8 +55,10 @@ import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
 
@@ -92,6 +98,39 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
         .required(false)
         .identifiesControllerService(SSLContextService.class)
         .build();
+    public static final PropertyDescriptor WATER_MARK_FLUSH_INTERVAL = new PropertyDescriptor.Builder()
+        .name("water-mark-flush-interval")
+        .displayName("High-Water Mark Flush Interval")
+        .description("The maximum time a committed high-water mark value waits before being written to the metadata server. Updates to the same high-water "
+                     + "mark within the interval are coalesced and written in a single request. A value of 0 sec writes each update immediately. With a value "
+                     + "above 0 sec, committed updates that have not yet been written are lost if NiFi stops unexpectedly.")
+        .defaultValue("0 sec")
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .required(true)
+        .build();
+    public static final PropertyDescriptor WATER_MARK_BATCH_SIZE = new PropertyDescriptor.Builder()
+        .name("water-mark-batch-size")
+        .displayName("High-Water Mark Batch Size")
+        .description("The number of pending high-water mark updates that causes them to be written before the flush interval has elapsed.")
+        .defaultValue("100")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .required(true)
+        .build();
+    public static final PropertyDescriptor WATER_MARK_CACHE_EXPIRATION = new PropertyDescriptor.Builder()
+        .name("water-mark-cache-expiration")
+        .displayName("High-Water Mark Cache Expiration")
+        .description("How long a high-water mark value read from the metadata server is cached. Cached values are dropped when the metadata server "
+                     + "reports a change, so a value above 0 sec requires a Spring Context Service. A value of 0 sec disables caching.")
+        .defaultValue("0 sec")
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .required(true)
+        .build();
+    public static final PropertyDescriptor SPRING_SERVICE = new PropertyDescriptor.Builder()
+        .name("Spring Context Service")
+        .description("Optional service for receiving high-water mark change events from the metadata server.")
+        .identifiesControllerService(SpringContextService.class)
+        .required(false)
+        .build();
     private static final AllowableValue[] ALLOWABLE_IMPLEMENATIONS = {
         new AllowableValue("LOCAL", "Local, In-memory storage", "An implemenation that stores metadata locally in memory (for development-only)"),
         new AllowableValue("REMOTE", "REST API", "An implementation that accesses metadata via the metadata service REST API")
@@ -113,6 +152,10 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
         props.add(CLIENT_USERNAME);
         props.add(CLIENT_PASSWORD);
         props.add(SSL_CONTEXT_SERVICE);
+        props.add(WATER_MARK_FLUSH_INTERVAL);
+        props.add(WATER_MARK_BATCH_SIZE);
+        props.add(WATER_MARK_CACHE_EXPIRATION);
+        props.add(SPRING_SERVICE);
         properties = Collections.unmodifiableList(props);
     }
 
@@ -120,6 +163,8 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
     private volatile MetadataProvider provider;
     private volatile MetadataRecorder recorder;
     private volatile KyloProvenanceClientProvider kyloProvenanceClientProvider;
+    private volatile WaterMarkBatcher waterMarks;
+    private volatile JmsWaterMarkEventConsumer waterMarkEventConsumer;
 
     /**
      * The Service holding the SSL Context information
@@ -131,6 +176,21 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
         return properties;
     }
 
+    @Override
+    protected Collection<ValidationResult> customValidate(final ValidationContext context) {
+        final List<ValidationResult> results = new ArrayList<>();
+
+        if (context.getProperty(WATER_MARK_CACHE_EXPIRATION).asTimePeriod(TimeUnit.MILLISECONDS) > 0 && !context.getProperty(SPRING_SERVICE).isSet()) {
+            results.add(new ValidationResult.Builder()
+                            .subject(WATER_MARK_CACHE_EXPIRATION.getDisplayName())
+                            .valid(false)
+                            .explanation("caching high-water marks requires a Spring Context Service to receive change events from the metadata server")
+                            .build());
+        }
+
+        return results;
+    }
+
     @OnEnabled
     public void onConfigured(final ConfigurationContext context) throws InitializationException {
         PropertyValue impl = context.getProperty(IMPLEMENTATION);
@@ -154,13 +214,35 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
             }
 
             this.provider = new MetadataClientProvider(client);
-            this.recorder = new MetadataClientRecorder(client);
+            this.waterMarks = new WaterMarkBatcher(client,
+                                                   context.getProperty(WATER_MARK_FLUSH_INTERVAL).asTimePeriod(TimeUnit.MILLISECONDS),
+                                                   context.getProperty(WATER_MARK_BATCH_SIZE).asInteger(),
+                                                   context.getProperty(WATER_MARK_CACHE_EXPIRATION).asTimePeriod(TimeUnit.MILLISECONDS));
+            if (context.getProperty(SPRING_SERVICE).isSet()) {
+                this.waterMarkEventConsumer = context.getProperty(SPRING_SERVICE).asControllerService(SpringContextService.class).getBean(JmsWaterMarkEventConsumer.class);
+                this.waterMarkEventConsumer.addListener(this.waterMarks);
+            }
+            this.recorder = new MetadataClientRecorder(client, this.waterMarks);
             this.kyloProvenanceClientProvider = new KyloProvenanceClientProvider(client);
         } else {
             throw new UnsupportedOperationException("Provider implementations not currently supported: " + impl.getValue());
         }
     }
 
+    /**
+     * Writes any pending high-water mark updates.
+     */
+    @OnDisabled
+    public void onDisabled() {
+        if (this.waterMarkEventConsumer != null) {
+            this.waterMarkEventConsumer.removeListener(this.waterMarks);
+            this.waterMarkEventConsumer = null;
+        }
+        if (this.waterMarks != null) {
+            this.waterMarks.close();
+            this.waterMarks = null;
+        }
+    }
 
     @Override
     public MetadataProvider getProvider() {
@@ -0,0 +1,243 @@
+package com.thinkbiganalytics.nifi.v2.core.metadata;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.thinkbiganalytics.metadata.rest.client.MetadataClient;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Caches the high-water mark values of feeds and writes changes to the metadata server in batches.
+ *
+ * <p>Updates to the same high-water mark are coalesced so only the latest value is sent. Pending updates are flushed by a background thread after the
+ * flush interval, or as soon as the batch size is reached, in a single request to the bulk high-water mark endpoint. A flush interval of zero writes
+ * each update through immediately.</p>
+ *
+ * <p>Cached values are dropped when the metadata server reports a change, such as one made by another NiFi node after a failover, and expire after a
+ * while in case a change event was missed. Values that have not yet been written always take precedence over cached or reported values.</p>
+ */
+public class WaterMarkBatcher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WaterMarkBatcher.class);
+
+    private final MetadataClient client;
+    private final long flushIntervalMillis;
+    private final int batchSize;
+
+    /**
+     * Known values by feed high-water mark name, with an empty value for a high-water mark that does not exist
+     */
+    private final Cache<String, Optional<String>> values;
+
+    /**
+     * Updates waiting to be flushed, by feed id and high-water mark name
+     */
+    private Map<String, Map<String, String>> pending = new HashMap<>();
+    private int pendingCount;
+
+    /**
+     * Updates currently being flushed
+     */
+    private Map<String, Map<String, String>> inFlight = new HashMap<>();
+
+    /**
+     * Ensures batches are written in order
+     */
+    private final Object flushLock = new Object();
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Constructs a {@code WaterMarkBatcher}.
+     *
+     * @param client              the metadata client
+     * @param flushIntervalMillis the maximum time, in milliseconds, an update waits before being written, or zero to write updates immediately
+     * @param batchSize           the number of pending updates that causes an immediate flush
+     * @param expireMillis        the time, in milliseconds, a value is cached
+     */
+    public WaterMarkBatcher(@Nonnull final MetadataClient client, final long flushIntervalMillis, final int batchSize, final long expireMillis) {
+        this.client = client;
+        this.flushIntervalMillis = Math.max(flushIntervalMillis, 0);
+        this.batchSize = Math.max(batchSize, 1);
+        this.values = CacheBuilder.newBuilder().expireAfterWrite(Math.max(expireMillis, 0), TimeUnit.MILLISECONDS).build();
+
+        if (this.flushIntervalMillis > 0) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("WaterMarkBatcher-%d").setDaemon(true).build());
+            executor.scheduleWithFixedDelay(this::flush, this.flushIntervalMillis, this.flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            executor = null;
+        }
+    }
+
+    /**
+     * Gets the current value of the specified high-water mark.
+     *
+     * @param feedId        the feed id
+     * @param waterMarkName the high-water mark name
+     * @return the value, if the high-water mark exists
+     */
+    @Nonnull
+    public Optional<String> getValue(@Nonnull final String feedId, @Nonnull final String waterMarkName) {
+        synchronized (this) {
+            Optional<String> unwritten = getUnwrittenValue(feedId, waterMarkName);
+            if (unwritten != null) {
+                return unwritten;
+            }
+        }
+
+        final String key = asKey(feedId, waterMarkName);
+        Optional<String> value = values.getIfPresent(key);
+        if (value == null) {
+            value = client.getHighWaterMarkValue(feedId, waterMarkName);
+            values.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Sets the value of the specified high-water mark.
+     *
+     * @param feedId        the feed id
+     * @param waterMarkName the high-water mark name
+     * @param value         the new value
+     */
+    public void setValue(@Nonnull final String feedId, @Nonnull final String waterMarkName, @Nonnull final String value) {
+        if (executor == null) {
+            client.updateHighWaterMarkValue(feedId, waterMarkName, value);
+            values.put(asKey(feedId, waterMarkName), Optional.of(value));
+            return;
+        }
+
+        boolean full;
+        synchronized (this) {
+            if (pending.computeIfAbsent(feedId, id -> new HashMap<>()).put(waterMarkName, value) == null) {
+                ++pendingCount;
+            }
+            values.put(asKey(feedId, waterMarkName), Optional.of(value));
+            full = pendingCount >= batchSize;
+        }
+
+        if (full && !executor.isShutdown()) {
+            executor.execute(this::flush);
+        }
+    }
+
+    /**
+     * Drops the cached values of high-water marks that were changed on the metadata server. High-water marks with unwritten values are not affected.
+     *
+     * @param feedId         the feed id
+     * @param waterMarkNames the names of the high-water marks that changed
+     */
+    public void invalidate(@Nonnull final String feedId, @Nonnull final Iterable<String> waterMarkNames) {
+        synchronized (this) {
+            for (String waterMarkName : waterMarkNames) {
+                if (getUnwrittenValue(feedId, waterMarkName) == null) {
+                    values.invalidate(asKey(feedId, waterMarkName));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the pending updates to the metadata server. Updates that could not be written are kept for the next flush unless they were replaced in
+     * the meantime.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            final Map<String, Map<String, String>> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                inFlight = batch;
+                pending = new HashMap<>();
+                pendingCount = 0;
+            }
+
+            try {
+                client.updateHighWaterMarkValues(batch);
+                log.debug("Flushed high-water marks of {} feeds", batch.size());
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush high-water marks of {} feeds; they will be retried", batch.size(), e);
+                synchronized (this) {
+                    batch.forEach((feedId, waterMarks) -> {
+                        final Map<String, String> feedPending = pending.computeIfAbsent(feedId, id -> new HashMap<>());
+                        waterMarks.forEach((name, value) -> {
+                            if (feedPending.putIfAbsent(name, value) == null) {
+                                ++pendingCount;
+                            }
+                        });
+                    });
+                }
+            } finally {
+                synchronized (this) {
+                    inFlight = new HashMap<>();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the background flushes and writes any pending updates.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * Gets the value of the specified high-water mark that has not yet been written to the metadata server.
+     *
+     * @return the unwritten value, or {@code null} if there is none
+     */
+    private Optional<String> getUnwrittenValue(@Nonnull final String feedId, @Nonnull final String waterMarkName) {
+        final Optional<String> value = findValue(pending, feedId, waterMarkName);
+        return (value != null) ? value : findValue(inFlight, feedId, waterMarkName);
+    }
+
+    private Optional<String> findValue(@Nonnull final Map<String, Map<String, String>> updates, @Nonnull final String feedId, @Nonnull final String waterMarkName) {
+        final Map<String, String> feedUpdates = updates.get(feedId);
+        return (feedUpdates != null && feedUpdates.containsKey(waterMarkName)) ? Optional.ofNullable(feedUpdates.get(waterMarkName)) : null;
+    }
+
+    @Nonnull
+    private String asKey(@Nonnull final String feedId, @Nonnull final String waterMarkName) {
+        return feedId + "." + waterMarkName;
+    }
+}
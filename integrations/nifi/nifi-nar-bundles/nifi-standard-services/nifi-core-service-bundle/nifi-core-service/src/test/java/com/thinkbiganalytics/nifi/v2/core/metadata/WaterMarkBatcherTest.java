@@ -0,0 +1,113 @@
+package com.thinkbiganalytics.nifi.v2.core.metadata;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableMap;
+import com.thinkbiganalytics.metadata.rest.client.MetadataClient;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.Optional;
+
+public class WaterMarkBatcherTest {
+
+    /**
+     * Verify updates to the same high-water mark are coalesced and written in a single request.
+     */
+    @Test
+    public void testCoalesce() {
+        final MetadataClient client = Mockito.mock(MetadataClient.class);
+        final WaterMarkBatcher batcher = new WaterMarkBatcher(client, 3600000, 100, 3600000);
+
+        batcher.setValue("feed1", "wm", "1");
+        batcher.setValue("feed1", "wm", "2");
+        batcher.setValue("feed2", "wm", "3");
+        Assert.assertEquals(Optional.of("2"), batcher.getValue("feed1", "wm"));
+        Mockito.verifyZeroInteractions(client);
+
+        batcher.close();
+        Mockito.verify(client).updateHighWaterMarkValues(ImmutableMap.of("feed1", ImmutableMap.of("wm", "2"), "feed2", ImmutableMap.of("wm", "3")));
+        Mockito.verifyNoMoreInteractions(client);
+    }
+
+    /**
+     * Verify a failed flush is retried without replacing newer values.
+     */
+    @Test
+    public void testFlushFailure() {
+        final MetadataClient client = Mockito.mock(MetadataClient.class);
+        Mockito.doThrow(new IllegalStateException("unavailable")).doNothing().when(client).updateHighWaterMarkValues(Mockito.anyMap());
+        final WaterMarkBatcher batcher = new WaterMarkBatcher(client, 3600000, 100, 3600000);
+
+        batcher.setValue("feed1", "wm1", "1");
+        batcher.setValue("feed1", "wm2", "1");
+        batcher.flush();
+
+        batcher.setValue("feed1", "wm2", "2");
+        batcher.flush();
+        Mockito.verify(client).updateHighWaterMarkValues(ImmutableMap.of("feed1", ImmutableMap.of("wm1", "1", "wm2", "2")));
+
+        batcher.close();
+        Mockito.verify(client, Mockito.times(2)).updateHighWaterMarkValues(Mockito.anyMap());
+    }
+
+    /**
+     * Verify cached values are invalidated by change events unless they have not been written.
+     */
+    @Test
+    public void testInvalidate() {
+        final MetadataClient client = Mockito.mock(MetadataClient.class);
+        Mockito.when(client.getHighWaterMarkValue("feed1", "wm")).thenReturn(Optional.of("1"), Optional.of("5"));
+        final WaterMarkBatcher batcher = new WaterMarkBatcher(client, 3600000, 100, 3600000);
+
+        // Values are read once
+        Assert.assertEquals(Optional.of("1"), batcher.getValue("feed1", "wm"));
+        Assert.assertEquals(Optional.of("1"), batcher.getValue("feed1", "wm"));
+        Mockito.verify(client, Mockito.times(1)).getHighWaterMarkValue("feed1", "wm");
+
+        // Changes made elsewhere are read again
+        batcher.invalidate("feed1", Collections.singleton("wm"));
+        Assert.assertEquals(Optional.of("5"), batcher.getValue("feed1", "wm"));
+
+        // Pending values take precedence
+        batcher.setValue("feed1", "wm", "6");
+        batcher.invalidate("feed1", Collections.singleton("wm"));
+        Assert.assertEquals(Optional.of("6"), batcher.getValue("feed1", "wm"));
+        Mockito.verify(client, Mockito.times(2)).getHighWaterMarkValue("feed1", "wm");
+    }
+
+    /**
+     * Verify updates are written immediately when the flush interval is zero.
+     */
+    @Test
+    public void testWriteThrough() {
+        final MetadataClient client = Mockito.mock(MetadataClient.class);
+        final WaterMarkBatcher batcher = new WaterMarkBatcher(client, 0, 100, 3600000);
+
+        batcher.setValue("feed1", "wm", "1");
+        Mockito.verify(client).updateHighWaterMarkValue("feed1", "wm", "1");
+        Assert.assertEquals(Optional.of("1"), batcher.getValue("feed1", "wm"));
+        Mockito.verifyNoMoreInteractions(client);
+    }
+}
@@ -0,0 +1,108 @@
+package com.thinkbiganalytics.nifi.v2.thrift;
+
+/*-
+ * #%L
+ * thinkbig-nifi-hadoop-service-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * A snapshot of how a {@link ThriftService} connection pool has been used since it was enabled.
+ */
+public class ThriftConnectionMetrics {
+
+    private final long borrowCount;
+    private final long totalBorrowWaitMillis;
+    private final long maxBorrowWaitMillis;
+    private final int activeConnections;
+    private final int maxActiveConnections;
+    private final long statementCount;
+    private final long failedStatementCount;
+    private final long totalStatementMillis;
+    private final long maxStatementMillis;
+
+    public ThriftConnectionMetrics(long borrowCount, long totalBorrowWaitMillis, long maxBorrowWaitMillis, int activeConnections, int maxActiveConnections,
+                                   long statementCount, long failedStatementCount, long totalStatementMillis, long maxStatementMillis) {
+        this.borrowCount = borrowCount;
+        this.totalBorrowWaitMillis = totalBorrowWaitMillis;
+        this.maxBorrowWaitMillis = maxBorrowWaitMillis;
+        this.activeConnections = activeConnections;
+        this.maxActiveConnections = maxActiveConnections;
+        this.statementCount = statementCount;
+        this.failedStatementCount = failedStatementCount;
+        this.totalStatementMillis = totalStatementMillis;
+        this.maxStatementMillis = maxStatementMillis;
+    }
+
+    /**
+     * @return the number of connections taken from the pool
+     */
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    /**
+     * @return the average time spent waiting for, and validating, a connection
+     */
+    public long getAverageBorrowWaitMillis() {
+        return borrowCount > 0 ? totalBorrowWaitMillis / borrowCount : 0;
+    }
+
+    public long getMaxBorrowWaitMillis() {
+        return maxBorrowWaitMillis;
+    }
+
+    /**
+     * @return the number of connections currently taken from the pool and not yet closed
+     */
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    /**
+     * @return the largest number of connections that were in use at the same time
+     */
+    public int getMaxActiveConnections() {
+        return maxActiveConnections;
+    }
+
+    /**
+     * @return the number of statements executed on connections from the pool
+     */
+    public long getStatementCount() {
+        return statementCount;
+    }
+
+    public long getFailedStatementCount() {
+        return failedStatementCount;
+    }
+
+    public long getAverageStatementMillis() {
+        return statementCount > 0 ? totalStatementMillis / statementCount : 0;
+    }
+
+    public long getMaxStatementMillis() {
+        return maxStatementMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "borrowed=" + borrowCount + ", avgBorrowWaitMillis=" + getAverageBorrowWaitMillis() + ", maxBorrowWaitMillis=" + maxBorrowWaitMillis
+               + ", active=" + activeConnections + ", maxActive=" + maxActiveConnections + ", statements=" + statementCount + ", failedStatements="
+               + failedStatementCount + ", avgStatementMillis=" + getAverageStatementMillis() + ", maxStatementMillis=" + maxStatementMillis;
+    }
+}
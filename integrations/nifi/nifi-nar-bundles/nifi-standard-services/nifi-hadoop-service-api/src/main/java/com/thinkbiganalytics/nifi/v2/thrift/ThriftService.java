@@ -38,4 +38,13 @@ public interface ThriftService extends ControllerService {
      * @throws ProcessException to the nifi processor, if there is any issue with the current connection
      */
     Connection getConnection() throws ProcessException;
+
+    /**
+     * Gets the connection wait times and statement latencies recorded by this service.
+     *
+     * @return the metrics, or {@code null} if this service does not record them
+     */
+    default ThriftConnectionMetrics getMetrics() {
+        return null;
+    }
 }
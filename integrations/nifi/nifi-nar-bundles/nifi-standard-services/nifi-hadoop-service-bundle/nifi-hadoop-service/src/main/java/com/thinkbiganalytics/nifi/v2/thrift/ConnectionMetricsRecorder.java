@@ -0,0 +1,143 @@
+package com.thinkbiganalytics.nifi.v2.thrift;
+
+/*-
+ * #%L
+ * thinkbig-nifi-hadoop-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how long callers wait for connections, how many connections are in use, and how long statements take to execute.
+ *
+ * <p>Borrowed connections are wrapped so that closing them, and executing statements created from them, is recorded.</p>
+ */
+class ConnectionMetricsRecorder {
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalBorrowWaitMillis = new AtomicLong();
+    private final AtomicLong maxBorrowWaitMillis = new AtomicLong();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicInteger maxActiveConnections = new AtomicInteger();
+    private final AtomicLong statementCount = new AtomicLong();
+    private final AtomicLong failedStatementCount = new AtomicLong();
+    private final AtomicLong totalStatementMillis = new AtomicLong();
+    private final AtomicLong maxStatementMillis = new AtomicLong();
+
+    /**
+     * Record a connection taken from the pool
+     *
+     * @param connection the connection
+     * @param waitMillis the time spent waiting for the connection
+     * @return a connection that records its use
+     */
+    Connection borrowed(Connection connection, long waitMillis) {
+        borrowCount.incrementAndGet();
+        totalBorrowWaitMillis.addAndGet(waitMillis);
+        maxBorrowWaitMillis.accumulateAndGet(waitMillis, Math::max);
+        maxActiveConnections.accumulateAndGet(activeConnections.incrementAndGet(), Math::max);
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    ThriftConnectionMetrics snapshot() {
+        return new ThriftConnectionMetrics(borrowCount.get(), totalBorrowWaitMillis.get(), maxBorrowWaitMillis.get(), activeConnections.get(), maxActiveConnections.get(),
+                                           statementCount.get(), failedStatementCount.get(), totalStatementMillis.get(), maxStatementMillis.get());
+    }
+
+    private void recordStatement(long millis, boolean failed) {
+        statementCount.incrementAndGet();
+        if (failed) {
+            failedStatementCount.incrementAndGet();
+        }
+        totalStatementMillis.addAndGet(millis);
+        maxStatementMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Counts the connection as returned when it is closed and wraps the statements it creates
+     */
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                activeConnections.decrementAndGet();
+            }
+            final Object result = ConnectionMetricsRecorder.invoke(connection, method, args);
+            if (result instanceof Statement) {
+                final Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                                                                          : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, new StatementHandler(result));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Times the execute methods of a statement
+     */
+    private class StatementHandler implements InvocationHandler {
+
+        private final Object statement;
+
+        StatementHandler(Object statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return ConnectionMetricsRecorder.invoke(statement, method, args);
+            }
+            final long start = System.currentTimeMillis();
+            boolean failed = true;
+            try {
+                final Object result = ConnectionMetricsRecorder.invoke(statement, method, args);
+                failed = false;
+                return result;
+            } finally {
+                recordStatement(System.currentTimeMillis() - start, failed);
+            }
+        }
+    }
+}
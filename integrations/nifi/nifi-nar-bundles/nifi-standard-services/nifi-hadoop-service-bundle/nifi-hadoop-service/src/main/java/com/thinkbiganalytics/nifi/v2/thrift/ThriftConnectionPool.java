@@ -202,6 +202,11 @@ public class ThriftConnectionPool extends AbstractControllerService implements T
 
     private volatile BasicDataSource dataSource;
 
+    /**
+     * Records connection wait times and statement latencies
+     */
+    private volatile ConnectionMetricsRecorder metrics = new ConnectionMetricsRecorder();
+
     /**
      * Validates that one or more files exist, as specified in a single property.
      *
@@ -302,6 +307,7 @@ public class ThriftConnectionPool extends AbstractControllerService implements T
                 .validationQuery(validationQuery)
                 .validationQueryTimeout(validationQueryTimeout)
                 .build();
+        metrics = new ConnectionMetricsRecorder();
         getLogger().info("Created new ThirftConnectionPool with Refreshable Datasource for " + urlString);
     }
 
@@ -357,9 +363,10 @@ public class ThriftConnectionPool extends AbstractControllerService implements T
     @Override
     public Connection getConnection() throws ProcessException {
         try {
+            final long start = System.currentTimeMillis();
             if (kerberosAuthentication()) {
                 final Connection con = dataSource.getConnection();
-                return con;
+                return metrics.borrowed(con, System.currentTimeMillis() - start);
             }
 
             getLogger().error("Unable to get connection from pool , returning null");
@@ -369,6 +376,11 @@ public class ThriftConnectionPool extends AbstractControllerService implements T
         }
     }
 
+    @Override
+    public ThriftConnectionMetrics getMetrics() {
+        return metrics.snapshot();
+    }
+
     /**
      * Invoke kerberos aauthentication code and validate user with given keytab.
      *
@@ -28,9 +28,11 @@ import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
 import org.glassfish.jersey.media.multipart.MultiPart;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -60,31 +62,49 @@ public abstract class AbstractNiFiTemplatesRestClient implements NiFiTemplatesRe
         return upload(multiPart);
     }
 
+    /**
+     * Visits the templates returned by {@link #findAll()}. Implementations should override this to read the templates incrementally.
+     */
+    @Override
+    public void visitAll(@Nonnull final Predicate<TemplateDTO> visitor) {
+        for (TemplateDTO template : findAll()) {
+            if (!visitor.test(template)) {
+                break;
+            }
+        }
+    }
+
     @Nonnull
     @Override
     public Set<TemplateDTO> findByInputPortName(@Nonnull final String inputPortName) {
-        return findAll().stream()
-            .map(template -> findById(template.getId()))
-            .filter(template -> {
-                final Set<PortDTO> ports = template
-                    .map(TemplateDTO::getSnippet)
-                    .map(FlowSnippetDTO::getInputPorts)
-                    .orElse(Collections.emptySet());
-                return ports.stream()
-                    .filter(port -> port.getName().equalsIgnoreCase(inputPortName))
-                    .findFirst()
-                    .isPresent();
-            })
-            .map(Optional::get)
-            .collect(Collectors.toSet());
+        final Set<TemplateDTO> templates = new HashSet<>();
+        visitAll(summary -> {
+            findById(summary.getId())
+                .filter(template -> {
+                    final Set<PortDTO> ports = Optional.ofNullable(template.getSnippet())
+                        .map(FlowSnippetDTO::getInputPorts)
+                        .orElse(Collections.emptySet());
+                    return ports.stream().anyMatch(port -> port.getName().equalsIgnoreCase(inputPortName));
+                })
+                .ifPresent(templates::add);
+            return true;
+        });
+        return templates;
     }
 
     @Nonnull
     @Override
     public Optional<TemplateDTO> findByName(@Nonnull final String name) {
-        return findAll().stream()
-            .filter(template -> template.getName().equalsIgnoreCase(name))
-            .findFirst();
+        // stop reading the templates once the match is found
+        final AtomicReference<TemplateDTO> match = new AtomicReference<>();
+        visitAll(template -> {
+            if (template.getName().equalsIgnoreCase(name)) {
+                match.set(template);
+                return false;
+            }
+            return true;
+        });
+        return Optional.ofNullable(match.get());
     }
 
     /**
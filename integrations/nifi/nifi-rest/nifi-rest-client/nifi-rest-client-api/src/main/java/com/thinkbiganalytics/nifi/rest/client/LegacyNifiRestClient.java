@@ -50,6 +50,7 @@ import org.apache.nifi.web.api.dto.DocumentedTypeDTO;
 import org.apache.nifi.web.api.dto.FlowSnippetDTO;
 import org.apache.nifi.web.api.dto.PortDTO;
 import org.apache.nifi.web.api.dto.ProcessGroupDTO;
+import org.apache.nifi.web.api.dto.ProcessorConfigDTO;
 import org.apache.nifi.web.api.dto.ProcessorDTO;
 import org.apache.nifi.web.api.dto.PropertyDescriptorDTO;
 import org.apache.nifi.web.api.dto.TemplateDTO;
@@ -57,14 +58,18 @@ import org.apache.nifi.web.api.dto.search.ComponentSearchResultDTO;
 import org.apache.nifi.web.api.dto.search.SearchResultsDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -85,6 +90,18 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
     @Inject
     private NiFiPropertyDescriptorTransform propertyDescriptorTransform;
 
+    /**
+     * Sends bulk requests to NiFi concurrently
+     */
+    @Autowired(required = false)
+    private NiFiAsyncRestClient asyncClient;
+
+    /**
+     * Locates components by id without searching NiFi
+     */
+    @Autowired(required = false)
+    private NiFiComponentIndex componentIndex;
+
     /**
      * Gets Template data, either a quick view or including all its content
      */
@@ -177,23 +194,18 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
             log.error("Error getPortsForProcessGroup {}", entity.getName());
         }
         if (ports != null && !ports.isEmpty()) {
-            for (PortDTO port : ports) {
+            NiFiAsyncRestClient.BulkResult<PortDTO, PortDTO> result = getAsyncClient().invokeAll(ports, (nifi, port) -> {
                 port.setState(NifiProcessUtil.PROCESS_STATE.RUNNING.name());
                 if (port.getType().equalsIgnoreCase(NifiConstants.NIFI_PORT_TYPE.INPUT_PORT.name())) {
-                    try {
-                        startInputPort(entity.getParentGroupId(), port.getId());
-                    } catch (NifiClientRuntimeException e) {
-                        log.error("Error starting Input Port {} for process group {}", port.getName(), entity.getName());
-                    }
+                    return startInputPort(entity.getParentGroupId(), port.getId());
                 } else if (port.getType().equalsIgnoreCase(NifiConstants.NIFI_PORT_TYPE.OUTPUT_PORT.name())) {
-                    try {
-                        startOutputPort(entity.getParentGroupId(), port.getId());
-                    } catch (NifiClientRuntimeException e) {
-                        log.error("Error starting Output Port {} for process group {}", port.getName(), entity.getName());
-                    }
+                    return startOutputPort(entity.getParentGroupId(), port.getId());
                 }
+                return port;
+            });
+            for (PortDTO port : result.getFailures().keySet()) {
+                log.error("Error starting {} {} for process group {}", port.getType(), port.getName(), entity.getName());
             }
-
         }
 
     }
@@ -295,6 +307,16 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
 
     public List<NifiProperty> getPropertiesForProcessGroup(String processGroupId) throws NifiComponentNotFoundException {
         ProcessGroupDTO processGroup = getProcessGroup(processGroupId, true, true);
+        return getPropertiesForProcessGroup(processGroup);
+    }
+
+    /**
+     * Gets the properties of the processors in a process group that was already fetched with its contents.
+     *
+     * @param processGroup the process group
+     * @return the properties of the processors
+     */
+    public List<NifiProperty> getPropertiesForProcessGroup(ProcessGroupDTO processGroup) {
         return NifiPropertyUtil.getProperties(processGroup, propertyDescriptorTransform);
     }
 
@@ -339,15 +361,14 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
     public void stopInputs(ProcessGroupDTO groupDTO) {
         List<ProcessorDTO> inputs = NifiProcessUtil.getInputProcessors(groupDTO);
         if (inputs != null) {
-            for (ProcessorDTO input : inputs) {
+            throwFirstFailure(getAsyncClient().invokeAll(inputs, (nifi, input) -> {
                 stopProcessor(input);
-            }
+                return input;
+            }));
         }
         Set<PortDTO> inputPorts = getInputPorts(groupDTO.getId());
         if (inputPorts != null) {
-            for (PortDTO port : inputPorts) {
-                stopInputPort(groupDTO.getId(), port.getId());
-            }
+            throwFirstFailure(getAsyncClient().invokeAll(inputPorts, (nifi, port) -> stopInputPort(groupDTO.getId(), port.getId())));
         }
     }
 
@@ -534,16 +555,12 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
 
     public void deleteControllerServices(Collection<ControllerServiceDTO> services) throws NifiClientRuntimeException {
         //http://localhost:8079/nifi-api/controller/controller-services/node/3c475f44-b038-4cb0-be51-65948de72764?version=1210&clientId=86af0022-9ba6-40b9-ad73-6d757b6f8d25
-        Set<String> unableToDelete = new HashSet<>();
-        for (ControllerServiceDTO dto : services) {
-            try {
-                deleteControllerService(dto.getId());
-            } catch (Exception e) {
-                if (!(e instanceof NifiComponentNotFoundException)) {
-                    unableToDelete.add(dto.getId());
-                }
-            }
-        }
+        NiFiAsyncRestClient.BulkResult<ControllerServiceDTO, ControllerServiceDTO> result = getAsyncClient().invokeAll(services, (nifi, dto) ->
+            nifi.controllerServices().delete(dto.getId())
+                .orElseThrow(() -> new NifiComponentNotFoundException(dto.getId(), NifiConstants.NIFI_COMPONENT_TYPE.CONTROLLER_SERVICE, null)));
+        Set<String> unableToDelete = result.getFailedItems(NifiComponentNotFoundException.class).stream()
+            .map(ControllerServiceDTO::getId)
+            .collect(Collectors.toSet());
         if (!unableToDelete.isEmpty()) {
             throw new NifiClientRuntimeException("Unable to Delete the following Services " + unableToDelete);
         }
@@ -615,9 +632,10 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
      */
     public void disableAllInputProcessors(String processGroupId) throws NifiComponentNotFoundException {
         List<ProcessorDTO> processorDTOs = getInputProcessors(processGroupId);
-        ProcessorDTO updateDto = new ProcessorDTO();
         if (processorDTOs != null) {
-            for (ProcessorDTO dto : processorDTOs) {
+            //each processor is stopped and disabled in order, while the processors themselves are updated concurrently
+            throwFirstFailure(getAsyncClient().invokeAll(processorDTOs, (nifi, dto) -> {
+                ProcessorDTO updateDto = new ProcessorDTO();
                 updateDto.setParentGroupId(dto.getParentGroupId());
                 updateDto.setId(dto.getId());
                 //fetch the processor and update it
@@ -632,7 +650,8 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
                     updateDto.setState(NifiProcessUtil.PROCESS_STATE.DISABLED.name());
                     updateProcessorWithRetry(updateDto);
                 }
-            }
+                return dto;
+            }));
         }
         //also stop any input ports
 
@@ -835,20 +854,73 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
      * Update the properties
      */
     public void updateProcessGroupProperties(List<NifiProperty> properties) {
+        throwFirstFailure(updateProcessGroupProperties(null, properties));
+    }
 
-        Map<String, Map<String, List<NifiProperty>>>
-            processGroupProperties =
-            NifiPropertyUtil.groupPropertiesByProcessGroupAndProcessor(properties);
+    /**
+     * Updates the properties of the processors in a process group.
+     *
+     * <p>Each processor is updated with a single request containing only the properties whose values differ from the processors already fetched
+     * with the process group. The requests are sent concurrently, bounded by the async client, and retried when NiFi reports a revision
+     * conflict. Processors that are not in the process group are fetched first.</p>
+     *
+     * @param processGroup the process group fetched with its contents, or {@code null} to fetch each processor
+     * @param properties   the properties to update
+     * @return the updated processors and the failures, by processor id
+     */
+    public NiFiAsyncRestClient.BulkResult<String, ProcessorDTO> updateProcessGroupProperties(@Nullable ProcessGroupDTO processGroup, List<NifiProperty> properties) {
+        Map<String, ProcessorDTO> processors = NifiProcessUtil.getProcessorsMap(processGroup);
+        Map<String, List<NifiProperty>> processorProperties = new LinkedHashMap<>();
+        for (NifiProperty property : properties) {
+            processorProperties.computeIfAbsent(property.getProcessorId(), processorId -> new ArrayList<>()).add(property);
+        }
 
-        for (Map.Entry<String, Map<String, List<NifiProperty>>> processGroupEntry : processGroupProperties.entrySet()) {
+        return getAsyncClient().invokeAll(processorProperties.keySet(), (nifi, processorId) -> {
+            List<NifiProperty> processorUpdates = processorProperties.get(processorId);
+            ProcessorDTO processor = processors.get(processorId);
+            if (processor == null) {
+                String processGroupId = processorUpdates.get(0).getProcessGroupId();
+                processor = nifi.processors().findById(processGroupId, processorId)
+                    .orElseThrow(() -> new NifiComponentNotFoundException(processorId, NifiConstants.NIFI_COMPONENT_TYPE.PROCESSOR, null));
+            }
 
-            String processGroupId = processGroupEntry.getKey();
-            for (Map.Entry<String, List<NifiProperty>> propertyEntry : processGroupEntry.getValue().entrySet()) {
-                String processorId = propertyEntry.getKey();
-                updateProcessorProperties(processGroupId, processorId, propertyEntry.getValue());
+            ProcessorDTO update = createPropertiesUpdate(processor, processorUpdates);
+            if (update == null) {
+                return processor;
             }
+            return NiFiAsyncRestClient.retryOnConflict(() -> nifi.processors().update(update), NiFiAsyncRestClient.DEFAULT_CONFLICT_RETRIES);
+        });
+    }
 
+    /**
+     * Creates the update of a processor's properties.
+     *
+     * @param processor  the current processor
+     * @param properties the new property values
+     * @return a processor containing only the changed properties, or {@code null} if no values changed
+     */
+    @Nullable
+    private ProcessorDTO createPropertiesUpdate(@Nonnull ProcessorDTO processor, @Nonnull List<NifiProperty> properties) {
+        Map<String, String> currentValues = (processor.getConfig() != null && processor.getConfig().getProperties() != null)
+                                            ? processor.getConfig().getProperties() : Collections.emptyMap();
+        Map<String, String> changedValues = new HashMap<>();
+        for (NifiProperty property : properties) {
+            if (!currentValues.containsKey(property.getKey()) || !Objects.equals(currentValues.get(property.getKey()), property.getValue())) {
+                changedValues.put(property.getKey(), property.getValue());
+            }
+        }
+        if (changedValues.isEmpty()) {
+            return null;
         }
+
+        ProcessorConfigDTO config = new ProcessorConfigDTO();
+        config.setProperties(changedValues);
+
+        ProcessorDTO update = new ProcessorDTO();
+        update.setId(processor.getId());
+        update.setParentGroupId(processor.getParentGroupId());
+        update.setConfig(config);
+        return update;
     }
 
     public void updateProcessorProperties(String processGroupId, String processorId, List<NifiProperty> properties) {
@@ -1166,7 +1238,30 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
         return client.search(query);
     }
 
+    /**
+     * Finds a processor by id.  The process group is taken from the component index, falling back to a search of the NiFi flow if the
+     * processor is not indexed or is no longer in the indexed group.
+     *
+     * @param processorId the processor id
+     * @return the processor, or {@code null} if not found
+     */
     public ProcessorDTO findProcessorById(String processorId) {
+        Optional<NiFiComponentIndex.Component> indexed = getComponentIndex().find(processorId, NifiConstants.NIFI_COMPONENT_TYPE.PROCESSOR);
+        if (indexed.isPresent()) {
+            Optional<ProcessorDTO> processor = client.processors().findById(indexed.get().getGroupId(), processorId);
+            if (processor.isPresent()) {
+                //the v1 api finds processors by id only, so the processor may have moved to another group
+                String groupId = processor.get().getParentGroupId();
+                if (groupId != null && !groupId.equals(indexed.get().getGroupId())) {
+                    log.debug("Processor {} moved from the indexed process group {} to {}", processorId, indexed.get().getGroupId(), groupId);
+                    getComponentIndex().put(processorId, NifiConstants.NIFI_COMPONENT_TYPE.PROCESSOR, groupId);
+                }
+                return processor.get();
+            }
+            log.debug("Processor {} is no longer in the indexed process group {}", processorId, indexed.get().getGroupId());
+            getComponentIndex().remove(processorId);
+        }
+
         SearchResultsDTO results = search(processorId);
         //log this
         if (results != null && results.getProcessorResults() != null && !results.getProcessorResults().isEmpty()) {
@@ -1177,6 +1272,7 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
             ProcessorDTO processorEntity = getProcessor(groupId, id);
 
             if (processorEntity != null) {
+                getComponentIndex().put(id, NifiConstants.NIFI_COMPONENT_TYPE.PROCESSOR, groupId);
                 return processorEntity;
             }
         } else {
@@ -1247,4 +1343,48 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
     public void setClient(NiFiRestClient client) {
         this.client = client;
     }
+
+    /**
+     * Returns the client used to send bulk requests to NiFi concurrently.
+     *
+     * @return the asynchronous NiFi REST client
+     */
+    public NiFiAsyncRestClient getAsyncClient() {
+        if (asyncClient == null) {
+            asyncClient = new NiFiAsyncRestClient(client);
+        }
+        return asyncClient;
+    }
+
+    public void setAsyncClient(NiFiAsyncRestClient asyncClient) {
+        this.asyncClient = asyncClient;
+    }
+
+    /**
+     * Returns the index used to locate components by id.
+     *
+     * @return the component index
+     */
+    public synchronized NiFiComponentIndex getComponentIndex() {
+        if (componentIndex == null) {
+            componentIndex = new NiFiComponentIndex();
+        }
+        return componentIndex;
+    }
+
+    public synchronized void setComponentIndex(NiFiComponentIndex componentIndex) {
+        this.componentIndex = componentIndex;
+    }
+
+    /**
+     * Rethrows the first failure of a bulk operation, after all of the requests have completed.
+     *
+     * @param result the result of the bulk operation
+     */
+    private void throwFirstFailure(NiFiAsyncRestClient.BulkResult<?, ?> result) {
+        if (result.hasFailures()) {
+            Throwable cause = NifiRestClientExceptionTranslator.translateException(result.getFailures().values().iterator().next());
+            throw (cause instanceof RuntimeException) ? (RuntimeException) cause : new NifiClientRuntimeException(cause);
+        }
+    }
 }
@@ -0,0 +1,387 @@
+package com.thinkbiganalytics.nifi.rest.client;
+
+/*-
+ * #%L
+ * thinkbig-nifi-rest-client-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.apache.nifi.web.api.dto.ControllerServiceDTO;
+import org.apache.nifi.web.api.dto.PortDTO;
+import org.apache.nifi.web.api.dto.ProcessorDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+
+/**
+ * Asynchronous variant of the {@link NiFiRestClient} that issues requests to NiFi concurrently.
+ *
+ * <p>Requests are run on a fixed pool of {@code maxConcurrentRequests} threads so that bulk operations, such as starting all the ports of a
+ * process group or deleting a set of controller services, are pipelined against NiFi without flooding it with unbounded parallel requests.</p>
+ */
+public class NiFiAsyncRestClient {
+
+    private static final Logger log = LoggerFactory.getLogger(NiFiAsyncRestClient.class);
+
+    /**
+     * The default number of requests sent to NiFi at the same time
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+
+    /**
+     * The default number of times an update is retried when NiFi rejects it because the component was modified at the same time
+     */
+    public static final int DEFAULT_CONFLICT_RETRIES = 5;
+
+    /**
+     * The delay before the first retry of a conflicting update, increased with each attempt
+     */
+    private static final long CONFLICT_BACKOFF_MILLIS = 100;
+
+    /**
+     * Part of the message NiFi responds with when an update is made with a stale revision
+     */
+    private static final String STALE_REVISION_MESSAGE = "is not the most up-to-date revision";
+
+    /**
+     * The synchronous client used to make each request
+     */
+    @Nonnull
+    private final NiFiRestClient client;
+
+    /**
+     * Runs the requests with bounded parallelism
+     */
+    @Nonnull
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a {@code NiFiAsyncRestClient} with the default number of concurrent requests.
+     *
+     * @param client the NiFi REST client
+     */
+    public NiFiAsyncRestClient(@Nonnull final NiFiRestClient client) {
+        this(client, DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+
+    /**
+     * Constructs a {@code NiFiAsyncRestClient}.
+     *
+     * @param client                the NiFi REST client
+     * @param maxConcurrentRequests the maximum number of requests sent to NiFi at the same time
+     */
+    public NiFiAsyncRestClient(@Nonnull final NiFiRestClient client, final int maxConcurrentRequests) {
+        this.client = client;
+        this.executor = Executors.newFixedThreadPool(Math.max(maxConcurrentRequests, 1), new NiFiRequestThreadFactory());
+    }
+
+    /**
+     * Submits a request to NiFi.
+     *
+     * @param request the request to make using the synchronous client
+     * @param <T>     the type of response
+     * @return the response of the request
+     */
+    @Nonnull
+    public <T> CompletableFuture<T> submit(@Nonnull final Function<NiFiRestClient, T> request) {
+        return CompletableFuture.supplyAsync(() -> request.apply(client), executor);
+    }
+
+    /**
+     * Updates a processor.
+     *
+     * @param processor the processor
+     * @return the updated processor
+     */
+    @Nonnull
+    public CompletableFuture<ProcessorDTO> updateProcessor(@Nonnull final ProcessorDTO processor) {
+        return submit(nifi -> nifi.processors().update(processor));
+    }
+
+    /**
+     * Updates a processor, retrying when NiFi rejects the update because the processor was modified at the same time.
+     *
+     * @param processor the processor
+     * @return the updated processor
+     */
+    @Nonnull
+    public CompletableFuture<ProcessorDTO> updateProcessorWithConflictRetry(@Nonnull final ProcessorDTO processor) {
+        return submit(nifi -> retryOnConflict(() -> nifi.processors().update(processor), DEFAULT_CONFLICT_RETRIES));
+    }
+
+    /**
+     * Updates an input port.
+     *
+     * @param processGroupId the process group id
+     * @param inputPort      the input port
+     * @return the updated input port
+     */
+    @Nonnull
+    public CompletableFuture<PortDTO> updateInputPort(@Nonnull final String processGroupId, @Nonnull final PortDTO inputPort) {
+        return submit(nifi -> nifi.ports().updateInputPort(processGroupId, inputPort));
+    }
+
+    /**
+     * Updates an output port.
+     *
+     * @param processGroupId the process group id
+     * @param outputPort     the output port
+     * @return the updated output port
+     */
+    @Nonnull
+    public CompletableFuture<PortDTO> updateOutputPort(@Nonnull final String processGroupId, @Nonnull final PortDTO outputPort) {
+        return submit(nifi -> nifi.ports().updateOutputPort(processGroupId, outputPort));
+    }
+
+    /**
+     * Deletes a controller service.
+     *
+     * @param controllerServiceId the controller service id
+     * @return the deleted controller service, if found
+     */
+    @Nonnull
+    public CompletableFuture<Optional<ControllerServiceDTO>> deleteControllerService(@Nonnull final String controllerServiceId) {
+        return submit(nifi -> nifi.controllerServices().delete(controllerServiceId));
+    }
+
+    /**
+     * Schedules or unschedules the components of a process group.
+     *
+     * @param processGroupId       the process group id
+     * @param parentProcessGroupId the parent process group id
+     * @param state                the new state
+     * @return completes when NiFi has accepted the new state
+     */
+    @Nonnull
+    public CompletableFuture<Void> schedule(@Nonnull final String processGroupId, @Nonnull final String parentProcessGroupId, @Nonnull final NiFiComponentState state) {
+        return submit(nifi -> {
+            nifi.processGroups().schedule(processGroupId, parentProcessGroupId, state);
+            return null;
+        });
+    }
+
+    /**
+     * Applies a request to each of the items concurrently and waits for all of them to complete.
+     *
+     * @param items   the items to process
+     * @param request the request to make for each item
+     * @param <I>     the type of item
+     * @param <T>     the type of response
+     * @return the responses and failures for each item
+     */
+    @Nonnull
+    public <I, T> BulkResult<I, T> invokeAll(@Nonnull final Collection<I> items, @Nonnull final BiFunction<NiFiRestClient, I, T> request) {
+        final Map<I, CompletableFuture<T>> futures = new LinkedHashMap<>(items.size());
+        for (final I item : items) {
+            futures.put(item, submit(nifi -> request.apply(nifi, item)));
+        }
+        return BulkResult.await(futures);
+    }
+
+    /**
+     * Makes a request, retrying it when NiFi rejects it because of a stale revision. The NiFi clients read the current revision of the component
+     * before each update, so retrying picks up the revision of the concurrent modification. Other errors, including 409 Conflict which NiFi
+     * uses when a component is in the wrong state for the request, are thrown immediately.
+     *
+     * @param request the request
+     * @param retries the maximum number of retries
+     * @param <T>     the type of response
+     * @return the response of the request
+     */
+    public static <T> T retryOnConflict(@Nonnull final Supplier<T> request, final int retries) {
+        for (int attempt = 0; ; ++attempt) {
+            try {
+                return request.get();
+            } catch (final RuntimeException e) {
+                if (attempt >= retries || !isConflict(e)) {
+                    throw e;
+                }
+                log.debug("NiFi request conflicted with another modification, attempt {}: {}", attempt + 1, e.toString());
+                Uninterruptibles.sleepUninterruptibly(CONFLICT_BACKOFF_MILLIS * (attempt + 1), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Indicates if NiFi rejected a request because the component was modified at the same time.
+     *
+     * <p>NiFi reports a stale revision as 400 Bad Request with a message that the revision is not the most up-to-date one. The message is
+     * read from the response or from the exceptions wrapping it.</p>
+     *
+     * @param e the exception thrown by the request
+     * @return {@code true} if the response status was 400 Bad Request with a stale revision message
+     */
+    static boolean isConflict(@Nullable final Throwable e) {
+        boolean badRequest = false;
+        boolean staleRevision = false;
+        for (Throwable cause = e; cause != null; cause = (cause.getCause() != cause) ? cause.getCause() : null) {
+            if (cause instanceof WebApplicationException && ((WebApplicationException) cause).getResponse() != null
+                && ((WebApplicationException) cause).getResponse().getStatus() == 400) {
+                badRequest = true;
+                staleRevision |= isStaleRevisionMessage(getResponseMessage(((WebApplicationException) cause).getResponse()));
+            }
+            staleRevision |= isStaleRevisionMessage(cause.getMessage());
+        }
+        return badRequest && staleRevision;
+    }
+
+    private static boolean isStaleRevisionMessage(@Nullable final String message) {
+        return message != null && message.contains(STALE_REVISION_MESSAGE);
+    }
+
+    /**
+     * Gets the message in the body of an error response. The body is buffered so that it can still be read by the caller.
+     */
+    @Nullable
+    private static String getResponseMessage(@Nonnull final Response response) {
+        try {
+            response.bufferEntity();
+            return response.readEntity(String.class);
+        } catch (final RuntimeException e) {
+            try {
+                final Object entity = response.getEntity();
+                return (entity instanceof String) ? (String) entity : null;
+            } catch (final RuntimeException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Stops accepting new requests. Requests already submitted are allowed to complete.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * The outcome of a bulk operation.
+     *
+     * @param <I> the type of item
+     * @param <T> the type of response
+     */
+    public static class BulkResult<I, T> {
+
+        /**
+         * Responses for the items that succeeded
+         */
+        @Nonnull
+        private final Map<I, T> results = new LinkedHashMap<>();
+
+        /**
+         * Causes for the items that failed
+         */
+        @Nonnull
+        private final Map<I, Throwable> failures = new LinkedHashMap<>();
+
+        /**
+         * Waits for each of the futures to complete and collects their results.
+         *
+         * @param futures the futures for each item
+         * @param <I>     the type of item
+         * @param <T>     the type of response
+         * @return the results
+         */
+        @Nonnull
+        public static <I, T> BulkResult<I, T> await(@Nonnull final Map<I, CompletableFuture<T>> futures) {
+            final BulkResult<I, T> result = new BulkResult<>();
+            for (final Map.Entry<I, CompletableFuture<T>> entry : futures.entrySet()) {
+                try {
+                    result.results.put(entry.getKey(), entry.getValue().join());
+                } catch (final CompletionException e) {
+                    final Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+                    log.debug("NiFi request failed for {}: {}", entry.getKey(), cause.toString());
+                    result.failures.put(entry.getKey(), cause);
+                } catch (final Exception e) {
+                    result.failures.put(entry.getKey(), e);
+                }
+            }
+            return result;
+        }
+
+        @Nonnull
+        public Map<I, T> getResults() {
+            return Collections.unmodifiableMap(results);
+        }
+
+        @Nonnull
+        public Map<I, Throwable> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+
+        public boolean hasFailures() {
+            return !failures.isEmpty();
+        }
+
+        /**
+         * Gets the items that failed, excluding those that failed with an expected exception.
+         *
+         * @param ignored the type of exception to ignore, or {@code null} to include all failures
+         * @return the failed items
+         */
+        @Nonnull
+        public List<I> getFailedItems(@Nullable final Class<? extends Throwable> ignored) {
+            final List<I> failed = new ArrayList<>();
+            for (final Map.Entry<I, Throwable> entry : failures.entrySet()) {
+                final Throwable cause = NifiRestClientExceptionTranslator.translateException(entry.getValue());
+                if (ignored == null || !ignored.isInstance(cause)) {
+                    failed.add(entry.getKey());
+                }
+            }
+            return failed;
+        }
+    }
+
+    /**
+     * Creates daemon threads for NiFi requests.
+     */
+    private static class NiFiRequestThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@Nonnull final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "nifi-rest-async-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.thinkbiganalytics.nifi.rest.client;
+
+/*-
+ * #%L
+ * thinkbig-nifi-rest-client-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.rest.support.NifiConstants;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Index of NiFi components by id, giving the type of each component and the process group that contains it.
+ *
+ * <p>NiFi can only find a component without its process group through a full-text search of the whole flow.  The index is filled from
+ * the flows that are already crawled, such as the feed flows in the flow cache, so that components can be fetched directly.  Entries may be
+ * stale after a component is removed from NiFi; callers should remove an entry when the component is not found in its process group.</p>
+ */
+public class NiFiComponentIndex {
+
+    /**
+     * Components by id
+     */
+    private final Map<String, Component> components = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Adds or replaces a component in the index.
+     *
+     * @param id      the component id
+     * @param type    the type of component
+     * @param groupId the id of the process group containing the component
+     */
+    public void put(@Nonnull String id, @Nonnull NifiConstants.NIFI_COMPONENT_TYPE type, @Nonnull String groupId) {
+        components.put(id, new Component(type, groupId));
+    }
+
+    /**
+     * Finds a component of the specified type.
+     *
+     * @param id   the component id
+     * @param type the type of component
+     * @return the component, if indexed
+     */
+    @Nonnull
+    public Optional<Component> find(@Nullable String id, @Nonnull NifiConstants.NIFI_COMPONENT_TYPE type) {
+        Component component = (id != null) ? components.get(id) : null;
+        if (component != null && component.getType() == type) {
+            hitCount.incrementAndGet();
+            return Optional.of(component);
+        }
+        missCount.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Removes a component from the index.
+     *
+     * @param id the component id
+     */
+    public void remove(@Nonnull String id) {
+        components.remove(id);
+    }
+
+    /**
+     * Removes the components from the index.
+     *
+     * @param ids the component ids
+     */
+    public void removeAll(@Nonnull Collection<String> ids) {
+        ids.forEach(components::remove);
+    }
+
+    public void clear() {
+        components.clear();
+    }
+
+    public int size() {
+        return components.size();
+    }
+
+    /**
+     * @return the number of lookups that found a component
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of lookups that did not find a component
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "components=" + components.size() + ", hits=" + hitCount.get() + ", misses=" + missCount.get();
+    }
+
+    /**
+     * The location of an indexed component
+     */
+    public static class Component {
+
+        private final NifiConstants.NIFI_COMPONENT_TYPE type;
+        private final String groupId;
+
+        Component(NifiConstants.NIFI_COMPONENT_TYPE type, String groupId) {
+            this.type = type;
+            this.groupId = groupId;
+        }
+
+        public NifiConstants.NIFI_COMPONENT_TYPE getType() {
+            return type;
+        }
+
+        /**
+         * @return the id of the process group containing the component
+         */
+        public String getGroupId() {
+            return groupId;
+        }
+    }
+}
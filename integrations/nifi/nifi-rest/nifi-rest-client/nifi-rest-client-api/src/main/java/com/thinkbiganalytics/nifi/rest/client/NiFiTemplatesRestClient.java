@@ -27,6 +27,7 @@ import org.apache.nifi.web.api.dto.TemplateDTO;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -98,4 +99,11 @@ public interface NiFiTemplatesRestClient {
     @Nonnull
     Optional<TemplateDTO> findByName(@Nonnull String name);
 
+    /**
+     * Reads the templates one at a time without loading the full list into memory. Only the basic template details are included.
+     *
+     * @param visitor called with each template, returns {@code false} to stop reading
+     */
+    void visitAll(@Nonnull Predicate<TemplateDTO> visitor);
+
 }
@@ -29,6 +29,11 @@ public class NifiRestClientConfig extends JerseyClientConfig {
     private String apiPath = "/nifi-api/";
     private String clusterType = "NODE";
 
+    /**
+     * the maximum number of requests sent to NiFi at the same time by bulk operations
+     */
+    private int maxConcurrentRequests = NiFiAsyncRestClient.DEFAULT_MAX_CONCURRENT_REQUESTS;
+
     public NifiRestClientConfig(String apiPath) {
         this.apiPath = apiPath;
     }
@@ -63,4 +68,12 @@ public class NifiRestClientConfig extends JerseyClientConfig {
     public void setClusterType(String clusterType) {
         this.clusterType = clusterType;
     }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
 }
@@ -21,6 +21,9 @@ package com.thinkbiganalytics.nifi.rest.config;
  */
 
 import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
+import com.thinkbiganalytics.nifi.rest.client.NiFiAsyncRestClient;
+import com.thinkbiganalytics.nifi.rest.client.NiFiComponentIndex;
+import com.thinkbiganalytics.nifi.rest.client.NiFiRestClient;
 import com.thinkbiganalytics.nifi.rest.client.NifiRestClientConfig;
 
 import org.apache.commons.lang3.BooleanUtils;
@@ -51,6 +54,28 @@ public class SpringNifiRestConfiguration {
 
     }
 
+    /**
+     * Creates the client used to send bulk requests to NiFi concurrently.
+     *
+     * @param nifiClient           the NiFi REST client
+     * @param nifiRestClientConfig the NiFi REST client configuration
+     * @return the asynchronous NiFi REST client
+     */
+    @Bean(destroyMethod = "shutdown")
+    public NiFiAsyncRestClient nifiAsyncRestClient(NiFiRestClient nifiClient, NifiRestClientConfig nifiRestClientConfig) {
+        return new NiFiAsyncRestClient(nifiClient, nifiRestClientConfig.getMaxConcurrentRequests());
+    }
+
+    /**
+     * Creates the index used to locate NiFi components by id.
+     *
+     * @return the component index
+     */
+    @Bean
+    public NiFiComponentIndex nifiComponentIndex() {
+        return new NiFiComponentIndex();
+    }
+
     /**
      * Gets the configuration for the NiFi REST client.
      *
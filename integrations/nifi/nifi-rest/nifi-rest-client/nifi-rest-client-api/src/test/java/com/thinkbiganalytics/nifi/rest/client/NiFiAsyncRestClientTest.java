@@ -0,0 +1,162 @@
+package com.thinkbiganalytics.nifi.rest.client;
+
+/*-
+ * #%L
+ * kylo-nifi-rest-client-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.nifi.web.api.dto.ControllerServiceDTO;
+import org.apache.nifi.web.api.dto.ProcessorDTO;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.core.Response;
+
+public class NiFiAsyncRestClientTest {
+
+    /**
+     * The message NiFi responds with when an update is made with a stale revision
+     */
+    private static final String STALE_REVISION = "[1, null, P1] is not the most up-to-date revision.  This component appears to have been modified";
+
+    /**
+     * Verify bulk requests report the result of each item.
+     */
+    @Test
+    public void invokeAll() {
+        // Mock NiFi REST client
+        final NiFiControllerServicesRestClient controllerServices = Mockito.mock(NiFiControllerServicesRestClient.class);
+        Mockito.when(controllerServices.delete("S1")).thenReturn(Optional.of(new ControllerServiceDTO()));
+        Mockito.when(controllerServices.delete("S2")).thenThrow(new NifiClientRuntimeException("conflict"));
+
+        final NiFiRestClient nifiClient = Mockito.mock(NiFiRestClient.class);
+        Mockito.when(nifiClient.controllerServices()).thenReturn(controllerServices);
+
+        // Test deleting controller services
+        final NiFiAsyncRestClient client = new NiFiAsyncRestClient(nifiClient, 2);
+        final NiFiAsyncRestClient.BulkResult<String, Optional<ControllerServiceDTO>> result = client.invokeAll(Arrays.asList("S1", "S2"),
+                                                                                                            (nifi, id) -> nifi.controllerServices().delete(id));
+        client.shutdown();
+
+        Assert.assertTrue(result.hasFailures());
+        Assert.assertEquals(1, result.getResults().size());
+        Assert.assertTrue(result.getResults().containsKey("S1"));
+        Assert.assertEquals(Arrays.asList("S2"), result.getFailedItems(null));
+        Assert.assertTrue(result.getFailedItems(NifiClientRuntimeException.class).isEmpty());
+    }
+
+    /**
+     * Verify no more than the maximum number of requests are sent at the same time.
+     */
+    @Test
+    public void invokeAllWithBoundedParallelism() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(2);
+
+        final NiFiAsyncRestClient client = new NiFiAsyncRestClient(Mockito.mock(NiFiRestClient.class), 2);
+        final NiFiAsyncRestClient.BulkResult<Integer, Integer> result = client.invokeAll(Arrays.asList(1, 2, 3, 4, 5, 6), (nifi, item) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                started.await(1, TimeUnit.SECONDS);
+                Thread.sleep(10);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return item;
+        });
+        client.shutdown();
+
+        Assert.assertFalse(result.hasFailures());
+        Assert.assertEquals(6, result.getResults().size());
+        Assert.assertEquals(2, maxRunning.get());
+    }
+
+    /**
+     * Verify updates are retried when NiFi reports a stale revision.
+     */
+    @Test
+    public void updateProcessorWithConflictRetry() throws Exception {
+        final ProcessorDTO processor = new ProcessorDTO();
+        processor.setId("P1");
+
+        final NiFiProcessorsRestClient processors = Mockito.mock(NiFiProcessorsRestClient.class);
+        Mockito.when(processors.update(processor))
+            .thenThrow(new BadRequestException(Response.status(400).entity(STALE_REVISION).build()))
+            .thenThrow(new NifiClientRuntimeException("Error updating processor: " + STALE_REVISION, new BadRequestException()))
+            .thenReturn(processor);
+
+        final NiFiRestClient nifiClient = Mockito.mock(NiFiRestClient.class);
+        Mockito.when(nifiClient.processors()).thenReturn(processors);
+
+        final NiFiAsyncRestClient client = new NiFiAsyncRestClient(nifiClient, 2);
+        Assert.assertSame(processor, client.updateProcessorWithConflictRetry(processor).get(10, TimeUnit.SECONDS));
+        client.shutdown();
+        Mockito.verify(processors, Mockito.times(3)).update(processor);
+    }
+
+    /**
+     * Verify only stale revisions are retried, and not other bad requests or components in the wrong state.
+     */
+    @Test
+    public void retryOnConflictRethrowsOtherErrors() {
+        final AtomicInteger attempts = new AtomicInteger();
+        try {
+            NiFiAsyncRestClient.retryOnConflict(() -> {
+                attempts.incrementAndGet();
+                throw new NifiClientRuntimeException("failed", new ClientErrorException(400));
+            }, 3);
+            Assert.fail("Expected exception");
+        } catch (final NifiClientRuntimeException e) {
+            Assert.assertEquals(1, attempts.get());
+        }
+
+        attempts.set(0);
+        try {
+            NiFiAsyncRestClient.retryOnConflict(() -> {
+                attempts.incrementAndGet();
+                throw new NifiClientRuntimeException("P1 is running", new ClientErrorException(409));
+            }, 3);
+            Assert.fail("Expected exception");
+        } catch (final NifiClientRuntimeException e) {
+            Assert.assertEquals(1, attempts.get());
+        }
+
+        attempts.set(0);
+        try {
+            NiFiAsyncRestClient.retryOnConflict(() -> {
+                attempts.incrementAndGet();
+                throw new BadRequestException(Response.status(400).entity(STALE_REVISION).build());
+            }, 2);
+            Assert.fail("Expected exception");
+        } catch (final BadRequestException e) {
+            Assert.assertEquals(3, attempts.get());
+        }
+    }
+}
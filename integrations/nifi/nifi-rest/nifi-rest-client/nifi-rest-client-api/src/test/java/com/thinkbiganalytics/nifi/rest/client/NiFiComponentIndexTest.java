@@ -0,0 +1,114 @@
+package com.thinkbiganalytics.nifi.rest.client;
+
+/*-
+ * #%L
+ * thinkbig-nifi-rest-client-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.rest.support.NifiConstants;
+
+import org.apache.nifi.web.api.dto.ProcessorDTO;
+import org.apache.nifi.web.api.dto.search.ComponentSearchResultDTO;
+import org.apache.nifi.web.api.dto.search.SearchResultsDTO;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.Optional;
+
+public class NiFiComponentIndexTest {
+
+    /**
+     * Verify indexed processors are fetched from their process group without searching NiFi
+     */
+    @Test
+    public void findIndexedProcessor() {
+        final ProcessorDTO processor = new ProcessorDTO();
+        final NiFiProcessorsRestClient processors = Mockito.mock(NiFiProcessorsRestClient.class);
+        Mockito.when(processors.findById("G1", "P1")).thenReturn(Optional.of(processor));
+        final NiFiRestClient nifiClient = Mockito.mock(NiFiRestClient.class);
+        Mockito.when(nifiClient.processors()).thenReturn(processors);
+
+        final LegacyNifiRestClient client = new LegacyNifiRestClient();
+        client.setClient(nifiClient);
+        client.getComponentIndex().put("P1", NifiConstants.NIFI_COMPONENT_TYPE.PROCESSOR, "G1");
+
+        Assert.assertSame(processor, client.findProcessorById("P1"));
+        Mockito.verify(nifiClient, Mockito.never()).search(Mockito.anyString());
+        Assert.assertEquals(1, client.getComponentIndex().getHitCount());
+    }
+
+    /**
+     * Verify an entry is re-indexed when the processor is found in another process group, as the v1 API ignores the group id
+     */
+    @Test
+    public void reindexMovedProcessor() {
+        final ProcessorDTO processor = new ProcessorDTO();
+        processor.setId("P1");
+        processor.setParentGroupId("G2");
+        final NiFiProcessorsRestClient processors = Mockito.mock(NiFiProcessorsRestClient.class);
+        Mockito.when(processors.findById(Mockito.anyString(), Mockito.eq("P1"))).thenReturn(Optional.of(processor));
+        final NiFiRestClient nifiClient = Mockito.mock(NiFiRestClient.class);
+        Mockito.when(nifiClient.processors()).thenReturn(processors);
+
+        final LegacyNifiRestClient client = new LegacyNifiRestClient();
+        client.setClient(nifiClient);
+        client.getComponentIndex().put("P1", NifiConstants.NIFI_COMPONENT_TYPE.PROCESSOR, "G1");
+
+        Assert.assertSame(processor, client.findProcessorById("P1"));
+        Assert.assertEquals("G2", client.getComponentIndex().find("P1", NifiConstants.NIFI_COMPONENT_TYPE.PROCESSOR).get().getGroupId());
+        Mockito.verify(nifiClient, Mockito.never()).search(Mockito.anyString());
+    }
+
+    /**
+     * Verify a stale or missing entry falls back to searching NiFi and indexes the result
+     */
+    @Test
+    public void searchOnMiss() {
+        final ProcessorDTO processor = new ProcessorDTO();
+        final NiFiProcessorsRestClient processors = Mockito.mock(NiFiProcessorsRestClient.class);
+        Mockito.when(processors.findById("OLD", "P1")).thenReturn(Optional.empty());
+        Mockito.when(processors.findById("G2", "P1")).thenReturn(Optional.of(processor));
+
+        final ComponentSearchResultDTO searchResult = new ComponentSearchResultDTO();
+        searchResult.setId("P1");
+        searchResult.setGroupId("G2");
+        final SearchResultsDTO searchResults = new SearchResultsDTO();
+        searchResults.setProcessorResults(Collections.singletonList(searchResult));
+
+        final NiFiRestClient nifiClient = Mockito.mock(NiFiRestClient.class);
+        Mockito.when(nifiClient.processors()).thenReturn(processors);
+        Mockito.when(nifiClient.search("P1")).thenReturn(searchResults);
+
+        final LegacyNifiRestClient client = new LegacyNifiRestClient();
+        client.setClient(nifiClient);
+        final NiFiComponentIndex index = client.getComponentIndex();
+        index.put("P1", NifiConstants.NIFI_COMPONENT_TYPE.PROCESSOR, "OLD");
+
+        Assert.assertSame(processor, client.findProcessorById("P1"));
+        Assert.assertEquals("G2", index.find("P1", NifiConstants.NIFI_COMPONENT_TYPE.PROCESSOR).get().getGroupId());
+
+        // later lookups use the index
+        Assert.assertSame(processor, client.findProcessorById("P1"));
+        Mockito.verify(nifiClient, Mockito.times(1)).search("P1");
+
+        // a component of another type is not returned
+        Assert.assertFalse(index.find("P1", NifiConstants.NIFI_COMPONENT_TYPE.INPUT_PORT).isPresent());
+    }
+}
@@ -29,13 +29,13 @@ import com.thinkbiganalytics.nifi.rest.support.NifiPropertyUtil;
 import org.apache.nifi.web.api.dto.ProcessGroupDTO;
 import org.apache.nifi.web.api.dto.TemplateDTO;
 import org.apache.nifi.web.api.entity.TemplateEntity;
-import org.apache.nifi.web.api.entity.TemplatesEntity;
 import org.glassfish.jersey.media.multipart.MultiPart;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 import javax.ws.rs.NotFoundException;
@@ -86,9 +86,7 @@ public class NiFiTemplatesRestClientV1 extends AbstractNiFiTemplatesRestClient {
 
     @Override
     public Optional<TemplateDTO> findByName(@Nonnull final String name) {
-        Optional<TemplateDTO> dto = findAll().stream()
-            .filter(template -> template.getName().equalsIgnoreCase(name))
-            .findFirst();
+        Optional<TemplateDTO> dto = super.findByName(name);
         if (dto.isPresent()) {
             TemplateDTO templateDTO = dto.get();
             //populate the snippet
@@ -102,10 +100,15 @@ public class NiFiTemplatesRestClientV1 extends AbstractNiFiTemplatesRestClient {
     @Nonnull
     @Override
     public Set<TemplateDTO> findAll() {
-        return client.get("/flow/templates", null, TemplatesEntity.class)
-            .getTemplates().stream()
-            .map(TemplateEntity::getTemplate)
-            .collect(Collectors.toSet());
+        final Set<TemplateDTO> templates = new HashSet<>();
+        visitAll(templates::add);
+        return templates;
+    }
+
+    @Override
+    public void visitAll(@Nonnull final Predicate<TemplateDTO> visitor) {
+        // read the templates one at a time instead of loading the entire response
+        client.streamJsonArrayWhile("/flow/templates", null, "templates", TemplateEntity.class, entity -> visitor.test(entity.getTemplate()));
     }
 
     @Nonnull
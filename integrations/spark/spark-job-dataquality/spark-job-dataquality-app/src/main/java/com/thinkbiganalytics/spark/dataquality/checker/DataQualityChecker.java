@@ -83,6 +83,25 @@ public class DataQualityChecker {
         log.info("DataQualityChecker has finished.");
     }
 
+    /**
+     * Runs the data quality checks using the current Spark context. Unlike {@link #main(String[])} failures are thrown instead of exiting
+     * the JVM, so checks can run as jobs in a long-lived Spark application. The Spring context is closed when the job finishes.
+     *
+     * @param args the command line arguments
+     * @throws Exception if the arguments are invalid or the checks fail
+     */
+    public static void runJob(String[] args) throws Exception {
+        log.info("Running DataQualityChecker job with these args: " + StringUtils.join(args, ","));
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Expected <hive-schema-name> <hive-table-name> but got: " + StringUtils.join(args, ","));
+        }
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext("com.thinkbiganalytics.spark")) {
+            DataQualityChecker app = ctx.getBean(DataQualityChecker.class);
+            app.setArguments(args[0], args[1]);
+            app.checkDataQuality();
+        }
+    }
+
     public void setArguments(String categoryName, String feedName) {
         this.categoryName = categoryName;
         this.feedName = feedName;
@@ -93,6 +112,19 @@ public class DataQualityChecker {
     }
 
     public void doDataQualityChecks() {
+        try {
+            checkDataQuality();
+        } catch (Exception e) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the data quality checks on the feed table.
+     *
+     * @throws Exception if the checks cannot be run
+     */
+    public void checkDataQuality() throws Exception {
         try {
             SparkContext sparkContext = SparkContext.getOrCreate();
             hiveContext = new org.apache.spark.sql.hive.HiveContext(sparkContext);
@@ -108,7 +140,7 @@ public class DataQualityChecker {
             log.info("Total rows in {}.{}: {}", categoryName, feedName, rowCount);
         } catch (Exception e) {
             log.error("An error occurred during running data quality checks: {}", e.getMessage());
-            System.exit(1);
+            throw e;
         }
     }
 
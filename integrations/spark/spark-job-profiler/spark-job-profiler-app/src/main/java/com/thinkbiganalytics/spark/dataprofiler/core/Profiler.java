@@ -72,6 +72,23 @@ public class Profiler {
         profiler.run(args);
     }
 
+    /**
+     * Profiles a table or query using the current Spark context, so profiles can run as jobs in a long-lived Spark application. The Spring
+     * context is closed when the job finishes.
+     *
+     * @param args: list of args
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    public static void runJob(String[] args) {
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext("com.thinkbiganalytics.spark")) {
+            final Profiler profiler = new Profiler(ctx.getBean(FieldPolicyLoader.class), ctx.getBean(com.thinkbiganalytics.spark.dataprofiler.Profiler.class),
+                                                   ctx.getBean(ProfilerConfiguration.class), ctx.getBean(SparkContextService.class), ctx.getBean(SQLContext.class));
+            if (!profiler.run(args)) {
+                throw new IllegalArgumentException("Invalid profiler arguments: " + StringUtils.join(args, ","));
+            }
+        }
+    }
+
     public Profiler(FieldPolicyLoader loader, com.thinkbiganalytics.spark.dataprofiler.Profiler profiler, ProfilerConfiguration profilerConfiguration,
                     SparkContextService sparkContextService, SQLContext sqlContext) {
         this.loader = loader;
@@ -81,14 +98,20 @@ public class Profiler {
         this.sqlContext = sqlContext;
     }
 
-    public void run(String[] args) {
+    /**
+     * Profiles the table or query given by the arguments
+     *
+     * @param args the command line arguments
+     * @return {@code true} if the profile ran, or {@code false} if the arguments are invalid
+     */
+    public boolean run(String[] args) {
         /* Variables */
         DataSet resultDF;
         String queryString;
 
         /* Check command line arguments and get query to run. */
         if ((queryString = checkCommandLineArgs(args)) == null) {
-            return;
+            return false;
         }
 
         /* Run query and get result */
@@ -106,6 +129,7 @@ public class Profiler {
 
         /* Wrap up */
         log.info("[PROFILER-INFO] Profiling finished.");
+        return true;
     }
 
     /**
@@ -60,12 +60,16 @@ public class ProfilerApp {
         return new ProfilerConfiguration();
     }
 
-    @Bean
+    /**
+     * The context may be shared with other jobs in the same Spark application, so it is not stopped when the Spring context is closed.
+     */
+    @Bean(destroyMethod = "")
     public SQLContext sqlContext(final ProfilerConfiguration profilerConfiguration) {
         SparkConf conf = new SparkConf();
         conf = configureEfficientSerialization(conf);
 
-        HiveContext hiveContext = new HiveContext(new SparkContext(conf));
+        // Reuse the context of a long-lived Spark application, if any
+        HiveContext hiveContext = new HiveContext(SparkContext.getOrCreate(conf));
         hiveContext.setConf("spark.sql.dialect", profilerConfiguration.getSqlDialect());
         return hiveContext;
     }
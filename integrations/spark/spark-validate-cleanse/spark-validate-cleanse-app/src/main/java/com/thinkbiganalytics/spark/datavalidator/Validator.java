@@ -158,6 +158,26 @@ public class Validator implements Serializable {
         }
     }
 
+    /**
+     * Validates a feed using the current Spark context. Unlike {@link #main(String[])} failures are thrown instead of exiting the JVM, so
+     * validations can run as jobs in a long-lived Spark application. The Spring context is closed when the job finishes.
+     *
+     * @param args the command line arguments
+     * @throws Exception if the arguments are invalid or the validation fails
+     */
+    public static void runJob(String[] args) throws Exception {
+        log.info("Running Spark Validator job with the following args (comma separated):" + StringUtils.join(args, ","));
+        if (args.length < 4) {
+            throw new IllegalArgumentException("Expected <targetDatabase> <entity> <partition> <path-to-policy-file> but got: " + StringUtils.join(args, ","));
+        }
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext("com.thinkbiganalytics.spark")) {
+            Validator app = ctx.getBean(Validator.class);
+            app.setArguments(args[0], args[1], args[2], args[3]);
+            app.addParameters(parseRemainingParameters(args, 4));
+            app.validate();
+        }
+    }
+
     public void setArguments(String targetDatabase, String entity, String partition, String fieldPolicyJsonPath) {
         this.validTableName = entity + "_valid";
         this.invalidTableName = entity + "_invalid";
@@ -175,6 +195,19 @@ public class Validator implements Serializable {
     }
 
     public void doValidate() {
+        try {
+            validate();
+        } catch (Exception e) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Validates the feed partition and writes the valid, invalid and profile tables.
+     *
+     * @throws Exception if the validation fails
+     */
+    public void validate() throws Exception {
         try {
             SparkContext sparkContext = SparkContext.getOrCreate();
             hiveContext = new HiveContext(sparkContext);
@@ -299,7 +332,7 @@ public class Validator implements Serializable {
 
         } catch (Exception e) {
             log.error("Failed to perform validation", e);
-            System.exit(1);
+            throw e;
         }
     }
 
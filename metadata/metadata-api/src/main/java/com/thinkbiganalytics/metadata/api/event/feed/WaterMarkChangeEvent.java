@@ -0,0 +1,64 @@
+package com.thinkbiganalytics.metadata.api.event.feed;
+
+/*-
+ * #%L
+ * thinkbig-metadata-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.event.AbstractMetadataEvent;
+import com.thinkbiganalytics.metadata.api.feed.Feed;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An event that indicates high-water mark values of a feed have changed.
+ */
+public class WaterMarkChangeEvent extends AbstractMetadataEvent<Feed.ID> {
+
+    private static final long serialVersionUID = -2409166253718519062L;
+
+    /**
+     * New values by high-water mark name, with a {@code null} value for a deleted high-water mark
+     */
+    private final HashMap<String, String> waterMarks;
+
+    /**
+     * Constructs a {@code WaterMarkChangeEvent} with the specified feed id and new values.
+     *
+     * @param feedId     the feed id
+     * @param waterMarks the new values by high-water mark name, with a {@code null} value for a deleted high-water mark
+     */
+    public WaterMarkChangeEvent(@Nonnull final Feed.ID feedId, @Nonnull final Map<String, String> waterMarks) {
+        super(feedId);
+        this.waterMarks = new HashMap<>(waterMarks);
+    }
+
+    /**
+     * Gets the new values of the high-water marks that changed.
+     *
+     * @return the new values by high-water mark name, with a {@code null} value for a deleted high-water mark
+     */
+    @Nonnull
+    public Map<String, String> getWaterMarks() {
+        return Collections.unmodifiableMap(waterMarks);
+    }
+}
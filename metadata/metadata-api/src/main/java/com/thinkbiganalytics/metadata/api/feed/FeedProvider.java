@@ -29,12 +29,16 @@ import com.thinkbiganalytics.metadata.api.template.FeedManagerTemplate;
 import com.thinkbiganalytics.metadata.sla.api.Metric;
 import com.thinkbiganalytics.metadata.sla.api.ServiceLevelAgreement;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public interface FeedProvider extends BaseProvider<Feed, Feed.ID> {
 
@@ -135,5 +139,21 @@ public interface FeedProvider extends BaseProvider<Feed, Feed.ID> {
 
     List<? extends Feed> findByCategoryId(Category.ID categoryId);
 
+    /**
+     * Finds a page of feeds.  The feeds are filtered, sorted and counted using only their summary properties, and only the feeds in the
+     * requested page are loaded.
+     *
+     * <p>The sort properties may be {@code feedName}, {@code systemFeedName}, {@code categoryName}, {@code systemCategoryName},
+     * {@code state}, or {@code updateDate}.</p>
+     *
+     * @param categoryId the category containing the feeds, or {@code null} for all categories
+     * @param filter     text to match against the feed and category names, or {@code null} for all feeds
+     * @param pageable   the page and sort order
+     * @return the page of feeds
+     * @throws IllegalArgumentException if a sort property is not supported
+     */
+    @Nonnull
+    Page<Feed> findPage(@Nullable Category.ID categoryId, @Nullable String filter, @Nonnull Pageable pageable);
+
     // TODO Methods to add policy info to source
 }
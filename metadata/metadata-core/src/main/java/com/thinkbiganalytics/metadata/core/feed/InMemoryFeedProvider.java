@@ -47,6 +47,11 @@ import com.thinkbiganalytics.metadata.sla.spi.ObligationGroupBuilder;
 import com.thinkbiganalytics.metadata.sla.spi.ServiceLevelAgreementBuilder;
 import com.thinkbiganalytics.metadata.sla.spi.ServiceLevelAgreementProvider;
 
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.HashMap;
@@ -56,8 +61,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 /**
@@ -423,6 +430,22 @@ public class InMemoryFeedProvider implements FeedProvider {
         return null;
     }
 
+    /* (non-Javadoc)
+     * @see com.thinkbiganalytics.metadata.api.feed.FeedProvider#findPage(com.thinkbiganalytics.metadata.api.category.Category.ID, java.lang.String, org.springframework.data.domain.Pageable)
+     */
+    @Nonnull
+    @Override
+    public Page<Feed> findPage(@Nullable Category.ID categoryId, @Nullable String filter, @Nonnull Pageable pageable) {
+        // Sorting is not supported by the in-memory provider
+        final String match = StringUtils.lowerCase(filter);
+        final List<Feed> matches = this.feeds.values().stream()
+            .filter(feed -> categoryId == null || (feed.getCategory() != null && categoryId.equals(feed.getCategory().getId())))
+            .filter(feed -> match == null || StringUtils.contains(StringUtils.lowerCase(feed.getName()), match) || StringUtils.contains(StringUtils.lowerCase(feed.getDisplayName()), match))
+            .collect(Collectors.toList());
+        final List<Feed> content = matches.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, matches.size());
+    }
+
     private FeedSource ensureFeedSource(BaseFeed feed, Datasource ds, ServiceLevelAgreement.ID slaId) {
         Map<Datasource.ID, FeedSource> srcIds = new HashMap<>();
         for (FeedSource src : feed.getSources()) {
@@ -24,21 +24,54 @@ package com.thinkbiganalytics.metadata.event.reactor;
  */
 
 import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.feed.CleanupTriggerEvent;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChangeEvent;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedOperationStatusEvent;
+import com.thinkbiganalytics.metadata.api.event.feed.PreconditionTriggerEvent;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Arrays;
+import java.util.List;
+
 import reactor.Environment;
 import reactor.bus.EventBus;
+import reactor.core.Dispatcher;
+import reactor.core.dispatch.RingBufferDispatcher;
+import reactor.core.dispatch.WorkQueueDispatcher;
+import reactor.fn.Consumer;
 
 /**
+ * Configures the Reactor event buses.
  *
+ * <p>Each bus has its own dispatcher so that a slow consumer on one bus does not hold up the events of the others.  A dispatcher with a single
+ * thread uses a ring buffer and delivers events in order; with more threads it uses a work queue and events may be consumed concurrently.  The
+ * dispatchers are sized with the properties {@code kylo.events.<bus>.dispatcher.threads} and {@code kylo.events.<bus>.dispatcher.backlog}, where
+ * the bus is {@code metadata}, {@code alerts} or {@code respondable-alerts}.</p>
  */
 @Configuration
 public class ReactorConfiguration {
 
+    /**
+     * The default number of events a dispatcher can hold before publishers are blocked
+     */
+    private static final int DEFAULT_BACKLOG = 2048;
+
+    /**
+     * The metadata events that are never dropped for a slow listener, because dependent feeds are started, service level agreements are
+     * assessed and the NiFi flow cache is updated from them
+     */
+    private static final List<Class<?>> LOSSLESS_METADATA_EVENT_TYPES = Arrays.asList(FeedOperationStatusEvent.class, PreconditionTriggerEvent.class,
+                                                                                      CleanupTriggerEvent.class, FeedChangeEvent.class);
+
+    @Autowired
+    private org.springframework.core.env.Environment environment;
+
     @Bean(name = "reactorEnvironment")
     public Environment reactorEnvironment() {
         //force a new environment each time the bean creates it
@@ -49,6 +82,21 @@ public class ReactorConfiguration {
         return Environment.initializeIfEmpty();
     }
 
+    @Bean(name = "alertsEventDispatcher", destroyMethod = "shutdown")
+    public Dispatcher alertsEventDispatcher() {
+        return createDispatcher("alerts", LoggerFactory.getLogger(EventBus.class.getName() + "- Alerts event bus"));
+    }
+
+    @Bean(name = "respondableAlertsEventDispatcher", destroyMethod = "shutdown")
+    public Dispatcher respondableAlertsEventDispatcher() {
+        return createDispatcher("respondable-alerts", LoggerFactory.getLogger(EventBus.class.getName() + "- Respondavle alerts event bus"));
+    }
+
+    @Bean(name = "metadataEventDispatcher", destroyMethod = "shutdown")
+    public Dispatcher metadataEventDispatcher() {
+        return createDispatcher("metadata", LoggerFactory.getLogger(EventBus.class.getName() + "- Metadata event bus"));
+    }
+
     @Bean(name = "alertsEventBus")
     public EventBus alertsEventBus() {
         Environment env = reactorEnvironment();
@@ -56,7 +104,7 @@ public class ReactorConfiguration {
 
         return EventBus.config()
             .env(env)
-            .dispatcher(env.getDefaultDispatcher())
+            .dispatcher(alertsEventDispatcher())
             .dispatchErrorHandler((t) -> {
                 log.error("Alert event bus dispatch error", t);
             })
@@ -70,7 +118,7 @@ public class ReactorConfiguration {
 
         return EventBus.config()
             .env(env)
-            .dispatcher(env.getDefaultDispatcher())
+            .dispatcher(respondableAlertsEventDispatcher())
             .dispatchErrorHandler((t) -> {
                 log.error("Alert event bus dispatch error", t);
             })
@@ -84,16 +132,45 @@ public class ReactorConfiguration {
 
         return EventBus.config()
             .env(env)
-            .dispatcher(env.getDefaultDispatcher())
+            .dispatcher(metadataEventDispatcher())
             .dispatchErrorHandler((t) -> {
                 log.error("Metadata event bus dispatch error", t);
             })
             .get();
     }
 
-    @Bean
-    public MetadataEventService eventService() {
-        return new ReactorMetadataEventService();
+    @Bean(destroyMethod = "shutdown")
+    public MetadataEventService eventService(@Qualifier("metadataEventBus") EventBus metadataEventBus) {
+        int threads = this.environment.getProperty("kylo.events.metadata.listener.threads", Integer.class, ReactorMetadataEventService.DEFAULT_LISTENER_THREADS);
+        int queueSize = this.environment.getProperty("kylo.events.metadata.listener.queue-size", Integer.class, ReactorMetadataEventService.DEFAULT_LISTENER_QUEUE_SIZE);
+        return new ReactorMetadataEventService(metadataEventBus, threads, queueSize, LOSSLESS_METADATA_EVENT_TYPES);
+    }
+
+    /**
+     * Creates the dispatcher of a bus from its properties.
+     *
+     * @param bus the bus name used in the property names
+     * @param log the logger for uncaught consumer errors
+     * @return a ring buffer dispatcher if the bus has one thread, or a work queue dispatcher otherwise
+     */
+    private Dispatcher createDispatcher(String bus, Logger log) {
+        int threads = Math.max(this.environment.getProperty("kylo.events." + bus + ".dispatcher.threads", Integer.class, 1), 1);
+        int backlog = powerOfTwo(this.environment.getProperty("kylo.events." + bus + ".dispatcher.backlog", Integer.class, DEFAULT_BACKLOG));
+        Consumer<Throwable> errorHandler = (t) -> log.error("Uncaught error dispatching event", t);
+        String name = "kylo-" + bus + "-events";
+
+        if (threads == 1) {
+            return new RingBufferDispatcher(name, backlog, errorHandler);
+        } else {
+            return new WorkQueueDispatcher(name, threads, backlog, errorHandler);
+        }
+    }
+
+    /**
+     * The dispatchers require a backlog that is a power of two.
+     */
+    private static int powerOfTwo(int backlog) {
+        return Integer.highestOneBit(Math.max(backlog, 2) - 1) << 1;
     }
 
 //
@@ -33,11 +33,22 @@ import org.slf4j.LoggerFactory;
 import org.springframework.core.ResolvableType;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-
-import javax.inject.Inject;
-import javax.inject.Named;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import reactor.bus.Event;
 import reactor.bus.EventBus;
@@ -47,21 +58,112 @@ import reactor.bus.selector.Selector;
 import reactor.fn.Consumer;
 
 /**
+ * Publishes metadata events on a Reactor {@link EventBus}.
+ *
+ * <p>The bus dispatcher only queues each event for the listeners it matches.  Every listener has its own queue that is drained, in order,
+ * by a shared pool of threads, so a slow listener delays only its own events.  The dispatcher never waits for a listener: once the queue of a
+ * listener holds {@code listenerQueueSize} events, further events for that listener are dropped, logged and counted.</p>
  *
+ * <p>Events of the lossless types are never dropped.  They are queued beyond the limit so that, for example, the feed operation status and
+ * trigger events that start dependent feeds and assess service level agreements are always delivered.  Every other event type, such as
+ * feed property, watermark, template and service level agreement changes, may be dropped for a listener that does not keep up.</p>
  */
 public class ReactorMetadataEventService implements MetadataEventService {
 
+    /**
+     * The default number of threads notifying listeners
+     */
+    public static final int DEFAULT_LISTENER_THREADS = 8;
+
+    /**
+     * The default number of events queued for each listener
+     */
+    public static final int DEFAULT_LISTENER_QUEUE_SIZE = 10000;
+
+    /**
+     * The minimum time between warnings about the dropped events of a listener
+     */
+    private static final long DROP_WARNING_INTERVAL_MILLIS = 60000;
+
     private static final Logger log = LoggerFactory.getLogger(ReactorMetadataEventService.class);
+
+    /**
+     * The maximum number of events a listener handles before its thread is given to the other listeners
+     */
+    private static final int MAX_DRAIN_EVENTS = 100;
+
     private final Map<MetadataEventListener<?>, Registration<?, ?>> registrations;
-    @Inject
-    @Named("metadataEventBus")
-    private EventBus eventBus;
+    private final Map<MetadataEventListener<?>, ListenerConsumer<?>> consumers;
+    private final EventBus eventBus;
+    private final ExecutorService listenerExecutor;
+    private final int listenerQueueSize;
+    private final Set<Class<?>> losslessEventTypes;
+
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    /**
+     * @param eventBus          the bus the events are published on
+     * @param listenerThreads   the number of threads notifying listeners
+     * @param listenerQueueSize the maximum number of events queued for each listener
+     */
+    public ReactorMetadataEventService(EventBus eventBus, int listenerThreads, int listenerQueueSize) {
+        this(eventBus, listenerThreads, listenerQueueSize, Collections.emptySet());
+    }
 
     /**
-     *
+     * @param eventBus           the bus the events are published on
+     * @param listenerThreads    the number of threads notifying listeners
+     * @param listenerQueueSize  the maximum number of events queued for each listener before events are dropped
+     * @param losslessEventTypes the event types, including their subtypes, that are queued beyond {@code listenerQueueSize} instead of dropped
      */
-    public ReactorMetadataEventService() {
+    public ReactorMetadataEventService(EventBus eventBus, int listenerThreads, int listenerQueueSize, Collection<? extends Class<?>> losslessEventTypes) {
         this.registrations = new ConcurrentHashMap<>();
+        this.consumers = new ConcurrentHashMap<>();
+        this.eventBus = eventBus;
+        this.listenerQueueSize = Math.max(listenerQueueSize, 1);
+        this.losslessEventTypes = Collections.unmodifiableSet(new LinkedHashSet<>(losslessEventTypes));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "kylo-metadata-event-listener-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        int threads = Math.max(listenerThreads, 1);
+        this.listenerExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+    }
+
+    /**
+     * Stops notifying listeners.  Queued events are discarded.
+     */
+    public void shutdown() {
+        this.listenerExecutor.shutdownNow();
+    }
+
+    /**
+     * @return a snapshot of the event counts, latency and queue depths
+     */
+    public Statistics getStatistics() {
+        Map<String, Integer> listenerQueueDepths = new LinkedHashMap<>();
+        Map<String, Long> listenerDroppedCounts = new LinkedHashMap<>();
+        int queueDepth = 0;
+        for (ListenerConsumer<?> consumer : this.consumers.values()) {
+            int depth = consumer.queue.size();
+            queueDepth += depth;
+            listenerQueueDepths.merge(consumer.listener.toString(), depth, Integer::sum);
+            listenerDroppedCounts.merge(consumer.listener.toString(), consumer.droppedCount.get(), Long::sum);
+        }
+
+        long dispatcherBacklog = this.eventBus.getDispatcher().backlogSize();
+        long dispatcherQueueDepth = Math.max(dispatcherBacklog - this.eventBus.getDispatcher().remainingSlots(), 0);
+
+        return new Statistics(publishedCount.get(), deliveredCount.get(), droppedCount.get(), failedCount.get(), totalLatencyMillis.get(), maxLatencyMillis.get(),
+                              dispatcherQueueDepth, queueDepth, listenerQueueDepths, listenerDroppedCounts);
     }
 
 
@@ -72,6 +174,7 @@ public class ReactorMetadataEventService implements MetadataEventService {
     public <E extends MetadataEvent<? extends Serializable>> void notify(E event) {
         log.debug("Notify event: {}", event);
 
+        this.publishedCount.incrementAndGet();
         this.eventBus.notify(event, Event.wrap(event));
     }
 
@@ -102,10 +205,14 @@ public class ReactorMetadataEventService implements MetadataEventService {
         log.debug("Removing event listener: {}", listener);
 
         Registration<?, ?> reg = this.registrations.remove(listener);
+        ListenerConsumer<?> consumer = this.consumers.remove(listener);
 
         if (reg != null) {
             reg.cancel();
         }
+        if (consumer != null) {
+            consumer.queue.clear();
+        }
     }
 
     private <E extends MetadataEvent<? extends Serializable>> Selector<E> asSelector(MetadataEventListener<E> listener) {
@@ -118,22 +225,207 @@ public class ReactorMetadataEventService implements MetadataEventService {
     }
 
     private <E extends MetadataEvent<? extends Serializable>> Consumer<Event<E>> asConsumer(MetadataEventListener<E> listener) {
-        return new ListenerConsumer<>(listener);
+        ListenerConsumer<E> consumer = new ListenerConsumer<>(listener);
+        this.consumers.put(listener, consumer);
+        return consumer;
+    }
+
+    private boolean isLossless(Object event) {
+        for (Class<?> type : this.losslessEventTypes) {
+            if (type.isInstance(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordLatency(long millis) {
+        this.deliveredCount.incrementAndGet();
+        this.totalLatencyMillis.addAndGet(millis);
+        this.maxLatencyMillis.accumulateAndGet(millis, Math::max);
     }
 
 
-    private static class ListenerConsumer<E extends MetadataEvent<? extends Serializable>> implements Consumer<Event<E>> {
+    /**
+     * Queues the events matched by a listener and notifies the listener from the listener thread pool.
+     */
+    private class ListenerConsumer<E extends MetadataEvent<? extends Serializable>> implements Consumer<Event<E>>, Runnable {
 
         private final MetadataEventListener<E> listener;
+        private final BlockingQueue<QueuedEvent<E>> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong droppedCount = new AtomicLong();
+        private final AtomicLong lastDropWarningTime = new AtomicLong();
 
         public ListenerConsumer(MetadataEventListener<E> listener) {
             super();
             this.listener = listener;
+            this.queue = new LinkedBlockingQueue<>();
         }
 
+        /**
+         * Queues the event without blocking the dispatcher, or drops it if the queue is full and the event is not of a lossless type.
+         */
         @Override
         public void accept(Event<E> event) {
-            this.listener.notify(event.getData());
+            if (this.queue.size() < listenerQueueSize || isLossless(event.getData())) {
+                this.queue.add(new QueuedEvent<>(event.getData()));
+                schedule();
+            } else {
+                long dropped = this.droppedCount.incrementAndGet();
+                ReactorMetadataEventService.this.droppedCount.incrementAndGet();
+
+                long now = System.currentTimeMillis();
+                long lastWarning = this.lastDropWarningTime.get();
+                if (now - lastWarning >= DROP_WARNING_INTERVAL_MILLIS && this.lastDropWarningTime.compareAndSet(lastWarning, now)) {
+                    log.warn("Dropped event {} for listener {} because its queue of {} events is full; {} events dropped for this listener",
+                             event.getData(), this.listener, listenerQueueSize, dropped);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                QueuedEvent<E> queued;
+                int count = 0;
+                while (count++ < MAX_DRAIN_EVENTS && (queued = this.queue.poll()) != null) {
+                    try {
+                        this.listener.notify(queued.event);
+                    } catch (Exception e) {
+                        failedCount.incrementAndGet();
+                        log.error("Event listener {} failed to handle event: {}", this.listener, queued.event, e);
+                    }
+                    recordLatency(System.currentTimeMillis() - queued.queuedTime);
+                }
+            } finally {
+                this.scheduled.set(false);
+            }
+            if (!this.queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Submits this consumer to the thread pool unless it is already waiting or running.
+         */
+        private void schedule() {
+            if (this.scheduled.compareAndSet(false, true)) {
+                try {
+                    listenerExecutor.execute(this);
+                } catch (RuntimeException e) {
+                    this.scheduled.set(false);
+                    log.debug("Unable to notify listener {}: {}", this.listener, e.toString());
+                }
+            }
+        }
+    }
+
+
+    private static class QueuedEvent<E> {
+
+        private final E event;
+        private final long queuedTime = System.currentTimeMillis();
+
+        QueuedEvent(E event) {
+            this.event = event;
+        }
+    }
+
+
+    /**
+     * A snapshot of the events handled by the service
+     */
+    public static class Statistics {
+
+        private final long publishedCount;
+        private final long deliveredCount;
+        private final long droppedCount;
+        private final long failedCount;
+        private final long totalLatencyMillis;
+        private final long maxLatencyMillis;
+        private final long dispatcherQueueDepth;
+        private final int listenerQueueDepth;
+        private final Map<String, Integer> listenerQueueDepths;
+        private final Map<String, Long> listenerDroppedCounts;
+
+        Statistics(long publishedCount, long deliveredCount, long droppedCount, long failedCount, long totalLatencyMillis, long maxLatencyMillis,
+                   long dispatcherQueueDepth, int listenerQueueDepth, Map<String, Integer> listenerQueueDepths, Map<String, Long> listenerDroppedCounts) {
+            this.publishedCount = publishedCount;
+            this.deliveredCount = deliveredCount;
+            this.droppedCount = droppedCount;
+            this.failedCount = failedCount;
+            this.totalLatencyMillis = totalLatencyMillis;
+            this.maxLatencyMillis = maxLatencyMillis;
+            this.dispatcherQueueDepth = dispatcherQueueDepth;
+            this.listenerQueueDepth = listenerQueueDepth;
+            this.listenerQueueDepths = Collections.unmodifiableMap(listenerQueueDepths);
+            this.listenerDroppedCounts = Collections.unmodifiableMap(listenerDroppedCounts);
+        }
+
+        public long getPublishedCount() {
+            return publishedCount;
+        }
+
+        /**
+         * @return the number of times a listener was notified of an event
+         */
+        public long getDeliveredCount() {
+            return deliveredCount;
+        }
+
+        /**
+         * @return the number of events not delivered because the queue of the listener was full
+         */
+        public long getDroppedCount() {
+            return droppedCount;
+        }
+
+        /**
+         * @return the number of times a listener threw an exception
+         */
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        /**
+         * @return the average time between queueing an event for a listener and the listener handling it
+         */
+        public long getAverageLatencyMillis() {
+            return deliveredCount > 0 ? totalLatencyMillis / deliveredCount : 0;
+        }
+
+        public long getMaxLatencyMillis() {
+            return maxLatencyMillis;
+        }
+
+        /**
+         * @return the number of events waiting on the bus dispatcher
+         */
+        public long getDispatcherQueueDepth() {
+            return dispatcherQueueDepth;
+        }
+
+        /**
+         * @return the number of events waiting for all listeners
+         */
+        public int getListenerQueueDepth() {
+            return listenerQueueDepth;
+        }
+
+        public Map<String, Integer> getListenerQueueDepths() {
+            return listenerQueueDepths;
+        }
+
+        public Map<String, Long> getListenerDroppedCounts() {
+            return listenerDroppedCounts;
+        }
+
+        @Override
+        public String toString() {
+            return "published=" + publishedCount + ", delivered=" + deliveredCount + ", dropped=" + droppedCount + ", failed=" + failedCount
+                   + ", avgLatencyMillis=" + getAverageLatencyMillis() + ", maxLatencyMillis=" + maxLatencyMillis
+                   + ", dispatcherQueueDepth=" + dispatcherQueueDepth + ", listenerQueueDepth=" + listenerQueueDepth;
         }
     }
 
@@ -29,15 +29,23 @@ import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import javax.inject.Inject;
 
+import reactor.bus.EventBus;
+import reactor.core.dispatch.RingBufferDispatcher;
+import reactor.core.dispatch.SynchronousDispatcher;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -47,6 +55,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 @ContextConfiguration(classes = {ReactorConfiguration.class})
 public class ReactorMetadataEventServiceTest {
 
+    private static final Logger log = LoggerFactory.getLogger(ReactorMetadataEventServiceTest.class);
+
     @Inject
     private MetadataEventService service;
 
@@ -136,4 +146,164 @@ public class ReactorMetadataEventServiceTest {
 
         future.get(1, TimeUnit.SECONDS);
     }
+
+    /**
+     * Measures the throughput of a fast listener while a slow listener on the same bus is blocked.
+     */
+    @Test
+    public void testSlowListenerDoesNotDelayOthers() throws Exception {
+        final int eventCount = 20000;
+        final CountDownLatch slowRelease = new CountDownLatch(1);
+        final CountDownLatch fastReceived = new CountDownLatch(eventCount);
+
+        class TestEvent extends AbstractMetadataEvent<Integer> {
+
+            public TestEvent(Integer data) {
+                super(data);
+            }
+        }
+
+        class SlowListener implements MetadataEventListener<TestEvent> {
+
+            @Override
+            public void notify(TestEvent event) {
+                try {
+                    slowRelease.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        class FastListener implements MetadataEventListener<TestEvent> {
+
+            @Override
+            public void notify(TestEvent event) {
+                fastReceived.countDown();
+            }
+        }
+
+        ReactorMetadataEventService eventService = new ReactorMetadataEventService(EventBus.create(new RingBufferDispatcher("test", 1024)), 2, eventCount);
+        try {
+            eventService.addListener(new SlowListener());
+            eventService.addListener(new FastListener());
+
+            long start = System.nanoTime();
+            for (int i = 0; i < eventCount; i++) {
+                eventService.notify(new TestEvent(i));
+            }
+            assertThat(fastReceived.await(30, TimeUnit.SECONDS)).isTrue();
+            long elapsedMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+            log.info("Delivered {} events to the fast listener in {} ms ({} events/s) with a blocked slow listener", eventCount, elapsedMillis,
+                     eventCount * 1000L / elapsedMillis);
+
+            // the delivery is counted once the listener returns
+            ReactorMetadataEventService.Statistics stats = eventService.getStatistics();
+            for (int i = 0; i < 100 && stats.getDeliveredCount() < eventCount; i++) {
+                Thread.sleep(10);
+                stats = eventService.getStatistics();
+            }
+            assertThat(stats.getPublishedCount()).isEqualTo(eventCount);
+            assertThat(stats.getDeliveredCount()).isGreaterThanOrEqualTo(eventCount);
+            assertThat(stats.getDroppedCount()).isEqualTo(0);
+        } finally {
+            slowRelease.countDown();
+            eventService.shutdown();
+        }
+    }
+
+    @Test
+    public void testFullListenerQueueDropsEvents() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        class TestEvent extends AbstractMetadataEvent<Integer> {
+
+            public TestEvent(Integer data) {
+                super(data);
+            }
+        }
+
+        class BlockingListener implements MetadataEventListener<TestEvent> {
+
+            @Override
+            public void notify(TestEvent event) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        ReactorMetadataEventService eventService = new ReactorMetadataEventService(EventBus.create(new SynchronousDispatcher()), 1, 2);
+        try {
+            eventService.addListener(new BlockingListener());
+            eventService.notify(new TestEvent(0));
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // two events fill the queue while the first is being handled and the rest are dropped
+            for (int i = 1; i <= 5; i++) {
+                eventService.notify(new TestEvent(i));
+            }
+
+            ReactorMetadataEventService.Statistics stats = eventService.getStatistics();
+            assertThat(stats.getPublishedCount()).isEqualTo(6);
+            assertThat(stats.getListenerQueueDepth()).isEqualTo(2);
+            assertThat(stats.getDroppedCount()).isEqualTo(3);
+        } finally {
+            release.countDown();
+            eventService.shutdown();
+        }
+    }
+
+    @Test
+    public void testLosslessEventsQueuedBeyondLimit() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch received = new CountDownLatch(6);
+
+        class TestEvent extends AbstractMetadataEvent<Integer> {
+
+            public TestEvent(Integer data) {
+                super(data);
+            }
+        }
+
+        class BlockingListener implements MetadataEventListener<TestEvent> {
+
+            @Override
+            public void notify(TestEvent event) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.countDown();
+            }
+        }
+
+        ReactorMetadataEventService eventService = new ReactorMetadataEventService(EventBus.create(new SynchronousDispatcher()), 1, 2,
+                                                                                   Collections.singleton(TestEvent.class));
+        try {
+            eventService.addListener(new BlockingListener());
+            eventService.notify(new TestEvent(0));
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // the publisher is not blocked and none of the events are dropped
+            for (int i = 1; i <= 5; i++) {
+                eventService.notify(new TestEvent(i));
+            }
+            assertThat(eventService.getStatistics().getListenerQueueDepth()).isEqualTo(5);
+
+            release.countDown();
+            assertThat(received.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(eventService.getStatistics().getDroppedCount()).isEqualTo(0);
+        } finally {
+            release.countDown();
+            eventService.shutdown();
+        }
+    }
 }
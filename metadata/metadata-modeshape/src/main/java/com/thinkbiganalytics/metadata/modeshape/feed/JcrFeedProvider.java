@@ -21,6 +21,7 @@ package com.thinkbiganalytics.metadata.modeshape.feed;
  */
 
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableMap;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.category.Category;
 import com.thinkbiganalytics.metadata.api.category.CategoryNotFoundException;
@@ -57,6 +58,7 @@ import com.thinkbiganalytics.metadata.modeshape.category.JcrCategory;
 import com.thinkbiganalytics.metadata.modeshape.common.EntityUtil;
 import com.thinkbiganalytics.metadata.modeshape.common.JcrEntity;
 import com.thinkbiganalytics.metadata.modeshape.common.JcrObject;
+import com.thinkbiganalytics.metadata.modeshape.common.JcrPropertyConstants;
 import com.thinkbiganalytics.metadata.modeshape.datasource.JcrDatasource;
 import com.thinkbiganalytics.metadata.modeshape.extension.ExtensionsConstants;
 import com.thinkbiganalytics.metadata.modeshape.security.action.JcrAllowedActions;
@@ -81,7 +83,12 @@ import com.thinkbiganalytics.security.role.SecurityRole;
 import com.thinkbiganalytics.security.role.SecurityRoleProvider;
 import com.thinkbiganalytics.support.FeedNameUtil;
 
+import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.Serializable;
@@ -94,20 +101,35 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.query.QueryResult;
+import javax.jcr.query.RowIterator;
 
 /**
  * A JCR provider for {@link Feed} objects.
  */
 public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements FeedProvider {
 
+    /**
+     * Query columns for the supported feed summary sort properties
+     */
+    private static final Map<String, String> SUMMARY_SORT_COLUMNS = ImmutableMap.<String, String>builder()
+        .put("feedName", "summary." + EntityUtil.asQueryProperty(FeedSummary.TITLE))
+        .put("systemFeedName", "summary." + EntityUtil.asQueryProperty(FeedSummary.SYSTEM_NAME))
+        .put("categoryName", "category." + EntityUtil.asQueryProperty(JcrCategory.TITLE))
+        .put("systemCategoryName", "category." + EntityUtil.asQueryProperty(JcrCategory.SYSTEM_NAME))
+        .put("state", "data." + EntityUtil.asQueryProperty(FeedData.STATE))
+        .put("updateDate", "summary." + EntityUtil.asQueryProperty(JcrPropertyConstants.MODIFIED_TIME))
+        .build();
+
     @Inject
     private CategoryProvider categoryProvider;
 
@@ -516,6 +538,66 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
 
     }
 
+    @Nonnull
+    @Override
+    public Page<Feed> findPage(@Nullable Category.ID categoryId, @Nullable String filter, @Nonnull Pageable pageable) {
+        // Filter, sort, and count using only the summary columns, then load only the feeds in the requested page
+        Sort sort = (pageable.getSort() != null) ? pageable.getSort() : new Sort("feedName");
+        List<String> orderBy = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SUMMARY_SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Feeds cannot be sorted by: " + order.getProperty());
+            }
+            orderBy.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+
+        StringBuilder from = new StringBuilder("FROM " + EntityUtil.asQueryProperty(JcrFeed.NODE_TYPE) + " AS e ")
+            .append("INNER JOIN " + EntityUtil.asQueryProperty(FeedSummary.NODE_TYPE) + " AS summary ON ISCHILDNODE(summary, e) ")
+            .append("INNER JOIN " + EntityUtil.asQueryProperty(FeedData.NODE_TYPE) + " AS data ON ISCHILDNODE(data, e) ")
+            .append("INNER JOIN " + EntityUtil.asQueryProperty(JcrCategory.NODE_TYPE) + " AS category ON summary." + EntityUtil.asQueryProperty(FeedSummary.CATEGORY)
+                    + " = category.[jcr:uuid] ");
+
+        Map<String, String> bindParams = new HashMap<>();
+        List<String> conditions = new ArrayList<>();
+        if (categoryId != null) {
+            conditions.add("summary." + EntityUtil.asQueryProperty(FeedSummary.CATEGORY) + " = $categoryId");
+            bindParams.put("categoryId", categoryId.toString());
+        }
+        if (StringUtils.isNotBlank(filter)) {
+            conditions.add("(" + Stream.of("summary." + EntityUtil.asQueryProperty(FeedSummary.TITLE), "summary." + EntityUtil.asQueryProperty(FeedSummary.SYSTEM_NAME),
+                                           "category." + EntityUtil.asQueryProperty(JcrCategory.TITLE))
+                .map(column -> "LOWER(" + column + ") LIKE $filter")
+                .collect(Collectors.joining(" OR ")) + ")");
+            bindParams.put("filter", "%" + filter.trim().toLowerCase() + "%");
+        }
+        if (!conditions.isEmpty()) {
+            from.append("WHERE ").append(StringUtils.join(conditions, " AND ")).append(" ");
+        }
+        String query = "SELECT e.[jcr:uuid] " + from + "ORDER BY " + StringUtils.join(orderBy, ", ");
+
+        try {
+            RowIterator rows = JcrQueryUtil.query(getSession(), query, bindParams, pageable.getOffset(), pageable.getPageSize()).getRows();
+            List<Feed> feeds = new ArrayList<>();
+            while (rows.hasNext()) {
+                JcrFeed feed = JcrUtil.createJcrObject(rows.nextRow().getNode("e"), JcrFeed.class);
+                feed.setOpsAccessProvider(opsAccessProvider);
+                feeds.add(feed);
+            }
+
+            // only count the matching feeds when the page does not give the total
+            long total;
+            if (feeds.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !feeds.isEmpty())) {
+                total = pageable.getOffset() + feeds.size();
+            } else {
+                total = JcrQueryUtil.count(getSession(), "SELECT e.[jcr:uuid] " + from, bindParams);
+            }
+            return new PageImpl<>(feeds, pageable, total);
+        } catch (RepositoryException e) {
+            throw new MetadataRepositoryException("Unable to find page of feeds", e);
+        }
+    }
+
 //
 //    @Override
 //    public FeedSource getFeedSource(com.thinkbiganalytics.metadata.api.feed.FeedSource.ID id) {
@@ -144,9 +144,40 @@ public class JcrQueryUtil {
     }
 
     public static QueryResult query(Session session, String queryExpression, Map<String, String> bindParams) throws RepositoryException {
+        return createQuery(session, queryExpression, bindParams).execute();
+    }
+
+    /**
+     * Executes a query returning only the rows in the specified range.
+     *
+     * @param offset the number of rows to skip
+     * @param limit  the maximum number of rows to return
+     */
+    public static QueryResult query(Session session, String queryExpression, Map<String, String> bindParams, long offset, long limit) throws RepositoryException {
+        Query query = createQuery(session, queryExpression, bindParams);
+        query.setOffset(offset);
+        query.setLimit(limit);
+        return query.execute();
+    }
 
-        QueryResult results = null;
+    /**
+     * Counts the rows returned by a query.
+     */
+    public static long count(Session session, String queryExpression, Map<String, String> bindParams) throws RepositoryException {
+        RowIterator rows = query(session, queryExpression, bindParams).getRows();
+        long size = rows.getSize();
+        if (size < 0) {
+            // the size is unknown so count the rows without loading their nodes
+            size = 0;
+            while (rows.hasNext()) {
+                rows.nextRow();
+                size++;
+            }
+        }
+        return size;
+    }
 
+    private static Query createQuery(Session session, String queryExpression, Map<String, String> bindParams) throws RepositoryException {
         Query query = session.getWorkspace().getQueryManager().createQuery(queryExpression, "JCR-SQL2");
         if (bindParams != null && !bindParams.isEmpty()) {
             Iterator e = bindParams.entrySet().iterator();
@@ -158,10 +189,7 @@ public class JcrQueryUtil {
                 query.bindValue(key, value);
             }
         }
-
-        results = query.execute();
-
-        return results;
+        return query;
     }
 
 }
@@ -42,13 +42,18 @@ import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.testng.Assert;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -158,6 +163,47 @@ public class FeedManagerFeedTest {
 
     }
 
+    /**
+     * Test finding a page of feeds in a category
+     */
+    @Test
+    public void testFindPage() {
+        String categorySystemName = "paged_category";
+        String templateName = "paged_template";
+
+        metadata.commit(() -> {
+            FeedManagerTemplate template = feedTestUtil.findOrCreateTemplate(templateName);
+            Category category = feedTestUtil.findOrCreateCategory(categorySystemName);
+            for (int i = 0; i < 5; i++) {
+                feedTestUtil.findOrCreateFeed(category, "paged_feed_" + i, template);
+            }
+        }, MetadataAccess.ADMIN);
+
+        metadata.read(() -> {
+            Category category = feedTestUtil.findOrCreateCategory(categorySystemName);
+
+            Page<Feed> page = feedProvider.findPage(category.getId(), null, new PageRequest(1, 2, Sort.Direction.DESC, "systemFeedName"));
+            Assert.assertEquals(page.getTotalElements(), 5);
+            Assert.assertEquals(page.getContent().stream().map(Feed::getName).collect(Collectors.toList()), Arrays.asList("paged_feed_2", "paged_feed_1"));
+
+            // the last partial page and a page past the end still report the total
+            page = feedProvider.findPage(category.getId(), null, new PageRequest(2, 2, Sort.Direction.DESC, "systemFeedName"));
+            Assert.assertEquals(page.getTotalElements(), 5);
+            Assert.assertEquals(page.getContent().stream().map(Feed::getName).collect(Collectors.toList()), Arrays.asList("paged_feed_0"));
+            page = feedProvider.findPage(category.getId(), null, new PageRequest(5, 2));
+            Assert.assertEquals(page.getTotalElements(), 5);
+            Assert.assertTrue(page.getContent().isEmpty());
+
+            page = feedProvider.findPage(category.getId(), "FEED_4", new PageRequest(0, 10));
+            Assert.assertEquals(page.getTotalElements(), 1);
+            Assert.assertEquals(page.getContent().get(0).getName(), "paged_feed_4");
+
+            page = feedProvider.findPage(null, "paged_category", new PageRequest(0, 10, Sort.Direction.ASC, "categoryName", "feedName"));
+            Assert.assertEquals(page.getTotalElements(), 5);
+            Assert.assertEquals(page.getContent().get(0).getName(), "paged_feed_0");
+        }, MetadataAccess.ADMIN);
+    }
+
     @Test
     public void testFeedDatasource() {
         String categorySystemName = "my_category";
@@ -29,6 +29,7 @@ import com.thinkbiganalytics.discovery.parser.SchemaParser;
 import com.thinkbiganalytics.discovery.schema.Field;
 import com.thinkbiganalytics.discovery.schema.Schema;
 import com.thinkbiganalytics.discovery.util.ParserHelper;
+import com.thinkbiganalytics.discovery.util.ReservoirSample;
 import com.thinkbiganalytics.discovery.util.TableSchemaType;
 import com.thinkbiganalytics.policy.PolicyProperty;
 import com.thinkbiganalytics.policy.PolicyPropertyTypes;
@@ -43,12 +44,14 @@ import org.apache.commons.lang3.Validate;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Reader;
-import java.io.StringReader;
+import java.io.InputStreamReader;
 import java.nio.charset.Charset;
+import java.sql.JDBCType;
 import java.util.ArrayList;
+import java.util.List;
 
 import javax.annotation.Nonnull;
 
@@ -59,8 +62,20 @@ public class CSVFileSchemaParser implements FileSchemaParser {
 
     private static final int MAX_ROWS = 1000;
 
+    /**
+     * Number of rows whose values are kept as the sample values of each field
+     */
+    private static final int SAMPLE_ROWS = 9;
+
+    /**
+     * Default maximum number of records read to infer the column types
+     */
+    private static final int MAX_ROWS_TO_SCAN = 10000;
+
     private int numRowsToSample = 100;
 
+    private int maxRowsToScan = MAX_ROWS_TO_SCAN;
+
     @PolicyProperty(name = "Auto Detect?", hint = "Auto detect will attempt to infer delimiter from the sample file.", type = PolicyPropertyTypes.PROPERTY_TYPE.select,
                     selectableValues = {"true", "false"})
     private boolean autoDetect = true;
@@ -109,52 +124,80 @@ public class CSVFileSchemaParser implements FileSchemaParser {
         Validate.notNull(charset, "charset must not be null");
         validate();
 
-        // Parse the file
-        String sampleData = ParserHelper.extractSampleLines(is, charset, numRowsToSample);
+        // Detect the format from the first lines, then parse the file once from the same reader. The reader is not closed as the stream is owned
+        // by the caller.
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, charset));
+        String sampleData = ParserHelper.extractSampleLines(reader, numRowsToSample);
         Validate.notEmpty(sampleData, "No data in file");
         CSVFormat format = createCSVFormat(sampleData);
-        try (Reader reader = new StringReader(sampleData)) {
 
-            CSVParser parser = format.parse(reader);
-            DefaultFileSchema fileSchema = populateSchema(parser);
-            fileSchema.setCharset(charset.name());
-
-            // Convert to target schema with proper derived types
-            Schema targetSchema = convertToTarget(target, fileSchema);
-            return targetSchema;
+        CSVParser parser = format.parse(reader);
+        List<JDBCType> columnTypes = new ArrayList<>();
+        DefaultFileSchema fileSchema = populateSchema(parser, columnTypes);
+        fileSchema.setCharset(charset.name());
+
+        // Use the types inferred from every record rather than from the sample values
+        if (target != TableSchemaType.RAW) {
+            List<Field> fields = fileSchema.getFields();
+            for (int i = 0; i < fields.size(); i++) {
+                JDBCType columnType = columnTypes.get(i);
+                ParserHelper.deriveDataType(target, fields.get(i), (columnType != null) ? columnType : JDBCType.VARCHAR);
+            }
         }
+
+        // Convert to target schema with proper derived types
+        Schema targetSchema = convertToTarget(target, fileSchema);
+        return targetSchema;
     }
 
-    private DefaultFileSchema populateSchema(CSVParser parser) {
+    /**
+     * Reads up to {@code maxRowsToScan} records of the file to create the fields. The type of each column is inferred one value at a time and the
+     * sample values are a random sample of the records read.
+     *
+     * @param parser      the parser positioned at the first record
+     * @param columnTypes receives the type inferred for each column
+     * @return the file schema
+     */
+    private DefaultFileSchema populateSchema(CSVParser parser, List<JDBCType> columnTypes) {
         DefaultFileSchema fileSchema = new DefaultFileSchema();
-        int i = 0;
         ArrayList<Field> fields = new ArrayList<>();
+        ReservoirSample<CSVRecord> sample = new ReservoirSample<>(SAMPLE_ROWS);
+        boolean first = true;
+        int rows = 0;
         for (CSVRecord record : parser) {
-            if (i > 9) {
-                break;
-            }
-            int size = record.size();
-            for (int j = 0; j < size; j++) {
-                DefaultField field = null;
-                if (i == 0) {
-                    field = new DefaultField();
+            if (first) {
+                for (int j = 0; j < record.size(); j++) {
+                    DefaultField field = new DefaultField();
                     if (headerRow) {
                         field.setName(record.get(j));
                     } else {
                         field.setName("Col_" + (j + 1));
                     }
                     fields.add(field);
+                    columnTypes.add(null);
+                }
+                first = false;
+                if (headerRow) {
+                    continue;
+                }
+            }
+            for (int j = 0; j < record.size(); j++) {
+                if (j < columnTypes.size()) {
+                    columnTypes.set(j, ParserHelper.deriveJDBCDataType(columnTypes.get(j), record.get(j)));
                 } else {
-                    try {
-                        field = (DefaultField) fields.get(j);
-                        field.getSampleValues().add(StringUtils.defaultString(record.get(j), ""));
-
-                    } catch (IndexOutOfBoundsException e) {
-                        LOG.warn("Sample file has potential sparse column problem at row [?] field [?]", i + 1, j + 1);
-                    }
+                    LOG.warn("Sample file has potential sparse column problem at row [{}] field [{}]", record.getRecordNumber(), j + 1);
                 }
             }
-            i++;
+            sample.add(record);
+            if (++rows >= maxRowsToScan) {
+                LOG.debug("Inferred the column types from the first {} rows", rows);
+                break;
+            }
+        }
+        for (CSVRecord record : sample.getSample()) {
+            for (int j = 0; j < record.size() && j < fields.size(); j++) {
+                fields.get(j).getSampleValues().add(StringUtils.defaultString(record.get(j), ""));
+            }
         }
         fileSchema.setFields(fields);
         return fileSchema;
@@ -250,6 +293,7 @@ public class CSVFileSchemaParser implements FileSchemaParser {
         Validate.isTrue(StringUtils.isEmpty(quoteChar) || quoteChar.length() <= 2, "Legal quote character required.");
         Validate.isTrue(StringUtils.isEmpty(escapeChar) || escapeChar.length() <= 2, "Legal escape character required.");
         Validate.inclusiveBetween(1, MAX_ROWS, numRowsToSample, "Cannot sample more than " + MAX_ROWS + ".");
+        Validate.isTrue(maxRowsToScan > 0, "The maximum number of rows to scan must be positive.");
     }
 
     public void setAutoDetect(boolean autoDetect) {
@@ -264,6 +308,10 @@ public class CSVFileSchemaParser implements FileSchemaParser {
         this.numRowsToSample = numRowsToSample;
     }
 
+    public void setMaxRowsToScan(int maxRowsToScan) {
+        this.maxRowsToScan = maxRowsToScan;
+    }
+
     public String getSeparatorChar() {
         return separatorChar;
     }
@@ -0,0 +1,132 @@
+package com.thinkbiganalytics.discovery.parsers.hadoop;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-default
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.model.DefaultField;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the schema of an Avro data file from its header, and the sample values from its first records.
+ *
+ * <p>The Avro types are converted to Hive types the same way the Spark Avro data source converts them.</p>
+ */
+class AvroHeaderReader {
+
+    private static final Set<Schema.Type> INTEGER_TYPES = EnumSet.of(Schema.Type.INT, Schema.Type.LONG);
+    private static final Set<Schema.Type> FLOATING_TYPES = EnumSet.of(Schema.Type.FLOAT, Schema.Type.DOUBLE);
+
+    /**
+     * Reads the fields of the Avro data file.
+     *
+     * @param file       the Avro data file
+     * @param sampleRows the number of records to read for sample values
+     * @return the fields with their Hive types
+     * @throws IOException if the file is not a valid Avro data file or its schema cannot be converted
+     */
+    static List<DefaultField> readFields(File file, int sampleRows) throws IOException {
+        try (DataFileStream<GenericRecord> stream = new DataFileStream<>(new BufferedInputStream(new FileInputStream(file)), new GenericDatumReader<>())) {
+            Schema schema = stream.getSchema();
+            if (schema.getType() != Schema.Type.RECORD) {
+                throw new IOException("Avro schema is not a record: " + schema.getType());
+            }
+
+            List<DefaultField> fields = new ArrayList<>();
+            for (Schema.Field avroField : schema.getFields()) {
+                DefaultField field = new DefaultField();
+                field.setName(avroField.name());
+                field.setNativeDataType(toHiveType(avroField.schema()));
+                field.setDerivedDataType(field.getNativeDataType());
+                fields.add(field);
+            }
+
+            for (int row = 0; row < sampleRows && stream.hasNext(); row++) {
+                GenericRecord record = stream.next();
+                for (int i = 0; i < fields.size(); i++) {
+                    Object value = record.get(i);
+                    if (value != null) {
+                        fields.get(i).getSampleValues().add(value.toString());
+                    }
+                }
+            }
+            return fields;
+        }
+    }
+
+    static String toHiveType(Schema schema) throws IOException {
+        switch (schema.getType()) {
+            case BOOLEAN:
+                return "boolean";
+            case INT:
+                return "int";
+            case LONG:
+                return "bigint";
+            case FLOAT:
+                return "float";
+            case DOUBLE:
+                return "double";
+            case STRING:
+            case ENUM:
+                return "string";
+            case BYTES:
+            case FIXED:
+                return "binary";
+            case ARRAY:
+                return "array<" + toHiveType(schema.getElementType()) + ">";
+            case MAP:
+                return "map<string," + toHiveType(schema.getValueType()) + ">";
+            case RECORD:
+                List<String> members = new ArrayList<>();
+                for (Schema.Field field : schema.getFields()) {
+                    members.add(field.name() + ":" + toHiveType(field.schema()));
+                }
+                return members.stream().collect(Collectors.joining(",", "struct<", ">"));
+            case UNION:
+                List<Schema> types = schema.getTypes().stream().filter(type -> type.getType() != Schema.Type.NULL).collect(Collectors.toList());
+                if (types.size() == 1) {
+                    return toHiveType(types.get(0));
+                }
+                Set<Schema.Type> typeSet = types.stream().map(Schema::getType).collect(Collectors.toSet());
+                if (!typeSet.isEmpty() && INTEGER_TYPES.containsAll(typeSet)) {
+                    return "bigint";
+                }
+                if (!typeSet.isEmpty() && FLOATING_TYPES.containsAll(typeSet)) {
+                    return "double";
+                }
+                throw new IOException("Unsupported Avro union: " + schema);
+            default:
+                throw new IOException("Unsupported Avro type: " + schema.getType());
+        }
+    }
+}
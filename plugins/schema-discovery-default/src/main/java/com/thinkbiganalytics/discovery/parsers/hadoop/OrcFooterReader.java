@@ -0,0 +1,354 @@
+package com.thinkbiganalytics.discovery.parsers.hadoop;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-default
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.model.DefaultField;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the schema of an ORC file from its footer, without reading any data.
+ *
+ * <p>The file tail ends with the length of the PostScript, preceded by the PostScript and the Footer. Both are small protocol buffer messages
+ * so only the fields needed for the schema are decoded here. Footers compressed with ZLIB are supported; other codecs are reported as
+ * errors so the caller can fall back to Spark.</p>
+ */
+class OrcFooterReader {
+
+    private static final byte[] MAGIC = "ORC".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Compression kinds from the PostScript
+     */
+    private static final int COMPRESSION_NONE = 0;
+    private static final int COMPRESSION_ZLIB = 1;
+
+    /**
+     * Type kinds from the Footer, indexed by their protocol buffer value
+     */
+    private static final String[] PRIMITIVE_TYPES = {"boolean", "tinyint", "smallint", "int", "bigint", "float", "double", "string", "binary", "timestamp"};
+    private static final int KIND_LIST = 10;
+    private static final int KIND_MAP = 11;
+    private static final int KIND_STRUCT = 12;
+    private static final int KIND_UNION = 13;
+    private static final int KIND_DECIMAL = 14;
+    private static final int KIND_DATE = 15;
+    private static final int KIND_VARCHAR = 16;
+    private static final int KIND_CHAR = 17;
+
+    /**
+     * Reads the fields of the ORC file.
+     *
+     * @param file the ORC file
+     * @return the fields with their Hive types
+     * @throws IOException if the file is not a valid ORC file or its footer uses an unsupported compression
+     */
+    static List<DefaultField> readFields(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length();
+            byte[] header = new byte[MAGIC.length];
+            if (length <= MAGIC.length + 1) {
+                throw new IOException("Not an ORC file");
+            }
+            raf.readFully(header);
+            if (!Arrays.equals(MAGIC, header)) {
+                throw new IOException("Not an ORC file");
+            }
+
+            raf.seek(length - 1);
+            int postScriptLength = raf.readUnsignedByte();
+            long postScriptStart = length - 1 - postScriptLength;
+            if (postScriptStart < MAGIC.length) {
+                throw new IOException("Invalid ORC PostScript length: " + postScriptLength);
+            }
+            byte[] postScript = new byte[postScriptLength];
+            raf.seek(postScriptStart);
+            raf.readFully(postScript);
+
+            long footerLength = 0;
+            int compression = COMPRESSION_NONE;
+            ProtobufReader reader = new ProtobufReader(postScript);
+            while (reader.hasMore()) {
+                int tag = (int) reader.readVarint();
+                if (tag >>> 3 == 1) {
+                    footerLength = reader.readVarint();
+                } else if (tag >>> 3 == 2) {
+                    compression = (int) reader.readVarint();
+                } else {
+                    reader.skip(tag & 7);
+                }
+            }
+
+            long footerStart = postScriptStart - footerLength;
+            if (footerLength <= 0 || footerStart < MAGIC.length) {
+                throw new IOException("Invalid ORC footer length: " + footerLength);
+            }
+            byte[] footer = new byte[(int) footerLength];
+            raf.seek(footerStart);
+            raf.readFully(footer);
+            return toFields(readTypes(decompress(footer, compression)));
+        }
+    }
+
+    /**
+     * Reads the types from the Footer message.
+     */
+    private static List<OrcType> readTypes(byte[] footer) throws IOException {
+        List<OrcType> types = new ArrayList<>();
+        ProtobufReader reader = new ProtobufReader(footer);
+        while (reader.hasMore()) {
+            int tag = (int) reader.readVarint();
+            if (tag >>> 3 == 4 && (tag & 7) == 2) {
+                types.add(readType(new ProtobufReader(reader.readBytes())));
+            } else {
+                reader.skip(tag & 7);
+            }
+        }
+        return types;
+    }
+
+    private static OrcType readType(ProtobufReader reader) throws IOException {
+        OrcType type = new OrcType();
+        while (reader.hasMore()) {
+            int tag = (int) reader.readVarint();
+            switch (tag >>> 3) {
+                case 1:
+                    type.kind = (int) reader.readVarint();
+                    break;
+                case 2:
+                    if ((tag & 7) == 2) {
+                        ProtobufReader packed = new ProtobufReader(reader.readBytes());
+                        while (packed.hasMore()) {
+                            type.subtypes.add((int) packed.readVarint());
+                        }
+                    } else {
+                        type.subtypes.add((int) reader.readVarint());
+                    }
+                    break;
+                case 3:
+                    type.fieldNames.add(new String(reader.readBytes(), StandardCharsets.UTF_8));
+                    break;
+                case 4:
+                    type.maximumLength = (int) reader.readVarint();
+                    break;
+                case 5:
+                    type.precision = (int) reader.readVarint();
+                    break;
+                case 6:
+                    type.scale = (int) reader.readVarint();
+                    break;
+                default:
+                    reader.skip(tag & 7);
+            }
+        }
+        return type;
+    }
+
+    static List<DefaultField> toFields(List<OrcType> types) throws IOException {
+        if (types.isEmpty() || types.get(0).kind != KIND_STRUCT) {
+            throw new IOException("ORC file has no struct schema");
+        }
+        OrcType root = types.get(0);
+        List<DefaultField> fields = new ArrayList<>();
+        for (int i = 0; i < root.subtypes.size() && i < root.fieldNames.size(); i++) {
+            DefaultField field = new DefaultField();
+            field.setName(root.fieldNames.get(i));
+            field.setNativeDataType(toHiveType(types, root.subtypes.get(i)));
+            field.setDerivedDataType(field.getNativeDataType());
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    private static String toHiveType(List<OrcType> types, int index) throws IOException {
+        if (index <= 0 || index >= types.size()) {
+            throw new IOException("Invalid ORC type reference: " + index);
+        }
+        OrcType type = types.get(index);
+        if (type.kind >= 0 && type.kind < PRIMITIVE_TYPES.length) {
+            return PRIMITIVE_TYPES[type.kind];
+        }
+        switch (type.kind) {
+            case KIND_LIST:
+                return "array<" + toHiveType(types, subtype(type, 0)) + ">";
+            case KIND_MAP:
+                return "map<" + toHiveType(types, subtype(type, 0)) + "," + toHiveType(types, subtype(type, 1)) + ">";
+            case KIND_STRUCT:
+                List<String> members = new ArrayList<>();
+                for (int i = 0; i < type.subtypes.size() && i < type.fieldNames.size(); i++) {
+                    members.add(type.fieldNames.get(i) + ":" + toHiveType(types, type.subtypes.get(i)));
+                }
+                return members.stream().collect(Collectors.joining(",", "struct<", ">"));
+            case KIND_UNION:
+                List<String> alternatives = new ArrayList<>();
+                for (int subtype : type.subtypes) {
+                    alternatives.add(toHiveType(types, subtype));
+                }
+                return alternatives.stream().collect(Collectors.joining(",", "uniontype<", ">"));
+            case KIND_DECIMAL:
+                return (type.precision > 0) ? "decimal(" + type.precision + "," + type.scale + ")" : "decimal";
+            case KIND_DATE:
+                return "date";
+            case KIND_VARCHAR:
+                return "varchar(" + type.maximumLength + ")";
+            case KIND_CHAR:
+                return "char(" + type.maximumLength + ")";
+            default:
+                throw new IOException("Unsupported ORC type kind: " + type.kind);
+        }
+    }
+
+    private static int subtype(OrcType type, int position) throws IOException {
+        if (position >= type.subtypes.size()) {
+            throw new IOException("Missing ORC subtype");
+        }
+        return type.subtypes.get(position);
+    }
+
+    /**
+     * Decompresses a stream made of chunks that each start with a 3 byte header of the chunk length and whether the chunk is stored uncompressed.
+     */
+    private static byte[] decompress(byte[] data, int compression) throws IOException {
+        if (compression == COMPRESSION_NONE) {
+            return data;
+        }
+        if (compression != COMPRESSION_ZLIB) {
+            throw new IOException("Unsupported ORC compression: " + compression);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+        byte[] buffer = new byte[8192];
+        int position = 0;
+        while (position + 3 <= data.length) {
+            int header = (data[position] & 0xff) | (data[position + 1] & 0xff) << 8 | (data[position + 2] & 0xff) << 16;
+            position += 3;
+            int chunkLength = header >>> 1;
+            if (position + chunkLength > data.length) {
+                throw new IOException("Truncated ORC footer");
+            }
+            if ((header & 1) == 1) {
+                out.write(data, position, chunkLength);
+            } else {
+                Inflater inflater = new Inflater(true);
+                try {
+                    inflater.setInput(data, position, chunkLength);
+                    while (!inflater.finished()) {
+                        int count = inflater.inflate(buffer);
+                        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            break;
+                        }
+                        out.write(buffer, 0, count);
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException("Invalid ORC footer compression", e);
+                } finally {
+                    inflater.end();
+                }
+            }
+            position += chunkLength;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A type from the ORC Footer
+     */
+    static class OrcType {
+
+        int kind;
+        final List<Integer> subtypes = new ArrayList<>();
+        final List<String> fieldNames = new ArrayList<>();
+        int maximumLength;
+        int precision;
+        int scale;
+    }
+
+    /**
+     * Decodes the fields of a protocol buffer message
+     */
+    private static class ProtobufReader {
+
+        private final byte[] data;
+        private int position;
+
+        ProtobufReader(byte[] data) {
+            this.data = data;
+        }
+
+        boolean hasMore() {
+            return position < data.length;
+        }
+
+        long readVarint() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= data.length) {
+                    throw new IOException("Truncated ORC metadata");
+                }
+                byte b = data[position++];
+                result |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Malformed ORC metadata");
+        }
+
+        byte[] readBytes() throws IOException {
+            long length = readVarint();
+            if (length < 0 || position + length > data.length) {
+                throw new IOException("Truncated ORC metadata");
+            }
+            byte[] bytes = Arrays.copyOfRange(data, position, position + (int) length);
+            position += (int) length;
+            return bytes;
+        }
+
+        void skip(int wireType) throws IOException {
+            switch (wireType) {
+                case 0:
+                    readVarint();
+                    break;
+                case 1:
+                    position += 8;
+                    break;
+                case 2:
+                    readBytes();
+                    break;
+                case 5:
+                    position += 4;
+                    break;
+                default:
+                    throw new IOException("Unsupported ORC metadata wire type: " + wireType);
+            }
+        }
+    }
+}
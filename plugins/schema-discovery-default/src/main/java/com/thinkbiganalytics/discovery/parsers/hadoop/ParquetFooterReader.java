@@ -0,0 +1,204 @@
+package com.thinkbiganalytics.discovery.parsers.hadoop;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-default
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.model.DefaultField;
+
+import org.apache.parquet.format.ConvertedType;
+import org.apache.parquet.format.FieldRepetitionType;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.SchemaElement;
+import org.apache.parquet.format.Util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the schema of a Parquet file from its footer, without reading any data.
+ *
+ * <p>The Parquet types are converted to Hive types the same way Spark SQL converts them.</p>
+ */
+class ParquetFooterReader {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Reads the fields of the Parquet file.
+     *
+     * @param file the Parquet file
+     * @return the fields with their Hive types
+     * @throws IOException if the file is not a valid Parquet file
+     */
+    static List<DefaultField> readFields(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length();
+            if (length < MAGIC.length * 2 + 4) {
+                throw new IOException("Not a Parquet file");
+            }
+
+            // The file ends with the footer, the footer length and the magic number
+            byte[] tail = new byte[8];
+            raf.seek(length - tail.length);
+            raf.readFully(tail);
+            if (!Arrays.equals(MAGIC, Arrays.copyOfRange(tail, 4, 8))) {
+                throw new IOException("Not a Parquet file");
+            }
+            int footerLength = (tail[0] & 0xff) | (tail[1] & 0xff) << 8 | (tail[2] & 0xff) << 16 | (tail[3] & 0xff) << 24;
+            long footerStart = length - tail.length - footerLength;
+            if (footerLength <= 0 || footerStart < MAGIC.length) {
+                throw new IOException("Invalid Parquet footer length: " + footerLength);
+            }
+
+            byte[] footer = new byte[footerLength];
+            raf.seek(footerStart);
+            raf.readFully(footer);
+            FileMetaData metaData = Util.readFileMetaData(new ByteArrayInputStream(footer));
+            return toFields(metaData.getSchema());
+        }
+    }
+
+    /**
+     * Converts the depth-first list of schema elements to fields.
+     */
+    static List<DefaultField> toFields(List<SchemaElement> elements) throws IOException {
+        if (elements == null || elements.isEmpty()) {
+            throw new IOException("Parquet file has no schema");
+        }
+        Node root = toTree(elements, new int[]{0});
+        List<DefaultField> fields = new ArrayList<>();
+        for (Node child : root.children) {
+            DefaultField field = new DefaultField();
+            field.setName(child.element.getName());
+            field.setNativeDataType(fieldType(child));
+            field.setDerivedDataType(field.getNativeDataType());
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    private static Node toTree(List<SchemaElement> elements, int[] position) throws IOException {
+        if (position[0] >= elements.size()) {
+            throw new IOException("Parquet schema is truncated");
+        }
+        Node node = new Node(elements.get(position[0]++));
+        int childCount = node.element.isSetNum_children() ? node.element.getNum_children() : 0;
+        for (int i = 0; i < childCount; i++) {
+            node.children.add(toTree(elements, position));
+        }
+        return node;
+    }
+
+    /**
+     * Gets the type of a field, which is an array if the field is repeated.
+     */
+    private static String fieldType(Node node) throws IOException {
+        String type = valueType(node);
+        return (node.element.getRepetition_type() == FieldRepetitionType.REPEATED) ? "array<" + type + ">" : type;
+    }
+
+    /**
+     * Gets the type of the values of a field.
+     */
+    private static String valueType(Node node) throws IOException {
+        SchemaElement element = node.element;
+        if (element.isSetType()) {
+            return primitiveType(element);
+        }
+
+        ConvertedType convertedType = element.getConverted_type();
+        if (convertedType == ConvertedType.LIST && node.children.size() == 1) {
+            Node repeated = node.children.get(0);
+            String name = repeated.element.getName();
+            // Older writers store the elements directly in the repeated field
+            if (repeated.element.isSetType() || repeated.children.size() != 1 || "array".equals(name) || name.endsWith("_tuple")) {
+                return "array<" + valueType(repeated) + ">";
+            }
+            return "array<" + fieldType(repeated.children.get(0)) + ">";
+        }
+        if ((convertedType == ConvertedType.MAP || convertedType == ConvertedType.MAP_KEY_VALUE) && node.children.size() == 1 && node.children.get(0).children.size() == 2) {
+            Node keyValue = node.children.get(0);
+            return "map<" + valueType(keyValue.children.get(0)) + "," + fieldType(keyValue.children.get(1)) + ">";
+        }
+
+        List<String> members = new ArrayList<>();
+        for (Node child : node.children) {
+            members.add(child.element.getName() + ":" + fieldType(child));
+        }
+        return members.stream().collect(Collectors.joining(",", "struct<", ">"));
+    }
+
+    private static String primitiveType(SchemaElement element) throws IOException {
+        ConvertedType convertedType = element.getConverted_type();
+        if (convertedType == ConvertedType.DECIMAL) {
+            return "decimal(" + element.getPrecision() + "," + element.getScale() + ")";
+        }
+        switch (element.getType()) {
+            case BOOLEAN:
+                return "boolean";
+            case INT32:
+                if (convertedType == ConvertedType.DATE) {
+                    return "date";
+                } else if (convertedType == ConvertedType.INT_8) {
+                    return "tinyint";
+                } else if (convertedType == ConvertedType.INT_16) {
+                    return "smallint";
+                }
+                return "int";
+            case INT64:
+                return "bigint";
+            case INT96:
+                return "timestamp";
+            case FLOAT:
+                return "float";
+            case DOUBLE:
+                return "double";
+            case BYTE_ARRAY:
+                if (convertedType == ConvertedType.UTF8 || convertedType == ConvertedType.ENUM || convertedType == ConvertedType.JSON) {
+                    return "string";
+                }
+                return "binary";
+            case FIXED_LEN_BYTE_ARRAY:
+                return "binary";
+            default:
+                throw new IOException("Unsupported Parquet type: " + element.getType());
+        }
+    }
+
+    /**
+     * A schema element with its children
+     */
+    private static class Node {
+
+        private final SchemaElement element;
+        private final List<Node> children = new ArrayList<>();
+
+        Node(SchemaElement element) {
+            this.element = element;
+        }
+    }
+}
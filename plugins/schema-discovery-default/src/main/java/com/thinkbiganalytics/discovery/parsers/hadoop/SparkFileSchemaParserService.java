@@ -68,6 +68,11 @@ public class SparkFileSchemaParserService {
 
     private static String DATATYPE_PRECISION_SCALE_REGEX = "(.*)((\\([0-9]+,[0-9]+\\))|(\\([0-9]+\\)))";
 
+    /**
+     * The number of sample values read for each field
+     */
+    private static final int SAMPLE_ROWS = 10;
+
     /**
      * Communicates with Spark Shell processes
      */
@@ -75,12 +80,19 @@ public class SparkFileSchemaParserService {
     private SparkShellRestClient restClient;
 
     /**
-     * Delegate to spark shell service to load the file into a temporary table and loading it
+     * Reads the schema from the file footer or header when possible, otherwise delegates to spark shell service to load the file into a temporary table
      */
     public Schema doParse(InputStream inputStream, SparkFileType fileType, TableSchemaType tableSchemaType) throws IOException {
 
         File tempFile = toFile(inputStream);
         try {
+            if (tableSchemaType == TableSchemaType.HIVE) {
+                Optional<List<DefaultField>> footerFields = readFooterFields(tempFile, fileType);
+                if (footerFields.isPresent()) {
+                    return toHiveSchema(footerFields.get(), fileType);
+                }
+            }
+
             SparkShellProcess shellProcess = shellProcessManager.getSystemProcess();
             TransformResponse response = restClient.transform(shellProcess, createTransformRequest(tempFile, fileType));
             while (response.getStatus() != TransformResponse.Status.SUCCESS) {
@@ -104,6 +116,30 @@ public class SparkFileSchemaParserService {
             tempFile.delete();
         }
     }
+
+    /**
+     * Reads the schema of self-describing files directly, avoiding a round trip through Spark.
+     *
+     * @return the fields, or empty if the file type is not self-describing or the file could not be read, in which case Spark is used instead
+     */
+    private Optional<List<DefaultField>> readFooterFields(File file, SparkFileType fileType) {
+        try {
+            switch (fileType) {
+                case PARQUET:
+                    return Optional.of(ParquetFooterReader.readFields(file));
+                case AVRO:
+                    return Optional.of(AvroHeaderReader.readFields(file, SAMPLE_ROWS));
+                case ORC:
+                    return Optional.of(OrcFooterReader.readFields(file));
+                default:
+                    return Optional.empty();
+            }
+        } catch (Exception e) {
+            log.debug("Unable to read the schema of the {} file directly, falling back to Spark: {}", fileType, e.toString());
+            return Optional.empty();
+        }
+    }
+
     // Port: 8450
 
     private TransformRequest createTransformRequest(File localFile, SparkFileType fileType) {
@@ -140,7 +176,7 @@ public class SparkFileSchemaParserService {
             default:
                 throw new UnsupportedOperationException("Type not supported [" + fileType + "]");
         }
-        sb.append(String.format("sqlContext.read.%s(\"%s\").limit(10).toDF()", method, path));
+        sb.append(String.format("sqlContext.read.%s(\"%s\").limit(%d).toDF()", method, path, SAMPLE_ROWS));
         return sb.toString();
     }
 
@@ -175,19 +211,13 @@ public class SparkFileSchemaParserService {
     }
 
     private DefaultHiveSchema toHiveSchema(QueryResult result, SparkFileType fileType) {
-        DefaultHiveSchema schema = new DefaultHiveSchema();
-        schema.setHiveFormat("STORED AS " + fileType);
-        schema.setStructured(true);
-        ArrayList<Field> fields = new ArrayList<>();
+        List<DefaultField> fields = new ArrayList<>();
         List<? extends QueryResultColumn> columns = result.getColumns();
         for (QueryResultColumn column : columns) {
             DefaultField field = new DefaultField();
             field.setName(column.getDisplayName());
             field.setNativeDataType(column.getDataType());
             field.setDerivedDataType(column.getDataType());
-            field.setDataTypeDescriptor(ParserHelper.hiveTypeToDescriptor(column.getDataType()));
-            //strip the precisionScale and assign to the field property
-            setPrecisionAndScale(field);
             // Add sample values
             List<Map<String, Object>> values = result.getRows();
             for (Map<String, Object> colMap : values) {
@@ -198,7 +228,19 @@ public class SparkFileSchemaParserService {
             }
             fields.add(field);
         }
-        schema.setFields(fields);
+        return toHiveSchema(fields, fileType);
+    }
+
+    private DefaultHiveSchema toHiveSchema(List<DefaultField> fields, SparkFileType fileType) {
+        DefaultHiveSchema schema = new DefaultHiveSchema();
+        schema.setHiveFormat("STORED AS " + fileType);
+        schema.setStructured(true);
+        for (DefaultField field : fields) {
+            field.setDataTypeDescriptor(ParserHelper.hiveTypeToDescriptor(field.getDerivedDataType()));
+            //strip the precisionScale and assign to the field property
+            setPrecisionAndScale(field);
+        }
+        schema.setFields(new ArrayList<Field>(fields));
         return schema;
     }
 
@@ -84,8 +84,8 @@ public class CSVFileSchemaParserTest {
 
             IntStream.range(0, fields.size()).forEach(idx -> {
                 assertEquals(fields.get(idx).getName(), "Col_" + (idx + 1));
-                // Note: only loads one
-                assertEquals(fields.get(idx).getSampleValues().size(), 1);
+                // the first row is data when there is no header
+                assertEquals(fields.get(idx).getSampleValues().size(), 2);
             });
         }
     }
@@ -111,7 +111,7 @@ public class CSVFileSchemaParserTest {
 
             IntStream.range(0, fields.size()).forEach(idx -> {
                 assertEquals(fields.get(idx).getName(), "Col_" + (idx + 1));
-                assertEquals(fields.get(idx).getSampleValues().size(), 1);
+                assertEquals(fields.get(idx).getSampleValues().size(), 2);
             });
         }
     }
@@ -126,7 +126,7 @@ public class CSVFileSchemaParserTest {
 
             IntStream.range(0, fields.size()).forEach(idx -> {
                 assertEquals(fields.get(idx).getName(), "Col_" + (idx + 1));
-                assertEquals(fields.get(idx).getSampleValues().size(), 1);
+                assertEquals(fields.get(idx).getSampleValues().size(), 2);
             });
         }
     }
@@ -146,6 +146,46 @@ public class CSVFileSchemaParserTest {
         }
     }
 
+    @org.junit.Test
+    public void testHeaderInfersTypesFromDataRows() throws Exception {
+        parser.setHeaderRow(true);
+        try (InputStream is = toInputStream("id,name\n1,a\n2,b\n3,c\n")) {
+            List<? extends Field> fields = toHiveTableSchema(is).getFields();
+            assertEquals("int", fields.get(0).getDerivedDataType());
+            assertEquals("string", fields.get(1).getDerivedDataType());
+            assertEquals(3, fields.get(0).getSampleValues().size());
+        }
+    }
+
+    @org.junit.Test
+    public void testNoHeaderInfersTypesFromFirstRow() throws Exception {
+        parser.setHeaderRow(false);
+        // only the first row makes the first column a string
+        try (InputStream is = toInputStream("a,1\n2,2\n3,3\n")) {
+            List<? extends Field> fields = toHiveTableSchema(is).getFields();
+            assertEquals("string", fields.get(0).getDerivedDataType());
+            assertEquals("int", fields.get(1).getDerivedDataType());
+            assertEquals(3, fields.get(0).getSampleValues().size());
+        }
+    }
+
+    @org.junit.Test
+    public void testMaxRowsToScan() throws Exception {
+        parser.setMaxRowsToScan(2);
+        // rows after the limit are not read so the string in the last row is not seen
+        try (InputStream is = toInputStream("id,name\n1,a\n2,b\nc,d\n")) {
+            List<? extends Field> fields = toHiveTableSchema(is).getFields();
+            assertEquals("int", fields.get(0).getDerivedDataType());
+            assertEquals(2, fields.get(0).getSampleValues().size());
+        }
+        parser.setHeaderRow(false);
+        try (InputStream is = toInputStream("1,a\n2,b\nc,d\n")) {
+            List<? extends Field> fields = toHiveTableSchema(is).getFields();
+            assertEquals("int", fields.get(0).getDerivedDataType());
+            assertEquals(2, fields.get(0).getSampleValues().size());
+        }
+    }
+
     @org.junit.Test
     public void testSparse() throws Exception {
         // Test extra columns
@@ -0,0 +1,192 @@
+package com.thinkbiganalytics.discovery.parsers.hadoop;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-default
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.model.DefaultField;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests reading the schema of Parquet, Avro and ORC files without Spark
+ */
+public class FooterReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testParquet() throws Exception {
+        File file = new File(getClass().getClassLoader().getResource("users.parquet").toURI());
+        List<DefaultField> fields = ParquetFooterReader.readFields(file);
+        assertEquals(Arrays.asList("name", "favorite_color", "favorite_numbers"), names(fields));
+        assertEquals("string", fields.get(0).getNativeDataType());
+        assertEquals("array<int>", fields.get(2).getNativeDataType());
+    }
+
+    @Test(expected = IOException.class)
+    public void testParquetInvalidFile() throws Exception {
+        File file = folder.newFile("invalid.parquet");
+        ParquetFooterReader.readFields(file);
+    }
+
+    @Test
+    public void testAvro() throws Exception {
+        Schema schema = SchemaBuilder.record("user").fields()
+            .requiredLong("id")
+            .optionalString("name")
+            .name("tags").type().array().items().stringType().noDefault()
+            .endRecord();
+        File file = folder.newFile("users.avro");
+        try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema))) {
+            writer.create(schema, file);
+            for (int i = 0; i < 20; i++) {
+                GenericRecord record = new GenericData.Record(schema);
+                record.put("id", (long) i);
+                record.put("name", "user" + i);
+                record.put("tags", Arrays.asList("a", "b"));
+                writer.append(record);
+            }
+        }
+
+        List<DefaultField> fields = AvroHeaderReader.readFields(file, 5);
+        assertEquals(Arrays.asList("id", "name", "tags"), names(fields));
+        assertEquals("bigint", fields.get(0).getNativeDataType());
+        assertEquals("string", fields.get(1).getNativeDataType());
+        assertEquals("array<string>", fields.get(2).getNativeDataType());
+        assertEquals(Arrays.asList("user0", "user1", "user2", "user3", "user4"), fields.get(1).getSampleValues());
+    }
+
+    @Test
+    public void testOrc() throws Exception {
+        List<DefaultField> fields = OrcFooterReader.readFields(orcFile(false));
+        assertEquals(Arrays.asList("id", "name", "amount"), names(fields));
+        assertEquals("bigint", fields.get(0).getNativeDataType());
+        assertEquals("varchar(20)", fields.get(1).getNativeDataType());
+        assertEquals("decimal(10,2)", fields.get(2).getNativeDataType());
+    }
+
+    @Test
+    public void testOrcCompressedFooter() throws Exception {
+        List<DefaultField> fields = OrcFooterReader.readFields(orcFile(true));
+        assertEquals(Arrays.asList("id", "name", "amount"), names(fields));
+    }
+
+    private List<String> names(List<DefaultField> fields) {
+        return Arrays.asList(fields.stream().map(DefaultField::getName).toArray(String[]::new));
+    }
+
+    /**
+     * Writes an ORC file tail with the types {@code struct<id:bigint,name:varchar(20),amount:decimal(10,2)>} and no stripes
+     */
+    private File orcFile(boolean zlib) throws IOException {
+        ByteArrayOutputStream struct = new ByteArrayOutputStream();
+        varint(struct, 0x08, 12);
+        varint(struct, 0x10, 1);
+        varint(struct, 0x10, 2);
+        varint(struct, 0x10, 3);
+        bytes(struct, 0x1a, "id".getBytes(StandardCharsets.UTF_8));
+        bytes(struct, 0x1a, "name".getBytes(StandardCharsets.UTF_8));
+        bytes(struct, 0x1a, "amount".getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream bigint = new ByteArrayOutputStream();
+        varint(bigint, 0x08, 4);
+        ByteArrayOutputStream varchar = new ByteArrayOutputStream();
+        varint(varchar, 0x08, 16);
+        varint(varchar, 0x20, 20);
+        ByteArrayOutputStream decimal = new ByteArrayOutputStream();
+        varint(decimal, 0x08, 14);
+        varint(decimal, 0x28, 10);
+        varint(decimal, 0x30, 2);
+
+        ByteArrayOutputStream footer = new ByteArrayOutputStream();
+        varint(footer, 0x08, 3);
+        for (ByteArrayOutputStream type : Arrays.asList(struct, bigint, varchar, decimal)) {
+            bytes(footer, 0x22, type.toByteArray());
+        }
+        byte[] footerBytes = footer.toByteArray();
+        if (zlib) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflater.setInput(footerBytes);
+            deflater.finish();
+            byte[] buffer = new byte[1024];
+            int length = deflater.deflate(buffer);
+            deflater.end();
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+            int header = length << 1;
+            chunk.write(header & 0xff);
+            chunk.write((header >>> 8) & 0xff);
+            chunk.write((header >>> 16) & 0xff);
+            chunk.write(buffer, 0, length);
+            footerBytes = chunk.toByteArray();
+        }
+
+        ByteArrayOutputStream postScript = new ByteArrayOutputStream();
+        varint(postScript, 0x08, footerBytes.length);
+        varint(postScript, 0x10, zlib ? 1 : 0);
+        bytes(postScript, 0xc2, "ORC".getBytes(StandardCharsets.US_ASCII));
+
+        File file = folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("ORC".getBytes(StandardCharsets.US_ASCII));
+            out.write(footerBytes);
+            out.write(postScript.toByteArray());
+            out.write(postScript.size());
+        }
+        return file;
+    }
+
+    private void varint(ByteArrayOutputStream out, int tag, long value) {
+        writeVarint(out, tag);
+        writeVarint(out, value);
+    }
+
+    private void bytes(ByteArrayOutputStream out, int tag, byte[] value) {
+        writeVarint(out, tag);
+        writeVarint(out, value.length);
+        out.write(value, 0, value.length);
+    }
+
+    private void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
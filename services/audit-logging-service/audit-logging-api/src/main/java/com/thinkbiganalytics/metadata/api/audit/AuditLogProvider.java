@@ -27,6 +27,7 @@ import java.io.Serializable;
 import java.security.Principal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Provider managing {@link AuditLogEntry} items
@@ -86,4 +87,16 @@ public interface AuditLogProvider {
      * @return an audit log entry
      */
     AuditLogEntry createEntry(Principal user, String type, String description, String entityId);
+
+    /**
+     * Create several audit log entries at once
+     *
+     * @param records the audit events to record
+     * @return the audit log entries
+     */
+    default List<AuditLogEntry> createEntries(List<AuditLogRecord> records) {
+        return records.stream()
+            .map(record -> createEntry(record.getUser(), record.getType(), record.getDescription(), record.getEntityId()))
+            .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,76 @@
+package com.thinkbiganalytics.metadata.api.audit;
+
+/*-
+ * #%L
+ * thinkbig-audit-logging-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.joda.time.DateTime;
+
+import java.security.Principal;
+
+/**
+ * The details of an audit event waiting to be recorded as an {@link AuditLogEntry}.
+ */
+public class AuditLogRecord {
+
+    private final Principal user;
+    private final String type;
+    private final String description;
+    private final String entityId;
+    private final DateTime createdTime;
+
+    /**
+     * @param user        a user attached to this audit entry
+     * @param type        the type of entry
+     * @param description a description about what happened
+     * @param entityId    an entity id associated with this audit entry, or {@code null}
+     */
+    public AuditLogRecord(Principal user, String type, String description, String entityId) {
+        this.user = user;
+        this.type = type;
+        this.description = description;
+        this.entityId = entityId;
+        this.createdTime = DateTime.now();
+    }
+
+    public Principal getUser() {
+        return user;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Return the time of the audit event, which may be earlier than the time the entry is created
+     *
+     * @return the time of the audit event
+     */
+    public DateTime getCreatedTime() {
+        return createdTime;
+    }
+}
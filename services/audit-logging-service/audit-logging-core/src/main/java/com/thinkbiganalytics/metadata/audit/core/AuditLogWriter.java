@@ -0,0 +1,187 @@
+package com.thinkbiganalytics.metadata.audit.core;
+
+/*-
+ * #%L
+ * thinkbig-audit-logging-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogProvider;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogRecord;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records audit log entries in the background, in batches.
+ *
+ * <p>Entries are added to a bounded queue and written by a single thread, in one transaction per batch, once the batch size is reached or the
+ * flush interval has elapsed since the first entry of the batch was queued.  When the queue is full, callers wait up to the enqueue timeout for
+ * room and then write their entry themselves so no entry is dropped.  Closing the writer drains the queue.</p>
+ */
+public class AuditLogWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private final AuditLogProvider provider;
+    private final MetadataAccess metadataAccess;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long enqueueTimeoutMillis;
+
+    private final BlockingQueue<AuditLogRecord> queue;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * @param provider             the audit log provider
+     * @param metadataAccess       the metadata access used to write the entries
+     * @param capacity             the maximum number of entries waiting to be written
+     * @param batchSize            the maximum number of entries written in a single transaction
+     * @param flushIntervalMillis  the maximum time an entry waits for its batch to fill
+     * @param enqueueTimeoutMillis the maximum time a caller waits for room in a full queue before writing its entry itself
+     */
+    public AuditLogWriter(AuditLogProvider provider, MetadataAccess metadataAccess, int capacity, int batchSize, long flushIntervalMillis, long enqueueTimeoutMillis) {
+        this.provider = provider;
+        this.metadataAccess = metadataAccess;
+        this.batchSize = Math.max(batchSize, 1);
+        this.flushIntervalMillis = Math.max(flushIntervalMillis, 0);
+        this.enqueueTimeoutMillis = Math.max(enqueueTimeoutMillis, 0);
+        this.queue = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+
+        this.worker = new Thread(this::run, "audit-log-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue a new audit log entry
+     *
+     * @param user        a user attached to this audit entry
+     * @param type        the type of entry
+     * @param description a description about what happened
+     * @param entityId    an entity id associated with this audit entry
+     */
+    public void write(Principal user, String type, String description, String entityId) {
+        AuditLogRecord record = new AuditLogRecord(user, type, description, entityId);
+        boolean queued = false;
+
+        if (running) {
+            try {
+                queued = queue.offer(record, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+                if (queued && !running) {
+                    // The writer was closed while queueing and its final flush may have missed this entry
+                    flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (!queued) {
+            log.debug("Audit log queue is full or closed; writing entry directly");
+            List<AuditLogRecord> batch = new ArrayList<>(1);
+            batch.add(record);
+            writeBatch(batch);
+        }
+    }
+
+    /**
+     * Return the number of entries waiting to be written
+     *
+     * @return the number of queued entries
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Write all of the queued entries on the calling thread
+     */
+    public void flush() {
+        List<AuditLogRecord> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Stop the background writer and write any queued entries
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void run() {
+        while (running) {
+            List<AuditLogRecord> batch = new ArrayList<>(batchSize);
+            try {
+                AuditLogRecord first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    // Wake up at least once a second to notice the writer being closed
+                    AuditLogRecord next = queue.poll(Math.min(remaining, 1000), TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+        }
+    }
+
+    private void writeBatch(List<AuditLogRecord> batch) {
+        try {
+            metadataAccess.commit(() -> provider.createEntries(batch), MetadataAccess.SERVICE);
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} audit log entries", batch.size(), e);
+            for (AuditLogRecord record : batch) {
+                log.error("Audit entry not recorded: {} {} - {} ({})", record.getUser(), record.getType(), record.getDescription(), record.getEntityId());
+            }
+        }
+    }
+}
@@ -23,8 +23,6 @@ package com.thinkbiganalytics.metadata.audit.core;
  * #L%
  */
 
-import com.thinkbiganalytics.metadata.api.MetadataAccess;
-import com.thinkbiganalytics.metadata.api.audit.AuditLogProvider;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 import com.thinkbiganalytics.metadata.api.event.feed.FeedChangeEvent;
@@ -37,17 +35,14 @@ import javax.inject.Inject;
 
 /**
  * A service responsible for producing audit log entries from things like metadata events
- * and annotated methods.
+ * and annotated methods.  Entries are recorded in the background by the {@link AuditLogWriter}.
  */
 public class AuditLoggingService {
 
     private static final Logger log = LoggerFactory.getLogger(AuditLoggingService.class);
 
     @Inject
-    private AuditLogProvider provider;
-
-    @Inject
-    private MetadataAccess metadataAccess;
+    private AuditLogWriter writer;
 
     public AuditLoggingService() {
     }
@@ -66,13 +61,11 @@ public class AuditLoggingService {
 
         @Override
         public void notify(FeedChangeEvent event) {
-            metadataAccess.commit(() -> {
-                log.debug("Audit: {} - {}", event.getData().getClass().getSimpleName(), event.getData().toString());
-                provider.createEntry(event.getUserPrincipal(),
-                                     event.getData().getClass().getSimpleName(),
-                                     event.getData().toString(),
-                                     event.getData().getFeedId().toString());
-            }, MetadataAccess.SERVICE);
+            log.debug("Audit: {} - {}", event.getData().getClass().getSimpleName(), event.getData().toString());
+            writer.write(event.getUserPrincipal(),
+                         event.getData().getClass().getSimpleName(),
+                         event.getData().toString(),
+                         event.getData().getFeedId().toString());
         }
     }
 
@@ -80,13 +73,11 @@ public class AuditLoggingService {
 
         @Override
         public void notify(TemplateChangeEvent event) {
-            metadataAccess.commit(() -> {
-                log.debug("Audit: {} - {}", event.getData().getClass().getSimpleName(), event.getData().toString());
-                provider.createEntry(event.getUserPrincipal(),
-                                     event.getData().getClass().getSimpleName(),
-                                     event.getData().toString(),
-                                     event.getData().getTemplateId().toString());
-            }, MetadataAccess.SERVICE);
+            log.debug("Audit: {} - {}", event.getData().getClass().getSimpleName(), event.getData().toString());
+            writer.write(event.getUserPrincipal(),
+                         event.getData().getClass().getSimpleName(),
+                         event.getData().toString(),
+                         event.getData().getTemplateId().toString());
         }
     }
 }
@@ -23,8 +23,11 @@ package com.thinkbiganalytics.metadata.audit.core;
  * #L%
  */
 
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogProvider;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -40,4 +43,13 @@ public class AuditLoggingServiceConfig {
         auditService.addListeners(eventService);
         return auditService;
     }
+
+    @Bean(destroyMethod = "close")
+    public AuditLogWriter auditLogWriter(AuditLogProvider provider, MetadataAccess metadataAccess,
+                                         @Value("${kylo.audit.queueCapacity:10000}") int capacity,
+                                         @Value("${kylo.audit.batchSize:100}") int batchSize,
+                                         @Value("${kylo.audit.flushIntervalMillis:1000}") long flushIntervalMillis,
+                                         @Value("${kylo.audit.enqueueTimeoutMillis:1000}") long enqueueTimeoutMillis) {
+        return new AuditLogWriter(provider, metadataAccess, capacity, batchSize, flushIntervalMillis, enqueueTimeoutMillis);
+    }
 }
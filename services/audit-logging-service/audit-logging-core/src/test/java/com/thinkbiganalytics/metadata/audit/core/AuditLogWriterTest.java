@@ -0,0 +1,210 @@
+package com.thinkbiganalytics.metadata.audit.core;
+
+/*-
+ * #%L
+ * thinkbig-audit-logging-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.MetadataAction;
+import com.thinkbiganalytics.metadata.api.MetadataCommand;
+import com.thinkbiganalytics.metadata.api.MetadataRollbackAction;
+import com.thinkbiganalytics.metadata.api.MetadataRollbackCommand;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogEntry;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogProvider;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogRecord;
+import com.thinkbiganalytics.security.UsernamePrincipal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+public class AuditLogWriterTest {
+
+    private static final Principal USER = new UsernamePrincipal("user");
+
+    private final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Verify entries are written in batches once the batch is full.
+     */
+    @Test
+    public void testBatchSize() throws Exception {
+        AuditLogWriter writer = new AuditLogWriter(new TestProvider(), new TestMetadataAccess(), 100, 5, 60000, 1000);
+        for (int i = 0; i < 10; i++) {
+            writer.write(USER, "test", "entry " + i, null);
+        }
+
+        long start = System.currentTimeMillis();
+        while (batches.size() < 2 && System.currentTimeMillis() - start < 5000) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(2, batches.size());
+        Assert.assertEquals(5, batches.get(0).intValue());
+        writer.close();
+        Assert.assertEquals(2, batches.size());
+    }
+
+    /**
+     * Verify closing the writer drains the queued entries.
+     */
+    @Test
+    public void testDrainOnClose() {
+        AuditLogWriter writer = new AuditLogWriter(new TestProvider(), new TestMetadataAccess(), 100, 50, 60000, 1000);
+        for (int i = 0; i < 3; i++) {
+            writer.write(USER, "test", "entry " + i, null);
+        }
+        writer.close();
+
+        Assert.assertEquals(3, batches.stream().mapToInt(Integer::intValue).sum());
+        Assert.assertEquals(0, writer.getPendingCount());
+    }
+
+    /**
+     * Verify entries written while the writer is being closed are not left in the queue.
+     */
+    @Test
+    public void testWriteWhileClosing() throws Exception {
+        AuditLogWriter writer = new AuditLogWriter(new TestProvider(), new TestMetadataAccess(), 10000, 50, 60000, 1000);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    writer.write(USER, "test", "entry " + i, null);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        writer.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(2000, batches.stream().mapToInt(Integer::intValue).sum());
+        Assert.assertEquals(0, writer.getPendingCount());
+    }
+
+    /**
+     * Verify entries are written by the caller when the queue stays full.
+     */
+    @Test
+    public void testFullQueue() {
+        AuditLogWriter writer = new AuditLogWriter(new TestProvider(), new TestMetadataAccess(), 1, 50, 60000, 0);
+        writer.close();
+
+        writer.write(USER, "test", "entry", null);
+        Assert.assertEquals(Collections.singletonList(1), batches);
+    }
+
+    /**
+     * Records the size of each batch of entries
+     */
+    private class TestProvider implements AuditLogProvider {
+
+        @Override
+        public List<AuditLogEntry> createEntries(List<AuditLogRecord> records) {
+            batches.add(records.size());
+            return Collections.emptyList();
+        }
+
+        @Override
+        public AuditLogEntry.ID resolveId(Serializable id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<AuditLogEntry> list() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<AuditLogEntry> list(int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<AuditLogEntry> findById(AuditLogEntry.ID id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<AuditLogEntry> findByUser(Principal user) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AuditLogEntry createEntry(Principal user, String type, String description) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AuditLogEntry createEntry(Principal user, String type, String description, String entityId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Executes commands without a transaction
+     */
+    private static class TestMetadataAccess implements MetadataAccess {
+
+        @Override
+        public <R> R commit(MetadataCommand<R> cmd, Principal... principals) {
+            try {
+                return cmd.execute();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public <R> R commit(MetadataCommand<R> cmd, MetadataRollbackCommand rollbackCmd, Principal... principals) {
+            return commit(cmd, principals);
+        }
+
+        @Override
+        public void commit(MetadataAction action, Principal... principals) {
+            commit(() -> {
+                action.execute();
+                return null;
+            }, principals);
+        }
+
+        @Override
+        public void commit(MetadataAction action, MetadataRollbackAction rollbackAction, Principal... principals) {
+            commit(action, principals);
+        }
+
+        @Override
+        public <R> R read(MetadataCommand<R> cmd, Principal... principals) {
+            return commit(cmd, principals);
+        }
+
+        @Override
+        public void read(MetadataAction cmd, Principal... principals) {
+            commit(cmd, principals);
+        }
+    }
+}
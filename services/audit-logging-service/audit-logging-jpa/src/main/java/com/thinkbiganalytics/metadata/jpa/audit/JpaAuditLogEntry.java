@@ -30,6 +30,7 @@ import com.thinkbiganalytics.security.UsernamePrincipal;
 import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
 import org.joda.time.DateTime;
+import org.springframework.data.domain.Persistable;
 
 import java.io.Serializable;
 import java.security.Principal;
@@ -41,14 +42,17 @@ import javax.persistence.Convert;
 import javax.persistence.Embeddable;
 import javax.persistence.EmbeddedId;
 import javax.persistence.Entity;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 
 /**
  * An audit log entry describing a metadata change of operation attempt.
  */
 @Entity
 @Table(name = "AUDIT_LOG")
-public class JpaAuditLogEntry implements AuditLogEntry {
+public class JpaAuditLogEntry implements AuditLogEntry, Persistable<AuditLogEntry.ID> {
 
     @EmbeddedId
     private AuditLogId id;
@@ -71,6 +75,12 @@ public class JpaAuditLogEntry implements AuditLogEntry {
     @Column(name = "ENTITY_ID", length = 45)
     private String entityId;
 
+    /**
+     * Entries are never updated so new entries are inserted without first being looked up by their generated id
+     */
+    @Transient
+    private boolean persisted;
+
     public JpaAuditLogEntry() {
         super();
     }
@@ -139,6 +149,17 @@ public class JpaAuditLogEntry implements AuditLogEntry {
         this.entityId = entityId;
     }
 
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+
 
     @Embeddable
     public static class AuditLogId extends BaseJpaId implements Serializable, AuditLogEntry.ID {
@@ -26,6 +26,7 @@ package com.thinkbiganalytics.metadata.jpa.audit;
 import com.thinkbiganalytics.metadata.api.audit.AuditLogEntry;
 import com.thinkbiganalytics.metadata.api.audit.AuditLogEntry.ID;
 import com.thinkbiganalytics.metadata.api.audit.AuditLogProvider;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogRecord;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -33,6 +34,7 @@ import org.springframework.data.domain.Sort.Direction;
 
 import java.io.Serializable;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -117,4 +119,19 @@ public class JpaAuditLogProvider implements AuditLogProvider {
         return repository.save(entry);
     }
 
+    /* (non-Javadoc)
+     * @see com.thinkbiganalytics.metadata.api.audit.AuditLogProvider#createEntries(java.util.List)
+     */
+    @Override
+    public List<AuditLogEntry> createEntries(List<AuditLogRecord> records) {
+        List<JpaAuditLogEntry> entries = records.stream()
+            .map(record -> {
+                JpaAuditLogEntry entry = new JpaAuditLogEntry(record.getUser(), record.getType(), record.getDescription(), record.getEntityId());
+                entry.setCreatedTime(record.getCreatedTime());
+                return entry;
+            })
+            .collect(Collectors.toList());
+        return new ArrayList<>(repository.save(entries));
+    }
+
 }
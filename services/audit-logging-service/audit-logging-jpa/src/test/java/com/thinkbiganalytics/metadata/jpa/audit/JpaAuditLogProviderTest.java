@@ -25,6 +25,7 @@ package com.thinkbiganalytics.metadata.jpa.audit;
 
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.audit.AuditLogEntry;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogRecord;
 import com.thinkbiganalytics.metadata.persistence.MetadataPersistenceConfig;
 import com.thinkbiganalytics.security.UsernamePrincipal;
 import com.thinkbiganalytics.testing.jpa.TestPersistenceConfiguration;
@@ -53,6 +54,7 @@ public class JpaAuditLogProviderTest extends AbstractTestNGSpringContextTests {
 
     private static final Principal ADMIN = new UsernamePrincipal("admin");
     private static final Principal USER = new UsernamePrincipal("user");
+    private static final Principal BATCH = new UsernamePrincipal("batch");
 
     @Inject
     private JpaAuditLogProvider provider;
@@ -144,4 +146,22 @@ public class JpaAuditLogProviderTest extends AbstractTestNGSpringContextTests {
 
         assertThat(found).isEqualTo(id);
     }
+
+    @Test(dependsOnMethods = {"testListAll", "testList3", "testFindByAdmin", "testFindByUser", "testFindById"})
+    public void testCreateEntries() {
+        List<AuditLogRecord> records = Arrays.asList(new AuditLogRecord(BATCH, "simple", "Batch: first entry", null),
+                                                     new AuditLogRecord(BATCH, "entity", "Batch: second entry", UUID.randomUUID().toString()));
+
+        List<AuditLogEntry.ID> ids = this.metadataAccess.commit(() -> {
+            return provider.createEntries(records).stream()
+                .map(AuditLogEntry::getId)
+                .collect(Collectors.toList());
+        }, MetadataAccess.SERVICE);
+        assertThat(ids).hasSize(2);
+
+        List<AuditLogEntry> found = this.metadataAccess.read(() -> provider.findByUser(BATCH), MetadataAccess.SERVICE);
+        assertThat(found).extracting("description").containsOnly("Batch: first entry", "Batch: second entry");
+        assertThat(found).extracting(entry -> entry.getCreatedTime().getMillis())
+            .containsOnly(records.get(0).getCreatedTime().getMillis(), records.get(1).getCreatedTime().getMillis());
+    }
 }
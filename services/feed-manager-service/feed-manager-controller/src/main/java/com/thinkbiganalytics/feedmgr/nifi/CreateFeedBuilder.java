@@ -27,8 +27,10 @@ import com.thinkbiganalytics.nifi.feedmgr.FeedRollbackException;
 import com.thinkbiganalytics.nifi.feedmgr.InputOutputPort;
 import com.thinkbiganalytics.nifi.feedmgr.TemplateCreationHelper;
 import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
+import com.thinkbiganalytics.nifi.rest.client.NiFiAsyncRestClient;
 import com.thinkbiganalytics.nifi.rest.client.NifiClientRuntimeException;
 import com.thinkbiganalytics.nifi.rest.client.NifiComponentNotFoundException;
+import com.thinkbiganalytics.nifi.rest.client.NifiRestClientExceptionTranslator;
 import com.thinkbiganalytics.nifi.rest.client.layout.AlignProcessGroupComponents;
 import com.thinkbiganalytics.nifi.rest.model.NiFiPropertyDescriptorTransform;
 import com.thinkbiganalytics.nifi.rest.model.NifiError;
@@ -45,6 +47,7 @@ import com.thinkbiganalytics.nifi.rest.support.NifiPropertyUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.nifi.web.api.dto.ConnectionDTO;
 import org.apache.nifi.web.api.dto.ProcessGroupDTO;
+import org.apache.nifi.web.api.dto.ProcessorConfigDTO;
 import org.apache.nifi.web.api.dto.ProcessorDTO;
 import org.apache.nifi.web.api.dto.TemplateDTO;
 import org.apache.nifi.web.api.dto.status.ProcessGroupStatusDTO;
@@ -88,6 +91,14 @@ public class CreateFeedBuilder {
      * These can be cleaned up later through the {@code CleanupStaleFeedRevisions} class
      */
     private boolean removeInactiveVersionedProcessGroup;
+    /**
+     * if true an existing feed flow that still matches the template is updated in place rather than replaced by a new version
+     */
+    private boolean updateInPlace;
+    /**
+     * the plan applied to the existing feed flow, or null if a new version of the flow was created
+     */
+    private FeedRedeployPlanner.Plan inPlacePlan;
     /**
      * List of Input / Output Port connections
      */
@@ -146,6 +157,11 @@ public class CreateFeedBuilder {
         return this;
     }
 
+    public CreateFeedBuilder updateInPlace(boolean updateInPlace) {
+        this.updateInPlace = updateInPlace;
+        return this;
+    }
+
     /**
      * Adds the specified Input Port and Output Port connection to this feed.
      *
@@ -186,10 +202,20 @@ public class CreateFeedBuilder {
     public NifiProcessGroup build() throws FeedCreationException {
         try {
             newProcessGroup = null;
+            inPlacePlan = null;
             TemplateDTO template = restClient.getTemplateById(templateId);
 
             if (template != null) {
 
+                //if the existing feed flow still matches the template only apply what changed
+                if (updateInPlace && !isReusableTemplate) {
+                    FeedRedeployPlanner.Plan plan = planRedeploy(template);
+                    if (plan.isInPlace()) {
+                        return updateFeedInPlace(plan);
+                    }
+                    log.info("Creating a new version of the flow for the feed {}. Unable to update it in place because {}", feedName, plan.getFullRedeployReason());
+                }
+
                 //create the encompassing process group
                 String processGroupId = createProcessGroupForFeed();
                 if (StringUtils.isNotBlank(processGroupId)) {
@@ -333,6 +359,9 @@ public class CreateFeedBuilder {
     }
 
     public ProcessGroupDTO rollback() throws FeedRollbackException {
+        if (inPlacePlan != null) {
+            return rollbackInPlaceUpdate();
+        }
         if (newProcessGroup != null) {
             try {
                 removeProcessGroup(newProcessGroup.getProcessGroupEntity());
@@ -397,6 +426,139 @@ public class CreateFeedBuilder {
     }
 
 
+    /**
+     * Compares the feed with its existing flow in NiFi
+     *
+     * @param template the template the feed is created from
+     * @return the operations needed to update the existing flow, or a plan requiring a new version of the flow
+     */
+    private FeedRedeployPlanner.Plan planRedeploy(TemplateDTO template) {
+        FeedRedeployPlanner planner = new FeedRedeployPlanner(template);
+        this.categoryGroup = restClient.getProcessGroupByName("root", category);
+        ProcessGroupDTO feedGroup = (categoryGroup != null) ? restClient.getProcessGroupByName(categoryGroup.getId(), feedName) : null;
+        if (feedGroup == null) {
+            return planner.plan();
+        }
+
+        ProcessGroupDTO activeProcessGroup = restClient.getProcessGroup(feedGroup.getId(), true, true);
+        ProcessorDTO input = fetchInputProcessorForProcessGroup(activeProcessGroup);
+
+        //apply the static and feed properties to copies of the incoming properties so they are untouched if a new version is created instead
+        List<NifiProperty> propertiesToUpdate = restClient.getPropertiesForProcessGroup(activeProcessGroup);
+        ProcessGroupDTO rootProcessGroup = restClient.getRootProcessGroup();
+        List<NifiProperty> desiredProperties = new ArrayList<>(propertyExpressionResolver.resolveStaticProperties(propertiesToUpdate));
+        desiredProperties.addAll(NifiPropertyUtil.matchAndSetPropertyValues(rootProcessGroup.getName(), activeProcessGroup.getName(), propertiesToUpdate, copyProperties(properties)));
+
+        Set<ConnectionDTO> categoryConnections = inputOutputPorts.isEmpty() ? null : restClient.getProcessGroupConnections(categoryGroup.getId());
+        return planner.processGroup(activeProcessGroup, input)
+            .properties(desiredProperties)
+            .feedSchedule(feedSchedule)
+            .inputProcessorType(inputProcessorType)
+            .enabled(enabled)
+            .inputOutputPorts(inputOutputPorts, categoryGroup.getName(), categoryConnections)
+            .controllerServices(restClient.getControllerServices())
+            .plan();
+    }
+
+    private List<NifiProperty> copyProperties(List<NifiProperty> properties) {
+        if (properties == null) {
+            return null;
+        }
+        return properties.stream().map(property -> {
+            NifiProperty copy = new NifiProperty(property);
+            copy.setProcessorName(property.getProcessorName());
+            copy.setProcessorType(property.getProcessorType());
+            return copy;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Applies the planned operations to the existing feed flow, keeping its process group, layout and flow cache entries
+     *
+     * @param plan the operations to apply
+     * @return the updated feed flow
+     */
+    private NifiProcessGroup updateFeedInPlace(FeedRedeployPlanner.Plan plan) {
+        log.info("Updating the flow for the feed {} in place: {}", feedName, plan);
+        inPlacePlan = plan;
+        ProcessGroupDTO entity = plan.getProcessGroup();
+        ProcessorDTO input = plan.getInputProcessor();
+
+        if (plan.hasOperation(FeedRedeployPlanner.Operation.CONNECT_PORTS)) {
+            updatePortConnectionsForProcessGroup(entity.getId());
+        }
+        if (plan.hasOperation(FeedRedeployPlanner.Operation.UPDATE_PROPERTIES)) {
+            updateProcessorProperties(entity, plan.getChangedProperties());
+            //refetch processors for updated errors
+            entity = restClient.getProcessGroup(entity.getId(), true, true);
+            input = fetchInputProcessorForProcessGroup(entity);
+        }
+        newProcessGroup = new NifiProcessGroup(entity, input, NifiProcessUtil.getNonInputProcessors(entity));
+
+        if (newProcessGroup.hasFatalErrors() || errors.stream().anyMatch(NifiError::isFatal)) {
+            errors.forEach(newProcessGroup::addError);
+            rollbackInPlaceUpdate();
+            newProcessGroup.setRolledBack(true);
+            newProcessGroup.setSuccess(false);
+            return newProcessGroup;
+        }
+
+        if (plan.hasOperation(FeedRedeployPlanner.Operation.UPDATE_SCHEDULE)) {
+            updateFeedSchedule(newProcessGroup, input);
+        }
+        if (plan.hasOperation(FeedRedeployPlanner.Operation.START_PROCESSORS)) {
+            //disable all inputs before marking everything else as running
+            restClient.disableInputProcessors(entity.getId());
+            templateCreationHelper.markProcessorsAsRunning(newProcessGroup);
+        }
+        if (plan.hasOperation(FeedRedeployPlanner.Operation.START_PROCESSORS) || plan.hasOperation(FeedRedeployPlanner.Operation.UPDATE_INPUT_STATE)) {
+            setInputProcessorState(newProcessGroup, input, enabled ? NifiProcessUtil.PROCESS_STATE.RUNNING : NifiProcessUtil.PROCESS_STATE.STOPPED);
+        }
+        if (plan.hasOperation(FeedRedeployPlanner.Operation.CONNECT_PORTS)) {
+            templateCreationHelper.markConnectionPortsAsRunning(entity);
+        }
+
+        for (NifiError error : errors) {
+            newProcessGroup.addError(error);
+        }
+        return newProcessGroup;
+    }
+
+    /**
+     * Restores the properties, schedule and input state that were changed by an in place update.  Sensitive properties are never changed in place as NiFi does not return their values.
+     */
+    private ProcessGroupDTO rollbackInPlaceUpdate() throws FeedRollbackException {
+        ProcessGroupDTO entity = inPlacePlan.getProcessGroup();
+        try {
+            if (inPlacePlan.hasOperation(FeedRedeployPlanner.Operation.UPDATE_PROPERTIES)) {
+                NiFiAsyncRestClient.BulkResult<String, ProcessorDTO> result = restClient.updateProcessGroupProperties(null, inPlacePlan.getPreviousProperties());
+                if (result.hasFailures()) {
+                    log.error("Unable to restore the properties of the processors {} for the feed {}", result.getFailures().keySet(), feedName);
+                }
+            }
+            ProcessorDTO input = inPlacePlan.getInputProcessor();
+            if (inPlacePlan.hasOperation(FeedRedeployPlanner.Operation.UPDATE_SCHEDULE)) {
+                NifiProcessorSchedule previousSchedule = inPlacePlan.getPreviousSchedule();
+                ProcessorConfigDTO config = new ProcessorConfigDTO();
+                config.setSchedulingPeriod(previousSchedule.getSchedulingPeriod());
+                config.setSchedulingStrategy(previousSchedule.getSchedulingStrategy());
+                config.setConcurrentlySchedulableTaskCount(previousSchedule.getConcurrentTasks());
+                ProcessorDTO update = new ProcessorDTO();
+                update.setId(input.getId());
+                update.setParentGroupId(input.getParentGroupId());
+                update.setConfig(config);
+                restClient.updateProcessor(update);
+            }
+            if (inPlacePlan.hasOperation(FeedRedeployPlanner.Operation.UPDATE_INPUT_STATE) && StringUtils.isNotBlank(inPlacePlan.getPreviousInputState())) {
+                restClient.setInputProcessorState(entity.getId(), input.getType(), NifiProcessUtil.PROCESS_STATE.valueOf(inPlacePlan.getPreviousInputState()));
+            }
+        } catch (Exception e) {
+            throw new FeedRollbackException("Unable to rollback the in place update of feed [" + feedName + "] " + e.getMessage(), e);
+        }
+        return entity;
+    }
+
+
     private void connectFeedToReusableTemplate(String feedGroupId) throws NifiComponentNotFoundException {
         ProcessGroupDTO reusableTemplateCategory = restClient.getProcessGroupByName("root", reusableTemplateCategoryName);
         ProcessGroupDTO feedProcessGroup = restClient.getProcessGroup(feedGroupId, false, false);
@@ -538,11 +700,11 @@ public class CreateFeedBuilder {
      * Updates a process groups properties
      */
     private void updateProcessGroupProperties(String processGroupId) throws FeedCreationException {
-        List<NifiProperty> propertiesToUpdate = restClient.getPropertiesForProcessGroup(processGroupId);
+        //get this process group with its processors
+        ProcessGroupDTO activeProcessGroup = restClient.getProcessGroup(processGroupId, true, true);
+        List<NifiProperty> propertiesToUpdate = restClient.getPropertiesForProcessGroup(activeProcessGroup);
         //get the Root processGroup
         ProcessGroupDTO rootProcessGroup = restClient.getRootProcessGroup();
-        //get this process group
-        ProcessGroupDTO activeProcessGroupName = restClient.getProcessGroup(processGroupId, false, false);
 
         modifiedProperties = new ArrayList<>();
         //resolve the static properties
@@ -551,13 +713,33 @@ public class CreateFeedBuilder {
         // now apply any of the incoming metadata properties to this
 
         List<NifiProperty> modifiedFeedMetadataProperties = NifiPropertyUtil.matchAndSetPropertyValues(rootProcessGroup.getName(),
-                                                                                                       activeProcessGroupName.getName(),
+                                                                                                       activeProcessGroup.getName(),
                                                                                                        propertiesToUpdate, properties);
         modifiedProperties.addAll(modifiedStaticProperties);
         modifiedProperties.addAll(modifiedFeedMetadataProperties);
-        restClient.updateProcessGroupProperties(modifiedProperties);
 
+        updateProcessorProperties(activeProcessGroup, modifiedProperties);
+    }
 
+    /**
+     * Updates the processors concurrently, reusing the processors already fetched, and reports each processor that could not be updated
+     *
+     * @param processGroup the process group, including its processors
+     * @param properties   the properties to update
+     */
+    private void updateProcessorProperties(ProcessGroupDTO processGroup, List<NifiProperty> properties) {
+        NiFiAsyncRestClient.BulkResult<String, ProcessorDTO> result = restClient.updateProcessGroupProperties(processGroup, properties);
+        if (result.hasFailures()) {
+            Map<String, ProcessorDTO> processors = NifiProcessUtil.getProcessorsMap(processGroup);
+            for (Map.Entry<String, Throwable> failure : result.getFailures().entrySet()) {
+                ProcessorDTO processor = processors.get(failure.getKey());
+                String processorName = (processor != null) ? processor.getName() : failure.getKey();
+                Throwable cause = NifiRestClientExceptionTranslator.translateException(failure.getValue());
+                log.error("Unable to update the properties of processor {} in process group {}", processorName, processGroup.getName(), cause);
+                errors.add(new NifiError(NifiError.SEVERITY.FATAL, "Unable to update the properties of processor " + processorName + ". " + cause.getMessage(),
+                                         "Properties"));
+            }
+        }
     }
 
 
@@ -20,6 +20,8 @@ package com.thinkbiganalytics.feedmgr.nifi;
  * #L%
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.thinkbiganalytics.db.PoolingDataSourceService;
 import com.thinkbiganalytics.discovery.schema.TableSchema;
 import com.thinkbiganalytics.jdbc.util.DatabaseType;
@@ -33,11 +35,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -59,6 +64,23 @@ public class DBCPConnectionPoolTableInfo {
     @Qualifier("kerberosHiveConfiguration")
     private KerberosTicketConfiguration kerberosHiveConfiguration;
 
+    /**
+     * The maximum number of connections used at the same time to list the tables of a data source
+     */
+    @Value("${kylo.datasource.discovery.parallelism:4}")
+    private int discoveryParallelism;
+
+    /**
+     * The number of seconds a table description is cached
+     */
+    @Value("${kylo.datasource.discovery.describeCacheSeconds:300}")
+    private long describeCacheSeconds;
+
+    /**
+     * Schema parsers for each of the pooled data sources, so that connections and table descriptions are reused across requests
+     */
+    private final Cache<DataSource, DBSchemaParser> schemaParsers = CacheBuilder.newBuilder().weakKeys().build();
+
     /**
      * Returns a list of table names matching a pattern
      *
@@ -146,6 +168,30 @@ public class DBCPConnectionPoolTableInfo {
         }
     }
 
+    /**
+     * Describes each of the specified database tables accessed through the specified data source using a single connection.
+     *
+     * @param datasource the data source
+     * @param schema     the schema name, or {@code null} to search all schemas
+     * @param tableNames the table names
+     * @return the database tables and fields keyed by table name, or {@code null} if the data source is not accessible
+     */
+    @Nullable
+    public Map<String, TableSchema> describeTablesForDatasource(@Nonnull final JdbcDatasource datasource, @Nullable final String schema, @Nonnull final Collection<String> tableNames) {
+        final Optional<ControllerServiceDTO> controllerService = Optional.ofNullable(datasource.getControllerServiceId())
+            .map(id -> getControllerService(id, null));
+        if (controllerService.isPresent()) {
+            final DescribeTableWithControllerServiceBuilder builder = new DescribeTableWithControllerServiceBuilder(controllerService.get());
+            final DescribeTableWithControllerService serviceProperties = builder.schemaName(schema).password(datasource.getPassword()).useEnvironmentProperties(false).build();
+            log.info("describing {} tables in {} against Controller Service: {} ({})", tableNames.size(), schema, serviceProperties.getControllerServiceName(),
+                     serviceProperties.getControllerServiceId());
+            return getSchemaParser(serviceProperties).describeTables(schema, tableNames);
+        } else {
+            log.error("Cannot describe tables for data source: {}", datasource);
+            return null;
+        }
+    }
+
     /**
      * Return a list of schema.table_name
      *
@@ -170,8 +216,7 @@ public class DBCPConnectionPoolTableInfo {
             }
             log.info("Search For Tables against Controller Service: {} ({}) with uri of {}.  ", serviceProperties.getControllerServiceName(), serviceProperties.getControllerServiceId(),
                      dataSourceProperties.getUrl());
-            DataSource dataSource = PoolingDataSourceService.getDataSource(dataSourceProperties);
-            DBSchemaParser schemaParser = new DBSchemaParser(dataSource, kerberosHiveConfiguration);
+            DBSchemaParser schemaParser = getSchemaParser(PoolingDataSourceService.getDataSource(dataSourceProperties));
             return schemaParser.listTables(serviceProperties.getSchemaName(), serviceProperties.getTableName());
         }
         return null;
@@ -206,8 +251,7 @@ public class DBCPConnectionPoolTableInfo {
             PoolingDataSourceService.DataSourceProperties dataSourceProperties = getDataSourceProperties(properties, serviceProperties);
             log.info("describing Table {}.{} against Controller Service: {} ({}) with uri of {} ", serviceProperties.getSchemaName(), serviceProperties.getTableName(),
                      serviceProperties.getControllerServiceName(), serviceProperties.getControllerServiceId(), dataSourceProperties.getUrl());
-            DataSource dataSource = PoolingDataSourceService.getDataSource(dataSourceProperties);
-            DBSchemaParser schemaParser = new DBSchemaParser(dataSource, kerberosHiveConfiguration);
+            DBSchemaParser schemaParser = getSchemaParser(PoolingDataSourceService.getDataSource(dataSourceProperties));
             return schemaParser.describeTable(serviceProperties.getSchemaName(), serviceProperties.getTableName());
         }
         return null;
@@ -215,6 +259,28 @@ public class DBCPConnectionPoolTableInfo {
     }
 
 
+    /**
+     * Gets the schema parser for the data source described by the specified controller service properties.
+     */
+    private DBSchemaParser getSchemaParser(DescribeTableWithControllerService serviceProperties) {
+        Map<String, String> properties = serviceProperties.useEnvironmentProperties()
+                                         ? nifiControllerServiceProperties.mergeNifiAndEnvProperties(serviceProperties.getControllerServiceDTO().getProperties(),
+                                                                                                     serviceProperties.getControllerServiceName())
+                                         : serviceProperties.getControllerServiceDTO().getProperties();
+        return getSchemaParser(PoolingDataSourceService.getDataSource(getDataSourceProperties(properties, serviceProperties)));
+    }
+
+    /**
+     * Gets the schema parser for the specified pooled data source, creating it if needed.
+     */
+    private DBSchemaParser getSchemaParser(DataSource dataSource) {
+        try {
+            return schemaParsers.get(dataSource, () -> new DBSchemaParser(dataSource, kerberosHiveConfiguration, discoveryParallelism, describeCacheSeconds));
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Unable to create the schema parser", e.getCause());
+        }
+    }
+
     private ControllerServiceDTO getControllerService(String serviceId, String serviceName) {
         ControllerServiceDTO controllerService = nifiControllerServiceProperties.getControllerServiceById(serviceId);
         if (controllerService == null) {
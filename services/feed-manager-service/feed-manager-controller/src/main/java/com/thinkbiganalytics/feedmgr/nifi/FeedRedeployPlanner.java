@@ -0,0 +1,611 @@
+package com.thinkbiganalytics.feedmgr.nifi;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Multisets;
+import com.thinkbiganalytics.nifi.feedmgr.InputOutputPort;
+import com.thinkbiganalytics.nifi.rest.model.NifiProcessorSchedule;
+import com.thinkbiganalytics.nifi.rest.model.NifiProperty;
+import com.thinkbiganalytics.nifi.rest.support.NifiConnectionUtil;
+import com.thinkbiganalytics.nifi.rest.support.NifiFeedConstants;
+import com.thinkbiganalytics.nifi.rest.support.NifiProcessUtil;
+
+import org.apache.nifi.web.api.dto.ConnectableDTO;
+import org.apache.nifi.web.api.dto.ConnectionDTO;
+import org.apache.nifi.web.api.dto.ControllerServiceDTO;
+import org.apache.nifi.web.api.dto.FlowSnippetDTO;
+import org.apache.nifi.web.api.dto.FunnelDTO;
+import org.apache.nifi.web.api.dto.PortDTO;
+import org.apache.nifi.web.api.dto.ProcessGroupDTO;
+import org.apache.nifi.web.api.dto.ProcessorConfigDTO;
+import org.apache.nifi.web.api.dto.ProcessorDTO;
+import org.apache.nifi.web.api.dto.PropertyDescriptorDTO;
+import org.apache.nifi.web.api.dto.RelationshipDTO;
+import org.apache.nifi.web.api.dto.RemoteProcessGroupDTO;
+import org.apache.nifi.web.api.dto.TemplateDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Compares the desired state of a feed with its flow that is already running in NiFi and plans the operations needed to update it.
+ *
+ * <p>When the flow still has the same processors, ports, connections and configuration as the template, the feed's properties, schedule and
+ * input state can be updated in place.  Otherwise the feed requires a full redeploy, creating a new version of the flow from the template.</p>
+ *
+ * <p>The configuration compared with the template includes the property values not set by Kylo, auto-terminated relationships, scheduling,
+ * yield and penalty durations, connection back pressure and controller service references.  Sensitive property values cannot be compared
+ * because NiFi does not return them, and a feed that changes a sensitive property always requires a full redeploy as its previous value
+ * could not be restored if the update fails.</p>
+ *
+ * <p>NiFi rejects changes to the configuration of a running processor, so a feed that changes a property of a running processor, or the schedule
+ * of its running input processor, also requires a full redeploy.  Only the start and stop of the processors and the port connections are
+ * applied in place to a running flow.</p>
+ */
+public class FeedRedeployPlanner {
+
+    /**
+     * The maximum number of flow differences included in the reason for a full redeploy
+     */
+    private static final int MAX_REPORTED_DIFFERENCES = 5;
+
+    /**
+     * The operations that update a feed flow in place, in the order they are applied
+     */
+    public enum Operation {
+        /**
+         * connect the feed's output ports to the reusable template input ports
+         */
+        CONNECT_PORTS,
+        /**
+         * update the processor properties whose values changed
+         */
+        UPDATE_PROPERTIES,
+        /**
+         * update the schedule of the input processor
+         */
+        UPDATE_SCHEDULE,
+        /**
+         * start the processors that are stopped
+         */
+        START_PROCESSORS,
+        /**
+         * start or stop the input processor and disable the other inputs
+         */
+        UPDATE_INPUT_STATE
+    }
+
+    private final TemplateDTO template;
+    private ProcessGroupDTO processGroup;
+    private ProcessorDTO inputProcessor;
+    private List<NifiProperty> properties = Collections.emptyList();
+    private NifiProcessorSchedule feedSchedule;
+    private String inputProcessorType;
+    private boolean enabled = true;
+    private List<InputOutputPort> inputOutputPorts = Collections.emptyList();
+    private String categoryGroupName;
+    private Set<ConnectionDTO> categoryConnections = Collections.emptySet();
+    private Map<String, String> controllerServiceNames = new HashMap<>();
+
+    /**
+     * @param template the template, including its snippet, the feed is created from
+     */
+    public FeedRedeployPlanner(@Nonnull TemplateDTO template) {
+        this.template = template;
+    }
+
+    /**
+     * @param processGroup   the feed's process group in NiFi, including its contents, or {@code null} if the feed does not exist
+     * @param inputProcessor the input processor of the feed in the process group
+     */
+    public FeedRedeployPlanner processGroup(@Nullable ProcessGroupDTO processGroup, @Nullable ProcessorDTO inputProcessor) {
+        this.processGroup = processGroup;
+        this.inputProcessor = inputProcessor;
+        return this;
+    }
+
+    /**
+     * @param properties the properties of the process group with the values of the feed applied
+     */
+    public FeedRedeployPlanner properties(@Nonnull List<NifiProperty> properties) {
+        this.properties = properties;
+        return this;
+    }
+
+    public FeedRedeployPlanner feedSchedule(@Nullable NifiProcessorSchedule feedSchedule) {
+        this.feedSchedule = feedSchedule;
+        return this;
+    }
+
+    public FeedRedeployPlanner inputProcessorType(@Nullable String inputProcessorType) {
+        this.inputProcessorType = inputProcessorType;
+        return this;
+    }
+
+    public FeedRedeployPlanner enabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * @param inputOutputPorts    the connections from the feed to the reusable templates
+     * @param categoryGroupName   the name of the category process group
+     * @param categoryConnections the connections in the category process group
+     */
+    public FeedRedeployPlanner inputOutputPorts(@Nonnull List<InputOutputPort> inputOutputPorts, @Nullable String categoryGroupName, @Nullable Set<ConnectionDTO> categoryConnections) {
+        this.inputOutputPorts = inputOutputPorts;
+        this.categoryGroupName = categoryGroupName;
+        this.categoryConnections = (categoryConnections != null) ? categoryConnections : Collections.emptySet();
+        return this;
+    }
+
+    /**
+     * @param controllerServices the controller services in NiFi, used to compare the service references of the template and the feed flow by name
+     */
+    public FeedRedeployPlanner controllerServices(@Nullable Collection<ControllerServiceDTO> controllerServices) {
+        for (ControllerServiceDTO service : nullSafe(controllerServices)) {
+            controllerServiceNames.put(service.getId(), service.getName());
+        }
+        return this;
+    }
+
+    /**
+     * Plans the update of the feed flow
+     *
+     * @return the plan
+     */
+    public Plan plan() {
+        if (processGroup == null || processGroup.getContents() == null) {
+            return Plan.fullRedeploy("the feed flow does not exist");
+        }
+        if (template.getSnippet() == null) {
+            return Plan.fullRedeploy("the template " + template.getName() + " has no contents");
+        }
+
+        String flowDifferences = describeDifferences(describeFlow(template.getSnippet()), describeFlow(processGroup.getContents()));
+        if (flowDifferences != null) {
+            return Plan.fullRedeploy("the feed flow does not match the template: " + flowDifferences);
+        }
+        if (inputProcessor == null) {
+            return Plan.fullRedeploy("the feed flow has no input processor");
+        }
+
+        // the properties set by Kylo are expected to differ from the template
+        Map<String, String> liveNames = new HashMap<>();
+        collectNames(processGroup.getContents(), "", liveNames);
+        Map<String, Set<String>> managedProperties = new HashMap<>();
+        for (NifiProperty property : properties) {
+            managedProperties.computeIfAbsent(liveNames.get(property.getProcessorId()), name -> new HashSet<>()).add(property.getKey());
+        }
+        Map<String, String> serviceNames = new HashMap<>(controllerServiceNames);
+        for (ControllerServiceDTO service : nullSafe(template.getSnippet().getControllerServices())) {
+            serviceNames.put(service.getId(), service.getName());
+        }
+        String configDifferences = describeDifferences(describeConfiguration(template.getSnippet(), managedProperties, serviceNames),
+                                                       describeConfiguration(processGroup.getContents(), managedProperties, serviceNames));
+        if (configDifferences != null) {
+            return Plan.fullRedeploy("the feed flow configuration does not match the template: " + configDifferences);
+        }
+
+        Set<Operation> operations = EnumSet.noneOf(Operation.class);
+        if (!isConnectedToReusableTemplates()) {
+            operations.add(Operation.CONNECT_PORTS);
+        }
+
+        // find the properties whose values differ from the processors in NiFi
+        Map<String, ProcessorDTO> processors = NifiProcessUtil.getProcessorsMap(processGroup);
+        List<NifiProperty> changedProperties = new ArrayList<>();
+        List<NifiProperty> previousProperties = new ArrayList<>();
+        for (NifiProperty property : properties) {
+            ProcessorDTO processor = processors.get(property.getProcessorId());
+            if (processor == null) {
+                continue;
+            }
+            Map<String, String> currentValues = (processor.getConfig() != null && processor.getConfig().getProperties() != null)
+                                                ? processor.getConfig().getProperties() : Collections.emptyMap();
+            if (!currentValues.containsKey(property.getKey()) || !Objects.equals(currentValues.get(property.getKey()), property.getValue())) {
+                if (property.isSensitive() || isSensitive(processor, property.getKey())) {
+                    return Plan.fullRedeploy("the sensitive property " + property.getKey() + " of " + processor.getName() + " changed and its previous value could not be restored");
+                }
+                if (isRunning(processor)) {
+                    return Plan.fullRedeploy("the property " + property.getKey() + " of the running processor " + processor.getName() + " changed");
+                }
+                changedProperties.add(property);
+                NifiProperty previous = new NifiProperty(property.getProcessGroupId(), property.getProcessorId(), property.getKey(), currentValues.get(property.getKey()),
+                                                         property.getPropertyDescriptor());
+                previous.setProcessorName(property.getProcessorName());
+                previous.setProcessorType(property.getProcessorType());
+                previous.setSensitive(property.isSensitive());
+                previousProperties.add(previous);
+            }
+        }
+        if (!changedProperties.isEmpty()) {
+            operations.add(Operation.UPDATE_PROPERTIES);
+        }
+
+        NifiProcessorSchedule previousSchedule = getSchedule(inputProcessor);
+        NifiProcessorSchedule schedule = getDesiredSchedule();
+        if (schedule != null && (!Objects.equals(schedule.getSchedulingStrategy(), previousSchedule.getSchedulingStrategy())
+                                 || !Objects.equals(schedule.getSchedulingPeriod(), previousSchedule.getSchedulingPeriod())
+                                 || (schedule.getConcurrentTasks() != null && !Objects.equals(schedule.getConcurrentTasks(), previousSchedule.getConcurrentTasks())))) {
+            if (isRunning(inputProcessor)) {
+                return Plan.fullRedeploy("the schedule of the running input processor " + inputProcessor.getName() + " changed");
+            }
+            operations.add(Operation.UPDATE_SCHEDULE);
+        }
+
+        // every processor other than the inputs should be running, unless it was disabled
+        boolean processorsStopped = NifiProcessUtil.getNonInputProcessors(processGroup).stream()
+            .anyMatch(processor -> NifiProcessUtil.PROCESS_STATE.STOPPED.name().equals(processor.getState()));
+        if (processorsStopped) {
+            operations.add(Operation.START_PROCESSORS);
+        }
+
+        // the feed's input should be running if enabled, or stopped, and any other input disabled
+        NifiProcessUtil.PROCESS_STATE inputState = enabled ? NifiProcessUtil.PROCESS_STATE.RUNNING : NifiProcessUtil.PROCESS_STATE.STOPPED;
+        boolean otherInputsEnabled = NifiProcessUtil.getInputProcessors(processGroup).stream()
+            .filter(processor -> !processor.getId().equals(inputProcessor.getId()))
+            .anyMatch(processor -> !NifiProcessUtil.PROCESS_STATE.DISABLED.name().equals(processor.getState()));
+        if (!inputState.name().equals(inputProcessor.getState()) || otherInputsEnabled) {
+            operations.add(Operation.UPDATE_INPUT_STATE);
+        }
+
+        return new Plan(null, processGroup, inputProcessor, operations, changedProperties, previousProperties, previousSchedule, inputProcessor.getState());
+    }
+
+    /**
+     * @return {@code true} if each output port of the feed is connected to the category output port for its reusable template
+     */
+    private boolean isConnectedToReusableTemplates() {
+        for (InputOutputPort port : inputOutputPorts) {
+            String categoryOutputPortName = categoryGroupName + " to " + port.getInputPortName();
+            boolean connected = categoryConnections.stream()
+                .anyMatch(connection -> connection.getSource() != null && connection.getDestination() != null
+                                        && processGroup.getId().equals(connection.getSource().getGroupId())
+                                        && port.getOutputPortName().equals(connection.getSource().getName())
+                                        && categoryOutputPortName.equals(connection.getDestination().getName()));
+            if (!connected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the schedule that is applied to the input processor.  TriggerFeed inputs are always timer driven.
+     */
+    @Nullable
+    private NifiProcessorSchedule getDesiredSchedule() {
+        if (feedSchedule == null) {
+            return null;
+        }
+        NifiProcessorSchedule schedule = new NifiProcessorSchedule();
+        schedule.setSchedulingStrategy(feedSchedule.getSchedulingStrategy());
+        schedule.setSchedulingPeriod(feedSchedule.getSchedulingPeriod());
+        schedule.setConcurrentTasks(feedSchedule.getConcurrentTasks());
+        String type = (inputProcessorType != null) ? inputProcessorType : inputProcessor.getType();
+        if (NifiFeedConstants.TRIGGER_FEED_PROCESSOR_CLASS.equalsIgnoreCase(type)) {
+            schedule.setSchedulingStrategy(NifiFeedConstants.SCHEDULE_STRATEGIES.TIMER_DRIVEN.name());
+            schedule.setSchedulingPeriod(NifiFeedConstants.DEFAULT_TIGGER_FEED_PROCESSOR_SCHEDULE);
+        }
+        return schedule;
+    }
+
+    private static NifiProcessorSchedule getSchedule(ProcessorDTO processor) {
+        NifiProcessorSchedule schedule = new NifiProcessorSchedule();
+        ProcessorConfigDTO config = processor.getConfig();
+        if (config != null) {
+            schedule.setSchedulingStrategy(config.getSchedulingStrategy());
+            schedule.setSchedulingPeriod(config.getSchedulingPeriod());
+            schedule.setConcurrentTasks(config.getConcurrentlySchedulableTaskCount());
+        }
+        return schedule;
+    }
+
+    /**
+     * Describes the structure of a flow, independent of the ids of its components.
+     *
+     * @param snippet the contents of a template or process group
+     * @return a description of each processor, port, funnel, process group and connection in the flow
+     */
+    static List<String> describeFlow(@Nonnull FlowSnippetDTO snippet) {
+        Map<String, String> names = new HashMap<>();
+        collectNames(snippet, "", names);
+        List<String> components = new ArrayList<>();
+        describeFlow(snippet, "", names, components);
+        Collections.sort(components);
+        return components;
+    }
+
+    private static void collectNames(FlowSnippetDTO snippet, String path, Map<String, String> names) {
+        for (ProcessorDTO processor : nullSafe(snippet.getProcessors())) {
+            names.put(processor.getId(), path + processor.getName());
+        }
+        for (PortDTO port : nullSafe(snippet.getInputPorts())) {
+            names.put(port.getId(), path + port.getName());
+        }
+        for (PortDTO port : nullSafe(snippet.getOutputPorts())) {
+            names.put(port.getId(), path + port.getName());
+        }
+        for (FunnelDTO funnel : nullSafe(snippet.getFunnels())) {
+            names.put(funnel.getId(), path + "funnel");
+        }
+        for (RemoteProcessGroupDTO remoteGroup : nullSafe(snippet.getRemoteProcessGroups())) {
+            names.put(remoteGroup.getId(), path + remoteGroup.getTargetUri());
+        }
+        for (ProcessGroupDTO group : nullSafe(snippet.getProcessGroups())) {
+            names.put(group.getId(), path + group.getName());
+            if (group.getContents() != null) {
+                collectNames(group.getContents(), path + group.getName() + "/", names);
+            }
+        }
+    }
+
+    private static void describeFlow(FlowSnippetDTO snippet, String path, Map<String, String> names, List<String> components) {
+        for (ProcessorDTO processor : nullSafe(snippet.getProcessors())) {
+            components.add("processor " + path + processor.getName() + " [" + processor.getType() + "]");
+        }
+        for (PortDTO port : nullSafe(snippet.getInputPorts())) {
+            components.add("input port " + path + port.getName());
+        }
+        for (PortDTO port : nullSafe(snippet.getOutputPorts())) {
+            components.add("output port " + path + port.getName());
+        }
+        for (FunnelDTO funnel : nullSafe(snippet.getFunnels())) {
+            components.add("funnel " + path);
+        }
+        for (RemoteProcessGroupDTO remoteGroup : nullSafe(snippet.getRemoteProcessGroups())) {
+            components.add("remote process group " + path + remoteGroup.getTargetUri());
+        }
+        for (ConnectionDTO connection : nullSafe(snippet.getConnections())) {
+            Set<String> relationships = (connection.getSelectedRelationships() != null) ? new TreeSet<>(connection.getSelectedRelationships()) : Collections.emptySet();
+            components.add("connection " + describeConnectable(connection.getSource(), names) + " -> " + describeConnectable(connection.getDestination(), names) + " " + relationships);
+        }
+        for (ProcessGroupDTO group : nullSafe(snippet.getProcessGroups())) {
+            components.add("process group " + path + group.getName());
+            if (group.getContents() != null) {
+                describeFlow(group.getContents(), path + group.getName() + "/", names, components);
+            }
+        }
+    }
+
+    /**
+     * Describes the configuration of a flow, independent of the ids of its components.
+     *
+     * @param snippet           the contents of a template or process group
+     * @param managedProperties the properties set by Kylo for each processor path, which are not described
+     * @param serviceNames      the names of the controller services by id
+     * @return a description of the configuration of each processor and connection in the flow
+     */
+    static List<String> describeConfiguration(@Nonnull FlowSnippetDTO snippet, @Nonnull Map<String, Set<String>> managedProperties, @Nonnull Map<String, String> serviceNames) {
+        Map<String, String> names = new HashMap<>();
+        collectNames(snippet, "", names);
+        List<String> configuration = new ArrayList<>();
+        describeConfiguration(snippet, "", names, managedProperties, serviceNames, configuration);
+        Collections.sort(configuration);
+        return configuration;
+    }
+
+    private static void describeConfiguration(FlowSnippetDTO snippet, String path, Map<String, String> names, Map<String, Set<String>> managedProperties,
+                                              Map<String, String> serviceNames, List<String> configuration) {
+        // the schedule of the inputs is set by the feed
+        List<String> inputProcessorIds = NifiConnectionUtil.getInputProcessorIds(nullSafe(snippet.getConnections()));
+        for (ProcessorDTO processor : nullSafe(snippet.getProcessors())) {
+            String name = "processor " + path + processor.getName();
+            ProcessorConfigDTO config = (processor.getConfig() != null) ? processor.getConfig() : new ProcessorConfigDTO();
+
+            Set<String> autoTerminated = new TreeSet<>(nullSafe(config.getAutoTerminatedRelationships()));
+            for (RelationshipDTO relationship : nullSafe(processor.getRelationships())) {
+                if (Boolean.TRUE.equals(relationship.isAutoTerminate())) {
+                    autoTerminated.add(relationship.getName());
+                }
+            }
+            configuration.add(name + " auto-terminates " + autoTerminated);
+            if (!inputProcessorIds.contains(processor.getId())) {
+                configuration.add(name + " schedule " + config.getSchedulingStrategy() + " " + config.getSchedulingPeriod() + " x" + config.getConcurrentlySchedulableTaskCount());
+            }
+            configuration.add(name + " yield " + config.getYieldDuration() + ", penalty " + config.getPenaltyDuration() + ", run duration " + config.getRunDurationMillis()
+                              + ", bulletin level " + config.getBulletinLevel());
+
+            Set<String> managed = managedProperties.getOrDefault(path + processor.getName(), Collections.emptySet());
+            Map<String, PropertyDescriptorDTO> descriptors = (config.getDescriptors() != null) ? config.getDescriptors() : Collections.emptyMap();
+            Map<String, String> values = (config.getProperties() != null) ? config.getProperties() : Collections.emptyMap();
+            for (Map.Entry<String, String> property : values.entrySet()) {
+                PropertyDescriptorDTO descriptor = descriptors.get(property.getKey());
+                if (managed.contains(property.getKey()) || (descriptor != null && Boolean.TRUE.equals(descriptor.isSensitive()))) {
+                    continue;
+                }
+                String value = (property.getValue() == null && descriptor != null) ? descriptor.getDefaultValue() : property.getValue();
+                if (value != null && descriptor != null && descriptor.getIdentifiesControllerService() != null) {
+                    value = "service " + serviceNames.getOrDefault(value, value);
+                }
+                configuration.add(name + " property " + property.getKey() + " = " + value);
+            }
+        }
+        for (ConnectionDTO connection : nullSafe(snippet.getConnections())) {
+            List<String> prioritizers = (connection.getPrioritizers() != null) ? connection.getPrioritizers() : Collections.emptyList();
+            configuration.add("connection " + describeConnectable(connection.getSource(), names) + " -> " + describeConnectable(connection.getDestination(), names)
+                              + " back pressure " + connection.getBackPressureObjectThreshold() + " / " + connection.getBackPressureDataSizeThreshold()
+                              + ", expiration " + connection.getFlowFileExpiration() + ", prioritizers " + prioritizers);
+        }
+        for (ProcessGroupDTO group : nullSafe(snippet.getProcessGroups())) {
+            if (group.getContents() != null) {
+                describeConfiguration(group.getContents(), path + group.getName() + "/", names, managedProperties, serviceNames, configuration);
+            }
+        }
+    }
+
+    private static boolean isRunning(ProcessorDTO processor) {
+        return NifiProcessUtil.PROCESS_STATE.RUNNING.name().equals(processor.getState());
+    }
+
+    private static boolean isSensitive(ProcessorDTO processor, String key) {
+        PropertyDescriptorDTO descriptor = (processor.getConfig() != null && processor.getConfig().getDescriptors() != null) ? processor.getConfig().getDescriptors().get(key) : null;
+        return descriptor != null && Boolean.TRUE.equals(descriptor.isSensitive());
+    }
+
+    private static String describeConnectable(@Nullable ConnectableDTO connectable, Map<String, String> names) {
+        if (connectable == null) {
+            return "?";
+        }
+        String name = names.get(connectable.getId());
+        return (name != null) ? name : connectable.getName();
+    }
+
+    /**
+     * @return the differences between the expected and actual flow, or {@code null} if they match
+     */
+    @Nullable
+    static String describeDifferences(List<String> expected, List<String> actual) {
+        Multiset<String> expectedComponents = HashMultiset.create(expected);
+        Multiset<String> actualComponents = HashMultiset.create(actual);
+        List<String> missing = Multisets.difference(expectedComponents, actualComponents).elementSet().stream().sorted().collect(Collectors.toList());
+        List<String> unexpected = Multisets.difference(actualComponents, expectedComponents).elementSet().stream().sorted().collect(Collectors.toList());
+        if (missing.isEmpty() && unexpected.isEmpty()) {
+            return null;
+        }
+        StringBuilder differences = new StringBuilder();
+        if (!missing.isEmpty()) {
+            differences.append("missing ").append(limit(missing));
+        }
+        if (!unexpected.isEmpty()) {
+            differences.append(differences.length() > 0 ? ", " : "").append("unexpected ").append(limit(unexpected));
+        }
+        return differences.toString();
+    }
+
+    private static List<String> limit(List<String> differences) {
+        return differences.size() > MAX_REPORTED_DIFFERENCES ? differences.subList(0, MAX_REPORTED_DIFFERENCES) : differences;
+    }
+
+    private static <T> Collection<T> nullSafe(@Nullable Collection<T> collection) {
+        return (collection != null) ? collection : Collections.emptyList();
+    }
+
+    /**
+     * The operations needed to update a feed flow
+     */
+    public static class Plan {
+
+        private final String fullRedeployReason;
+        private final ProcessGroupDTO processGroup;
+        private final ProcessorDTO inputProcessor;
+        private final Set<Operation> operations;
+        private final List<NifiProperty> changedProperties;
+        private final List<NifiProperty> previousProperties;
+        private final NifiProcessorSchedule previousSchedule;
+        private final String previousInputState;
+
+        Plan(String fullRedeployReason, ProcessGroupDTO processGroup, ProcessorDTO inputProcessor, Set<Operation> operations, List<NifiProperty> changedProperties,
+             List<NifiProperty> previousProperties, NifiProcessorSchedule previousSchedule, String previousInputState) {
+            this.fullRedeployReason = fullRedeployReason;
+            this.processGroup = processGroup;
+            this.inputProcessor = inputProcessor;
+            this.operations = operations;
+            this.changedProperties = changedProperties;
+            this.previousProperties = previousProperties;
+            this.previousSchedule = previousSchedule;
+            this.previousInputState = previousInputState;
+        }
+
+        static Plan fullRedeploy(String reason) {
+            return new Plan(reason, null, null, Collections.emptySet(), Collections.emptyList(), Collections.emptyList(), null, null);
+        }
+
+        /**
+         * @return {@code true} if the feed flow can be updated in place, or {@code false} if a new version of the flow must be created
+         */
+        public boolean isInPlace() {
+            return fullRedeployReason == null;
+        }
+
+        /**
+         * @return why a new version of the flow must be created, or {@code null} if it can be updated in place
+         */
+        public String getFullRedeployReason() {
+            return fullRedeployReason;
+        }
+
+        public boolean hasOperation(Operation operation) {
+            return operations.contains(operation);
+        }
+
+        public Set<Operation> getOperations() {
+            return operations;
+        }
+
+        public ProcessGroupDTO getProcessGroup() {
+            return processGroup;
+        }
+
+        public ProcessorDTO getInputProcessor() {
+            return inputProcessor;
+        }
+
+        /**
+         * @return the properties with the values that should be applied to the processors
+         */
+        public List<NifiProperty> getChangedProperties() {
+            return changedProperties;
+        }
+
+        /**
+         * @return the changed properties with the values currently in NiFi
+         */
+        public List<NifiProperty> getPreviousProperties() {
+            return previousProperties;
+        }
+
+        /**
+         * @return the current schedule of the input processor
+         */
+        public NifiProcessorSchedule getPreviousSchedule() {
+            return previousSchedule;
+        }
+
+        /**
+         * @return the current state of the input processor
+         */
+        public String getPreviousInputState() {
+            return previousInputState;
+        }
+
+        @Override
+        public String toString() {
+            return isInPlace() ? "in place " + operations + ", changedProperties=" + changedProperties.size() : "full redeploy, " + fullRedeployReason;
+        }
+    }
+}
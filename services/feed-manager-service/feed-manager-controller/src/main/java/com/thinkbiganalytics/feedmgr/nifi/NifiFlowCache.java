@@ -36,6 +36,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import org.apache.commons.lang3.StringUtils;
@@ -47,7 +48,6 @@ import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.thinkbiganalytics.DateTimeUtil;
@@ -57,17 +57,23 @@ import com.thinkbiganalytics.feedmgr.service.MetadataService;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.PostMetadataConfigAction;
 import com.thinkbiganalytics.metadata.api.app.KyloVersionProvider;
+import com.thinkbiganalytics.metadata.api.event.MetadataChange;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChangeEvent;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
 import com.thinkbiganalytics.metadata.rest.model.nifi.NiFiFlowCacheConnectionData;
 import com.thinkbiganalytics.metadata.rest.model.nifi.NiFiFlowCacheSync;
 import com.thinkbiganalytics.metadata.rest.model.nifi.NifiFlowCacheSnapshot;
 import com.thinkbiganalytics.nifi.provenance.NiFiProvenanceConstants;
 import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
+import com.thinkbiganalytics.nifi.rest.client.NiFiComponentIndex;
 import com.thinkbiganalytics.nifi.rest.client.NifiClientRuntimeException;
 import com.thinkbiganalytics.nifi.rest.model.flow.NiFiFlowConnectionConverter;
 import com.thinkbiganalytics.nifi.rest.model.flow.NifiFlowConnection;
 import com.thinkbiganalytics.nifi.rest.model.flow.NifiFlowProcessGroup;
 import com.thinkbiganalytics.nifi.rest.model.flow.NifiFlowProcessor;
+import com.thinkbiganalytics.nifi.rest.support.NifiConstants;
 import com.thinkbiganalytics.nifi.rest.support.NifiProcessUtil;
 
 /**
@@ -99,6 +105,14 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
     @Inject
     private KyloVersionProvider kyloVersionProvider;
 
+    @Inject
+    private MetadataEventService metadataEventService;
+
+    /**
+     * Removes the processors of deleted feeds from the component index
+     */
+    private final MetadataEventListener<FeedChangeEvent> feedDeletedListener = new FeedDeletedListener();
+
     private Map<String, String> feedNameToTemplateNameMap = new ConcurrentHashMap<>();
 
     private Map<String, Map<String, List<NifiFlowProcessor>>> feedFlowIdProcessorMap = new ConcurrentHashMap<>();
@@ -154,14 +168,26 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
      */
     private Map<String, DateTime> lastSyncTimeMap = new ConcurrentHashMap<>();
 
+    /**
+     * Versioned log of the changes applied to the maps above.
+     * Syncs that have already received a version are sent only the changes made since, instead of being diffed against a full copy of the cache
+     */
+    private NifiFlowCacheChangeLog changeLog = new NifiFlowCacheChangeLog();
+
     private DateTime lastUpdated = null;
 
     @PostConstruct
     private void init() {
         nifiConnectionService.subscribeConnectionListener(this);
+        metadataEventService.addListener(feedDeletedListener);
         initExpireTimerThread();
     }
 
+    @PreDestroy
+    private void destroy() {
+        metadataEventService.removeListener(feedDeletedListener);
+    }
+
     /**
      * Metadata is available
      */
@@ -251,6 +277,29 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         return sync;
     }
 
+    /**
+     * Return only the records that changed after the given change log version.
+     * If the version is {@code null} or is no longer retained in the change log the entire cache is returned.
+     *
+     * @param version the last change log version the caller received
+     * @return the changes after the version, along with the latest version
+     */
+    public NiFiFlowCacheSync getChangesSince(Long version) {
+        if (!isAvailable()) {
+            return NiFiFlowCacheSync.UNAVAILABLE;
+        }
+        long latestVersion = changeLog.getVersion();
+        NifiFlowCacheSnapshot changes = changeLog.changesSince(version, latestVersion, streamingFeeds, lastUpdated);
+        if (changes == null) {
+            changes = latestSnapshot();
+        }
+        NiFiFlowCacheSync sync = new NiFiFlowCacheSync(changes);
+        sync.setVersion(latestVersion);
+        sync.setLastSync(lastUpdated);
+        sync.setUpdated(version == null || version != latestVersion);
+        return sync;
+    }
+
     /**
      * Preview any new updates that will be applied to a given cache
      *
@@ -296,7 +345,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
                 //this is possibly a reusable template.
                 //update the processorid and connection name maps
                 updateProcessorIdMaps(nifiFlowProcessGroup.getFeedName(), nifiFlowProcessGroup.getProcessorMap().values());
-                this.connectionIdToConnectionMap.putAll(toConnectionIdMap(nifiFlowProcessGroup.getConnectionIdMap().values()));
+                putConnections(toConnectionIdMap(nifiFlowProcessGroup.getConnectionIdMap().values()));
             }
         });
         loaded = true;
@@ -373,30 +422,69 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
             lastSyncTimeMap.put(sync.getSyncId(), DateTime.now());
         }
         if (sync.needsUpdate(lastUpdated)) {
-            Map<String, String> processorIdToFeedNameMapCopy = ImmutableMap.copyOf(processorIdToFeedNameMap);
-            Map<String, String> processorIdToFeedProcessGroupIdCopy = ImmutableMap.copyOf(processorIdToFeedProcessGroupId);
-            Map<String, String> processorIdToProcessorNameCopy = ImmutableMap.copyOf(processorIdToProcessorName);
-            Set<String> streamingFeedsCopy = ImmutableSet.copyOf(streamingFeeds);
-            Set<String> allFeedsCopy = ImmutableSet.copyOf(allFeeds);
-            Map<String, NiFiFlowCacheConnectionData> connectionDataMapCopy = ImmutableMap.copyOf(connectionIdToConnectionMap);
-
+            //capture the version before copying so anything changed during the copy is sent again on the next sync
+            long version = changeLog.getVersion();
+            NiFiFlowCacheSync changes = syncChangesSinceLastVersion(sync, version, preview);
+            if (changes != null) {
+                return changes;
+            }
             //get feeds updated since last sync
-            NifiFlowCacheSnapshot latest = new NifiFlowCacheSnapshot.Builder()
-                .withProcessorIdToFeedNameMap(processorIdToFeedNameMapCopy)
-                .withProcessorIdToFeedProcessGroupId(processorIdToFeedProcessGroupIdCopy)
-                .withProcessorIdToProcessorName(processorIdToProcessorNameCopy)
-                .withStreamingFeeds(streamingFeedsCopy)
-                .withFeeds(allFeedsCopy)
-                .withConnections(connectionDataMapCopy)
-                .withSnapshotDate(lastUpdated).build();
-            return syncAndReturnUpdates(sync, latest, preview);
+            NifiFlowCacheSnapshot latest = latestSnapshot();
+            return syncAndReturnUpdates(sync, latest, version, preview);
         } else {
             return NiFiFlowCacheSync.EMPTY(sync.getSyncId());
         }
     }
 
+    /**
+     * Build the updates for a sync from the change log.
+     *
+     * @param sync    the sync to update
+     * @param version the latest change log version
+     * @param preview {@code true} to return the updates without applying them to the sync
+     * @return the updates since the last version the sync received, or {@code null} if the change log no longer covers that version and a full sync is needed
+     */
+    private NiFiFlowCacheSync syncChangesSinceLastVersion(NiFiFlowCacheSync sync, long version, boolean preview) {
+        if (sync.getSnapshot() == null) {
+            return null;
+        }
+        NifiFlowCacheSnapshot changes = changeLog.changesSince(sync.getVersion(), version, streamingFeeds, lastUpdated);
+        if (changes == null) {
+            return null;
+        }
+        if (!preview) {
+            sync.getSnapshot().update(changes);
+            sync.setLastSync(changes.getSnapshotDate());
+            sync.setVersion(version);
+        }
+        NiFiFlowCacheSync updatedSync = new NiFiFlowCacheSync(sync.getSyncId(), changes);
+        updatedSync.setUpdated(true);
+        updatedSync.setVersion(version);
+        if (!preview) {
+            updatedSync.setLastSync(changes.getSnapshotDate());
+        }
+        return updatedSync;
+    }
 
-    private NiFiFlowCacheSync syncAndReturnUpdates(NiFiFlowCacheSync sync, NifiFlowCacheSnapshot latest, boolean preview) {
+    /**
+     * Copy the entire cache into a snapshot.
+     * The copies are mutable so a sync holding the snapshot can later apply deltas from the change log to it.
+     *
+     * @return a copy of the cache
+     */
+    private NifiFlowCacheSnapshot latestSnapshot() {
+        return new NifiFlowCacheSnapshot.Builder()
+            .withProcessorIdToFeedNameMap(new ConcurrentHashMap<>(processorIdToFeedNameMap))
+            .withProcessorIdToFeedProcessGroupId(new ConcurrentHashMap<>(processorIdToFeedProcessGroupId))
+            .withProcessorIdToProcessorName(new ConcurrentHashMap<>(processorIdToProcessorName))
+            .withStreamingFeeds(ImmutableSet.copyOf(streamingFeeds))
+            .withFeeds(new HashSet<>(allFeeds))
+            .withConnections(new ConcurrentHashMap<>(connectionIdToConnectionMap))
+            .withSnapshotDate(lastUpdated).build();
+    }
+
+
+    private NiFiFlowCacheSync syncAndReturnUpdates(NiFiFlowCacheSync sync, NifiFlowCacheSnapshot latest, long version, boolean preview) {
         if (latest != null && sync.needsUpdate(latest.getSnapshotDate())) {
 
             NifiFlowCacheSnapshot updated = new NifiFlowCacheSnapshot.Builder()
@@ -411,10 +499,11 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
             if (!preview) {
                 sync.setSnapshot(latest);
                 sync.setLastSync(latest.getSnapshotDate());
-
+                sync.setVersion(version);
             }
             NiFiFlowCacheSync updatedSync = new NiFiFlowCacheSync(sync.getSyncId(), updated);
             updatedSync.setUpdated(true);
+            updatedSync.setVersion(version);
             if (!preview) {
                 updatedSync.setLastSync(latest.getSnapshotDate());
             }
@@ -430,6 +519,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
      * clears the current cache
      ***/
     private void clearAll() {
+        nifiRestClient.getComponentIndex().clear();
         processorIdToFeedProcessGroupId.clear();
         processorIdToFeedProcessGroupId.clear();
         processorIdToProcessorName.clear();
@@ -438,6 +528,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         streamingFeeds.clear();
         allFeeds.clear();
         feedNameToTemplateNameMap.clear();
+        changeLog.reset();
     }
 
     private void populateTemplateMappingCache(RegisteredTemplate template, Map<String, RegisteredTemplate> feedTemplatesMap) {
@@ -548,6 +639,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         } else {
             streamingFeeds.removeAll(feedNames);
         }
+        changeLog.recordStreamingFeedsChanged();
         lastUpdated = DateTimeUtil.getNowUTCTime();
 
     }
@@ -566,7 +658,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
             processorIdToProcessorName.put(flowProcessor.getId(), flowProcessor.getName());
         });
 
-        this.processorIdToProcessorName.putAll(processorIdToProcessorName);
+        putProcessorIdToProcessorName(processorIdToProcessorName);
     }
 
     /**
@@ -586,7 +678,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
 
             });
         }
-        this.connectionIdToConnectionMap.putAll(toConnectionIdMap(connectionIdToConnectionMap.values()));
+        putConnections(toConnectionIdMap(connectionIdToConnectionMap.values()));
     }
 
 
@@ -618,7 +710,11 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
 
     private void updateFlow(String feedName, boolean isStream, String feedProcessGroupId, Collection<NifiFlowProcessor> processors, Collection<NifiFlowConnection> connections) {
         feedFlowIdProcessorMap.put(feedName, toFlowIdProcessorMap(processors));
-        feedProcessorIdProcessorMap.put(feedName, toProcessorIdProcessorMap(processors));
+        Map<String, List<NifiFlowProcessor>> previousProcessors = feedProcessorIdProcessorMap.put(feedName, toProcessorIdProcessorMap(processors));
+        //the processors of the previous version of the feed flow are replaced
+        if (previousProcessors != null) {
+            nifiRestClient.getComponentIndex().removeAll(previousProcessors.keySet());
+        }
 
         updateProcessorIdMaps(feedProcessGroupId, processors);
         Map<String, String> processorIdToProcessGroupId = new HashMap<>();
@@ -627,10 +723,10 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
             processorIdToProcessGroupId.put(flowProcessor.getId(), feedProcessGroupId);
             processorIdToProcessorName.put(flowProcessor.getId(), flowProcessor.getName());
         });
-        this.processorIdToFeedProcessGroupId.putAll(processorIdToProcessGroupId);
-        this.processorIdToProcessorName.putAll(processorIdToProcessorName);
+        putProcessorIdToFeedProcessGroupId(processorIdToProcessGroupId);
+        putProcessorIdToProcessorName(processorIdToProcessorName);
 
-        connectionIdToConnectionMap.putAll(toConnectionIdMap(connections));
+        putConnections(toConnectionIdMap(connections));
 
         if (connections != null) {
             Map<String, String> connectionIdToNameMap = connections.stream().collect(Collectors.toMap(conn -> conn.getConnectionIdentifier(), conn -> conn.getName()));
@@ -638,13 +734,15 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         }
 
         processorIdMap.putAll(toProcessorIdMap(processors));
-        processorIdToFeedNameMap.putAll(toProcessorIdFeedNameMap(processors, feedName));
+        putProcessorIdToFeedName(toProcessorIdFeedNameMap(processors, feedName));
         lastUpdated = DateTimeUtil.getNowUTCTime();
 
-        if (isStream) {
-            streamingFeeds.add(feedName);
+        if (isStream && streamingFeeds.add(feedName)) {
+            changeLog.recordStreamingFeedsChanged();
+        }
+        if (allFeeds.add(feedName)) {
+            changeLog.recordFeed(feedName);
         }
-        allFeeds.add(feedName);
         feedLastUpated.put(feedName, lastUpdated.getMillis());
 
     }
@@ -656,9 +754,39 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
             processorIdToProcessGroupId.put(flowProcessor.getId(), processGroupId);
             processorIdToProcessorName.put(flowProcessor.getId(), flowProcessor.getName());
         });
+        putProcessorIdToFeedProcessGroupId(processorIdToProcessGroupId);
+        putProcessorIdToProcessorName(processorIdToProcessorName);
+        indexProcessors(processors);
+    }
+
+    /**
+     * Adds the processors to the component index so they can be found by id without searching NiFi
+     */
+    private void indexProcessors(Collection<NifiFlowProcessor> processors) {
+        NiFiComponentIndex componentIndex = nifiRestClient.getComponentIndex();
+        processors.stream()
+            .filter(flowProcessor -> flowProcessor.getParentGroupId() != null)
+            .forEach(flowProcessor -> componentIndex.put(flowProcessor.getId(), NifiConstants.NIFI_COMPONENT_TYPE.PROCESSOR, flowProcessor.getParentGroupId()));
+    }
+
+    private void putProcessorIdToFeedName(Map<String, String> processorIdToFeedName) {
+        this.processorIdToFeedNameMap.putAll(processorIdToFeedName);
+        changeLog.recordProcessorIdToFeedName(processorIdToFeedName);
+    }
+
+    private void putProcessorIdToFeedProcessGroupId(Map<String, String> processorIdToProcessGroupId) {
         this.processorIdToFeedProcessGroupId.putAll(processorIdToProcessGroupId);
+        changeLog.recordProcessorIdToProcessGroupId(processorIdToProcessGroupId);
+    }
+
+    private void putProcessorIdToProcessorName(Map<String, String> processorIdToProcessorName) {
         this.processorIdToProcessorName.putAll(processorIdToProcessorName);
+        changeLog.recordProcessorIdToProcessorName(processorIdToProcessorName);
+    }
 
+    private void putConnections(Map<String, NiFiFlowCacheConnectionData> connections) {
+        this.connectionIdToConnectionMap.putAll(connections);
+        changeLog.recordConnections(connections);
     }
 
     private Map<String, NiFiFlowCacheConnectionData> toConnectionIdMap(Collection<NifiFlowConnection> connections) {
@@ -731,6 +859,22 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         }
     }
 
+    /**
+     * Removes the processors of a deleted feed from the component index
+     */
+    private class FeedDeletedListener implements MetadataEventListener<FeedChangeEvent> {
+
+        @Override
+        public void notify(FeedChangeEvent event) {
+            if (event.getData().getChange() == MetadataChange.ChangeType.DELETE) {
+                Map<String, List<NifiFlowProcessor>> processors = feedProcessorIdProcessorMap.remove(event.getData().getDescription());
+                if (processors != null) {
+                    nifiRestClient.getComponentIndex().removeAll(processors.keySet());
+                }
+            }
+        }
+    }
+
     public static class CacheSummary {
 
         private Map<String, Integer> summary = new HashMap<>();
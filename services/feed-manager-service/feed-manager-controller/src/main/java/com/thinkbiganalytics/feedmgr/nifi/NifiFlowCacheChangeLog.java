@@ -0,0 +1,271 @@
+package com.thinkbiganalytics.feedmgr.nifi;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.thinkbiganalytics.metadata.rest.model.nifi.NiFiFlowCacheConnectionData;
+import com.thinkbiganalytics.metadata.rest.model.nifi.NifiFlowCacheSnapshot;
+
+import org.joda.time.DateTime;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Versioned log of the changes applied to the {@link NifiFlowCache}.
+ *
+ * Every mutation of the cache maps is appended as a delta stamped with a monotonically increasing version.
+ * A client that knows the last version it received can then ask for only the changes made after it, instead of diffing a copy of the entire cache.
+ *
+ * The log is bounded by the number of entries it holds.  Once older deltas are trimmed, or the log is {@link #reset()} because the cache was rebuilt,
+ * requests for a version that is no longer covered return {@code null} and the caller needs to fall back to a full sync.
+ */
+public class NifiFlowCacheChangeLog {
+
+    /**
+     * Default number of map entries retained in the log before the oldest deltas are trimmed
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 50000;
+
+    private final int maxEntries;
+
+    private final Deque<Delta> deltas = new ArrayDeque<>();
+
+    /**
+     * Total number of map entries held by the deltas in the log
+     */
+    private int entryCount = 0;
+
+    /**
+     * The version of the most recent delta
+     */
+    private long version = 0L;
+
+    /**
+     * The oldest version a client can hold and still be served from the log
+     */
+    private long baseVersion = 0L;
+
+    public NifiFlowCacheChangeLog() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public NifiFlowCacheChangeLog(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Record changes to the processor id to feed name mappings
+     *
+     * @param processorIdToFeedName the updated entries
+     * @return the version of the change
+     */
+    public long recordProcessorIdToFeedName(Map<String, String> processorIdToFeedName) {
+        return record(ChangeType.PROCESSOR_FEED_NAME, processorIdToFeedName);
+    }
+
+    /**
+     * Record changes to the processor id to feed process group id mappings
+     *
+     * @param processorIdToProcessGroupId the updated entries
+     * @return the version of the change
+     */
+    public long recordProcessorIdToProcessGroupId(Map<String, String> processorIdToProcessGroupId) {
+        return record(ChangeType.PROCESSOR_PROCESS_GROUP, processorIdToProcessGroupId);
+    }
+
+    /**
+     * Record changes to the processor id to processor name mappings
+     *
+     * @param processorIdToProcessorName the updated entries
+     * @return the version of the change
+     */
+    public long recordProcessorIdToProcessorName(Map<String, String> processorIdToProcessorName) {
+        return record(ChangeType.PROCESSOR_NAME, processorIdToProcessorName);
+    }
+
+    /**
+     * Record changes to the connection id to connection mappings
+     *
+     * @param connectionIdToConnection the updated entries
+     * @return the version of the change
+     */
+    public long recordConnections(Map<String, NiFiFlowCacheConnectionData> connectionIdToConnection) {
+        return record(ChangeType.CONNECTION, connectionIdToConnection);
+    }
+
+    /**
+     * Record a feed that was added to the cache
+     *
+     * @param feedName the category.feed name
+     * @return the version of the change
+     */
+    public long recordFeed(String feedName) {
+        return record(ChangeType.FEED, Collections.singletonMap(feedName, feedName));
+    }
+
+    /**
+     * Record that the set of streaming feeds has changed.
+     * The streaming feeds are always sent in full with a delta, so this only needs to advance the version.
+     *
+     * @return the version of the change
+     */
+    public long recordStreamingFeedsChanged() {
+        return record(ChangeType.STREAMING_FEEDS, Collections.emptyMap());
+    }
+
+    /**
+     * Invalidate all the deltas in the log.  This is called when the cache is cleared and rebuilt so that every client is forced to do a full sync.
+     */
+    public synchronized void reset() {
+        deltas.clear();
+        entryCount = 0;
+        version++;
+        baseVersion = version;
+    }
+
+    /**
+     * @return the version of the most recent change
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Check if the changes since the given version can be served from the log
+     *
+     * @param sinceVersion the last version a client received
+     * @return {@code true} if the log covers all the changes after the version, {@code false} if the client needs a full sync
+     */
+    public synchronized boolean isAvailable(Long sinceVersion) {
+        return sinceVersion != null && sinceVersion >= baseVersion && sinceVersion <= version;
+    }
+
+    /**
+     * Collapse all the changes made after the given version into a snapshot containing only the latest value for each changed entry.
+     *
+     * @param sinceVersion   the last version a client received
+     * @param untilVersion   the latest version to include, usually the result of {@link #getVersion()} captured by the caller
+     * @param streamingFeeds the current set of streaming feeds, sent in full with every delta
+     * @param snapshotDate   the date to stamp on the snapshot
+     * @return the changes since the version, or {@code null} if the log no longer covers that version
+     */
+    public synchronized NifiFlowCacheSnapshot changesSince(Long sinceVersion, long untilVersion, Set<String> streamingFeeds, DateTime snapshotDate) {
+        if (!isAvailable(sinceVersion) || untilVersion < sinceVersion) {
+            return null;
+        }
+        Map<String, String> processorIdToFeedName = new HashMap<>();
+        Map<String, String> processorIdToProcessGroupId = new HashMap<>();
+        Map<String, String> processorIdToProcessorName = new HashMap<>();
+        Map<String, NiFiFlowCacheConnectionData> connections = new HashMap<>();
+        Set<String> feeds = new HashSet<>();
+
+        //walk backwards from the latest delta so the newest value for a key wins
+        Iterator<Delta> iterator = deltas.descendingIterator();
+        while (iterator.hasNext()) {
+            Delta delta = iterator.next();
+            if (delta.version <= sinceVersion) {
+                break;
+            }
+            if (delta.version > untilVersion) {
+                continue;
+            }
+            switch (delta.type) {
+                case PROCESSOR_FEED_NAME:
+                    putIfAbsent(processorIdToFeedName, delta.values);
+                    break;
+                case PROCESSOR_PROCESS_GROUP:
+                    putIfAbsent(processorIdToProcessGroupId, delta.values);
+                    break;
+                case PROCESSOR_NAME:
+                    putIfAbsent(processorIdToProcessorName, delta.values);
+                    break;
+                case CONNECTION:
+                    putIfAbsent(connections, delta.values);
+                    break;
+                case FEED:
+                    feeds.addAll(delta.values.keySet());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return new NifiFlowCacheSnapshot.Builder()
+            .withProcessorIdToFeedNameMap(processorIdToFeedName)
+            .withProcessorIdToFeedProcessGroupId(processorIdToProcessGroupId)
+            .withProcessorIdToProcessorName(processorIdToProcessorName)
+            .withConnections(connections)
+            .withFeeds(feeds)
+            .withStreamingFeeds(streamingFeeds != null ? ImmutableSet.copyOf(streamingFeeds) : ImmutableSet.of())
+            .withSnapshotDate(snapshotDate)
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> void putIfAbsent(Map<String, V> target, Map<String, ?> values) {
+        values.forEach((key, value) -> target.putIfAbsent(key, (V) value));
+    }
+
+    private synchronized long record(ChangeType type, Map<String, ?> values) {
+        version++;
+        Map<String, ?> copy = values == null ? Collections.emptyMap() : ImmutableMap.copyOf(values);
+        deltas.addLast(new Delta(version, type, copy));
+        entryCount += Math.max(copy.size(), 1);
+        trim();
+        return version;
+    }
+
+    /**
+     * Remove the oldest deltas until the log is back within its bounds, keeping at least the most recent delta
+     */
+    private void trim() {
+        while (entryCount > maxEntries && deltas.size() > 1) {
+            Delta removed = deltas.removeFirst();
+            entryCount -= Math.max(removed.values.size(), 1);
+            baseVersion = removed.version;
+        }
+    }
+
+    private enum ChangeType {
+        PROCESSOR_FEED_NAME, PROCESSOR_PROCESS_GROUP, PROCESSOR_NAME, CONNECTION, FEED, STREAMING_FEEDS
+    }
+
+    private static class Delta {
+
+        private final long version;
+        private final ChangeType type;
+        private final Map<String, ?> values;
+
+        private Delta(long version, ChangeType type, Map<String, ?> values) {
+            this.version = version;
+            this.type = type;
+            this.values = values;
+        }
+    }
+}
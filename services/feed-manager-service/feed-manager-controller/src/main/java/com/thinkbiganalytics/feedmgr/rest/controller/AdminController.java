@@ -35,8 +35,9 @@ import com.thinkbiganalytics.rest.model.RestResponseStatus;
 import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
 import org.glassfish.jersey.media.multipart.FormDataParam;
 
-import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
+import java.util.zip.ZipOutputStream;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -49,8 +50,10 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -100,9 +103,14 @@ public class AdminController {
                   })
     public Response exportTemplate(@NotNull @Size(min = 36, max = 36, message = "Invalid templateId size")
                                    @PathParam("templateId") String templateId) {
-        ExportImportTemplateService.ExportTemplate zipFile = exportImportTemplateService.exportTemplate(templateId);
-        return Response.ok(zipFile.getFile(), MediaType.APPLICATION_OCTET_STREAM)
-            .header("Content-Disposition", "attachments; filename=\"" + zipFile.getFileName() + "\"") //optional
+        ExportImportTemplateService.TemplateExport export = exportImportTemplateService.prepareTemplateExport(templateId);
+        StreamingOutput zipFile = out -> {
+            ZipOutputStream zos = new ZipOutputStream(out);
+            export.writeEntries(zos);
+            zos.finish();
+        };
+        return Response.ok(zipFile, MediaType.APPLICATION_OCTET_STREAM)
+            .header("Content-Disposition", "attachments; filename=\"" + export.getFileName() + "\"") //optional
             .build();
     }
 
@@ -117,14 +125,32 @@ public class AdminController {
                   })
     public Response exportFeed(@NotNull @Size(min = 36, max = 36, message = "Invalid feedId size")
                                @PathParam("feedId") String feedId) {
-        try {
-            ExportImportFeedService.ExportFeed zipFile = exportImportFeedService.exportFeed(feedId);
-            return Response.ok(zipFile.getFile(), MediaType.APPLICATION_OCTET_STREAM)
-                .header("Content-Disposition", "attachments; filename=\"" + zipFile.getFileName() + "\"") //optional
-                .build();
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to export Feed " + e.getMessage());
-        }
+        ExportImportFeedService.FeedExport export = exportImportFeedService.prepareFeedExport(feedId);
+        StreamingOutput zipFile = out -> {
+            ZipOutputStream zos = new ZipOutputStream(out);
+            export.writeEntries(zos);
+            zos.finish();
+        };
+        return Response.ok(zipFile, MediaType.APPLICATION_OCTET_STREAM)
+            .header("Content-Disposition", "attachments; filename=\"" + export.getFileName() + "\"") //optional
+            .build();
+    }
+
+    @GET
+    @Path("/export-feeds")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Exports the feeds with the specified IDs as a single zip file containing the zip file of each feed.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the feeds as an attachment."),
+                      @ApiResponse(code = 500, message = "A feed is not available.", response = RestResponseStatus.class)
+                  })
+    public Response exportFeeds(@NotNull @QueryParam("feedId") List<String> feedIds) {
+        //check the permissions before the response is committed
+        ExportImportFeedService.FeedsExport export = exportImportFeedService.prepareFeedsExport(feedIds);
+        StreamingOutput zipFile = export::write;
+        return Response.ok(zipFile, MediaType.APPLICATION_OCTET_STREAM)
+            .header("Content-Disposition", "attachments; filename=\"feeds.zip\"")
+            .build();
     }
 
     @GET
@@ -37,6 +37,7 @@ import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
 import org.glassfish.jersey.media.multipart.FormDataParam;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -69,6 +70,7 @@ public class AdminControllerV2 {
     public static final String BASE = "/v2/feedmgr/admin";
     public static final String IMPORT_TEMPLATE = "/import-template";
     public static final String IMPORT_FEED = "/import-feed";
+    public static final String IMPORT_FEEDS = "/import-feeds";
 
     @Inject
     ExportImportTemplateService exportImportTemplateService;
@@ -144,6 +146,35 @@ public class AdminControllerV2 {
         return Response.ok(importFeed).build();
     }
 
+    @POST
+    @Path(IMPORT_FEEDS)
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Imports a zip file containing many feed zip files.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the result of importing each feed.", response = ExportImportFeedService.ImportFeed.class, responseContainer = "List"),
+                      @ApiResponse(code = 500, message = "There was a problem importing the feeds.", response = RestResponseStatus.class)
+                  })
+    public Response uploadFeeds(@NotNull @FormDataParam("file") InputStream fileInputStream,
+                                @NotNull @FormDataParam("file") FormDataContentDisposition fileMetaData,
+                                @NotNull @FormDataParam("uploadKey") String uploadKey,
+                                @FormDataParam("categorySystemName") String categorySystemName,
+                                @FormDataParam("disableFeedUponImport") @DefaultValue("false") boolean disableFeedUponImport,
+                                @NotNull @FormDataParam("importComponents") String importComponents)
+        throws Exception {
+        ImportFeedOptions options = new ImportFeedOptions();
+        options.setUploadKey(uploadKey);
+        options.setDisableUponImport(disableFeedUponImport);
+        options.setCategorySystemName(categorySystemName);
+        options.setImportComponentOptions(ObjectMapperSerializer.deserialize(importComponents, new TypeReference<Set<ImportComponentOption>>() {
+        }));
+        uploadProgressService.newUpload(uploadKey);
+
+        List<ExportImportFeedService.ImportFeed> importFeeds = exportImportFeedService.importFeeds(fileMetaData.getFileName(), fileInputStream, options);
+        uploadProgressService.removeUpload(uploadKey);
+        return Response.ok(importFeeds).build();
+    }
+
     @POST
     @Path(IMPORT_TEMPLATE)
     @Consumes(MediaType.MULTIPART_FORM_DATA)
@@ -370,6 +370,45 @@ public class DatasourceController {
         }, MetadataAccess.SERVICE);
     }
 
+    /**
+     * Gets the schemas of the specified tables using the specified data source.
+     *
+     * @param idStr      the data source id
+     * @param schema     the schema name, or {@code null} to search all schemas
+     * @param tableNames the table names
+     * @return the table and field details keyed by table name
+     */
+    @GET
+    @Path("{id}/table-schemas")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Gets the schemas of the specified tables.", notes = "Connects to the database specified by the data source and describes all the tables using one connection.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the table schemas keyed by table name.", response = Map.class),
+                      @ApiResponse(code = 403, message = "Access denied.", response = RestResponseStatus.class),
+                      @ApiResponse(code = 404, message = "A JDBC data source with that id does not exist.", response = RestResponseStatus.class),
+                      @ApiResponse(code = 500, message = "NiFi or the database are unavailable.", response = RestResponseStatus.class)
+                  })
+    public Response describeTables(@PathParam("id") final String idStr, @QueryParam("schema") final String schema, @QueryParam("table") final List<String> tableNames) {
+        // Verify user has access to data source
+        final Optional<com.thinkbiganalytics.metadata.api.datasource.Datasource.ID> id = metadata.read(() -> {
+            accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_DATASOURCES);
+
+            final com.thinkbiganalytics.metadata.api.datasource.Datasource datasource = datasetProvider.getDatasource(datasetProvider.resolve(idStr));
+            return Optional.ofNullable(datasource).map(com.thinkbiganalytics.metadata.api.datasource.Datasource::getId);
+        });
+
+        // Retrieve table descriptions using system user
+        return metadata.read(() -> {
+            final Map<String, TableSchema> tableSchemas = id.map(datasetProvider::getDatasource)
+                .map(ds -> datasourceTransform.toDatasource(ds, DatasourceModelTransform.Level.ADMIN))
+                .filter(JdbcDatasource.class::isInstance)
+                .map(JdbcDatasource.class::cast)
+                .map(datasource -> dbcpConnectionPoolTableInfo.describeTablesForDatasource(datasource, schema, tableNames))
+                .orElseThrow(() -> new NotFoundException("No JDBC datasource exists with the given ID: " + idStr));
+            return Response.ok(tableSchemas).build();
+        }, MetadataAccess.SERVICE);
+    }
+
     @GET
     @Path("{id}/actions/available")
     @Produces(MediaType.APPLICATION_JSON)
@@ -29,6 +29,8 @@ import com.thinkbiganalytics.feedmgr.rest.model.UserProperty;
 import com.thinkbiganalytics.feedmgr.service.AccessControlledEntityTransform;
 import com.thinkbiganalytics.feedmgr.service.MetadataService;
 import com.thinkbiganalytics.feedmgr.service.security.SecurityService;
+import com.thinkbiganalytics.jobrepo.query.model.SearchResult;
+import com.thinkbiganalytics.jobrepo.query.model.transform.ModelUtils;
 import com.thinkbiganalytics.rest.model.RestResponseStatus;
 import com.thinkbiganalytics.rest.model.beanvalidation.UUID;
 import com.thinkbiganalytics.security.rest.controller.SecurityModelTransform;
@@ -42,6 +44,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
 import java.security.Principal;
@@ -55,6 +60,7 @@ import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
+import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
@@ -87,6 +93,7 @@ import io.swagger.annotations.Tag;
 public class FeedCategoryRestController {
     
     private static final Logger log = LoggerFactory.getLogger(FeedCategoryRestController.class);
+    private static final int MAX_LIMIT = 1000;
 
     public static final String BASE = "/v1/feedmgr/categories";
 
@@ -159,6 +166,27 @@ public class FeedCategoryRestController {
         return Response.ok(summaryList).build();
     }
 
+    @GET
+    @Path("/{categoryId}/feeds/summaries")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Gets a page of the feeds for the specified category.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the feeds.", response = SearchResult.class),
+                      @ApiResponse(code = 400, message = "The categoryId or sort is invalid.", response = RestResponseStatus.class)
+                  })
+    public SearchResult getCategoryFeedSummaries(@UUID @PathParam("categoryId") String categoryId,
+                                                 @QueryParam("sort") @DefaultValue("") String sort,
+                                                 @QueryParam("limit") @DefaultValue("10") Integer limit,
+                                                 @QueryParam("start") @DefaultValue("0") Integer start,
+                                                 @QueryParam("filter") String filter) {
+        try {
+            Page<FeedSummary> page = getMetadataService().getFeedSummaryForCategory(categoryId, pageRequest(start, limit, sort), filter);
+            return ModelUtils.toSearchResult(page);
+        } catch (IllegalArgumentException e) {
+            throw new ClientErrorException(e.getMessage(), Response.Status.BAD_REQUEST, e);
+        }
+    }
+
     /**
      * Returns the user fields for categories.
      *
@@ -325,4 +353,21 @@ public class FeedCategoryRestController {
                                                                        + changes.getRoleName() + "\"", Status.NOT_FOUND));
     }
 
+    private PageRequest pageRequest(Integer start, Integer limit, String sort) {
+        if (limit > MAX_LIMIT) {
+            limit = MAX_LIMIT;
+        } else if (limit < 1) {
+            limit = 1;
+        }
+        if (StringUtils.isNotBlank(sort)) {
+            Sort.Direction dir = Sort.Direction.ASC;
+            if (sort.startsWith("-")) {
+                dir = Sort.Direction.DESC;
+                sort = sort.substring(1);
+            }
+            return new PageRequest((start / limit), limit, dir, sort);
+        } else {
+            return new PageRequest((start / limit), limit);
+        }
+    }
 }
@@ -43,6 +43,8 @@ import com.thinkbiganalytics.feedmgr.service.template.RegisteredTemplateService;
 import com.thinkbiganalytics.feedmgr.sla.ServiceLevelAgreementService;
 import com.thinkbiganalytics.hive.service.HiveService;
 import com.thinkbiganalytics.hive.util.HiveUtils;
+import com.thinkbiganalytics.jobrepo.query.model.SearchResult;
+import com.thinkbiganalytics.jobrepo.query.model.transform.ModelUtils;
 import com.thinkbiganalytics.metadata.FeedPropertySection;
 import com.thinkbiganalytics.metadata.FeedPropertyType;
 import com.thinkbiganalytics.metadata.rest.model.data.DatasourceDefinition;
@@ -73,6 +75,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
@@ -135,6 +140,7 @@ public class FeedRestController {
     private static final ResourceBundle STRINGS = ResourceBundle.getBundle("com.thinkbiganalytics.feedmgr.rest.controller.FeedMessages");
     private static final int MAX_LIMIT = 1000;
     private static final String NAMES = "/names";
+    private static final String SUMMARIES = "/summaries";
 
     @Autowired
     @Qualifier("nifiRestClient")
@@ -335,6 +341,26 @@ public class FeedRestController {
         return Response.ok(feeds).build();
     }
 
+    @GET
+    @Path(SUMMARIES)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Gets a page of feed summaries.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the feeds.", response = SearchResult.class),
+                      @ApiResponse(code = 400, message = "The sort contains an invalid value.", response = RestResponseStatus.class)
+                  })
+    public SearchResult getFeedSummaries(@QueryParam("sort") @DefaultValue("") String sort,
+                                         @QueryParam("limit") @DefaultValue("10") Integer limit,
+                                         @QueryParam("start") @DefaultValue("0") Integer start,
+                                         @QueryParam("filter") String filter) {
+        try {
+            Page<FeedSummary> page = getMetadataService().getFeedSummaryData(pageRequest(start, limit, sort), filter);
+            return ModelUtils.toSearchResult(page);
+        } catch (IllegalArgumentException e) {
+            throw new ClientErrorException(e.getMessage(), Response.Status.BAD_REQUEST, e);
+        }
+    }
+
     @GET
     @Path("/{feedId}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -821,5 +847,23 @@ public class FeedRestController {
         }
         return Response.ok("").build();
     }
+
+    private PageRequest pageRequest(Integer start, Integer limit, String sort) {
+        if (limit > MAX_LIMIT) {
+            limit = MAX_LIMIT;
+        } else if (limit < 1) {
+            limit = 1;
+        }
+        if (StringUtils.isNotBlank(sort)) {
+            Sort.Direction dir = Sort.Direction.ASC;
+            if (sort.startsWith("-")) {
+                dir = Sort.Direction.DESC;
+                sort = sort.substring(1);
+            }
+            return new PageRequest((start / limit), limit, dir, sort);
+        } else {
+            return new PageRequest((start / limit), limit);
+        }
+    }
 }
 
@@ -30,6 +30,8 @@ import com.thinkbiganalytics.feedmgr.sla.ServiceLevelAgreementModelTransform;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.datasource.Datasource;
 import com.thinkbiganalytics.metadata.api.datasource.DatasourceProvider;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.feed.WaterMarkChangeEvent;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
 import com.thinkbiganalytics.metadata.api.op.FeedDependencyDeltaResults;
 import com.thinkbiganalytics.metadata.api.op.FeedOperationsProvider;
@@ -138,6 +140,9 @@ public class FeedsController {
     @Inject
     private DatasourceModelTransform datasourceTransform;
 
+    @Inject
+    private MetadataEventService eventService;
+
 
     @GET
     @Path("{id}/actions/available")
@@ -365,18 +370,54 @@ public class FeedsController {
                                  String value) {
         LOG.debug("Get feed watermark {}: {}", feedIdStr, waterMarkName);
 
-        this.metadata.commit(() -> {
+        com.thinkbiganalytics.metadata.api.feed.Feed.ID feedId = this.metadata.commit(() -> {
             this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_FEEDS);
 
-            com.thinkbiganalytics.metadata.api.feed.Feed.ID feedId = feedProvider.resolveFeed(feedIdStr);
-            com.thinkbiganalytics.metadata.api.feed.Feed feed = feedProvider.getFeed(feedId);
+            com.thinkbiganalytics.metadata.api.feed.Feed.ID id = feedProvider.resolveFeed(feedIdStr);
+            com.thinkbiganalytics.metadata.api.feed.Feed feed = feedProvider.getFeed(id);
 
             if (feed != null) {
                 feed.setWaterMarkValue(waterMarkName, value);
+                return id;
             } else {
-                throw new WebApplicationException("A feed with the given ID does not exist: " + feedId, Status.NOT_FOUND);
+                throw new WebApplicationException("A feed with the given ID does not exist: " + id, Status.NOT_FOUND);
             }
         });
+
+        eventService.notify(new WaterMarkChangeEvent(feedId, Collections.singletonMap(waterMarkName, value)));
+    }
+
+    @PUT
+    @Path("watermarks")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @ApiOperation("Sets the values of the HighWaterMarks of several feeds in a single transaction.")
+    @ApiResponses({
+                      @ApiResponse(code = 204, message = "The HighWaterMark values have been changed."),
+                      @ApiResponse(code = 404, message = "A feed could not be found.", response = RestResponseStatus.class),
+                      @ApiResponse(code = 500, message = "The HighWaterMark values could not be changed.", response = RestResponseStatus.class)
+                  })
+    public void putHighWaterMarks(Map<String, Map<String, String>> values) {
+        LOG.debug("Put feed watermarks for {} feeds", values.size());
+
+        Map<com.thinkbiganalytics.metadata.api.feed.Feed.ID, Map<String, String>> changes = this.metadata.commit(() -> {
+            this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_FEEDS);
+
+            Map<com.thinkbiganalytics.metadata.api.feed.Feed.ID, Map<String, String>> changed = new HashMap<>();
+            for (Map.Entry<String, Map<String, String>> entry : values.entrySet()) {
+                com.thinkbiganalytics.metadata.api.feed.Feed.ID feedId = feedProvider.resolveFeed(entry.getKey());
+                com.thinkbiganalytics.metadata.api.feed.Feed feed = feedProvider.getFeed(feedId);
+
+                if (feed != null) {
+                    entry.getValue().forEach(feed::setWaterMarkValue);
+                    changed.put(feedId, entry.getValue());
+                } else {
+                    throw new WebApplicationException("A feed with the given ID does not exist: " + feedId, Status.NOT_FOUND);
+                }
+            }
+            return changed;
+        });
+
+        changes.forEach((feedId, waterMarks) -> eventService.notify(new WaterMarkChangeEvent(feedId, waterMarks)));
     }
 
     @DELETE
@@ -392,18 +433,21 @@ public class FeedsController {
                                     @PathParam("name") String waterMarkName) {
         LOG.debug("Get feed watermark {}: {}", feedIdStr, waterMarkName);
 
-        this.metadata.commit(() -> {
+        com.thinkbiganalytics.metadata.api.feed.Feed.ID feedId = this.metadata.commit(() -> {
             this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_FEEDS);
 
-            com.thinkbiganalytics.metadata.api.feed.Feed.ID feedId = feedProvider.resolveFeed(feedIdStr);
-            com.thinkbiganalytics.metadata.api.feed.Feed feed = feedProvider.getFeed(feedId);
+            com.thinkbiganalytics.metadata.api.feed.Feed.ID id = feedProvider.resolveFeed(feedIdStr);
+            com.thinkbiganalytics.metadata.api.feed.Feed feed = feedProvider.getFeed(id);
 
             if (feed != null) {
                 feed.setWaterMarkValue(waterMarkName, null);
+                return id;
             } else {
-                throw new WebApplicationException("A feed with the given ID does not exist: " + feedId, Status.NOT_FOUND);
+                throw new WebApplicationException("A feed with the given ID does not exist: " + id, Status.NOT_FOUND);
             }
         });
+
+        eventService.notify(new WaterMarkChangeEvent(feedId, Collections.singletonMap(waterMarkName, null)));
     }
 
     @GET
@@ -29,6 +29,7 @@ import com.thinkbiganalytics.feedmgr.nifi.PropertyExpressionResolver;
 import com.thinkbiganalytics.feedmgr.nifi.SpringEnvironmentProperties;
 import com.thinkbiganalytics.feedmgr.service.template.FeedManagerTemplateService;
 import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
+import com.thinkbiganalytics.nifi.rest.client.NiFiComponentIndex;
 import com.thinkbiganalytics.nifi.rest.client.NiFiRestClient;
 import com.thinkbiganalytics.nifi.rest.client.layout.AlignNiFiComponents;
 import com.thinkbiganalytics.nifi.rest.client.layout.AlignProcessGroupComponents;
@@ -36,6 +37,7 @@ import com.thinkbiganalytics.nifi.rest.model.NiFiClusterSummary;
 import com.thinkbiganalytics.nifi.rest.model.NiFiPropertyDescriptorTransform;
 import com.thinkbiganalytics.nifi.rest.model.flow.NifiFlowDeserializer;
 import com.thinkbiganalytics.nifi.rest.model.flow.NifiFlowProcessGroup;
+import com.thinkbiganalytics.rest.JerseyRestClient;
 import com.thinkbiganalytics.rest.model.RestResponseStatus;
 
 import org.apache.commons.lang3.StringUtils;
@@ -53,6 +55,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -404,4 +407,54 @@ public class NifiIntegrationRestController {
     }
 
 
+    /**
+     * Gets the latency of the requests made to NiFi by this kylo-services node.
+     *
+     * @return the latency percentiles per endpoint
+     */
+    @GET
+    @Path("/client/latency")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Gets the latency of the requests made to NiFi, per endpoint.")
+    @ApiResponses(
+        @ApiResponse(code = 200, message = "Returns the request count and latency percentiles in milliseconds for each endpoint.", response = Map.class)
+    )
+    public Response getClientLatency() {
+        final Map<String, Map<String, Object>> latency = new TreeMap<>();
+        if (nifiRestClient instanceof JerseyRestClient) {
+            ((JerseyRestClient) nifiRestClient).getLatencyHistograms().forEach((endpoint, histogram) -> latency.put(endpoint, ImmutableMap.<String, Object>builder()
+                .put("count", histogram.getCount())
+                .put("mean", histogram.getMeanMillis())
+                .put("p50", histogram.getPercentileMillis(50))
+                .put("p95", histogram.getPercentileMillis(95))
+                .put("p99", histogram.getPercentileMillis(99))
+                .put("max", histogram.getMaxMillis())
+                .build()));
+        }
+        return Response.ok(latency).build();
+    }
+
+    /**
+     * Gets the statistics of the index used to find NiFi components without their process group.
+     *
+     * @return the number of indexed components and the number of lookups that found or did not find a component
+     */
+    @GET
+    @Path("/client/component-index")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Gets the statistics of the NiFi component index.")
+    @ApiResponses(
+        @ApiResponse(code = 200, message = "Returns the number of indexed components, hits and misses.", response = Map.class)
+    )
+    public Response getComponentIndexStatistics() {
+        final NiFiComponentIndex index = legacyNifiRestClient.getComponentIndex();
+        final Map<String, Object> statistics = ImmutableMap.<String, Object>builder()
+            .put("size", index.size())
+            .put("hits", index.getHitCount())
+            .put("misses", index.getMissCount())
+            .build();
+        return Response.ok(statistics).build();
+    }
+
+
 }
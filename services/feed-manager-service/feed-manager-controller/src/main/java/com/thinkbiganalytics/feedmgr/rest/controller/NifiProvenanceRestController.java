@@ -78,6 +78,18 @@ public class NifiProvenanceRestController {
         return Response.ok(updates).build();
     }
 
+    @GET
+    @Path("/nifi-flow-cache/get-flow-changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Gets only the flow changes made after the given change log version.")
+    @ApiResponses(
+        @ApiResponse(code = 200, message = "Returns the flow changes and the latest version.", response = NiFiFlowCacheSync.class)
+    )
+    public Response getFlowChanges(@QueryParam("version") Long version) {
+        NiFiFlowCacheSync changes = nifiFlowCache.getChangesSince(version);
+        return Response.ok(changes).build();
+    }
+
     @GET
     @Path("/nifi-flow-cache/get-cache")
     @Produces(MediaType.APPLICATION_JSON)
@@ -56,6 +56,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.Collection;
 import java.util.List;
@@ -298,11 +300,21 @@ public class FeedManagerMetadataService implements MetadataService {
         return feedProvider.getFeedSummaryData();
     }
 
+    @Override
+    public Page<FeedSummary> getFeedSummaryData(Pageable pageable, String filter) {
+        return feedProvider.getFeedSummaryData(pageable, filter);
+    }
+
     @Override
     public List<FeedSummary> getFeedSummaryForCategory(String categoryId) {
         return feedProvider.getFeedSummaryForCategory(categoryId);
     }
 
+    @Override
+    public Page<FeedSummary> getFeedSummaryForCategory(String categoryId, Pageable pageable, String filter) {
+        return feedProvider.getFeedSummaryForCategory(categoryId, pageable, filter);
+    }
+
     @Override
     public FeedMetadata getFeedByName(String categoryName, String feedName) {
         return feedProvider.getFeedByName(categoryName, feedName);
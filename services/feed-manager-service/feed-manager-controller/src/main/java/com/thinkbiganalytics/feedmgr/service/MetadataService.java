@@ -33,6 +33,8 @@ import com.thinkbiganalytics.nifi.rest.client.NifiClientRuntimeException;
 import com.thinkbiganalytics.nifi.rest.model.NifiProperty;
 import com.thinkbiganalytics.security.action.Action;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.security.AccessControlException;
@@ -146,6 +148,15 @@ public interface MetadataService {
      */
     List<FeedSummary> getFeedSummaryData();
 
+    /**
+     * Return a page of feeds, filtered and sorted by the feed summary properties
+     *
+     * @param pageable the page and sort order
+     * @param filter   text to match against the feed and category names, or {@code null} for all feeds
+     * @return a page of feeds
+     */
+    Page<FeedSummary> getFeedSummaryData(Pageable pageable, String filter);
+
     /**
      * Return a list of feeds in a given category
      *
@@ -154,6 +165,16 @@ public interface MetadataService {
      */
     List<FeedSummary> getFeedSummaryForCategory(String categoryId);
 
+    /**
+     * Return a page of feeds in a given category, filtered and sorted by the feed summary properties
+     *
+     * @param categoryId the category to look at
+     * @param pageable   the page and sort order
+     * @param filter     text to match against the feed names, or {@code null} for all feeds in the category
+     * @return a page of feeds in the category
+     */
+    Page<FeedSummary> getFeedSummaryForCategory(String categoryId, Pageable pageable, String filter);
+
     /**
      * Return a feed matching on its system category name and  system feed name
      *
@@ -51,6 +51,15 @@ public class UploadProgressService {
         //uploadProgress.invalidate(key);
     }
 
+    /**
+     * Immediately removes the status of an upload that is not polled by the user interface.
+     *
+     * @param key the upload key
+     */
+    public void discardUpload(String key) {
+        uploadProgress.invalidate(key);
+    }
+
 
     public UploadProgressMessage addUploadStatus(String uploadKey, String message) {
         return addUploadStatus(uploadKey, message, false, false);
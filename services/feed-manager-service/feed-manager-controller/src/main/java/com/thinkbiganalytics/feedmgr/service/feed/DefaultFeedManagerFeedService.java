@@ -95,6 +95,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.Serializable;
@@ -188,6 +191,9 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
     @Value("${nifi.remove.inactive.versioned.feeds:true}")
     private boolean removeInactiveNifiVersionedFeedFlows;
 
+    @Value("${nifi.feeds.update.in.place:false}")
+    private boolean updateNifiFeedFlowsInPlace;
+
     /**
      * Adds listeners for transferring events.
      */
@@ -309,23 +315,28 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
 
     }
 
+    @Override
+    public Page<FeedSummary> getFeedSummaryData(Pageable pageable, String filter) {
+        return metadataAccess.read(() -> {
+            this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_FEEDS);
+
+            return feedProvider.findPage(null, filter, pageable).map(feedModelTransform::domainToFeedSummary);
+        });
+    }
+
     @Override
     public List<FeedSummary> getFeedSummaryForCategory(final String categoryId) {
+        return getFeedSummaryForCategory(categoryId, new PageRequest(0, Integer.MAX_VALUE), null).getContent();
+    }
+
+    @Override
+    public Page<FeedSummary> getFeedSummaryForCategory(final String categoryId, final Pageable pageable, final String filter) {
         return metadataAccess.read(() -> {
             this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_FEEDS);
 
-            List<FeedSummary> summaryList = new ArrayList<>();
             Category.ID categoryDomainId = categoryProvider.resolveId(categoryId);
-            List<? extends Feed> domainFeeds = feedProvider.findByCategoryId(categoryDomainId);
-            if (domainFeeds != null && !domainFeeds.isEmpty()) {
-                List<FeedMetadata> feeds = feedModelTransform.domainToFeedMetadata(domainFeeds);
-                for (FeedMetadata feed : feeds) {
-                    summaryList.add(new FeedSummary(feed));
-                }
-            }
-            return summaryList;
+            return feedProvider.findPage(categoryDomainId, filter, pageable).map(feedModelTransform::domainToFeedSummary);
         });
-
     }
 
     @Override
@@ -497,7 +508,7 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
         CreateFeedBuilder
             feedBuilder =
             CreateFeedBuilder.newFeed(nifiRestClient, nifiFlowCache, feedMetadata, registeredTemplate.getNifiTemplateId(), propertyExpressionResolver, propertyDescriptorTransform).enabled(enabled)
-                .removeInactiveVersionedProcessGroup(removeInactiveNifiVersionedFeedFlows);
+                .removeInactiveVersionedProcessGroup(removeInactiveNifiVersionedFeedFlows).updateInPlace(updateNifiFeedFlowsInPlace);
 
         if (registeredTemplate.isReusableTemplate()) {
             feedBuilder.setReusableTemplate(true);
@@ -67,17 +67,34 @@ import com.thinkbiganalytics.support.FeedNameUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -124,6 +141,17 @@ public class ExportImportFeedService {
     @Inject
     private RegisteredTemplateService registeredTemplateService;
 
+    /**
+     * The maximum number of feeds imported at the same time by {@link #importFeeds(String, InputStream, ImportFeedOptions)}
+     */
+    @Value("${kylo.feed.import.bulk.concurrency:4}")
+    private int bulkImportConcurrency = 4;
+
+    /**
+     * Feeds imported concurrently may share the same template, so only one feed registers its template at a time
+     */
+    private final Lock templateImportLock = new ReentrantLock();
+
     //Export
 
     /**
@@ -133,9 +161,85 @@ public class ExportImportFeedService {
      * @return object containing the zip file with data about the feed.
      */
     public ExportFeed exportFeed(String feedId) throws IOException {
+        final FeedExport export = prepareFeedExport(feedId);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            export.writeEntries(zos);
+        }
+        return new ExportFeed(export.getFileName(), baos.toByteArray());
+    }
+
+    /**
+     * Export a feed as a zip file written directly to the given stream
+     *
+     * @param feedId the id {@link Feed#getId()} of the feed to export
+     * @param out    the stream to write the zip file to.  The stream is not closed.
+     */
+    public void exportFeed(String feedId, OutputStream out) throws IOException {
+        final FeedExport export = prepareFeedExport(feedId);
+        final ZipOutputStream zos = new ZipOutputStream(out);
+        export.writeEntries(zos);
+        zos.finish();
+    }
+
+    /**
+     * Prepare the export of many feeds as a single zip file containing the zip file of each feed.
+     * The permissions are checked immediately, so a streamed response can fail before it is committed.  The feeds are fetched and written one at a
+     * time when the export is written, so only a single feed is held in memory.
+     *
+     * @param feedIds the ids {@link Feed#getId()} of the feeds to export
+     * @return the export, writing the zip file to a stream without closing it
+     */
+    public FeedsExport prepareFeedsExport(List<String> feedIds) {
+        checkExportFeedsPermission(feedIds);
+        return out -> writeFeedsExport(feedIds, out);
+    }
+
+    private void writeFeedsExport(List<String> feedIds, OutputStream out) throws IOException {
+        final ZipOutputStream archive = new ZipOutputStream(out);
+        final Set<String> fileNames = new HashSet<>();
+        for (String feedId : feedIds) {
+            final FeedExport export = createFeedExport(feedId);
+            if (fileNames.add(export.getFileName())) {
+                archive.putNextEntry(new ZipEntry(export.getFileName()));
+                //the nested zip must be finished, not closed, so the archive stream stays open
+                final ZipOutputStream zos = new ZipOutputStream(archive);
+                export.writeEntries(zos);
+                zos.finish();
+                archive.closeEntry();
+            }
+        }
+        archive.finish();
+    }
+
+    /**
+     * Ensure the current user may export each of the feeds
+     *
+     * @param feedIds the ids {@link Feed#getId()} of the feeds to export
+     */
+    private void checkExportFeedsPermission(List<String> feedIds) {
+        this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.EXPORT_FEEDS);
+        for (String feedId : feedIds) {
+            this.metadataService.checkFeedPermission(feedId, FeedAccessControl.EXPORT);
+        }
+    }
+
+    /**
+     * Fetch the feed data to export without building the zip file, so it can be written directly to an output stream
+     *
+     * @param feedId the id {@link Feed#getId()} of the feed to export
+     * @return the feed export
+     */
+    public FeedExport prepareFeedExport(String feedId) {
         this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.EXPORT_FEEDS);
         this.metadataService.checkFeedPermission(feedId, FeedAccessControl.EXPORT);
+        return createFeedExport(feedId);
+    }
 
+    /**
+     * Fetch the feed data to export.  The caller must have checked the export permissions.
+     */
+    private FeedExport createFeedExport(String feedId) {
         // Prepare feed metadata
         final FeedMetadata feed = metadataService.getFeedById(feedId);
 
@@ -163,11 +267,8 @@ public class ExportImportFeedService {
         }
 
         // Add feed json to template zip file
-        final ExportImportTemplateService.ExportTemplate exportTemplate = exportImportTemplateService.exportTemplate(feed.getTemplateId());
-        final String feedJson = ObjectMapperSerializer.serialize(feed);
-
-        final byte[] zipFile = ZipFileUtil.addToZip(exportTemplate.getFile(), feedJson, FEED_JSON_FILE);
-        return new ExportFeed(feed.getSystemFeedName() + ".feed.zip", zipFile);
+        final ExportImportTemplateService.TemplateExport templateExport = exportImportTemplateService.prepareTemplateExport(feed.getTemplateId());
+        return new FeedExport(feed.getSystemFeedName() + ".feed.zip", templateExport, feed);
     }
 
     //Validate
@@ -428,7 +529,13 @@ public class ExportImportFeedService {
             importTemplate.setImportOptions(importTemplateOptions);
             importTemplateOptions.setUploadKey(importOptions.getUploadKey());
             importTemplate.setValid(true);
-            ExportImportTemplateService.ImportTemplate template = exportImportTemplateService.importZip(importTemplate);
+            ExportImportTemplateService.ImportTemplate template;
+            templateImportLock.lock();
+            try {
+                template = exportImportTemplateService.importZip(importTemplate);
+            } finally {
+                templateImportLock.unlock();
+            }
             if (template.isSuccess()) {
                 //import the feed
                 feed.setTemplate(template);
@@ -507,6 +614,106 @@ public class ExportImportFeedService {
         return feed;
     }
 
+    /**
+     * Import an archive containing many feed zip files.
+     *
+     * The archive is read as a stream and each feed is imported as soon as it is read, with at most {@code kylo.feed.import.bulk.concurrency} feeds
+     * being imported, and held in memory, at the same time.  Each feed reports its progress under its own upload key, {@code <uploadKey>_<n>},
+     * while the overall progress is reported under the upload key of the options.  The upload keys of the feeds are removed once the batch finishes.
+     *
+     * @param fileName      the name of the archive
+     * @param archive       the archive content
+     * @param importOptions user options about what/how each feed should be imported
+     * @return the result of importing each feed
+     */
+    public List<ImportFeed> importFeeds(String fileName, InputStream archive, ImportFeedOptions importOptions) throws IOException {
+        this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.IMPORT_FEEDS);
+        final String uploadKey = importOptions.getUploadKey();
+        final UploadProgressMessage statusMessage = uploadProgressService.addUploadStatus(uploadKey, "Importing feeds from " + fileName);
+        final String optionsJson = ObjectMapperSerializer.serialize(importOptions);
+
+        final int concurrency = Math.max(bulkImportConcurrency, 1);
+        final Semaphore permits = new Semaphore(concurrency);
+        final ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(concurrency));
+        final Map<String, Future<ImportFeed>> imports = new LinkedHashMap<>();
+        final AtomicInteger submitted = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        final List<String> feedUploadKeys = new ArrayList<>();
+
+        try {
+            final ZipInputStream zis = new ZipInputStream(archive);
+            ZipEntry zipEntry;
+            while ((zipEntry = zis.getNextEntry()) != null) {
+                if (zipEntry.isDirectory() || !zipEntry.getName().endsWith(".zip")) {
+                    continue;
+                }
+                final String feedFileName = StringUtils.substringAfterLast("/" + zipEntry.getName(), "/");
+
+                //wait for a free slot before reading the next feed so only the feeds being imported are held in memory
+                permits.acquireUninterruptibly();
+                final byte[] content;
+                try {
+                    content = ImportUtil.streamToByteArray(zis);
+                } catch (IOException | RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+
+                final ImportFeedOptions feedOptions = ObjectMapperSerializer.deserialize(optionsJson, ImportFeedOptions.class);
+                feedOptions.setUploadKey(uploadProgressService.newUpload(uploadKey + "_" + submitted.getAndIncrement()));
+                feedUploadKeys.add(feedOptions.getUploadKey());
+                imports.put(feedFileName, executor.submit(() -> {
+                    try {
+                        return importFeed(feedFileName, content, feedOptions);
+                    } finally {
+                        permits.release();
+                        updateBulkImportStatus(statusMessage, completed.incrementAndGet(), submitted.get());
+                    }
+                }));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        final List<ImportFeed> feeds = new ArrayList<>(imports.size());
+        try {
+            for (Map.Entry<String, Future<ImportFeed>> entry : imports.entrySet()) {
+                try {
+                    feeds.add(entry.getValue().get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ImportFeedException("Interrupted while importing the feeds in " + fileName);
+                } catch (ExecutionException e) {
+                    log.error("Unable to import the feed {} from {}", entry.getKey(), fileName, e.getCause());
+                    ImportFeed failed = new ImportFeed(entry.getKey());
+                    failed.setValid(false);
+                    failed.setSuccess(false);
+                    failed.addErrorMessage(null, "Unable to import the feed " + entry.getKey() + ". " + e.getCause().getMessage());
+                    feeds.add(failed);
+                }
+            }
+        } finally {
+            feedUploadKeys.forEach(uploadProgressService::discardUpload);
+        }
+
+        long successCount = feeds.stream().filter(ImportFeed::isSuccess).count();
+        if (statusMessage != null) {
+            statusMessage.update("Imported " + successCount + " of " + feeds.size() + " feeds from " + fileName, successCount == feeds.size());
+        }
+        UploadProgress progress = uploadProgressService.getUploadStatus(uploadKey);
+        if (progress != null) {
+            progress.setPercentComplete(100);
+            progress.setComplete(true);
+        }
+        return feeds;
+    }
+
+    private void updateBulkImportStatus(UploadProgressMessage statusMessage, int completed, int submitted) {
+        if (statusMessage != null) {
+            statusMessage.update("Imported " + completed + " of " + submitted + " feeds read so far");
+        }
+    }
+
     //Utility
 
     private void completeSection(ImportOptions options, ImportSection.Section section) {
@@ -535,6 +742,52 @@ public class ExportImportFeedService {
 
     //Internal classes
 
+    /**
+     * The export of many feeds, written on demand
+     */
+    @FunctionalInterface
+    public interface FeedsExport {
+
+        /**
+         * Writes the zip file of the feeds
+         *
+         * @param out the stream to write the zip file to.  The stream is not closed.
+         */
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * The data of a feed to export, written as zip entries on demand
+     */
+    public static class FeedExport {
+
+        private final String fileName;
+        private final ExportImportTemplateService.TemplateExport templateExport;
+        private final FeedMetadata feed;
+
+        public FeedExport(String fileName, ExportImportTemplateService.TemplateExport templateExport, FeedMetadata feed) {
+            this.fileName = fileName;
+            this.templateExport = templateExport;
+            this.feed = feed;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * Write the template entries and the feed json as entries of the zip stream
+         *
+         * @param zos the zip stream to write to
+         */
+        public void writeEntries(ZipOutputStream zos) throws IOException {
+            templateExport.writeEntries(zos);
+            zos.putNextEntry(new ZipEntry(FEED_JSON_FILE));
+            ObjectMapperSerializer.serialize(feed, zos);
+            zos.closeEntry();
+        }
+    }
+
     public class ExportFeed {
 
         private String fileName;
@@ -30,6 +30,9 @@ import com.thinkbiganalytics.metadata.api.feed.Feed;
 import com.thinkbiganalytics.policy.rest.model.FieldRuleProperty;
 import com.thinkbiganalytics.security.action.Action;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import java.io.Serializable;
 import java.security.AccessControlException;
 import java.util.Collection;
@@ -101,6 +104,15 @@ public interface FeedManagerFeedService {
      */
     List<FeedSummary> getFeedSummaryData();
 
+    /**
+     * Return a page of feeds, filtered and sorted by the feed summary properties
+     *
+     * @param pageable the page and sort order
+     * @param filter   text to match against the feed and category names, or {@code null} for all feeds
+     * @return a page of feeds
+     */
+    Page<FeedSummary> getFeedSummaryData(Pageable pageable, String filter);
+
     /**
      * Return a list of feeds in a given category
      *
@@ -109,6 +121,16 @@ public interface FeedManagerFeedService {
      */
     List<FeedSummary> getFeedSummaryForCategory(String categoryId);
 
+    /**
+     * Return a page of feeds in a given category, filtered and sorted by the feed summary properties
+     *
+     * @param categoryId the category to look at
+     * @param pageable   the page and sort order
+     * @param filter     text to match against the feed names, or {@code null} for all feeds in the category
+     * @return a page of feeds in the category
+     */
+    Page<FeedSummary> getFeedSummaryForCategory(String categoryId, Pageable pageable, String filter);
+
     /**
      * Find all the feeds assigned to a given template
      *
@@ -40,6 +40,11 @@ import com.thinkbiganalytics.policy.rest.model.FieldRuleProperty;
 import com.thinkbiganalytics.rest.model.LabelValue;
 import com.thinkbiganalytics.security.action.Action;
 
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -50,6 +55,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
@@ -121,6 +127,16 @@ public class InMemoryFeedManagerFeedService implements FeedManagerFeedService {
     }
 
 
+    public Page<FeedSummary> getFeedSummaryData(Pageable pageable, String filter) {
+        // Sorting is not supported by the in-memory service
+        final String match = StringUtils.lowerCase(filter);
+        final List<FeedSummary> summaryList = getFeedSummaryData().stream()
+            .filter(feed -> match == null || StringUtils.contains(StringUtils.lowerCase(feed.getFeedName()), match) || StringUtils.contains(StringUtils.lowerCase(feed.getCategoryName()), match))
+            .collect(Collectors.toList());
+        final List<FeedSummary> content = summaryList.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, summaryList.size());
+    }
+
     public List<FeedSummary> getFeedSummaryForCategory(String categoryId) {
         List<FeedSummary> summaryList = new ArrayList<>();
         FeedCategory category = categoryProvider.getCategoryById(categoryId);
@@ -130,6 +146,16 @@ public class InMemoryFeedManagerFeedService implements FeedManagerFeedService {
         return summaryList;
     }
 
+    public Page<FeedSummary> getFeedSummaryForCategory(String categoryId, Pageable pageable, String filter) {
+        // Sorting is not supported by the in-memory service
+        final String match = StringUtils.lowerCase(filter);
+        final List<FeedSummary> summaryList = getFeedSummaryForCategory(categoryId).stream()
+            .filter(feed -> match == null || StringUtils.contains(StringUtils.lowerCase(feed.getFeedName()), match))
+            .collect(Collectors.toList());
+        final List<FeedSummary> content = summaryList.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, summaryList.size());
+    }
+
 
     @Override
     public FeedMetadata getFeedByName(final String categoryName, final String feedName) {
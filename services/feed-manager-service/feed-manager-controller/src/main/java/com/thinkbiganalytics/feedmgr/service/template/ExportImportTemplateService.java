@@ -75,6 +75,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -130,6 +131,23 @@ public class ExportImportTemplateService {
     //Export Methods
 
     public ExportTemplate exportTemplate(String templateId) {
+        TemplateExport export = prepareTemplateExport(templateId);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            export.writeEntries(zos);
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+        return new ExportTemplate(export.getFileName(), baos.toByteArray());
+    }
+
+    /**
+     * Fetch the template data to export without building the zip file, so it can be written directly to an output stream
+     *
+     * @param templateId the registered template id or NiFi template id
+     * @return the template export
+     */
+    public TemplateExport prepareTemplateExport(String templateId) {
         this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.EXPORT_TEMPLATES);
 
         RegisteredTemplate
@@ -174,43 +192,13 @@ public class ExportImportTemplateService {
                 throw new UnsupportedOperationException("Unable to find Nifi Template for " + templateId);
             }
 
-            //create a zip file with the template and xml
-            byte[] zipFile = zip(template, templateXml, connectingReusableTemplates);
-
-            return new ExportTemplate(SystemNamingService.generateSystemName(template.getTemplateName()) + ".template.zip", zipFile);
+            return new TemplateExport(SystemNamingService.generateSystemName(template.getTemplateName()) + ".template.zip", template, templateXml, connectingReusableTemplates);
 
         } else {
             throw new UnsupportedOperationException("Unable to find Template for " + templateId);
         }
     }
 
-    private byte[] zip(RegisteredTemplate template, String nifiTemplateXml, List<String> reusableTemplateXmls) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-
-            ZipEntry entry = new ZipEntry(NIFI_TEMPLATE_XML_FILE);
-            zos.putNextEntry(entry);
-            zos.write(nifiTemplateXml.getBytes());
-            zos.closeEntry();
-            int reusableTemplateNumber = 0;
-            for (String reusableTemplateXml : reusableTemplateXmls) {
-                entry = new ZipEntry(String.format("%s_%s.xml", NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE, reusableTemplateNumber++));
-                zos.putNextEntry(entry);
-                zos.write(reusableTemplateXml.getBytes());
-                zos.closeEntry();
-            }
-            entry = new ZipEntry(TEMPLATE_JSON_FILE);
-            zos.putNextEntry(entry);
-            String json = ObjectMapperSerializer.serialize(template);
-            zos.write(json.getBytes());
-            zos.closeEntry();
-
-        } catch (IOException ioe) {
-            throw new RuntimeException(ioe);
-        }
-        return baos.toByteArray();
-    }
-
     //Validation Methods
 
 
@@ -1165,6 +1153,51 @@ public class ExportImportTemplateService {
         }
     }
 
+    /**
+     * The data of a template export that is written as entries of a zip file
+     */
+    public static class TemplateExport {
+
+        private final String fileName;
+        private final RegisteredTemplate template;
+        private final String nifiTemplateXml;
+        private final List<String> reusableTemplateXmls;
+
+        public TemplateExport(String fileName, RegisteredTemplate template, String nifiTemplateXml, List<String> reusableTemplateXmls) {
+            this.fileName = fileName;
+            this.template = template;
+            this.nifiTemplateXml = nifiTemplateXml;
+            this.reusableTemplateXmls = reusableTemplateXmls;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * Write the template xml, connecting reusable template xmls, and template json as entries of the zip stream
+         *
+         * @param zos the zip stream to write to
+         */
+        public void writeEntries(ZipOutputStream zos) throws IOException {
+            ZipEntry entry = new ZipEntry(NIFI_TEMPLATE_XML_FILE);
+            zos.putNextEntry(entry);
+            zos.write(nifiTemplateXml.getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+            int reusableTemplateNumber = 0;
+            for (String reusableTemplateXml : reusableTemplateXmls) {
+                entry = new ZipEntry(String.format("%s_%s.xml", NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE, reusableTemplateNumber++));
+                zos.putNextEntry(entry);
+                zos.write(reusableTemplateXml.getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+            entry = new ZipEntry(TEMPLATE_JSON_FILE);
+            zos.putNextEntry(entry);
+            ObjectMapperSerializer.serialize(template, zos);
+            zos.closeEntry();
+        }
+    }
+
     public class ExportTemplate {
 
         private String fileName;
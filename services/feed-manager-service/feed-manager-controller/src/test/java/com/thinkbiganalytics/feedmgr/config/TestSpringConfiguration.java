@@ -52,6 +52,7 @@ import com.thinkbiganalytics.metadata.api.MetadataRollbackCommand;
 import com.thinkbiganalytics.metadata.api.app.KyloVersionProvider;
 import com.thinkbiganalytics.metadata.api.category.CategoryProvider;
 import com.thinkbiganalytics.metadata.api.datasource.DatasourceProvider;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
 import com.thinkbiganalytics.metadata.api.security.HadoopSecurityGroupProvider;
 import com.thinkbiganalytics.metadata.api.sla.FeedServiceLevelAgreementProvider;
@@ -130,6 +131,11 @@ public class TestSpringConfiguration {
         return new NifiFlowCache();
     }
 
+    @Bean
+    public MetadataEventService metadataEventService() {
+        return Mockito.mock(MetadataEventService.class);
+    }
+
     @Bean
     public ModeShapeEngine modeShapeEngine() {
         return Mockito.mock(ModeShapeEngine.class);
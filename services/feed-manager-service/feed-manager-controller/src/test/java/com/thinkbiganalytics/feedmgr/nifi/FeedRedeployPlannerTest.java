@@ -0,0 +1,339 @@
+package com.thinkbiganalytics.feedmgr.nifi;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.thinkbiganalytics.nifi.rest.model.NifiProcessorSchedule;
+import com.thinkbiganalytics.nifi.rest.model.NifiProperty;
+
+import org.apache.nifi.web.api.dto.ConnectableDTO;
+import org.apache.nifi.web.api.dto.ConnectionDTO;
+import org.apache.nifi.web.api.dto.ControllerServiceDTO;
+import org.apache.nifi.web.api.dto.FlowSnippetDTO;
+import org.apache.nifi.web.api.dto.ProcessGroupDTO;
+import org.apache.nifi.web.api.dto.ProcessorConfigDTO;
+import org.apache.nifi.web.api.dto.ProcessorDTO;
+import org.apache.nifi.web.api.dto.PropertyDescriptorDTO;
+import org.apache.nifi.web.api.dto.TemplateDTO;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.UUID;
+
+public class FeedRedeployPlannerTest {
+
+    private static final String GET_FILE = "org.apache.nifi.processors.standard.GetFile";
+    private static final String PUT_HDFS = "org.apache.nifi.processors.hadoop.PutHDFS";
+
+    /**
+     * Verify only the changed properties and schedule are planned when the flow matches the template and is stopped
+     */
+    @Test
+    public void inPlaceUpdate() {
+        ProcessGroupDTO group = processGroup(flow("live", "STOPPED", false));
+        ProcessorDTO input = group.getContents().getProcessors().stream().filter(processor -> processor.getType().equals(GET_FILE)).findFirst().get();
+
+        NifiProperty changed = new NifiProperty(group.getId(), id("live-put"), "Directory", "/data/new");
+        NifiProperty unchanged = new NifiProperty(group.getId(), id("live-get"), "Input Directory", "/dropzone");
+        NifiProcessorSchedule schedule = new NifiProcessorSchedule();
+        schedule.setSchedulingStrategy("TIMER_DRIVEN");
+        schedule.setSchedulingPeriod("10 sec");
+
+        FeedRedeployPlanner.Plan plan = new FeedRedeployPlanner(template(flow("template", "STOPPED", false)))
+            .processGroup(group, input)
+            .properties(Lists.newArrayList(changed, unchanged))
+            .feedSchedule(schedule)
+            .inputProcessorType(GET_FILE)
+            .enabled(true)
+            .plan();
+
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.isInPlace());
+        Assert.assertEquals(ImmutableSet.of(FeedRedeployPlanner.Operation.UPDATE_PROPERTIES, FeedRedeployPlanner.Operation.UPDATE_SCHEDULE,
+                                            FeedRedeployPlanner.Operation.START_PROCESSORS, FeedRedeployPlanner.Operation.UPDATE_INPUT_STATE), plan.getOperations());
+        Assert.assertEquals(Collections.singletonList(changed), plan.getChangedProperties());
+        Assert.assertEquals("/data/old", plan.getPreviousProperties().get(0).getValue());
+        Assert.assertEquals("5 sec", plan.getPreviousSchedule().getSchedulingPeriod());
+        Assert.assertEquals("STOPPED", plan.getPreviousInputState());
+    }
+
+    /**
+     * Verify the properties and schedule of running processors are never updated in place as NiFi rejects changes to running processors
+     */
+    @Test
+    public void runningProcessorChanged() {
+        ProcessGroupDTO group = processGroup(flow("live", "RUNNING", false));
+        ProcessorDTO input = findProcessor(group.getContents(), GET_FILE);
+        NifiProperty directory = new NifiProperty(group.getId(), id("live-put"), "Directory", "/data/new");
+
+        FeedRedeployPlanner.Plan plan = new FeedRedeployPlanner(template(flow("template", "STOPPED", false)))
+            .processGroup(group, input)
+            .properties(Lists.newArrayList(directory))
+            .inputProcessorType(GET_FILE)
+            .plan();
+        Assert.assertFalse(plan.isInPlace());
+        Assert.assertEquals("the property Directory of the running processor Put HDFS changed", plan.getFullRedeployReason());
+
+        NifiProcessorSchedule schedule = new NifiProcessorSchedule();
+        schedule.setSchedulingStrategy("TIMER_DRIVEN");
+        schedule.setSchedulingPeriod("10 sec");
+        plan = new FeedRedeployPlanner(template(flow("template", "STOPPED", false)))
+            .processGroup(group, input)
+            .feedSchedule(schedule)
+            .inputProcessorType(GET_FILE)
+            .plan();
+        Assert.assertFalse(plan.isInPlace());
+        Assert.assertEquals("the schedule of the running input processor Get File changed", plan.getFullRedeployReason());
+
+        // a stopped processor of a running flow can still be updated in place
+        findProcessor(group.getContents(), PUT_HDFS).setState("STOPPED");
+        plan = new FeedRedeployPlanner(template(flow("template", "STOPPED", false)))
+            .processGroup(group, input)
+            .properties(Lists.newArrayList(directory))
+            .inputProcessorType(GET_FILE)
+            .plan();
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.isInPlace());
+        Assert.assertEquals(ImmutableSet.of(FeedRedeployPlanner.Operation.UPDATE_PROPERTIES, FeedRedeployPlanner.Operation.START_PROCESSORS), plan.getOperations());
+    }
+
+    /**
+     * Verify nothing is planned when the feed has not changed, and that disabling the feed only stops the input
+     */
+    @Test
+    public void unchangedFeed() {
+        ProcessGroupDTO group = processGroup(flow("live", "RUNNING", false));
+        ProcessorDTO input = group.getContents().getProcessors().stream().filter(processor -> processor.getType().equals(GET_FILE)).findFirst().get();
+        FeedRedeployPlanner planner = new FeedRedeployPlanner(template(flow("template", "STOPPED", false)))
+            .processGroup(group, input)
+            .inputProcessorType(GET_FILE);
+
+        FeedRedeployPlanner.Plan plan = planner.enabled(true).plan();
+        Assert.assertTrue(plan.isInPlace());
+        Assert.assertTrue(plan.getOperations().isEmpty());
+
+        plan = planner.enabled(false).plan();
+        Assert.assertEquals(ImmutableSet.of(FeedRedeployPlanner.Operation.UPDATE_INPUT_STATE), plan.getOperations());
+    }
+
+    /**
+     * Verify a new version is required when the template no longer matches the flow or the flow does not exist
+     */
+    @Test
+    public void fullRedeploy() {
+        ProcessGroupDTO group = processGroup(flow("live", "RUNNING", false));
+        ProcessorDTO input = group.getContents().getProcessors().iterator().next();
+
+        FeedRedeployPlanner.Plan plan = new FeedRedeployPlanner(template(flow("template", "STOPPED", true)))
+            .processGroup(group, input)
+            .plan();
+        Assert.assertFalse(plan.isInPlace());
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.getFullRedeployReason().contains("missing [connection Get File -> Log [failure]"));
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.getFullRedeployReason().contains("processor Log [org.apache.nifi.processors.standard.LogAttribute]"));
+
+        plan = new FeedRedeployPlanner(template(flow("template", "STOPPED", false))).plan();
+        Assert.assertFalse(plan.isInPlace());
+        Assert.assertEquals("the feed flow does not exist", plan.getFullRedeployReason());
+    }
+
+    /**
+     * Verify a new version is required when the template configuration changed without changing the structure of the flow
+     */
+    @Test
+    public void templateConfigurationChanged() {
+        ProcessGroupDTO group = processGroup(flow("live", "RUNNING", false));
+        ProcessorDTO input = findProcessor(group.getContents(), GET_FILE);
+
+        // property not set by the feed
+        FlowSnippetDTO snippet = flow("template", "STOPPED", false);
+        findProcessor(snippet, PUT_HDFS).getConfig().getProperties().put("Compression codec", "GZIP");
+        FeedRedeployPlanner.Plan plan = new FeedRedeployPlanner(template(snippet)).processGroup(group, input).plan();
+        Assert.assertFalse(plan.isInPlace());
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.getFullRedeployReason().contains("missing [processor Put HDFS property Compression codec = GZIP]"));
+
+        // the same property set by the feed
+        ProcessGroupDTO codecGroup = processGroup(flow("live", "RUNNING", false));
+        findProcessor(codecGroup.getContents(), PUT_HDFS).getConfig().getProperties().put("Compression codec", "NONE");
+        NifiProperty codec = new NifiProperty(codecGroup.getId(), id("live-put"), "Compression codec", "NONE");
+        plan = new FeedRedeployPlanner(template(snippet)).processGroup(codecGroup, findProcessor(codecGroup.getContents(), GET_FILE)).properties(Lists.newArrayList(codec)).plan();
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.isInPlace());
+
+        // auto-terminated relationships, scheduling and back pressure
+        snippet = flow("template", "STOPPED", false);
+        findProcessor(snippet, PUT_HDFS).getConfig().setAutoTerminatedRelationships(Collections.singleton("failure"));
+        plan = new FeedRedeployPlanner(template(snippet)).processGroup(group, input).plan();
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.getFullRedeployReason().contains("processor Put HDFS auto-terminates [failure]"));
+
+        snippet = flow("template", "STOPPED", false);
+        findProcessor(snippet, PUT_HDFS).getConfig().setYieldDuration("5 sec");
+        plan = new FeedRedeployPlanner(template(snippet)).processGroup(group, input).plan();
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.getFullRedeployReason().contains("processor Put HDFS yield 5 sec"));
+
+        snippet = flow("template", "STOPPED", false);
+        snippet.getConnections().iterator().next().setBackPressureObjectThreshold(500L);
+        plan = new FeedRedeployPlanner(template(snippet)).processGroup(group, input).plan();
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.getFullRedeployReason().contains("connection Get File -> Put HDFS back pressure 500"));
+    }
+
+    /**
+     * Verify controller service references are compared by the name of the service
+     */
+    @Test
+    public void controllerServiceReferences() {
+        ProcessGroupDTO group = processGroup(flow("live", "RUNNING", false));
+        ProcessorDTO input = findProcessor(group.getContents(), GET_FILE);
+        addServiceReference(findProcessor(group.getContents(), PUT_HDFS), id("live-service"));
+        FlowSnippetDTO snippet = flow("template", "STOPPED", false);
+        addServiceReference(findProcessor(snippet, PUT_HDFS), id("template-service"));
+        snippet.setControllerServices(Collections.singleton(controllerService("template-service", "Hive Thrift Service")));
+
+        FeedRedeployPlanner.Plan plan = new FeedRedeployPlanner(template(snippet)).processGroup(group, input)
+            .controllerServices(Collections.singleton(controllerService("live-service", "Hive Thrift Service")))
+            .plan();
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.isInPlace());
+
+        plan = new FeedRedeployPlanner(template(snippet)).processGroup(group, input)
+            .controllerServices(Collections.singleton(controllerService("live-service", "Other Hive Service")))
+            .plan();
+        Assert.assertFalse(plan.isInPlace());
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.getFullRedeployReason().contains("processor Put HDFS property Service = service Hive Thrift Service"));
+    }
+
+    /**
+     * Verify a changed sensitive property is never updated in place as its previous value could not be restored
+     */
+    @Test
+    public void sensitivePropertyChanged() {
+        ProcessGroupDTO group = processGroup(flow("live", "RUNNING", false));
+        ProcessorDTO input = findProcessor(group.getContents(), GET_FILE);
+        NifiProperty password = new NifiProperty(group.getId(), id("live-put"), "Password", "secret");
+        password.setSensitive(true);
+
+        FeedRedeployPlanner.Plan plan = new FeedRedeployPlanner(template(flow("template", "STOPPED", false)))
+            .processGroup(group, input)
+            .properties(Lists.newArrayList(password))
+            .plan();
+        Assert.assertFalse(plan.isInPlace());
+        Assert.assertTrue(plan.getFullRedeployReason(), plan.getFullRedeployReason().contains("sensitive property Password"));
+    }
+
+    private ProcessorDTO findProcessor(FlowSnippetDTO snippet, String type) {
+        return snippet.getProcessors().stream().filter(processor -> processor.getType().equals(type)).findFirst().get();
+    }
+
+    private void addServiceReference(ProcessorDTO processor, String serviceId) {
+        PropertyDescriptorDTO descriptor = new PropertyDescriptorDTO();
+        descriptor.setName("Service");
+        descriptor.setIdentifiesControllerService("org.apache.nifi.dbcp.DBCPService");
+        processor.getConfig().setDescriptors(new HashMap<>());
+        processor.getConfig().getDescriptors().put("Service", descriptor);
+        processor.getConfig().getProperties().put("Service", serviceId);
+    }
+
+    private ControllerServiceDTO controllerService(String id, String name) {
+        ControllerServiceDTO service = new ControllerServiceDTO();
+        service.setId(id(id));
+        service.setName(name);
+        return service;
+    }
+
+    private TemplateDTO template(FlowSnippetDTO snippet) {
+        TemplateDTO template = new TemplateDTO();
+        template.setId("template");
+        template.setName("template");
+        template.setSnippet(snippet);
+        return template;
+    }
+
+    private ProcessGroupDTO processGroup(FlowSnippetDTO contents) {
+        ProcessGroupDTO group = new ProcessGroupDTO();
+        group.setId(id("feed"));
+        group.setName("feed");
+        group.setContents(contents);
+        return group;
+    }
+
+    /**
+     * Creates a flow of GetFile to PutHDFS, optionally logging GetFile failures.  Component ids are prefixed so each flow has different ids.
+     */
+    private FlowSnippetDTO flow(String idPrefix, String state, boolean withLog) {
+        FlowSnippetDTO snippet = new FlowSnippetDTO();
+        snippet.setProcessors(new HashSet<>());
+        snippet.setConnections(new HashSet<>());
+
+        ProcessorDTO getFile = processor(idPrefix + "-get", "Get File", GET_FILE, state);
+        getFile.getConfig().getProperties().put("Input Directory", "/dropzone");
+        getFile.getConfig().setSchedulingStrategy("TIMER_DRIVEN");
+        getFile.getConfig().setSchedulingPeriod("5 sec");
+        ProcessorDTO putHdfs = processor(idPrefix + "-put", "Put HDFS", PUT_HDFS, state);
+        putHdfs.getConfig().getProperties().put("Directory", "/data/old");
+        snippet.getProcessors().add(getFile);
+        snippet.getProcessors().add(putHdfs);
+        snippet.getConnections().add(connection(idPrefix + "-c1", getFile, putHdfs, "success"));
+
+        if (withLog) {
+            ProcessorDTO log = processor(idPrefix + "-log", "Log", "org.apache.nifi.processors.standard.LogAttribute", state);
+            snippet.getProcessors().add(log);
+            snippet.getConnections().add(connection(idPrefix + "-c2", getFile, log, "failure"));
+        }
+        return snippet;
+    }
+
+    private ProcessorDTO processor(String id, String name, String type, String state) {
+        ProcessorConfigDTO config = new ProcessorConfigDTO();
+        config.setProperties(new HashMap<>());
+        ProcessorDTO processor = new ProcessorDTO();
+        processor.setId(id(id));
+        processor.setParentGroupId(id("feed"));
+        processor.setName(name);
+        processor.setType(type);
+        processor.setState(state);
+        processor.setConfig(config);
+        return processor;
+    }
+
+    private ConnectionDTO connection(String id, ProcessorDTO source, ProcessorDTO destination, String relationship) {
+        ConnectionDTO connection = new ConnectionDTO();
+        connection.setId(id(id));
+        connection.setSource(connectable(source));
+        connection.setDestination(connectable(destination));
+        connection.setSelectedRelationships(Collections.singleton(relationship));
+        return connection;
+    }
+
+    /**
+     * NiFi components require UUIDs for their ids
+     */
+    private String id(String name) {
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private ConnectableDTO connectable(ProcessorDTO processor) {
+        ConnectableDTO connectable = new ConnectableDTO();
+        connectable.setId(processor.getId());
+        connectable.setGroupId(processor.getParentGroupId());
+        connectable.setType("PROCESSOR");
+        return connectable;
+    }
+}
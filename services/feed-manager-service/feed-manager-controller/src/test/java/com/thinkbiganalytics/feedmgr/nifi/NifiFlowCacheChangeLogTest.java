@@ -0,0 +1,90 @@
+package com.thinkbiganalytics.feedmgr.nifi;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.thinkbiganalytics.metadata.rest.model.nifi.NiFiFlowCacheConnectionData;
+import com.thinkbiganalytics.metadata.rest.model.nifi.NifiFlowCacheSnapshot;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NifiFlowCacheChangeLogTest {
+
+    /**
+     * Verify only the changes after the requested version are returned, with the latest value winning
+     */
+    @Test
+    public void changesSince() {
+        NifiFlowCacheChangeLog changeLog = new NifiFlowCacheChangeLog();
+        changeLog.recordProcessorIdToFeedName(ImmutableMap.of("p1", "cat.feed1"));
+        long version = changeLog.recordProcessorIdToProcessorName(ImmutableMap.of("p1", "first name"));
+
+        changeLog.recordProcessorIdToProcessorName(ImmutableMap.of("p1", "second name", "p2", "other"));
+        changeLog.recordConnections(ImmutableMap.of("c1", new NiFiFlowCacheConnectionData("c1", "success", "p1", "p2")));
+        changeLog.recordFeed("cat.feed2");
+        long latest = changeLog.recordProcessorIdToProcessorName(ImmutableMap.of("p1", "third name"));
+
+        NifiFlowCacheSnapshot changes = changeLog.changesSince(version, latest, ImmutableSet.of("cat.feed2"), DateTime.now());
+        Assert.assertNotNull(changes);
+        Assert.assertTrue(changes.getProcessorIdToFeedNameMap().isEmpty());
+        Assert.assertEquals(ImmutableMap.of("p1", "third name", "p2", "other"), changes.getProcessorIdToProcessorName());
+        Assert.assertEquals(ImmutableSet.of("c1"), changes.getConnectionIdToConnection().keySet());
+        Assert.assertEquals("success", changes.getConnectionIdToConnectionName().get("c1"));
+        Assert.assertEquals(ImmutableSet.of("cat.feed2"), changes.getAllFeeds());
+        Assert.assertEquals(ImmutableSet.of("cat.feed2"), changes.getAllStreamingFeeds());
+
+        // changes recorded after the captured version are excluded
+        NifiFlowCacheSnapshot upToVersion = changeLog.changesSince(0L, version, ImmutableSet.of(), DateTime.now());
+        Assert.assertEquals("first name", upToVersion.getProcessorIdToProcessorName().get("p1"));
+        Assert.assertEquals(ImmutableMap.of("p1", "cat.feed1"), upToVersion.getProcessorIdToFeedNameMap());
+
+        // nothing has changed since the latest version
+        NifiFlowCacheSnapshot none = changeLog.changesSince(latest, latest, ImmutableSet.of(), DateTime.now());
+        Assert.assertTrue(none.getProcessorIdToProcessorName().isEmpty());
+        Assert.assertTrue(none.getAllFeeds().isEmpty());
+    }
+
+    /**
+     * Verify clients need a full sync after a reset or once their version has been trimmed from the log
+     */
+    @Test
+    public void fullSyncRequired() {
+        NifiFlowCacheChangeLog changeLog = new NifiFlowCacheChangeLog(3);
+        Assert.assertNull(changeLog.changesSince(null, changeLog.getVersion(), ImmutableSet.of(), DateTime.now()));
+
+        long first = changeLog.recordProcessorIdToProcessorName(ImmutableMap.of("p1", "one"));
+        changeLog.recordProcessorIdToProcessorName(ImmutableMap.of("p2", "two", "p3", "three"));
+        Assert.assertTrue(changeLog.isAvailable(first));
+
+        long latest = changeLog.recordProcessorIdToProcessorName(ImmutableMap.of("p4", "four"));
+        Assert.assertFalse(changeLog.isAvailable(0L));
+        Assert.assertTrue(changeLog.isAvailable(first + 1));
+        Assert.assertNotNull(changeLog.changesSince(first + 1, latest, ImmutableSet.of(), DateTime.now()));
+
+        changeLog.reset();
+        Assert.assertFalse(changeLog.isAvailable(latest));
+        Assert.assertNull(changeLog.changesSince(latest, changeLog.getVersion(), ImmutableSet.of(), DateTime.now()));
+        Assert.assertTrue(changeLog.isAvailable(changeLog.getVersion()));
+    }
+}
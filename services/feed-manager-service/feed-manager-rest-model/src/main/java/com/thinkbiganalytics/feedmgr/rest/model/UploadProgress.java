@@ -22,10 +22,10 @@ package com.thinkbiganalytics.feedmgr.rest.model;
 
 import org.joda.time.DateTime;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class UploadProgress {
     private boolean complete;
@@ -39,7 +39,10 @@ public class UploadProgress {
     private Integer percentComplete = 0;
     private DateTime lastSectionCompleteTime;
 
-    private List<UploadProgressMessage> messages;
+    /**
+     * Messages are added by the import while the status is polled, so use a list that can be read while it is modified
+     */
+    private List<UploadProgressMessage> messages = new CopyOnWriteArrayList<>();
 
     public UploadProgress() {
         this.completedSections = new HashSet<>();
@@ -73,9 +76,6 @@ public class UploadProgress {
     }
 
     public List<UploadProgressMessage> getMessages() {
-        if(messages == null){
-            messages = new ArrayList<>();
-        }
         return messages;
     }
 
@@ -84,7 +84,7 @@ public class UploadProgress {
     }
 
     public void setMessages(List<UploadProgressMessage> messages) {
-        this.messages = messages;
+        this.messages = (messages != null) ? new CopyOnWriteArrayList<>(messages) : new CopyOnWriteArrayList<>();
     }
 
     public Integer getTotalParts() {
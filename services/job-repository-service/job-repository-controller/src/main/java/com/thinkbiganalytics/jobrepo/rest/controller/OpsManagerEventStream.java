@@ -0,0 +1,457 @@
+package com.thinkbiganalytics.jobrepo.rest.controller;
+
+/*-
+ * #%L
+ * thinkbig-job-repository-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.thinkbiganalytics.alerts.api.Alert;
+import com.thinkbiganalytics.alerts.api.AlertListener;
+import com.thinkbiganalytics.alerts.api.AlertProvider;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeedProvider;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedOperationStatusEvent;
+import com.thinkbiganalytics.metadata.api.event.feed.OperationStatus;
+import com.thinkbiganalytics.security.AccessController;
+import com.thinkbiganalytics.servicemonitor.ServiceStatusListener;
+import com.thinkbiganalytics.servicemonitor.model.ServiceStatusResponse;
+
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+/**
+ * Pushes job, feed health, alert and service status changes to the Operations Manager dashboards as server-sent events.
+ *
+ * Each browser tab keeps a single subscription open instead of polling every REST endpoint.  Events are handed to each subscriber's bounded queue
+ * from a single background thread, and each queue is written to the client from a pool of sender threads, so neither the event buses nor the
+ * other subscribers are blocked by a slow client.  A subscriber whose queue fills up is closed.  The most recent events are kept so a client that
+ * reconnects with a {@code Last-Event-ID} receives the events it missed.
+ *
+ * When entity access control is enabled, events about a feed are only sent to subscribers that are allowed to see the feed's operations.  The feed
+ * is looked up as the subscriber so the same feed ACL as the REST endpoints is applied, and the result is cached for each user and feed for a
+ * short time.
+ */
+@Component
+public class OpsManagerEventStream implements ServiceStatusListener {
+
+    private static final Logger log = LoggerFactory.getLogger(OpsManagerEventStream.class);
+
+    /**
+     * Event types
+     */
+    public static final String JOB = "job";
+    public static final String FEED_HEALTH = "feed-health";
+    public static final String ALERT = "alert";
+    public static final String SERVICE_STATUS = "service-status";
+
+    /**
+     * Number of recent events kept for reconnecting clients
+     */
+    private static final int HISTORY_SIZE = 500;
+
+    /**
+     * Interval between comments sent to keep idle connections open and detect closed ones
+     */
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    /**
+     * Time the browser waits before reconnecting
+     */
+    private static final long RETRY_MILLIS = 5000;
+
+    /**
+     * Number of events queued for a subscriber before it is closed as too slow
+     */
+    private static final int QUEUE_SIZE = 1000;
+
+    /**
+     * Time a user's access to a feed is cached
+     */
+    private static final long VISIBILITY_SECONDS = 30;
+
+    @Inject
+    private MetadataEventService metadataEventService;
+
+    @Inject
+    private AlertProvider alertProvider;
+
+    @Inject
+    private AccessController accessController;
+
+    @Inject
+    private MetadataAccess metadataAccess;
+
+    @Inject
+    private OpsManagerFeedProvider opsManagerFeedProvider;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MetadataEventListener<FeedOperationStatusEvent> feedOperationListener = new FeedOperationListener();
+    private final AlertListener alertListener = new OpsManagerAlertListener();
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+
+    /**
+     * Whether a user may see a feed, keyed by the user and feed names
+     */
+    private final Cache<List<String>, Boolean> visibility = CacheBuilder.newBuilder()
+        .expireAfterWrite(VISIBILITY_SECONDS, TimeUnit.SECONDS)
+        .maximumSize(10000)
+        .build();
+
+    /**
+     * Recent events, guarded by this
+     */
+    private final Deque<Event> history = new ArrayDeque<>();
+    private long lastEventId;
+
+    private ScheduledExecutorService executor;
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("ops-manager-event-stream").setDaemon(true).build());
+        sender = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("ops-manager-event-sender-%d").setDaemon(true).build());
+        executor.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        metadataEventService.addListener(feedOperationListener);
+        alertProvider.addListener(alertListener);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        metadataEventService.removeListener(feedOperationListener);
+        alertProvider.removeListener(alertListener);
+        executor.shutdownNow();
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Opens a new stream of events for the current user.
+     *
+     * @param lastEventId the id of the last event received by the client, or {@code null} if this is a new client
+     * @param types       the types of events to send, or {@code null} for all events
+     * @return the event stream
+     */
+    public ChunkedOutput<String> subscribe(Long lastEventId, Set<String> types) {
+        final Subscriber subscriber = new Subscriber(types, SecurityContextHolder.getContext().getAuthentication());
+        executor.execute(() -> {
+            subscriber.send(new Event("retry: " + RETRY_MILLIS + "\n\n"));
+            if (lastEventId != null) {
+                List<Event> missed = new ArrayList<>();
+                synchronized (this) {
+                    for (Event event : history) {
+                        if (event.id > lastEventId) {
+                            missed.add(event);
+                        }
+                    }
+                }
+                missed.forEach(subscriber::send);
+            }
+            subscribers.add(subscriber);
+        });
+        return subscriber.output;
+    }
+
+    /**
+     * Gets the number of open event streams.
+     *
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void statusChanged(ServiceStatusResponse previous, ServiceStatusResponse current) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("serviceName", current.getServiceName());
+        data.put("state", current.getState());
+        data.put("previousState", previous != null ? previous.getState() : null);
+        publish(SERVICE_STATUS, data);
+    }
+
+    /**
+     * Sends an event to every subscriber.
+     *
+     * @param type the event type
+     * @param data the event data, serialized as JSON
+     */
+    public void publish(String type, Object data) {
+        publish(type, null, data);
+    }
+
+    /**
+     * Sends an event about a feed to every subscriber allowed to see the feed.
+     *
+     * @param type     the event type
+     * @param feedName the system name of the feed, or {@code null} if the event is not about a feed
+     * @param data     the event data, serialized as JSON
+     */
+    public void publish(String type, String feedName, Object data) {
+        final String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            log.error("Unable to serialize {} event: {}", type, data, e);
+            return;
+        }
+
+        final Event event;
+        synchronized (this) {
+            event = new Event(++lastEventId, type, feedName, json);
+            history.addLast(event);
+            if (history.size() > HISTORY_SIZE) {
+                history.removeFirst();
+            }
+        }
+
+        if (!subscribers.isEmpty() && !executor.isShutdown()) {
+            executor.execute(() -> {
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.send(event);
+                }
+            });
+        }
+    }
+
+    /**
+     * Determines if the subscriber may see the event by looking up its feed with the subscriber's authentication.  The result is cached for
+     * {@link #VISIBILITY_SECONDS}, but a failed lookup is not.
+     */
+    private boolean isVisible(Subscriber subscriber, Event event) {
+        if (event.feedName == null || !accessController.isEntityAccessControlled()) {
+            return true;
+        }
+        if (subscriber.authentication == null) {
+            return false;
+        }
+
+        final List<String> key = Arrays.asList(subscriber.authentication.getName(), event.feedName);
+        final Boolean cached = visibility.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        SecurityContext previous = SecurityContextHolder.getContext();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(subscriber.authentication);
+        SecurityContextHolder.setContext(context);
+        try {
+            final boolean visible = metadataAccess.read(() -> opsManagerFeedProvider.findByName(event.feedName) != null);
+            visibility.put(key, visible);
+            return visible;
+        } catch (RuntimeException e) {
+            log.debug("Unable to check access to feed {}: {}", event.feedName, e.toString());
+            return false;
+        } finally {
+            SecurityContextHolder.setContext(previous);
+        }
+    }
+
+    private void heartbeat() {
+        final Event event = new Event(":\n\n");
+        for (Subscriber subscriber : subscribers) {
+            subscriber.send(event);
+        }
+    }
+
+    /**
+     * A server-sent event, or a chunk such as a comment that is sent to every subscriber
+     */
+    private static class Event {
+
+        private final long id;
+        private final String type;
+        private final String feedName;
+        private final String frame;
+
+        Event(long id, String type, String feedName, String json) {
+            this.id = id;
+            this.type = type;
+            this.feedName = feedName;
+            this.frame = "id: " + id + "\nevent: " + type + "\ndata: " + json + "\n\n";
+        }
+
+        Event(String frame) {
+            this.id = 0;
+            this.type = null;
+            this.feedName = null;
+            this.frame = frame;
+        }
+    }
+
+    /**
+     * An open event stream.  Events are queued by {@link #send(Event)} and written to the client by a sender thread.
+     */
+    private class Subscriber {
+
+        private final ChunkedOutput<String> output = new ChunkedOutput<>(String.class);
+        private final Set<String> types;
+        private final Authentication authentication;
+        private final BlockingQueue<Event> queue = new LinkedBlockingQueue<>(QUEUE_SIZE);
+
+        /**
+         * Whether a sender thread is writing the queued events
+         */
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(Set<String> types, Authentication authentication) {
+            this.types = types;
+            this.authentication = authentication;
+        }
+
+        /**
+         * Queues the event without blocking, closing the stream if the client is not keeping up.
+         */
+        void send(Event event) {
+            if (closed || (event.type != null && types != null && !types.contains(event.type))) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                log.debug("Closing event stream with {} unsent events", queue.size());
+                subscribers.remove(this);
+                close();
+                return;
+            }
+            scheduleWrite();
+        }
+
+        private void scheduleWrite() {
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::write);
+                } catch (RejectedExecutionException e) {
+                    sending.set(false);
+                }
+            }
+        }
+
+        /**
+         * Writes the queued events visible to the subscriber.
+         */
+        private void write() {
+            try {
+                Event event;
+                while (!closed && (event = queue.poll()) != null) {
+                    if (isVisible(this, event)) {
+                        output.write(event.frame);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Closing event stream: {}", e.toString());
+                subscribers.remove(this);
+                close();
+            } finally {
+                sending.set(false);
+            }
+            if (!closed && !queue.isEmpty()) {
+                scheduleWrite();
+            }
+        }
+
+        void close() {
+            closed = true;
+            queue.clear();
+            try {
+                output.close();
+            } catch (IOException e) {
+                log.debug("Unable to close event stream", e);
+            }
+        }
+    }
+
+    /**
+     * Publishes job and feed health changes when the status of a feed operation changes
+     */
+    private class FeedOperationListener implements MetadataEventListener<FeedOperationStatusEvent> {
+
+        @Override
+        public void notify(FeedOperationStatusEvent event) {
+            OperationStatus status = event.getData();
+
+            Map<String, Object> job = new LinkedHashMap<>();
+            job.put("feedId", status.getFeedId() != null ? status.getFeedId().toString() : null);
+            job.put("feedName", status.getFeedName());
+            job.put("operationId", status.getOperationId() != null ? status.getOperationId().toString() : null);
+            job.put("state", status.getState());
+            job.put("status", status.getStatus());
+            publish(JOB, status.getFeedName(), job);
+
+            Map<String, Object> feed = new LinkedHashMap<>();
+            feed.put("feedName", status.getFeedName());
+            feed.put("state", status.getState());
+            publish(FEED_HEALTH, status.getFeedName(), feed);
+        }
+    }
+
+    /**
+     * Publishes alert changes
+     */
+    private class OpsManagerAlertListener implements AlertListener {
+
+        @Override
+        public void alertChange(Alert alert) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", alert.getId().toString());
+            data.put("type", alert.getType() != null ? alert.getType().toString() : null);
+            data.put("level", alert.getLevel());
+            data.put("state", alert.getState());
+            data.put("cleared", alert.isCleared());
+            data.put("description", alert.getDescription());
+            publish(ALERT, data);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.thinkbiganalytics.jobrepo.rest.controller;
+
+/*-
+ * #%L
+ * thinkbig-job-repository-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.thinkbiganalytics.jobrepo.security.OperationsAccessControl;
+import com.thinkbiganalytics.security.AccessController;
+
+import org.apache.commons.lang3.StringUtils;
+import org.glassfish.jersey.server.ChunkedOutput;
+
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+/**
+ * Provides a stream of server-sent events for the Operations Manager dashboards
+ */
+@Api(tags = "Operations Manager - Events", produces = OpsManagerEventsRestController.SERVER_SENT_EVENTS)
+@Path(OpsManagerEventsRestController.BASE)
+public class OpsManagerEventsRestController {
+
+    public static final String BASE = "/v1/events";
+
+    public static final String SERVER_SENT_EVENTS = "text/event-stream";
+
+    @Inject
+    private OpsManagerEventStream eventStream;
+
+    @Inject
+    private AccessController accessController;
+
+    @GET
+    @Produces(SERVER_SENT_EVENTS)
+    @ApiOperation("Streams job, feed health, alert and service status changes as server-sent events.")
+    @ApiResponses(
+        @ApiResponse(code = 200, message = "Returns the event stream.")
+    )
+    public ChunkedOutput<String> getEvents(@HeaderParam("Last-Event-ID") String lastEventId,
+                                           @QueryParam("lastEventId") String lastEventIdParam,
+                                           @QueryParam("types") String types) {
+        this.accessController.checkPermission(AccessController.SERVICES, OperationsAccessControl.ACCESS_OPS);
+
+        String lastId = StringUtils.defaultIfBlank(lastEventId, lastEventIdParam);
+        Set<String> typeSet = StringUtils.isBlank(types) ? null : ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(types));
+        return eventStream.subscribe(StringUtils.isNumeric(lastId) && StringUtils.isNotEmpty(lastId) ? Long.valueOf(lastId) : null, typeSet);
+    }
+}
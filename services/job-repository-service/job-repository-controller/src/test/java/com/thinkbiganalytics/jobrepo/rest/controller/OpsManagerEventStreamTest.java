@@ -0,0 +1,257 @@
+package com.thinkbiganalytics.jobrepo.rest.controller;
+
+/*-
+ * #%L
+ * thinkbig-job-repository-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableSet;
+import com.thinkbiganalytics.alerts.api.AlertListener;
+import com.thinkbiganalytics.alerts.api.AlertProvider;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.MetadataCommand;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedOperationStatusEvent;
+import com.thinkbiganalytics.metadata.api.event.feed.OperationStatus;
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeed;
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeedProvider;
+import com.thinkbiganalytics.metadata.api.op.FeedOperation;
+import com.thinkbiganalytics.security.AccessController;
+
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class OpsManagerEventStreamTest {
+
+    private final OpsManagerEventStream stream = new OpsManagerEventStream();
+    private final MetadataEventService metadataEventService = Mockito.mock(MetadataEventService.class);
+    private final AlertProvider alertProvider = Mockito.mock(AlertProvider.class);
+    private final AccessController accessController = Mockito.mock(AccessController.class);
+    private final MetadataAccess metadataAccess = Mockito.mock(MetadataAccess.class);
+    private final OpsManagerFeedProvider feedProvider = Mockito.mock(OpsManagerFeedProvider.class);
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ReflectionTestUtils.setField(stream, "metadataEventService", metadataEventService);
+        ReflectionTestUtils.setField(stream, "alertProvider", alertProvider);
+        ReflectionTestUtils.setField(stream, "accessController", accessController);
+        ReflectionTestUtils.setField(stream, "metadataAccess", metadataAccess);
+        ReflectionTestUtils.setField(stream, "opsManagerFeedProvider", feedProvider);
+
+        // Only the user "allowed" can see the feed
+        Mockito.when(metadataAccess.read(Mockito.any(MetadataCommand.class))).thenAnswer(invocation -> ((MetadataCommand<?>) invocation.getArguments()[0]).execute());
+        Mockito.when(feedProvider.findByName("feed")).thenAnswer(invocation -> {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            return authentication != null && "allowed".equals(authentication.getName()) ? Mockito.mock(OpsManagerFeed.class) : null;
+        });
+
+        stream.init();
+    }
+
+    @After
+    public void tearDown() {
+        stream.destroy();
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Verify events about a feed are only sent to subscribers that can see the feed.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFeedEventsFilteredByAcl() throws Exception {
+        Mockito.when(accessController.isEntityAccessControlled()).thenReturn(true);
+        ChunkedOutput<String> allowed = subscribeAs("allowed", null, null);
+        ChunkedOutput<String> denied = subscribeAs("denied", null, null);
+
+        ArgumentCaptor<MetadataEventListener> listener = ArgumentCaptor.forClass(MetadataEventListener.class);
+        Mockito.verify(metadataEventService).addListener(listener.capture());
+        listener.getValue().notify(new FeedOperationStatusEvent(new OperationStatus("feed", null, FeedOperation.State.SUCCESS, "Job Succeeded")));
+        stream.publish(OpsManagerEventStream.SERVICE_STATUS, Collections.singletonMap("serviceName", "nifi"));
+        awaitDelivery();
+
+        Assert.assertEquals(ImmutableSet.of(OpsManagerEventStream.JOB, OpsManagerEventStream.FEED_HEALTH, OpsManagerEventStream.SERVICE_STATUS), eventTypes(allowed));
+        Assert.assertEquals(ImmutableSet.of(OpsManagerEventStream.SERVICE_STATUS), eventTypes(denied));
+    }
+
+    /**
+     * Verify a user's access to a feed is looked up once for several events and subscribers.
+     */
+    @Test
+    public void testFeedVisibilityCached() throws Exception {
+        Mockito.when(accessController.isEntityAccessControlled()).thenReturn(true);
+        ChunkedOutput<String> first = subscribeAs("allowed", null, null);
+        ChunkedOutput<String> second = subscribeAs("allowed", null, null);
+
+        stream.publish(OpsManagerEventStream.JOB, "feed", Collections.singletonMap("feedName", "feed"));
+        stream.publish(OpsManagerEventStream.FEED_HEALTH, "feed", Collections.singletonMap("feedName", "feed"));
+        awaitDelivery();
+
+        Assert.assertEquals(ImmutableSet.of(OpsManagerEventStream.JOB, OpsManagerEventStream.FEED_HEALTH), eventTypes(first));
+        Assert.assertEquals(ImmutableSet.of(OpsManagerEventStream.JOB, OpsManagerEventStream.FEED_HEALTH), eventTypes(second));
+        Mockito.verify(feedProvider, Mockito.times(1)).findByName("feed");
+    }
+
+    /**
+     * Verify a subscriber that does not keep up is closed without delaying the other subscribers.
+     */
+    @Test
+    public void testSlowSubscriberClosed() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(accessController.isEntityAccessControlled()).thenReturn(true);
+        Mockito.when(feedProvider.findByName("slow-feed")).thenAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return Mockito.mock(OpsManagerFeed.class);
+        });
+        ChunkedOutput<String> slow = subscribeAs("allowed", null, null);
+
+        stream.publish(OpsManagerEventStream.JOB, "slow-feed", Collections.singletonMap("feedName", "slow-feed"));
+        blocked.await();
+        for (int i = 0; i < 1001; i++) {
+            stream.publish(OpsManagerEventStream.SERVICE_STATUS, Collections.singletonMap("serviceName", "nifi"));
+        }
+        ChunkedOutput<String> other = subscribeAs("allowed", null, null);
+        stream.publish(OpsManagerEventStream.ALERT, Collections.singletonMap("id", "a"));
+        ((ExecutorService) ReflectionTestUtils.getField(stream, "executor")).submit(() -> {
+        }).get();
+        try {
+            Assert.assertTrue(slow.isClosed());
+            Assert.assertEquals(1, stream.getSubscriberCount());
+        } finally {
+            release.countDown();
+        }
+        awaitDelivery();
+        Assert.assertEquals(ImmutableSet.of(OpsManagerEventStream.ALERT), eventTypes(other));
+    }
+
+    /**
+     * Verify feed events are sent to every subscriber when entity access control is disabled.
+     */
+    @Test
+    public void testFeedEventsNotFilteredWithoutEntityAccessControl() throws Exception {
+        Mockito.when(accessController.isEntityAccessControlled()).thenReturn(false);
+        ChunkedOutput<String> denied = subscribeAs("denied", null, null);
+
+        stream.publish(OpsManagerEventStream.FEED_HEALTH, "feed", Collections.singletonMap("feedName", "feed"));
+        awaitDelivery();
+
+        Assert.assertEquals(ImmutableSet.of(OpsManagerEventStream.FEED_HEALTH), eventTypes(denied));
+    }
+
+    /**
+     * Verify a reconnecting client receives only the events it missed, of the types it asked for.
+     */
+    @Test
+    public void testReplayMissedEvents() throws Exception {
+        stream.publish(OpsManagerEventStream.SERVICE_STATUS, Collections.singletonMap("serviceName", "a"));
+        stream.publish(OpsManagerEventStream.SERVICE_STATUS, Collections.singletonMap("serviceName", "b"));
+        stream.publish(OpsManagerEventStream.ALERT, Collections.singletonMap("id", "c"));
+
+        ChunkedOutput<String> output = subscribeAs("allowed", 1L, ImmutableSet.of(OpsManagerEventStream.SERVICE_STATUS));
+        awaitDelivery();
+
+        List<String> frames = frames(output);
+        Assert.assertEquals(2, frames.size());
+        Assert.assertTrue(frames.get(0).startsWith("retry: "));
+        Assert.assertEquals("id: 2\nevent: service-status\ndata: {\"serviceName\":\"b\"}\n\n", frames.get(1));
+    }
+
+    /**
+     * Verify the listeners are removed when the stream is destroyed.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDestroyRemovesListeners() {
+        ArgumentCaptor<MetadataEventListener> metadataListener = ArgumentCaptor.forClass(MetadataEventListener.class);
+        ArgumentCaptor<AlertListener> alertListener = ArgumentCaptor.forClass(AlertListener.class);
+        Mockito.verify(metadataEventService).addListener(metadataListener.capture());
+        Mockito.verify(alertProvider).addListener(alertListener.capture());
+
+        stream.destroy();
+        Mockito.verify(metadataEventService).removeListener(metadataListener.getValue());
+        Mockito.verify(alertProvider).removeListener(alertListener.getValue());
+    }
+
+    private ChunkedOutput<String> subscribeAs(String user, Long lastEventId, ImmutableSet<String> types) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, "password", Collections.emptyList()));
+        try {
+            return stream.subscribe(lastEventId, types);
+        } finally {
+            SecurityContextHolder.clearContext();
+            awaitDelivery();
+        }
+    }
+
+    /**
+     * Waits for the events already published to be written
+     */
+    @SuppressWarnings("unchecked")
+    private void awaitDelivery() throws Exception {
+        ((ExecutorService) ReflectionTestUtils.getField(stream, "executor")).submit(() -> {
+        }).get();
+        for (Object subscriber : (Collection<Object>) ReflectionTestUtils.getField(stream, "subscribers")) {
+            Collection<?> queue = (Collection<?>) ReflectionTestUtils.getField(subscriber, "queue");
+            AtomicBoolean sending = (AtomicBoolean) ReflectionTestUtils.getField(subscriber, "sending");
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((!queue.isEmpty() || sending.get()) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    /**
+     * Gets the chunks written to the stream, which are queued until a response is attached
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> frames(ChunkedOutput<String> output) {
+        return new ArrayList<>((Collection<String>) ReflectionTestUtils.getField(output, "queue"));
+    }
+
+    private ImmutableSet<String> eventTypes(ChunkedOutput<String> output) {
+        ImmutableSet.Builder<String> types = ImmutableSet.builder();
+        for (String frame : frames(output)) {
+            for (String line : frame.split("\n")) {
+                if (line.startsWith("event: ")) {
+                    types.add(line.substring("event: ".length()));
+                }
+            }
+        }
+        return types.build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.thinkbiganalytics.jobrepo.rest.controller;
+
+/*-
+ * #%L
+ * thinkbig-job-repository-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableSet;
+import com.thinkbiganalytics.jobrepo.security.OperationsAccessControl;
+import com.thinkbiganalytics.security.AccessController;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class OpsManagerEventsRestControllerTest {
+
+    private final OpsManagerEventsRestController controller = new OpsManagerEventsRestController();
+    private final OpsManagerEventStream eventStream = Mockito.mock(OpsManagerEventStream.class);
+    private final AccessController accessController = Mockito.mock(AccessController.class);
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(controller, "eventStream", eventStream);
+        ReflectionTestUtils.setField(controller, "accessController", accessController);
+    }
+
+    /**
+     * Verify the Last-Event-ID header takes precedence over the query parameter and the types are parsed.
+     */
+    @Test
+    public void testSubscribe() {
+        controller.getEvents("5", "3", " job, alert ,");
+
+        Mockito.verify(accessController).checkPermission(AccessController.SERVICES, OperationsAccessControl.ACCESS_OPS);
+        Mockito.verify(eventStream).subscribe(5L, ImmutableSet.of("job", "alert"));
+    }
+
+    /**
+     * Verify the query parameter is used when the header is missing and invalid ids are ignored.
+     */
+    @Test
+    public void testLastEventIdParameter() {
+        controller.getEvents(null, "3", null);
+        Mockito.verify(eventStream).subscribe(3L, null);
+
+        controller.getEvents("abc", null, "");
+        Mockito.verify(eventStream).subscribe(null, null);
+    }
+
+    /**
+     * Verify users without access to operations cannot subscribe.
+     */
+    @Test(expected = AccessDeniedException.class)
+    public void testAccessDenied() {
+        Mockito.doThrow(new AccessDeniedException("denied")).when(accessController).checkPermission(AccessController.SERVICES, OperationsAccessControl.ACCESS_OPS);
+        try {
+            controller.getEvents(null, null, null);
+        } finally {
+            Mockito.verifyZeroInteractions(eventStream);
+        }
+    }
+}
@@ -70,6 +70,17 @@ public class MetadataJmsConfig {
         return new ActiveMQTopic(MetadataTopics.DATASOURCE_CHANGE);
     }
 
+    /**
+     * Gets the topic for high-water mark changes.
+     *
+     * @return the high-water mark change topic
+     */
+    @Bean(name = "waterMarkChangeTopic")
+    @Nonnull
+    public Topic waterMarkChangeTopic() {
+        return new ActiveMQTopic(MetadataTopics.WATER_MARK_CHANGE);
+    }
+
     /**
      * Creates a Spring JMS Messaging Template.
      *
@@ -95,6 +106,21 @@ public class MetadataJmsConfig {
         return factory;
     }
 
+    /**
+     * Creates a Spring JMS Listener Container Factory for topics, so that every listener receives each message.
+     *
+     * @return the JMS listener container factory for topics
+     */
+    @Bean(name = "metadataTopicListenerContainerFactory")
+    @Nonnull
+    public DefaultJmsListenerContainerFactory topicListenerContainerFactory() {
+        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(new SimpleMessageConverter());
+        factory.setPubSubDomain(true);
+        return factory;
+    }
+
     /**
      * Gets the queue for triggering feeds based on preconditions.
      *
@@ -29,4 +29,9 @@ public interface MetadataTopics {
      * Indicates changes to a data source
      */
     String DATASOURCE_CHANGE = "datasourceChange";
+
+    /**
+     * Indicates changes to the high-water marks of a feed
+     */
+    String WATER_MARK_CHANGE = "waterMarkChange";
 }
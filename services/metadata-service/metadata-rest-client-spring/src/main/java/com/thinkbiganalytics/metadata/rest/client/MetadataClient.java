@@ -81,6 +81,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
@@ -246,6 +247,15 @@ public class MetadataClient {
         put(path("feed", feedId, "watermark", waterMarkName), value, MediaType.TEXT_PLAIN);
     }
 
+    /**
+     * Update the named high water marks of several feeds in a single request
+     *
+     * @param values the new values by high water mark name, keyed by feed id
+     */
+    public void updateHighWaterMarkValues(Map<String, Map<String, String>> values) {
+        put(path("feed", "watermarks"), values, MediaType.APPLICATION_JSON);
+    }
+
     /**
      * Find out if the feed given has been initialized
      *
@@ -607,6 +617,16 @@ public class MetadataClient {
         return get(path("nifi-provenance", "nifi-flow-cache", "get-flow-updates"), new NifiFlowSyncParameters(syncId), NiFiFlowCacheSync.class);
     }
 
+    /**
+     * get only the flow changes made after the given change log version
+     *
+     * @param version the last change log version received, or null to get the entire cache
+     * @return the changes along with the latest change log version
+     */
+    public NiFiFlowCacheSync getFlowChanges(Long version) {
+        return get(path("nifi-provenance", "nifi-flow-cache", "get-flow-changes"), new NifiFlowVersionParameters(version), NiFiFlowCacheSync.class);
+    }
+
     /**
      * reset flow events for the given id
      *
@@ -772,6 +792,25 @@ public class MetadataClient {
 
     }
 
+    private static class NifiFlowVersionParameters implements Function<UriComponentsBuilder, UriComponentsBuilder> {
+
+        private Long version;
+
+        public NifiFlowVersionParameters(Long version) {
+            this.version = version;
+        }
+
+        public UriComponentsBuilder apply(UriComponentsBuilder target) {
+            UriComponentsBuilder result = target;
+
+            if (this.version != null) {
+                result = result.queryParam("version", this.version);
+            }
+            return result;
+        }
+
+    }
+
     private static class TargetDatasourceCriteria implements DatasourceCriteria, Function<UriComponentsBuilder, UriComponentsBuilder> {
 
         private String name;
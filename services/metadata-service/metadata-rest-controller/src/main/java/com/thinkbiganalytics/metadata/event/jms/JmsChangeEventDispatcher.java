@@ -25,10 +25,12 @@ import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 import com.thinkbiganalytics.metadata.api.event.feed.CleanupTriggerEvent;
 import com.thinkbiganalytics.metadata.api.event.feed.PreconditionTriggerEvent;
+import com.thinkbiganalytics.metadata.api.event.feed.WaterMarkChangeEvent;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
 import com.thinkbiganalytics.metadata.rest.model.event.FeedCleanupTriggerEvent;
 import com.thinkbiganalytics.metadata.rest.model.event.FeedPreconditionTriggerEvent;
+import com.thinkbiganalytics.metadata.rest.model.event.FeedWaterMarkChangeEvent;
 
 import org.springframework.jms.core.JmsMessagingTemplate;
 
@@ -38,6 +40,7 @@ import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.jms.Queue;
+import javax.jms.Topic;
 
 /**
  * Listens for metadata events that should be transferred to a JMS topic.
@@ -54,6 +57,11 @@ public class JmsChangeEventDispatcher {
      */
     private final MetadataEventListener<PreconditionTriggerEvent> preconditionListener = new PreconditionTriggerDispatcher();
 
+    /**
+     * Event listener for high-water mark changes
+     */
+    private final MetadataEventListener<WaterMarkChangeEvent> waterMarkListener = new WaterMarkChangeDispatcher();
+
     /**
      * JMS topic for triggering feeds for cleanup
      */
@@ -87,6 +95,12 @@ public class JmsChangeEventDispatcher {
     @Inject
     @Named("preconditionTriggerQueue")
     private Queue preconditionTriggerQueue;
+    /**
+     * JMS topic for high-water mark changes
+     */
+    @Inject
+    @Named("waterMarkChangeTopic")
+    private Topic waterMarkChangeTopic;
 
     /**
      * Adds listeners for transferring events.
@@ -95,6 +109,7 @@ public class JmsChangeEventDispatcher {
     public void addEventListener() {
         eventService.addListener(cleanupListener);
         eventService.addListener(preconditionListener);
+        eventService.addListener(waterMarkListener);
     }
 
     /**
@@ -104,6 +119,7 @@ public class JmsChangeEventDispatcher {
     public void removeEventListener() {
         eventService.removeListener(cleanupListener);
         eventService.removeListener(preconditionListener);
+        eventService.removeListener(waterMarkListener);
     }
 
     /**
@@ -145,4 +161,15 @@ public class JmsChangeEventDispatcher {
             jmsMessagingTemplate.convertAndSend(preconditionTriggerQueue, triggerEv);
         }
     }
+
+    /**
+     * Transfers high-water mark changes to JMS.
+     */
+    private class WaterMarkChangeDispatcher implements MetadataEventListener<WaterMarkChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final WaterMarkChangeEvent event) {
+            jmsMessagingTemplate.convertAndSend(waterMarkChangeTopic, new FeedWaterMarkChangeEvent(event.getData().toString(), event.getWaterMarks()));
+        }
+    }
 }
@@ -29,6 +29,7 @@ import com.thinkbiganalytics.metadata.api.security.MetadataAccessControl;
 import com.thinkbiganalytics.metadata.api.sla.FeedExecutedSinceFeed;
 import com.thinkbiganalytics.metadata.api.sla.FeedExecutedSinceSchedule;
 import com.thinkbiganalytics.metadata.api.sla.WithinSchedule;
+import com.thinkbiganalytics.metadata.event.reactor.ReactorMetadataEventService;
 import com.thinkbiganalytics.metadata.modeshape.JcrMetadataAccess;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrTool;
 import com.thinkbiganalytics.metadata.rest.model.data.Datasource;
@@ -59,6 +60,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
 import io.swagger.annotations.Api;
@@ -114,6 +116,24 @@ public class DebugController {
         return event.toString();
     }
 
+    /**
+     * Gets the number of metadata events published, delivered and dropped, and the depth of the listener queues
+     *
+     * @return the metadata event statistics
+     */
+    @GET
+    @Path("events/statistics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getEventStatistics() {
+        this.accessController.checkPermission(AccessController.SERVICES, MetadataAccessControl.ADMIN_METADATA);
+
+        if (this.eventService instanceof ReactorMetadataEventService) {
+            return Response.ok(((ReactorMetadataEventService) this.eventService).getStatistics()).build();
+        } else {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+    }
+
     /**
      * creates a hive table model object for debugging
      *
@@ -0,0 +1,107 @@
+package com.thinkbiganalytics.metadata.rest.model.event;
+
+/*-
+ * #%L
+ * thinkbig-metadata-rest-model
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An event that indicates high-water mark values of a feed have changed.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FeedWaterMarkChangeEvent implements Serializable {
+
+    private static final long serialVersionUID = 4518331729940113702L;
+
+    /**
+     * Feed id
+     */
+    private String feedId;
+
+    /**
+     * New values by high-water mark name, with a {@code null} value for a deleted high-water mark
+     */
+    private HashMap<String, String> waterMarks = new HashMap<>();
+
+    /**
+     * Constructs a {@code FeedWaterMarkChangeEvent}.
+     */
+    public FeedWaterMarkChangeEvent() {
+    }
+
+    /**
+     * Constructs a {@code FeedWaterMarkChangeEvent} with the specified feed id and new values.
+     *
+     * @param feedId     the feed id
+     * @param waterMarks the new values by high-water mark name
+     */
+    public FeedWaterMarkChangeEvent(@Nonnull final String feedId, @Nonnull final Map<String, String> waterMarks) {
+        this.feedId = feedId;
+        this.waterMarks = new HashMap<>(waterMarks);
+    }
+
+    /**
+     * Gets the feed id.
+     *
+     * @return the feed id
+     */
+    public String getFeedId() {
+        return feedId;
+    }
+
+    /**
+     * Sets the feed id.
+     *
+     * @param feedId the feed id
+     */
+    public void setFeedId(@Nonnull final String feedId) {
+        this.feedId = feedId;
+    }
+
+    /**
+     * Gets the new values of the high-water marks that changed.
+     *
+     * @return the new values by high-water mark name, with a {@code null} value for a deleted high-water mark
+     */
+    public Map<String, String> getWaterMarks() {
+        return waterMarks;
+    }
+
+    /**
+     * Sets the new values of the high-water marks that changed.
+     *
+     * @param waterMarks the new values by high-water mark name
+     */
+    public void setWaterMarks(@Nonnull final Map<String, String> waterMarks) {
+        this.waterMarks = new HashMap<>(waterMarks);
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": " + feedId + " " + waterMarks.keySet();
+    }
+}
@@ -44,6 +44,10 @@ public class NiFiFlowCacheSync {
     private DateTime lastSync;
     private String message;
     private boolean updated = false;
+    /**
+     * The version of the Kylo flow cache change log this sync has been brought up to
+     */
+    private Long version;
 
     public NiFiFlowCacheSync() {
         this((NifiFlowCacheSnapshot) null);
@@ -162,6 +166,7 @@ public class NiFiFlowCacheSync {
     public void reset() {
         this.snapshot = null;
         this.lastSync = null;
+        this.version = null;
     }
 
     public String getSyncId() {
@@ -189,6 +194,14 @@ public class NiFiFlowCacheSync {
         return this.equals(UNAVAILABLE);
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -20,8 +20,6 @@ package com.thinkbiganalytics.metadata.sla;
  * #L%
  */
 
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.PostMetadataConfigAction;
 import com.thinkbiganalytics.metadata.modeshape.sla.JcrServiceLevelAgreement;
@@ -40,15 +38,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 /**
  * Provides the default implementation for service level agreement scheduling.
+ *
+ * Each SLA is scheduled under a job named after its id, so every node in a clustered scheduler uses the same job key for the same SLA and
+ * agrees on which node owns it.  Since SLAs can be created, deleted, or enabled through any node, every node periodically synchronizes its
+ * schedule with the SLAs in the metadata store.
  */
 public class DefaultServiceLevelAgreementScheduler implements ServiceLevelAgreementScheduler, PostMetadataConfigAction {
 
@@ -64,10 +73,24 @@ public class DefaultServiceLevelAgreementScheduler implements ServiceLevelAgreem
     private ServiceLevelAgreementChecker slaChecker;
     @Inject
     private MetadataAccess metadataAccess;
+    @Value("${sla.schedule.sync.interval.seconds:60}")
+    private long syncIntervalSeconds = 60;
 
 
     private Map<ServiceLevelAgreement.ID, String> scheduledJobNames = new ConcurrentHashMap<>();
 
+    /**
+     * SLAs whose triggers were paused when they were scheduled because the SLA was disabled
+     */
+    private Set<ServiceLevelAgreement.ID> pausedDisabledAgreements = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Scheduled SLAs that were not found during the last synchronization
+     */
+    private Set<ServiceLevelAgreement.ID> missingAgreements = new HashSet<>();
+
+    private ScheduledExecutorService syncExecutor;
+
 
     @Override
     public void run() {
@@ -82,36 +105,82 @@ public class DefaultServiceLevelAgreementScheduler implements ServiceLevelAgreem
 
             return null;
         }, MetadataAccess.SERVICE);
+
+        if (syncIntervalSeconds > 0) {
+            syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "kylo-sla-schedule-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncExecutor.scheduleWithFixedDelay(this::synchronizeSchedulesQuietly, syncIntervalSeconds, syncIntervalSeconds, TimeUnit.SECONDS);
+        }
     }
 
-    private String getUniqueName(String name) {
-        String uniqueName = name;
-        final String checkName = name;
-        String matchingName = Iterables.tryFind(scheduledJobNames.values(), new Predicate<String>() {
-            @Override
-            public boolean apply(String s) {
-                return s.equalsIgnoreCase(checkName);
-            }
-        }).orNull();
-        if (matchingName != null) {
-            //get numeric string after '-';
-            if (StringUtils.contains(matchingName, "-")) {
-                String number = StringUtils.substringAfterLast(matchingName, "-");
-                if (StringUtils.isNotBlank(number)) {
-                    number = StringUtils.trim(number);
-                    if (StringUtils.isNumeric(number)) {
-                        Integer num = Integer.parseInt(number);
-                        num++;
-                        uniqueName += "-" + num;
-                    } else {
-                        uniqueName += "-1";
+    @PreDestroy
+    public void shutdown() {
+        if (syncExecutor != null) {
+            syncExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedules the SLAs created on other nodes, resumes the SLAs that were enabled on other nodes, and unschedules the SLAs that were deleted.
+     * An SLA is only unscheduled once it is missing from two consecutive synchronizations so that an SLA scheduled before its transaction
+     * commits is not removed.  An SLA that cannot be scheduled is logged and retried on the next synchronization without affecting the other SLAs.
+     */
+    public void synchronizeSchedules() {
+        metadataAccess.read(() -> {
+            List<? extends ServiceLevelAgreement> agreements = slaProvider.getAgreements();
+            Set<ServiceLevelAgreement.ID> agreementIds = new HashSet<>();
+
+            if (agreements != null) {
+                for (ServiceLevelAgreement agreement : agreements) {
+                    agreementIds.add(agreement.getId());
+                    try {
+                        if (!scheduledJobNames.containsKey(agreement.getId())) {
+                            log.info("Scheduling SLA {} that was created on another node", agreement.getName());
+                            scheduleServiceLevelAgreement(agreement);
+                        } else if (agreement.isEnabled() && pausedDisabledAgreements.remove(agreement.getId())) {
+                            log.info("Resuming SLA {} that was enabled on another node", agreement.getName());
+                            try {
+                                enableServiceLevelAgreement(agreement);
+                            } catch (RuntimeException e) {
+                                pausedDisabledAgreements.add(agreement.getId());
+                                throw e;
+                            }
+                        }
+                    } catch (Exception e) {
+                        log.error("Unable to synchronize the schedule of SLA {}: {}", agreement.getId(), e.getMessage(), e);
                     }
                 }
-            } else {
-                uniqueName += "-1";
             }
+
+            Set<ServiceLevelAgreement.ID> missing = scheduledJobNames.keySet().stream()
+                .filter(slaId -> !agreementIds.contains(slaId))
+                .collect(Collectors.toSet());
+            missing.stream()
+                .filter(missingAgreements::contains)
+                .forEach(slaId -> {
+                    log.info("Unscheduling SLA {} that was deleted on another node", slaId);
+                    try {
+                        unscheduleServiceLevelAgreement(slaId);
+                    } catch (Exception e) {
+                        log.error("Unable to unschedule SLA {}: {}", slaId, e.getMessage(), e);
+                    }
+                });
+            missing.removeIf(slaId -> !scheduledJobNames.containsKey(slaId));
+            missingAgreements = missing;
+
+            return null;
+        }, MetadataAccess.SERVICE);
+    }
+
+    private void synchronizeSchedulesQuietly() {
+        try {
+            synchronizeSchedules();
+        } catch (Exception e) {
+            log.error("Unable to synchronize the SLA schedules: {}", e.getMessage(), e);
         }
-        return uniqueName;
     }
 
     /**
@@ -143,6 +212,7 @@ public class DefaultServiceLevelAgreementScheduler implements ServiceLevelAgreem
                 log.debug("Unscheduling sla job " + scheduledJobId.getName());
                 jobScheduler.deleteJob(scheduledJobId);
                 scheduledJobNames.remove(slaId);
+                pausedDisabledAgreements.remove(slaId);
                 unscheduled = true;
             }
         } catch (JobSchedulerException e) {
@@ -152,15 +222,11 @@ public class DefaultServiceLevelAgreementScheduler implements ServiceLevelAgreem
     }
 
 
+    /**
+     * The job is named after the SLA id rather than its name so that it has the same job key on every node
+     */
     private JobIdentifier slaJobName(ServiceLevelAgreement sla) {
-        String name = sla.getName();
-        if (scheduledJobNames.containsKey(sla.getId())) {
-            name = scheduledJobNames.get(sla.getId());
-        } else {
-            //ensure the name is unique in the saved ist
-            name = getUniqueName(name);
-        }
-        return jobIdentifierForName(name);
+        return jobIdentifierForName(sla.getId().toString());
     }
 
     private JobIdentifier jobIdentifierForName(String name) {
@@ -199,6 +265,7 @@ public class DefaultServiceLevelAgreementScheduler implements ServiceLevelAgreem
     public void enableServiceLevelAgreement(ServiceLevelAgreement sla) {
 
         ServiceLevelAgreement.ID slaId = sla.getId();
+        pausedDisabledAgreements.remove(slaId);
         if (scheduledJobNames.containsKey(slaId)) {
             JobIdentifier scheduledJobId = jobIdentifierForName(scheduledJobNames.get(slaId));
             try {
@@ -232,7 +299,7 @@ public class DefaultServiceLevelAgreementScheduler implements ServiceLevelAgreem
                         if (sla == null) {
                             ///Unable to find the SLA... Remove the SLA from teh schedule
                             unscheduleServiceLevelAgreement(slaId);
-
+                            return;
                         }
                         if (sla.isEnabled()) {
                             slaChecker.checkAgreement(sla);
@@ -251,6 +318,7 @@ public class DefaultServiceLevelAgreementScheduler implements ServiceLevelAgreem
 
         if (!sla.isEnabled()) {
             disableServiceLevelAgreement(sla);
+            pausedDisabledAgreements.add(sla.getId());
         }
     }
 
@@ -0,0 +1,224 @@
+package com.thinkbiganalytics.metadata.sla;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-integration-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.MetadataCommand;
+import com.thinkbiganalytics.metadata.sla.api.ServiceLevelAgreement;
+import com.thinkbiganalytics.metadata.sla.spi.ServiceLevelAgreementChecker;
+import com.thinkbiganalytics.metadata.sla.spi.ServiceLevelAgreementProvider;
+import com.thinkbiganalytics.scheduler.JobIdentifier;
+import com.thinkbiganalytics.scheduler.JobScheduler;
+import com.thinkbiganalytics.scheduler.QuartzScheduler;
+import com.thinkbiganalytics.scheduler.cluster.ClusteredTriggerListener;
+import com.thinkbiganalytics.scheduler.cluster.SchedulerClusterService;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+
+/**
+ * Runs two nodes of a clustered scheduler against the same SLAs
+ */
+public class DefaultServiceLevelAgreementSchedulerTest {
+
+    private final List<ServiceLevelAgreement> agreements = new ArrayList<>();
+
+    private ServiceLevelAgreementProvider slaProvider;
+
+    private MetadataAccess metadataAccess;
+
+    private Node node1;
+
+    private Node node2;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        slaProvider = Mockito.mock(ServiceLevelAgreementProvider.class);
+        Mockito.when(slaProvider.getAgreements()).thenReturn(agreements);
+
+        metadataAccess = Mockito.mock(MetadataAccess.class);
+        Mockito.when(metadataAccess.read(any(MetadataCommand.class), Mockito.<Principal>anyVararg()))
+            .thenAnswer(invocation -> ((MetadataCommand<?>) invocation.getArguments()[0]).execute());
+
+        node1 = new Node("node1");
+        node2 = new Node("node2");
+    }
+
+    /**
+     * An SLA created on one node is scheduled under the same job on the other node, and only one of them runs it
+     */
+    @Test
+    public void testSlaCreatedAtRuntimeRunsOnOneNode() throws Exception {
+        node1.scheduler.run();
+        node2.scheduler.run();
+
+        ServiceLevelAgreement sla = newAgreement("sla-1", "Daily Feed SLA", true);
+        agreements.add(sla);
+        node1.scheduler.scheduleServiceLevelAgreement(sla);
+
+        JobIdentifier node1Job = node1.scheduledJob();
+        Mockito.verify(node2.jobScheduler, Mockito.never()).scheduleWithCronExpression(any(JobIdentifier.class), any(Runnable.class), anyString());
+
+        node2.scheduler.synchronizeSchedules();
+        JobIdentifier node2Job = node2.scheduledJob();
+
+        Assert.assertEquals(node1Job.getName(), node2Job.getName());
+        Assert.assertEquals(node1Job.getGroup(), node2Job.getGroup());
+        Assert.assertNotEquals("exactly one node should run the SLA", node1.runs(node1Job), node2.runs(node2Job));
+    }
+
+    /**
+     * Two SLAs with the same name have different jobs that are the same on every node
+     */
+    @Test
+    public void testSlasWithTheSameNameHaveStableJobs() throws Exception {
+        ServiceLevelAgreement first = newAgreement("sla-1", "Feed SLA", true);
+        ServiceLevelAgreement second = newAgreement("sla-2", "Feed SLA", true);
+        agreements.addAll(Arrays.asList(first, second));
+
+        node1.scheduler.scheduleServiceLevelAgreement(first);
+        node1.scheduler.scheduleServiceLevelAgreement(second);
+        node2.scheduler.scheduleServiceLevelAgreement(second);
+        node2.scheduler.scheduleServiceLevelAgreement(first);
+
+        List<String> node1Jobs = node1.scheduledJobs();
+        List<String> node2Jobs = node2.scheduledJobs();
+        Assert.assertNotEquals(node1Jobs.get(0), node1Jobs.get(1));
+        Assert.assertEquals(new HashSet<>(node1Jobs), new HashSet<>(node2Jobs));
+    }
+
+    /**
+     * An SLA enabled or deleted on one node is resumed or unscheduled on the other node
+     */
+    @Test
+    public void testEnableAndDeleteOnAnotherNode() throws Exception {
+        ServiceLevelAgreement sla = newAgreement("sla-1", "Feed SLA", false);
+        agreements.add(sla);
+        node2.scheduler.synchronizeSchedules();
+        JobIdentifier job = node2.scheduledJob();
+        Mockito.verify(node2.jobScheduler).pauseTriggersOnJob(job);
+
+        Mockito.when(sla.isEnabled()).thenReturn(true);
+        node2.scheduler.synchronizeSchedules();
+        Mockito.verify(node2.jobScheduler).resumeTriggersOnJob(job);
+
+        agreements.clear();
+        node2.scheduler.synchronizeSchedules();
+        Mockito.verify(node2.jobScheduler, Mockito.never()).deleteJob(any(JobIdentifier.class));
+        node2.scheduler.synchronizeSchedules();
+        Mockito.verify(node2.jobScheduler).deleteJob(job);
+    }
+
+    /**
+     * An SLA that cannot be scheduled does not prevent the other SLAs from being scheduled, and is retried on the next synchronization
+     */
+    @Test
+    public void testFailedSlaDoesNotBlockOthers() throws Exception {
+        agreements.add(newAgreement("sla-1", "Broken SLA", true));
+        agreements.add(newAgreement("sla-2", "Feed SLA", true));
+        Mockito.doThrow(new IllegalStateException("scheduler unavailable")).doNothing()
+            .when(node2.jobScheduler).scheduleWithCronExpression(any(JobIdentifier.class), any(Runnable.class), anyString());
+
+        node2.scheduler.synchronizeSchedules();
+        Assert.assertEquals(2, node2.scheduledJobs().size());
+
+        node2.scheduler.synchronizeSchedules();
+        Assert.assertEquals(3, node2.scheduledJobs().size());
+    }
+
+    private ServiceLevelAgreement newAgreement(String id, String name, boolean enabled) {
+        ServiceLevelAgreement.ID slaId = Mockito.mock(ServiceLevelAgreement.ID.class);
+        Mockito.when(slaId.toString()).thenReturn(id);
+        ServiceLevelAgreement sla = Mockito.mock(ServiceLevelAgreement.class);
+        Mockito.when(sla.getId()).thenReturn(slaId);
+        Mockito.when(sla.getName()).thenReturn(name);
+        Mockito.when(sla.isEnabled()).thenReturn(enabled);
+        Mockito.when(slaProvider.getAgreement(slaId)).thenReturn(sla);
+        return sla;
+    }
+
+    /**
+     * A kylo-services node with its own scheduler that shares the heartbeat table and SLAs with the other node
+     */
+    private class Node {
+
+        final JobScheduler jobScheduler = Mockito.mock(JobScheduler.class);
+
+        final DefaultServiceLevelAgreementScheduler scheduler = new DefaultServiceLevelAgreementScheduler();
+
+        final ClusteredTriggerListener listener;
+
+        @SuppressWarnings("unchecked")
+        Node(String nodeId) {
+            JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+            Mockito.when(jdbcTemplate.update(anyString(), Mockito.<Object>anyVararg())).thenReturn(1);
+            Mockito.when(jdbcTemplate.queryForList(anyString(), eq(String.class), Mockito.<Object>anyVararg())).thenReturn(Arrays.asList("node1", "node2"));
+            SchedulerClusterService clusterService = new SchedulerClusterService(jdbcTemplate, true, nodeId, nodeId);
+            clusterService.heartbeat();
+            listener = new ClusteredTriggerListener(clusterService);
+
+            ReflectionTestUtils.setField(scheduler, "slaProvider", slaProvider);
+            ReflectionTestUtils.setField(scheduler, "jobScheduler", jobScheduler);
+            ReflectionTestUtils.setField(scheduler, "slaChecker", Mockito.mock(ServiceLevelAgreementChecker.class));
+            ReflectionTestUtils.setField(scheduler, "metadataAccess", metadataAccess);
+            ReflectionTestUtils.setField(scheduler, "syncIntervalSeconds", 0L);
+        }
+
+        JobIdentifier scheduledJob() throws Exception {
+            ArgumentCaptor<JobIdentifier> jobIdentifier = ArgumentCaptor.forClass(JobIdentifier.class);
+            Mockito.verify(jobScheduler).scheduleWithCronExpression(jobIdentifier.capture(), any(Runnable.class), anyString());
+            return jobIdentifier.getValue();
+        }
+
+        List<String> scheduledJobs() throws Exception {
+            ArgumentCaptor<JobIdentifier> jobIdentifier = ArgumentCaptor.forClass(JobIdentifier.class);
+            Mockito.verify(jobScheduler, Mockito.atLeastOnce()).scheduleWithCronExpression(jobIdentifier.capture(), any(Runnable.class), anyString());
+            return jobIdentifier.getAllValues().stream().map(JobIdentifier::getName).collect(Collectors.toList());
+        }
+
+        boolean runs(JobIdentifier jobIdentifier) {
+            Trigger trigger = TriggerBuilder.newTrigger()
+                .withIdentity(jobIdentifier.getName(), jobIdentifier.getGroup())
+                .forJob(QuartzScheduler.jobKeyForJobIdentifier(jobIdentifier))
+                .build();
+            return !listener.vetoJobExecution(trigger, null);
+        }
+    }
+}
@@ -26,9 +26,11 @@ import com.thinkbiganalytics.rest.model.RestResponseStatus;
 import com.thinkbiganalytics.scheduler.JobInfo;
 import com.thinkbiganalytics.scheduler.JobScheduler;
 import com.thinkbiganalytics.scheduler.JobSchedulerException;
+import com.thinkbiganalytics.scheduler.cluster.SchedulerClusterService;
 import com.thinkbiganalytics.scheduler.rest.Model;
 import com.thinkbiganalytics.scheduler.rest.model.ScheduleIdentifier;
 import com.thinkbiganalytics.scheduler.rest.model.ScheduledJob;
+import com.thinkbiganalytics.scheduler.rest.model.SchedulerNodeStatus;
 import com.thinkbiganalytics.scheduler.rest.model.TriggerInfo;
 import com.thinkbiganalytics.security.AccessController;
 
@@ -59,6 +61,9 @@ public class SchedulerRestController {
     @Inject
     private JobScheduler quartzScheduler;
 
+    @Inject
+    private SchedulerClusterService schedulerClusterService;
+
     @Inject
     private AccessController accessController;
 
@@ -76,6 +81,19 @@ public class SchedulerRestController {
         return quartzScheduler.getMetaData();
     }
 
+    @GET
+    @Path("/cluster")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Gets the status and trigger metrics of each scheduler node.")
+    @ApiResponses(
+        @ApiResponse(code = 200, message = "Returns the scheduler nodes.", response = SchedulerNodeStatus.class, responseContainer = "List")
+    )
+    public List<SchedulerNodeStatus> getClusterStatus() {
+        this.accessController.checkPermission(AccessController.SERVICES, OperationsAccessControl.ACCESS_OPS);
+
+        return schedulerClusterService.getNodeStatus();
+    }
+
     @POST
     @Path("/pause")
     @Produces(MediaType.APPLICATION_JSON)
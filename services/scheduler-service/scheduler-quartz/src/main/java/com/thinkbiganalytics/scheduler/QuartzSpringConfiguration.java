@@ -20,15 +20,27 @@ package com.thinkbiganalytics.scheduler;
  * #L%
  */
 
+import com.thinkbiganalytics.scheduler.cluster.ClusteredTriggerListener;
+import com.thinkbiganalytics.scheduler.cluster.SchedulerClusterService;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.quartz.SchedulerFactoryBean;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Inject;
 
 /**
  * Spring configuration to setup the Quartz scheduler
+ *
+ * Set {@code kylo.scheduler.cluster.enabled=true} when running more than one kylo-services node so that each job only runs on a single node.
  */
 @Configuration
 public class QuartzSpringConfiguration {
@@ -36,6 +48,12 @@ public class QuartzSpringConfiguration {
     @Inject
     private ApplicationContext applicationContext;
 
+    @Inject
+    private Environment environment;
+
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+
     @Bean(name = "schedulerFactoryBean")
     public SchedulerFactoryBean schedulerFactoryBean() {
         SchedulerFactoryBean scheduler = new SchedulerFactoryBean();
@@ -44,9 +62,31 @@ public class QuartzSpringConfiguration {
         AutowiringSpringBeanJobFactory jobFactory = new AutowiringSpringBeanJobFactory();
         jobFactory.setApplicationContext(applicationContext);
         scheduler.setJobFactory(jobFactory);
+        //skip jobs owned by other nodes in the cluster and capture the trigger metrics
+        scheduler.setGlobalTriggerListeners(new ClusteredTriggerListener(schedulerClusterService()));
 
         return scheduler;
     }
 
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public SchedulerClusterService schedulerClusterService() {
+        boolean enabled = environment.getProperty("kylo.scheduler.cluster.enabled", Boolean.class, false);
+        String hostName = getHostName();
+        String nodeId = environment.getProperty("kylo.scheduler.cluster.nodeId", hostName + ":" + environment.getProperty("server.port", "8420"));
+
+        SchedulerClusterService clusterService = new SchedulerClusterService(enabled ? jdbcTemplate : null, enabled, nodeId, hostName);
+        clusterService.setHeartbeatIntervalMillis(TimeUnit.SECONDS.toMillis(environment.getProperty("kylo.scheduler.cluster.heartbeatIntervalSeconds", Long.class, 10L)));
+        clusterService.setNodeTimeoutMillis(TimeUnit.SECONDS.toMillis(environment.getProperty("kylo.scheduler.cluster.nodeTimeoutSeconds", Long.class, 45L)));
+        clusterService.setClockSkewToleranceMillis(TimeUnit.SECONDS.toMillis(environment.getProperty("kylo.scheduler.cluster.clockSkewToleranceSeconds", Long.class, 15L)));
+        clusterService.setVirtualNodes(environment.getProperty("kylo.scheduler.cluster.virtualNodes", Integer.class, 64));
+        return clusterService;
+    }
 
+    private String getHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package com.thinkbiganalytics.scheduler.cluster;
+
+/*-
+ * #%L
+ * thinkbig-scheduler-quartz
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.listeners.TriggerListenerSupport;
+
+/**
+ * Global trigger listener that vetoes the execution of jobs owned by another node in the cluster, and records the trigger metrics for this node.
+ *
+ * Jobs triggered manually (i.e. through the scheduler REST api) always run on the node that received the request.
+ */
+public class ClusteredTriggerListener extends TriggerListenerSupport {
+
+    /**
+     * Prefix Quartz gives to the triggers it creates for {@link Scheduler#triggerJob(org.quartz.JobKey)}
+     */
+    private static final String MANUAL_TRIGGER_PREFIX = "MT_";
+
+    private final SchedulerClusterService clusterService;
+
+    public ClusteredTriggerListener(SchedulerClusterService clusterService) {
+        this.clusterService = clusterService;
+    }
+
+    @Override
+    public String getName() {
+        return "kyloClusteredTriggerListener";
+    }
+
+    @Override
+    public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context) {
+        if (isManualTrigger(trigger)) {
+            clusterService.recordFired();
+            return false;
+        }
+        if (clusterService.isOwner(trigger.getJobKey().toString())) {
+            clusterService.recordFired();
+            return false;
+        } else {
+            getLog().debug("Skipping job {} since it is owned by another node in the cluster", trigger.getJobKey());
+            clusterService.recordVetoed();
+            return true;
+        }
+    }
+
+    private boolean isManualTrigger(Trigger trigger) {
+        return Scheduler.DEFAULT_GROUP.equals(trigger.getKey().getGroup()) && trigger.getKey().getName().startsWith(MANUAL_TRIGGER_PREFIX);
+    }
+
+    @Override
+    public void triggerMisfired(Trigger trigger) {
+        if (clusterService.isOwner(trigger.getJobKey().toString())) {
+            clusterService.recordMisfired();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.thinkbiganalytics.scheduler.cluster;
+
+/*-
+ * #%L
+ * thinkbig-scheduler-quartz
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent hash ring used to assign scheduled jobs to the nodes in the cluster.
+ *
+ * Each node is placed on the ring multiple times (virtual nodes) so jobs are spread evenly, and when a node joins or leaves only the jobs
+ * on its segments of the ring move to another node.
+ */
+public class ConsistentHashRing {
+
+    private final SortedMap<Long, String> ring = new TreeMap<>();
+
+    private final Set<String> nodes;
+
+    /**
+     * @param nodes        the ids of the nodes in the cluster
+     * @param virtualNodes the number of points to place on the ring for each node
+     */
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        this.nodes = Collections.unmodifiableSet(new TreeSet<>(nodes));
+        for (String node : this.nodes) {
+            for (int i = 0; i < Math.max(virtualNodes, 1); i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * Find the node that owns the given key
+     *
+     * @param key the key, such as a job name
+     * @return the owning node id, or {@code null} if the ring has no nodes
+     */
+    public String getNode(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        SortedMap<Long, String> tail = ring.tailMap(hash(key));
+        Long point = tail.isEmpty() ? ring.firstKey() : tail.firstKey();
+        return ring.get(point);
+    }
+
+    /**
+     * @return the ids of the nodes on the ring
+     */
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConsistentHashRing{nodes=" + nodes + "}";
+    }
+}
@@ -0,0 +1,315 @@
+package com.thinkbiganalytics.scheduler.cluster;
+
+/*-
+ * #%L
+ * thinkbig-scheduler-quartz
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.scheduler.rest.model.SchedulerNodeStatus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the kylo-services nodes that share the scheduler and decides which node owns each job.
+ *
+ * Every node keeps its own in-memory Quartz scheduler with all the jobs scheduled.  Nodes register themselves and send periodic heartbeats to the
+ * {@code KYLO_SCHEDULER_NODE} table; the nodes with a recent heartbeat are placed on a {@link ConsistentHashRing} and a job only runs on the node
+ * the ring assigns it to.  When a node joins, stops, or misses its heartbeats the ring is rebuilt and only the jobs of the affected segments move.
+ *
+ * When clustering is disabled this node owns every job.
+ */
+public class SchedulerClusterService {
+
+    private static final Logger log = LoggerFactory.getLogger(SchedulerClusterService.class);
+
+    private static final String UPDATE_HEARTBEAT =
+        "UPDATE KYLO_SCHEDULER_NODE SET HOST_NAME = ?, LAST_HEARTBEAT = ?, FIRED_COUNT = ?, VETOED_COUNT = ?, MISFIRED_COUNT = ? WHERE NODE_ID = ?";
+
+    private static final String INSERT_NODE =
+        "INSERT INTO KYLO_SCHEDULER_NODE (NODE_ID, HOST_NAME, START_TIME, LAST_HEARTBEAT, FIRED_COUNT, VETOED_COUNT, MISFIRED_COUNT) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_ACTIVE_NODES = "SELECT NODE_ID FROM KYLO_SCHEDULER_NODE WHERE LAST_HEARTBEAT >= ?";
+
+    private static final String SELECT_NODES =
+        "SELECT NODE_ID, HOST_NAME, START_TIME, LAST_HEARTBEAT, FIRED_COUNT, VETOED_COUNT, MISFIRED_COUNT FROM KYLO_SCHEDULER_NODE ORDER BY NODE_ID";
+
+    private static final String DELETE_NODE = "DELETE FROM KYLO_SCHEDULER_NODE WHERE NODE_ID = ?";
+
+    private static final String DELETE_EXPIRED_NODES = "DELETE FROM KYLO_SCHEDULER_NODE WHERE LAST_HEARTBEAT < ?";
+
+    /**
+     * Nodes that have not sent a heartbeat in this many timeout periods are removed from the table
+     */
+    private static final int EXPIRED_NODE_TIMEOUTS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+
+    private final String nodeId;
+
+    private final String hostName;
+
+    private final long startTime = System.currentTimeMillis();
+
+    private long heartbeatIntervalMillis = TimeUnit.SECONDS.toMillis(10);
+
+    private long nodeTimeoutMillis = TimeUnit.SECONDS.toMillis(45);
+
+    /**
+     * Heartbeats are stamped with each node's own clock, so a node is only considered inactive once its heartbeat is older than the node timeout
+     * plus this tolerance for the clock difference between the nodes
+     */
+    private long clockSkewToleranceMillis = TimeUnit.SECONDS.toMillis(15);
+
+    private int virtualNodes = 64;
+
+    private volatile ConsistentHashRing ring;
+
+    private final AtomicLong firedTriggers = new AtomicLong();
+
+    private final AtomicLong vetoedTriggers = new AtomicLong();
+
+    private final AtomicLong misfiredTriggers = new AtomicLong();
+
+    private ScheduledExecutorService heartbeatExecutor;
+
+    /**
+     * Creates a service for a standalone scheduler that owns every job
+     *
+     * @param nodeId   the id of this node
+     * @param hostName the host name of this node
+     */
+    public SchedulerClusterService(String nodeId, String hostName) {
+        this(null, false, nodeId, hostName);
+    }
+
+    /**
+     * @param jdbcTemplate the template used to access the {@code KYLO_SCHEDULER_NODE} table
+     * @param enabled      {@code true} to partition jobs across the nodes in the cluster
+     * @param nodeId       the unique id of this node
+     * @param hostName     the host name of this node
+     */
+    public SchedulerClusterService(JdbcTemplate jdbcTemplate, boolean enabled, String nodeId, String hostName) {
+        if (enabled && jdbcTemplate == null) {
+            throw new IllegalStateException("A JdbcTemplate is required to run the scheduler in clustered mode");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.nodeId = nodeId;
+        this.hostName = hostName;
+        this.ring = new ConsistentHashRing(Collections.singleton(nodeId), virtualNodes);
+    }
+
+    /**
+     * Register this node and start sending heartbeats
+     */
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Starting clustered scheduler node {} with a heartbeat every {} ms and a node timeout of {} ms", nodeId, heartbeatIntervalMillis, nodeTimeoutMillis);
+        heartbeatQuietly();
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kylo-scheduler-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeatQuietly, heartbeatIntervalMillis, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop sending heartbeats and remove this node so its jobs are immediately picked up by the other nodes
+     */
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+        if (heartbeatExecutor != null) {
+            heartbeatExecutor.shutdownNow();
+        }
+        try {
+            jdbcTemplate.update(DELETE_NODE, nodeId);
+            log.info("Removed clustered scheduler node {}", nodeId);
+        } catch (Exception e) {
+            log.warn("Unable to remove clustered scheduler node {}. It will be removed once its heartbeat expires: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Record this node's heartbeat and metrics, then refresh the ring from the nodes with a recent heartbeat
+     */
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        int updated = jdbcTemplate.update(UPDATE_HEARTBEAT, hostName, now, firedTriggers.get(), vetoedTriggers.get(), misfiredTriggers.get(), nodeId);
+        if (updated == 0) {
+            jdbcTemplate.update(INSERT_NODE, nodeId, hostName, startTime, now, firedTriggers.get(), vetoedTriggers.get(), misfiredTriggers.get());
+            log.info("Registered clustered scheduler node {}", nodeId);
+        }
+        jdbcTemplate.update(DELETE_EXPIRED_NODES, now - (nodeTimeoutMillis * EXPIRED_NODE_TIMEOUTS) - clockSkewToleranceMillis);
+
+        Set<String> activeNodes = new HashSet<>(jdbcTemplate.queryForList(SELECT_ACTIVE_NODES, String.class, activeCutoff(now)));
+        activeNodes.add(nodeId);
+        updateRing(activeNodes);
+    }
+
+    private void heartbeatQuietly() {
+        try {
+            heartbeat();
+        } catch (Exception e) {
+            //keep the last known ring so jobs continue to be partitioned the same way until the database is reachable again
+            log.error("Unable to send the heartbeat for clustered scheduler node {}: {}", nodeId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rebuild the ring if the set of active nodes has changed
+     *
+     * @param activeNodes the ids of the nodes with a recent heartbeat
+     */
+    void updateRing(Collection<String> activeNodes) {
+        Set<String> nodes = new HashSet<>(activeNodes);
+        if (!nodes.equals(ring.getNodes())) {
+            log.info("Scheduler cluster membership changed from {} to {}. Rebalancing job ownership.", ring.getNodes(), nodes);
+            ring = new ConsistentHashRing(nodes, virtualNodes);
+        }
+    }
+
+    /**
+     * Check if this node should run the given job
+     *
+     * @param jobKey the unique name of the job
+     * @return {@code true} if this node owns the job
+     */
+    public boolean isOwner(String jobKey) {
+        if (!enabled) {
+            return true;
+        }
+        String owner = ring.getNode(jobKey);
+        return owner == null || nodeId.equals(owner);
+    }
+
+    public void recordFired() {
+        firedTriggers.incrementAndGet();
+    }
+
+    public void recordVetoed() {
+        vetoedTriggers.incrementAndGet();
+    }
+
+    public void recordMisfired() {
+        misfiredTriggers.incrementAndGet();
+    }
+
+    /**
+     * Get the status and trigger metrics of every node in the cluster.  When clustering is disabled only this node is returned.
+     *
+     * @return the status of the nodes
+     */
+    public List<SchedulerNodeStatus> getNodeStatus() {
+        if (!enabled) {
+            SchedulerNodeStatus status = new SchedulerNodeStatus();
+            status.setNodeId(nodeId);
+            status.setHostName(hostName);
+            status.setStartTime(new Date(startTime));
+            status.setLastHeartbeat(new Date());
+            status.setActive(true);
+            status.setCurrentNode(true);
+            status.setFiredTriggers(firedTriggers.get());
+            status.setVetoedTriggers(vetoedTriggers.get());
+            status.setMisfiredTriggers(misfiredTriggers.get());
+            status.setFiredTriggersPerMinute(perMinute(firedTriggers.get(), startTime, System.currentTimeMillis()));
+            return Collections.singletonList(status);
+        }
+        long now = System.currentTimeMillis();
+        return jdbcTemplate.query(SELECT_NODES, (rs, rowNum) -> {
+            SchedulerNodeStatus status = new SchedulerNodeStatus();
+            status.setNodeId(rs.getString("NODE_ID"));
+            status.setHostName(rs.getString("HOST_NAME"));
+            long nodeStartTime = rs.getLong("START_TIME");
+            long lastHeartbeat = rs.getLong("LAST_HEARTBEAT");
+            status.setStartTime(new Date(nodeStartTime));
+            status.setLastHeartbeat(new Date(lastHeartbeat));
+            status.setActive(lastHeartbeat >= activeCutoff(now));
+            if (lastHeartbeat > now + clockSkewToleranceMillis) {
+                log.warn("The heartbeat of scheduler node {} is {} ms ahead of this node's clock. Synchronize the clocks of the cluster nodes.", status.getNodeId(),
+                         lastHeartbeat - now);
+            }
+            status.setCurrentNode(nodeId.equals(status.getNodeId()));
+            status.setFiredTriggers(rs.getLong("FIRED_COUNT"));
+            status.setVetoedTriggers(rs.getLong("VETOED_COUNT"));
+            status.setMisfiredTriggers(rs.getLong("MISFIRED_COUNT"));
+            status.setFiredTriggersPerMinute(perMinute(status.getFiredTriggers(), nodeStartTime, lastHeartbeat));
+            return status;
+        });
+    }
+
+    /**
+     * Nodes with a heartbeat before the returned time are inactive
+     */
+    private long activeCutoff(long now) {
+        return now - nodeTimeoutMillis - clockSkewToleranceMillis;
+    }
+
+    private double perMinute(long count, long from, long to) {
+        double minutes = (to - from) / 60000.0;
+        return minutes > 0 ? count / minutes : 0.0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Set<String> getActiveNodes() {
+        return ring.getNodes();
+    }
+
+    public void setHeartbeatIntervalMillis(long heartbeatIntervalMillis) {
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+    }
+
+    public void setNodeTimeoutMillis(long nodeTimeoutMillis) {
+        this.nodeTimeoutMillis = nodeTimeoutMillis;
+    }
+
+    public void setClockSkewToleranceMillis(long clockSkewToleranceMillis) {
+        this.clockSkewToleranceMillis = clockSkewToleranceMillis;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+        this.ring = new ConsistentHashRing(ring.getNodes(), virtualNodes);
+    }
+}
@@ -0,0 +1,81 @@
+package com.thinkbiganalytics.scheduler.cluster;
+
+/*-
+ * #%L
+ * thinkbig-scheduler-quartz
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConsistentHashRingTest {
+
+    @Test
+    public void testDistribution() {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("node1", "node2", "node3"), 64);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            counts.merge(ring.getNode("SLA.job-" + i), 1, Integer::sum);
+        }
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue("uneven distribution " + counts, count > 500));
+    }
+
+    @Test
+    public void testOnlyJobsOfRemovedNodeMove() {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("node1", "node2", "node3"), 64);
+        ConsistentHashRing rebalanced = new ConsistentHashRing(Arrays.asList("node1", "node3"), 64);
+        for (int i = 0; i < 1000; i++) {
+            String job = "SLA.job-" + i;
+            String owner = ring.getNode(job);
+            if (!"node2".equals(owner)) {
+                assertEquals(owner, rebalanced.getNode(job));
+            } else {
+                assertFalse("node2".equals(rebalanced.getNode(job)));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyRing() {
+        ConsistentHashRing ring = new ConsistentHashRing(Collections.emptyList(), 64);
+        assertTrue(ring.isEmpty());
+        assertNull(ring.getNode("SLA.job"));
+    }
+
+    @Test
+    public void testStandaloneServiceOwnsEveryJob() {
+        SchedulerClusterService clusterService = new SchedulerClusterService("node1", "localhost");
+        assertFalse(clusterService.isEnabled());
+        assertTrue(clusterService.isOwner("SLA.job"));
+        clusterService.recordFired();
+        clusterService.recordMisfired();
+        assertEquals(1, clusterService.getNodeStatus().size());
+        assertEquals(1L, clusterService.getNodeStatus().get(0).getFiredTriggers());
+        assertEquals(1L, clusterService.getNodeStatus().get(0).getMisfiredTriggers());
+    }
+}
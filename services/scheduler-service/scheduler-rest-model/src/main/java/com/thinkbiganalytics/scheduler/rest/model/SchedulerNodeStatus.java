@@ -0,0 +1,142 @@
+package com.thinkbiganalytics.scheduler.rest.model;
+
+/*-
+ * #%L
+ * thinkbig-scheduler-rest-model
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.Date;
+
+/**
+ * Status and trigger metrics for a single node of a clustered scheduler
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SchedulerNodeStatus {
+
+    private String nodeId;
+    private String hostName;
+    private Date startTime;
+    private Date lastHeartbeat;
+    private boolean active;
+    private boolean currentNode;
+    private long firedTriggers;
+    private long vetoedTriggers;
+    private long misfiredTriggers;
+    private double firedTriggersPerMinute;
+
+    public SchedulerNodeStatus() {
+
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public void setHostName(String hostName) {
+        this.hostName = hostName;
+    }
+
+    public Date getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Date startTime) {
+        this.startTime = startTime;
+    }
+
+    public Date getLastHeartbeat() {
+        return lastHeartbeat;
+    }
+
+    public void setLastHeartbeat(Date lastHeartbeat) {
+        this.lastHeartbeat = lastHeartbeat;
+    }
+
+    /**
+     * @return {@code true} if the node has sent a heartbeat recently enough to be assigned jobs
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    /**
+     * @return {@code true} if this is the node that served the request
+     */
+    public boolean isCurrentNode() {
+        return currentNode;
+    }
+
+    public void setCurrentNode(boolean currentNode) {
+        this.currentNode = currentNode;
+    }
+
+    /**
+     * @return the number of triggers owned by this node that fired since the node started
+     */
+    public long getFiredTriggers() {
+        return firedTriggers;
+    }
+
+    public void setFiredTriggers(long firedTriggers) {
+        this.firedTriggers = firedTriggers;
+    }
+
+    /**
+     * @return the number of triggers this node skipped because the job is owned by another node
+     */
+    public long getVetoedTriggers() {
+        return vetoedTriggers;
+    }
+
+    public void setVetoedTriggers(long vetoedTriggers) {
+        this.vetoedTriggers = vetoedTriggers;
+    }
+
+    /**
+     * @return the number of misfires of triggers owned by this node
+     */
+    public long getMisfiredTriggers() {
+        return misfiredTriggers;
+    }
+
+    public void setMisfiredTriggers(long misfiredTriggers) {
+        this.misfiredTriggers = misfiredTriggers;
+    }
+
+    public double getFiredTriggersPerMinute() {
+        return firedTriggersPerMinute;
+    }
+
+    public void setFiredTriggersPerMinute(double firedTriggersPerMinute) {
+        this.firedTriggersPerMinute = firedTriggersPerMinute;
+    }
+}
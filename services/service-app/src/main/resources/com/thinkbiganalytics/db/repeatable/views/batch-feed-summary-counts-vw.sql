@@ -22,12 +22,12 @@ Get the health of the feed merging the Check data job health into the correct fe
  */
 CREATE OR REPLACE VIEW BATCH_FEED_SUMMARY_COUNTS_VW AS
 SELECT f.FEED_ID as FEED_ID,f.FEED_NAME as FEED_NAME,
-       count(e2.JOB_EXECUTION_ID) as ALL_COUNT,
-       count(case when e2.status <>'ABANDONED' AND (e2.status = 'FAILED' or e2.EXIT_CODE = 'FAILED') then 1 else null end) as FAILED_COUNT,
-       count(case when e2.status <>'ABANDONED' AND (e2.EXIT_CODE = 'COMPLETED') then 1 else null end) as COMPLETED_COUNT,
-       count(case when e2.status = 'ABANDONED'then 1 else null end) as ABANDONED_COUNT,
-        count(case when e2.status IN('STARTING','STARTED')then 1 else null end) as RUNNING_COUNT
-FROM   BATCH_JOB_EXECUTION e2
-INNER JOIN BATCH_JOB_INSTANCE i on i.JOB_INSTANCE_ID = e2.JOB_INSTANCE_ID
-INNER JOIN CHECK_DATA_TO_FEED_VW f on f.KYLO_FEED_ID = i.FEED_ID
-group by f.feed_id, f.feed_name;
+       sum(s.ALL_COUNT) as ALL_COUNT,
+       sum(s.FAILED_COUNT) as FAILED_COUNT,
+       sum(s.COMPLETED_COUNT) as COMPLETED_COUNT,
+       sum(s.ABANDONED_COUNT) as ABANDONED_COUNT,
+       sum(s.RUNNING_COUNT) as RUNNING_COUNT
+FROM   FEED_JOB_SUMMARY s
+INNER JOIN CHECK_DATA_TO_FEED_VW f on f.KYLO_FEED_ID = s.FEED_ID
+group by f.feed_id, f.feed_name
+having sum(s.ALL_COUNT) > 0;
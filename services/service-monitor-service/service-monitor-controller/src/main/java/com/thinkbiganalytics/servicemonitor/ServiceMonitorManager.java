@@ -20,40 +20,63 @@ package com.thinkbiganalytics.servicemonitor;
  * #L%
  */
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.thinkbiganalytics.servicemonitor.check.ServiceStatusCheck;
 import com.thinkbiganalytics.servicemonitor.check.ServicesStatusCheck;
+import com.thinkbiganalytics.servicemonitor.model.DefaultServiceComponent;
+import com.thinkbiganalytics.servicemonitor.model.DefaultServiceStatusResponse;
+import com.thinkbiganalytics.servicemonitor.model.ServiceComponent;
 import com.thinkbiganalytics.servicemonitor.model.ServiceStatusResponse;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Application Bean that looks for all beans implementing either ServiceStatusCheck or ServicesStatusCheck
+ * Application Bean that looks for all beans implementing either ServiceStatusCheck or ServicesStatusCheck.
+ *
+ * Each check runs in the background on its own interval, using a shared, bounded pool of threads, and is cancelled if it does not complete within its
+ * timeout.  The latest results are kept in memory so callers are never blocked by a slow check.  The interval and timeout default to the
+ * {@code kylo.service.monitor.check.interval} and {@code kylo.service.monitor.check.timeout} properties, in seconds, and may be set for a single check
+ * with {@code kylo.service.monitor.check.<bean name>.interval} and {@code kylo.service.monitor.check.<bean name>.timeout}.
  */
 @Configuration
-public class ServiceMonitorManager implements ApplicationContextAware, InitializingBean {
+public class ServiceMonitorManager implements ApplicationContextAware, InitializingBean, DisposableBean {
 
-    private List<ServiceStatusCheck> services;
-    private List<ServicesStatusCheck> servicesHealth;
+    private static final Logger log = LoggerFactory.getLogger(ServiceMonitorManager.class);
+
+    private static final String PROPERTY_PREFIX = "kylo.service.monitor.check.";
+
+    private List<ScheduledCheck> checks;
+    private List<ServiceStatusListener> listeners;
     private ApplicationContext applicationContext;
-    private int totalServices;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
 
     public ServiceMonitorManager() {
-        this.services = new ArrayList<>();
-        this.servicesHealth = new ArrayList<>();
-
+        this.checks = new ArrayList<>();
+        this.listeners = new ArrayList<>();
     }
 
 
@@ -64,82 +87,215 @@ public class ServiceMonitorManager implements ApplicationContextAware, Initializ
 
     @Override
     public void afterPropertiesSet() throws Exception {
+        Environment env = applicationContext.getEnvironment();
+        long interval = env.getProperty(PROPERTY_PREFIX + "interval", Long.class, 30L);
+        long timeout = env.getProperty(PROPERTY_PREFIX + "timeout", Long.class, 20L);
+        int threads = env.getProperty(PROPERTY_PREFIX + "threads", Integer.class, 4);
+
         Map<String, ServiceStatusCheck> map = applicationContext.getBeansOfType(ServiceStatusCheck.class);
         if (map != null) {
-            this.services.addAll(map.values());
+            for (Map.Entry<String, ServiceStatusCheck> entry : map.entrySet()) {
+                final ServiceStatusCheck check = entry.getValue();
+                addCheck(env, entry.getKey(), () -> Collections.singletonList(check.healthCheck()), interval, timeout);
+            }
         }
         Map<String, ServicesStatusCheck> servicesMap = applicationContext.getBeansOfType(ServicesStatusCheck.class);
         if (servicesMap != null) {
-            this.servicesHealth.addAll(servicesMap.values());
+            for (Map.Entry<String, ServicesStatusCheck> entry : servicesMap.entrySet()) {
+                addCheck(env, entry.getKey(), entry.getValue()::healthCheck, interval, timeout);
+            }
+        }
+        Map<String, ServiceStatusListener> listenerMap = applicationContext.getBeansOfType(ServiceStatusListener.class);
+        if (listenerMap != null) {
+            this.listeners.addAll(listenerMap.values());
         }
-        totalServices = this.services.size() + this.servicesHealth.size();
 
+        if (!checks.isEmpty()) {
+            int poolSize = Math.max(1, Math.min(threads, checks.size()));
+            workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                                             new ThreadFactoryBuilder().setNameFormat("service-monitor-check-%d").setDaemon(true).build());
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("service-monitor-scheduler").setDaemon(true).build());
+            for (ScheduledCheck check : checks) {
+                scheduler.scheduleWithFixedDelay(check::start, 0, check.intervalSeconds, TimeUnit.SECONDS);
+            }
+        }
     }
 
-
-    private Callable<List<ServiceStatusResponse>> servicesCheckAsCallable(final ServicesStatusCheck servicesStatusCheck) {
-        return new Callable<List<ServiceStatusResponse>>() {
-            @Override
-            public List<ServiceStatusResponse> call() throws Exception {
-                return servicesStatusCheck.healthCheck();
-            }
-        };
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
     }
 
-    private Callable<List<ServiceStatusResponse>> serviceCheckAsCallable(final ServiceStatusCheck servicesStatusCheck) {
-        return new Callable<List<ServiceStatusResponse>>() {
-            @Override
-            public List<ServiceStatusResponse> call() throws Exception {
-                return Arrays.asList(servicesStatusCheck.healthCheck());
-            }
-        };
+    private void addCheck(Environment env, String name, Callable<List<ServiceStatusResponse>> check, long defaultInterval, long defaultTimeout) {
+        long interval = env.getProperty(PROPERTY_PREFIX + name + ".interval", Long.class, defaultInterval);
+        long timeout = env.getProperty(PROPERTY_PREFIX + name + ".timeout", Long.class, defaultTimeout);
+        checks.add(new ScheduledCheck(name, check, Math.max(interval, 1), Math.max(timeout, 1)));
     }
 
 
     /**
-     * Run a service check on the system.
-     * Each service will run in a separate thread and return status back
+     * Gets the latest status of the services on the system.
+     * Each service is checked in the background so this returns immediately with the results of the last completed checks. Checks that have not
+     * completed yet are reported with an unknown state.
      *
      * @return a list of service status objects
      */
     public List<ServiceStatusResponse> doServiceCheck() {
-        List<ServiceStatusResponse> serviceHealthResponseList = new ArrayList<ServiceStatusResponse>();
-        if (totalServices > 0) {
-            ExecutorService pool = Executors.newFixedThreadPool(totalServices);
-            List<Callable<List<ServiceStatusResponse>>> tasks = new ArrayList<>();
-            for (ServiceStatusCheck serviceHealth : services) {
-                tasks.add(serviceCheckAsCallable(serviceHealth));
+        List<ServiceStatusResponse> serviceHealthResponseList = new ArrayList<>();
+        for (ScheduledCheck check : checks) {
+            List<ServiceStatusResponse> responses = check.responses;
+            serviceHealthResponseList.addAll(responses != null ? responses : check.pending());
+        }
+        return serviceHealthResponseList;
+    }
+
+    /**
+     * Notifies the listeners of the services whose state differs from the previous check
+     */
+    private void notifyChanges(List<ServiceStatusResponse> previous, List<ServiceStatusResponse> current) {
+        Map<String, ServiceStatusResponse> previousByName = new HashMap<>();
+        for (ServiceStatusResponse response : previous) {
+            previousByName.put(response.getServiceName(), response);
+        }
+        for (ServiceStatusResponse response : current) {
+            ServiceStatusResponse old = previousByName.get(response.getServiceName());
+            if (old == null || old.getState() != response.getState()) {
+                log.info("Service {} is now {}", response.getServiceName(), response.getState());
+                for (ServiceStatusListener listener : listeners) {
+                    try {
+                        listener.statusChanged(old, response);
+                    } catch (Exception e) {
+                        log.error("Service status listener failed for {}", response.getServiceName(), e);
+                    }
+                }
             }
-            for (ServicesStatusCheck serviceHealth : servicesHealth) {
-                tasks.add(servicesCheckAsCallable(serviceHealth));
+        }
+    }
+
+    /**
+     * A service check with its schedule and latest results
+     */
+    private class ScheduledCheck {
+
+        private final String name;
+        private final Callable<List<ServiceStatusResponse>> check;
+        private final long intervalSeconds;
+        private final long timeoutSeconds;
+
+        /**
+         * The results of the last completed check, or {@code null} if the check has not completed yet
+         */
+        private volatile List<ServiceStatusResponse> responses;
+
+        /**
+         * Whether a worker thread is executing the check, which may still be the case after it was cancelled if the check ignores interrupts
+         */
+        private final AtomicBoolean active = new AtomicBoolean();
+
+        /**
+         * The check in progress, only accessed by the scheduler thread
+         */
+        private Future<?> running;
+
+        ScheduledCheck(String name, Callable<List<ServiceStatusResponse>> check, long intervalSeconds, long timeoutSeconds) {
+            this.name = name;
+            this.check = check;
+            this.intervalSeconds = intervalSeconds;
+            this.timeoutSeconds = timeoutSeconds;
+        }
+
+        /**
+         * Starts the check unless the previous one is still queued or running, and cancels it if it does not complete in time
+         */
+        void start() {
+            if (running != null && !running.isDone()) {
+                return;
+            }
+            if (active.get()) {
+                log.warn("Service check {} is still running after being cancelled", name);
+                return;
             }
+            final Future<?> future = workers.submit(this::run);
+            running = future;
+            scheduler.schedule(() -> {
+                if (future.cancel(true)) {
+                    log.warn("Service check {} did not complete within {} seconds", name, timeoutSeconds);
+                    update(failed("Service check did not complete within " + timeoutSeconds + " seconds"));
+                }
+            }, timeoutSeconds, TimeUnit.SECONDS);
+        }
 
+        private void run() {
+            active.set(true);
             try {
-                List<Future<List<ServiceStatusResponse>>> results = pool.invokeAll(tasks);
+                update(call());
+            } catch (InterruptedException e) {
+                // cancelled after the timeout, which already reported the services as down
+            } finally {
+                active.set(false);
+            }
+        }
 
-                for (Future<List<ServiceStatusResponse>> result : results) {
-                    try {
-                        List<ServiceStatusResponse> responses = result.get();
-                        if (responses != null) {
-                            for (ServiceStatusResponse response : responses) {
-                                if (response != null) {
-                                    serviceHealthResponseList.add(response);
-                                }
-                            }
+        private List<ServiceStatusResponse> call() throws InterruptedException {
+            List<ServiceStatusResponse> results = new ArrayList<>();
+            try {
+                List<ServiceStatusResponse> responses = check.call();
+                if (responses != null) {
+                    for (ServiceStatusResponse response : responses) {
+                        if (response != null) {
+                            results.add(response);
                         }
-
-                    } catch (Exception e) {
-
                     }
                 }
             } catch (Exception e) {
-
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                log.warn("Service check {} failed", name, e);
+                results = failed("Service check failed: " + e);
             }
-            pool.shutdown();
+            return results;
+        }
 
+        /**
+         * Reports the check as not having completed yet
+         */
+        private List<ServiceStatusResponse> pending() {
+            ServiceComponent component = new DefaultServiceComponent.Builder(name, ServiceComponent.STATE.UNKNOWN).message("Service check has not completed yet").build();
+            return Collections.singletonList(new DefaultServiceStatusResponse(name, Collections.singletonList(component)));
         }
-        return serviceHealthResponseList;
-    }
 
+        /**
+         * Reports the services of the last check as down
+         */
+        private List<ServiceStatusResponse> failed(String message) {
+            List<String> serviceNames = new ArrayList<>();
+            if (responses != null) {
+                for (ServiceStatusResponse response : responses) {
+                    serviceNames.add(response.getServiceName());
+                }
+            }
+            if (serviceNames.isEmpty()) {
+                serviceNames.add(name);
+            }
 
+            List<ServiceStatusResponse> results = new ArrayList<>();
+            for (String serviceName : serviceNames) {
+                ServiceComponent component = new DefaultServiceComponent.Builder(serviceName, ServiceComponent.STATE.DOWN).message(message).build();
+                results.add(new DefaultServiceStatusResponse(serviceName, Collections.singletonList(component)));
+            }
+            return results;
+        }
+
+        private synchronized void update(List<ServiceStatusResponse> results) {
+            List<ServiceStatusResponse> previous = responses != null ? responses : Collections.emptyList();
+            responses = Collections.unmodifiableList(results);
+            notifyChanges(previous, responses);
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package com.thinkbiganalytics.servicemonitor;
+
+/*-
+ * #%L
+ * thinkbig-service-monitor-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.servicemonitor.model.ServiceStatusResponse;
+
+/**
+ * Notified by the {@link ServiceMonitorManager} when the state of a service changes.
+ * Any Spring Managed Beans with this interface will be automatically wired in.
+ */
+public interface ServiceStatusListener {
+
+    /**
+     * Called when a service check reports a different state for a service than the previous check
+     *
+     * @param previous the previous status of the service, or {@code null} if this is the first status reported for the service
+     * @param current  the current status of the service
+     */
+    void statusChanged(ServiceStatusResponse previous, ServiceStatusResponse current);
+}
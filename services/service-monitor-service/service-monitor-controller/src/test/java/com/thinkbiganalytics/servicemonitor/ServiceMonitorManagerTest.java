@@ -0,0 +1,152 @@
+package com.thinkbiganalytics.servicemonitor;
+
+/*-
+ * #%L
+ * thinkbig-service-monitor-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.servicemonitor.check.ServiceStatusCheck;
+import com.thinkbiganalytics.servicemonitor.model.DefaultServiceComponent;
+import com.thinkbiganalytics.servicemonitor.model.DefaultServiceStatusResponse;
+import com.thinkbiganalytics.servicemonitor.model.ServiceComponent;
+import com.thinkbiganalytics.servicemonitor.model.ServiceStatusResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ServiceMonitorManagerTest {
+
+    private final ServiceMonitorManager manager = new ServiceMonitorManager();
+
+    @After
+    public void tearDown() {
+        manager.destroy();
+    }
+
+    /**
+     * Verify a slow check does not block the results of the other checks and is reported as down once it times out.
+     */
+    @Test
+    public void testSlowCheckTimesOut() throws Exception {
+        final List<String> changes = Collections.synchronizedList(new ArrayList<>());
+
+        StaticApplicationContext context = new StaticApplicationContext();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("kylo.service.monitor.check.timeout", "60");
+        properties.put("kylo.service.monitor.check.slowCheck.timeout", "1");
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        context.getBeanFactory().registerSingleton("fastCheck", (ServiceStatusCheck) () -> status("fast", ServiceComponent.STATE.UP));
+        context.getBeanFactory().registerSingleton("slowCheck", (ServiceStatusCheck) () -> {
+            try {
+                Thread.sleep(60000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return status("slow", ServiceComponent.STATE.UP);
+        });
+        context.getBeanFactory().registerSingleton("listener", (ServiceStatusListener) (previous, current) -> changes.add(current.getServiceName() + "=" + current.getState()));
+
+        manager.setApplicationContext(context);
+        manager.afterPropertiesSet();
+
+        // The fast check is available while the slow check is still running
+        long start = System.currentTimeMillis();
+        while (!states().containsKey("fast") && System.currentTimeMillis() - start < 5000) {
+            Thread.sleep(10);
+        }
+        Map<String, ServiceStatusResponse.STATE> states = states();
+        Assert.assertEquals(2, states.size());
+        Assert.assertEquals(ServiceStatusResponse.STATE.UP, states.get("fast"));
+        Assert.assertEquals(ServiceStatusResponse.STATE.WARNING, states.get("slowCheck"));
+
+        // The slow check is reported as down after its timeout
+        while (states().get("slowCheck") != ServiceStatusResponse.STATE.DOWN && System.currentTimeMillis() - start < 10000) {
+            Thread.sleep(50);
+        }
+        states = states();
+        Assert.assertEquals(ServiceStatusResponse.STATE.UP, states.get("fast"));
+        Assert.assertEquals(ServiceStatusResponse.STATE.DOWN, states.get("slowCheck"));
+        Assert.assertTrue(changes.contains("fast=UP"));
+        Assert.assertTrue(changes.contains("slowCheck=DOWN"));
+    }
+
+    /**
+     * Verify a check that ignores interrupts is not started again until it actually exits.
+     */
+    @Test
+    public void testCancelledCheckNotRestartedUntilExit() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        StaticApplicationContext context = new StaticApplicationContext();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("kylo.service.monitor.check.interval", "1");
+        properties.put("kylo.service.monitor.check.timeout", "1");
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        context.getBeanFactory().registerSingleton("stuckCheck", (ServiceStatusCheck) () -> {
+            calls.incrementAndGet();
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    // ignored
+                }
+            }
+            return status("stuck", ServiceComponent.STATE.UP);
+        });
+
+        manager.setApplicationContext(context);
+        manager.afterPropertiesSet();
+
+        Thread.sleep(3500);
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(ServiceStatusResponse.STATE.DOWN, states().get("stuckCheck"));
+
+        // The check is started again once the stuck one exits
+        release.countDown();
+        long start = System.currentTimeMillis();
+        while (calls.get() < 2 && System.currentTimeMillis() - start < 5000) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(2, calls.get());
+    }
+
+    private Map<String, ServiceStatusResponse.STATE> states() {
+        Map<String, ServiceStatusResponse.STATE> states = new HashMap<>();
+        for (ServiceStatusResponse response : manager.doServiceCheck()) {
+            states.put(response.getServiceName(), response.getState());
+        }
+        return states;
+    }
+
+    private ServiceStatusResponse status(String serviceName, ServiceComponent.STATE state) {
+        return new DefaultServiceStatusResponse(serviceName, Collections.singletonList(new DefaultServiceComponent.Builder(serviceName, state).build()));
+    }
+}
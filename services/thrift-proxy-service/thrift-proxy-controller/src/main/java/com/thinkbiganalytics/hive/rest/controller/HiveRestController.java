@@ -26,9 +26,12 @@ import com.thinkbiganalytics.discovery.schema.DatabaseMetadata;
 import com.thinkbiganalytics.discovery.schema.QueryResult;
 import com.thinkbiganalytics.discovery.schema.TableSchema;
 import com.thinkbiganalytics.hive.service.HiveMetastoreService;
+import com.thinkbiganalytics.hive.service.HiveQueryManager;
+import com.thinkbiganalytics.hive.service.HiveQueryPage;
 import com.thinkbiganalytics.hive.service.HiveService;
 import com.thinkbiganalytics.rest.model.RestResponseStatus;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,8 +42,12 @@ import java.security.AccessControlException;
 import java.sql.SQLException;
 import java.util.List;
 
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
@@ -62,6 +69,16 @@ public class HiveRestController {
 
     private static final Logger log = LoggerFactory.getLogger(HiveRestController.class);
 
+    /**
+     * The maximum number of rows returned in a page of a query
+     */
+    private static final int MAX_QUERY_LIMIT = 1000;
+
+    /**
+     * The maximum time to wait for the rows of a query, in milliseconds
+     */
+    private static final long MAX_QUERY_WAIT = 30000;
+
     @Autowired
     private Environment env;
 
@@ -71,6 +88,9 @@ public class HiveRestController {
     @Autowired
     private HiveMetastoreService hiveMetadataService;
 
+    @Autowired
+    private HiveQueryManager hiveQueryManager;
+
     @GET
     @Path("/test-connection")
     @Produces(MediaType.TEXT_PLAIN)
@@ -179,6 +199,62 @@ public class HiveRestController {
     }
 
 
+    @POST
+    @Path("/queries")
+    @Consumes(MediaType.TEXT_PLAIN)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Submits a Hive query to run in the background.", notes = "The rows of the query are fetched a page at a time using the returned query id.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the query id and status.", response = HiveQueryPage.class),
+                      @ApiResponse(code = 429, message = "The user is already running the maximum number of queries.", response = RestResponseStatus.class)
+                  })
+    public Response submitQuery(String query) {
+        try {
+            return Response.ok(asJson(hiveQueryManager.submit(query))).build();
+        } catch (HiveQueryManager.QueryLimitException e) {
+            return Response.status(429).entity(new RestResponseStatus.ResponseStatusBuilder().message(e.getMessage()).buildError()).build();
+        }
+    }
+
+    @GET
+    @Path("/queries/{queryId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Gets a page of rows of a submitted query.", notes = "Returns at most 1000 rows, and waits up to the specified time, at most 30 seconds, for rows after the cursor while the query is running.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the rows and the cursor of the next page.", response = HiveQueryPage.class),
+                      @ApiResponse(code = 404, message = "The query does not exist or has expired.", response = RestResponseStatus.class)
+                  })
+    public Response fetchQuery(@PathParam("queryId") String queryId, @QueryParam("cursor") @DefaultValue("0") Integer cursor, @QueryParam("limit") @DefaultValue("1000") Integer limit,
+                               @QueryParam("wait") @DefaultValue("5000") Long waitMillis) {
+        HiveQueryPage page;
+        try {
+            page = hiveQueryManager.fetch(queryId, cursor, Math.min(Math.max(limit, 1), MAX_QUERY_LIMIT), Math.min(Math.max(waitMillis, 0), MAX_QUERY_WAIT));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for query " + queryId, e);
+        }
+        if (page == null) {
+            throw new NotFoundException("No query exists with the id: " + queryId);
+        }
+        return Response.ok(asJson(page)).build();
+    }
+
+    @DELETE
+    @Path("/queries/{queryId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Cancels a submitted query.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "The query was cancelled.", response = RestResponseStatus.class),
+                      @ApiResponse(code = 404, message = "The query does not exist or has expired.", response = RestResponseStatus.class)
+                  })
+    public Response cancelQuery(@PathParam("queryId") String queryId) {
+        if (!hiveQueryManager.cancel(queryId)) {
+            throw new NotFoundException("No query exists with the id: " + queryId);
+        }
+        return Response.ok(RestResponseStatus.SUCCESS).build();
+    }
+
+
     @GET
     @Path("/schemas/{schema}/tables/{table}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -202,7 +278,16 @@ public class HiveRestController {
                       @ApiResponse(code = 500, message = "Hive is unavailable.", response = RestResponseStatus.class)
                   })
     public Response getSchemaNames() {
-        List<String> schemas = hiveService.getSchemaNames();
+        boolean userImpersonationEnabled = Boolean.valueOf(env.getProperty("hive.userImpersonation.enabled"));
+        List<String> schemas;
+        if (userImpersonationEnabled) {
+            schemas = hiveService.getSchemaNames();
+        } else {
+            schemas = hiveMetadataService.getDatabaseNames();
+            if (schemas == null) {
+                schemas = hiveService.getSchemaNames();
+            }
+        }
         return Response.ok(asJson(schemas)).build();
     }
 
@@ -230,19 +315,22 @@ public class HiveRestController {
     @GET
     @Path("/tables")
     @Produces(MediaType.APPLICATION_JSON)
-    @ApiOperation("Lists every table in Hive.")
+    @ApiOperation("Lists every table in Hive, or the tables whose name starts with the prefix.")
     @ApiResponses({
                       @ApiResponse(code = 200, message = "Returns the table names.", response = String.class, responseContainer = "List"),
                       @ApiResponse(code = 500, message = "Hive is unavailable.", response = RestResponseStatus.class)
                   })
-    public Response getTables() {
+    public Response getTables(@QueryParam("prefix") String prefix, @QueryParam("limit") @DefaultValue("100") Integer limit) {
         List<String> tables;
         boolean userImpersonationEnabled = Boolean.valueOf(env.getProperty("hive.userImpersonation.enabled"));
         if (userImpersonationEnabled) {
             tables = hiveService.getAllTablesForImpersonatedUser();
+            if (StringUtils.isNotBlank(prefix)) {
+                tables = HiveMetastoreService.filterTables(tables, prefix, limit);
+            }
         } else {
             try {
-                tables = hiveMetadataService.getAllTables();
+                tables = StringUtils.isNotBlank(prefix) ? hiveMetadataService.searchTables(prefix, limit) : hiveMetadataService.getAllTables();
             } catch (DataAccessException e) {
                 log.error("Error listing Hive Tables from the metastore ", e);
                 throw e;
@@ -265,7 +353,10 @@ public class HiveRestController {
         if (userImpersonationEnabled) {
             tables = hiveService.getTablesForImpersonatedUser(schema);
         } else {
-            tables = hiveService.getTables(schema);
+            tables = hiveMetadataService.getTableNames(schema);
+            if (tables == null) {
+                tables = hiveService.getTables(schema);
+            }
         }
         return Response.ok(asJson(tables)).build();
     }
@@ -20,6 +20,7 @@ package com.thinkbiganalytics.hive.config;
  * #L%
  */
 
+import com.thinkbiganalytics.hive.service.HiveQueryManager;
 import com.thinkbiganalytics.hive.service.HiveService;
 import com.thinkbiganalytics.hive.service.RefreshableDataSource;
 
@@ -65,6 +66,18 @@ public class HiveDataSourceConfiguration {
     }
 
 
+    /**
+     * Runs Hive queries in the background so their results can be paged through
+     */
+    @Bean(name = "hiveQueryManager")
+    public HiveQueryManager hiveQueryManager(@Qualifier("hiveDataSource") DataSource dataSource) {
+        return new HiveQueryManager(dataSource, env.getProperty("hive.query.maxConcurrentPerUser", Integer.class, 2),
+                                    env.getProperty("hive.query.maxRetainedPerUser", Integer.class, 5),
+                                    env.getProperty("hive.query.maxRows", Integer.class, 100000),
+                                    env.getProperty("hive.query.expireSeconds", Long.class, 600L));
+    }
+
+
     @Bean(name = "hiveDataSource")
     public DataSource dataSource() {
 
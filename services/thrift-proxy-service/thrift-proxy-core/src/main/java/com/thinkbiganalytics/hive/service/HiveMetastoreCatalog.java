@@ -0,0 +1,472 @@
+package com.thinkbiganalytics.hive.service;
+
+/*-
+ * #%L
+ * thinkbig-thrift-proxy-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.Iterables;
+import com.thinkbiganalytics.discovery.model.DefaultDatabaseMetadata;
+import com.thinkbiganalytics.discovery.model.DefaultField;
+import com.thinkbiganalytics.discovery.model.DefaultTableSchema;
+import com.thinkbiganalytics.discovery.schema.DatabaseMetadata;
+import com.thinkbiganalytics.discovery.schema.Field;
+import com.thinkbiganalytics.discovery.schema.TableSchema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory copy of the databases, tables and columns in the Hive metastore.
+ *
+ * <p>The catalog is loaded with one query for the tables and one for the columns.  Once loaded, the tables are re-read every
+ * {@code refreshIntervalSeconds} and only the columns of the tables whose {@code CREATE_TIME} or {@code transient_lastDdlTime} changed are
+ * queried again.  The refresh runs in the background; callers are served the previous copy until it completes.</p>
+ */
+public class HiveMetastoreCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(HiveMetastoreCatalog.class);
+
+    private static final String DATABASES_QUERY = "SELECT d.NAME as \"DATABASE_NAME\" FROM DBS d";
+
+    private static final String POSTGRES_DATABASES_QUERY = "SELECT d.\"NAME\" as \"DATABASE_NAME\" FROM \"DBS\" d";
+
+    private static final String TABLES_QUERY = "SELECT t.TBL_ID, d.NAME as \"DATABASE_NAME\", t.TBL_NAME, t.CREATE_TIME, p.PARAM_VALUE as \"DDL_TIME\" "
+                                               + "FROM TBLS t "
+                                               + "JOIN DBS d ON d.DB_ID = t.DB_ID "
+                                               + "LEFT JOIN TABLE_PARAMS p ON p.TBL_ID = t.TBL_ID AND p.PARAM_KEY = 'transient_lastDdlTime'";
+
+    private static final String POSTGRES_TABLES_QUERY = "SELECT t.\"TBL_ID\", d.\"NAME\" as \"DATABASE_NAME\", t.\"TBL_NAME\", t.\"CREATE_TIME\", p.\"PARAM_VALUE\" as \"DDL_TIME\" "
+                                                        + "FROM \"TBLS\" t "
+                                                        + "JOIN \"DBS\" d ON d.\"DB_ID\" = t.\"DB_ID\" "
+                                                        + "LEFT JOIN \"TABLE_PARAMS\" p ON p.\"TBL_ID\" = t.\"TBL_ID\" AND p.\"PARAM_KEY\" = 'transient_lastDdlTime'";
+
+    private static final String COLUMNS_QUERY = "SELECT t.TBL_ID, c.COLUMN_NAME, c.TYPE_NAME, c.COMMENT "
+                                                + "FROM COLUMNS_V2 c "
+                                                + "JOIN SDS s ON s.CD_ID = c.CD_ID "
+                                                + "JOIN TBLS t ON t.SD_ID = s.SD_ID ";
+
+    private static final String POSTGRES_COLUMNS_QUERY = "SELECT t.\"TBL_ID\", c.\"COLUMN_NAME\", c.\"TYPE_NAME\", c.\"COMMENT\" "
+                                                         + "FROM \"COLUMNS_V2\" c "
+                                                         + "JOIN \"SDS\" s ON s.\"CD_ID\" = c.\"CD_ID\" "
+                                                         + "JOIN \"TBLS\" t ON t.\"SD_ID\" = s.\"SD_ID\" ";
+
+    private static final String COLUMNS_WHERE = "WHERE t.TBL_ID IN (:ids) ";
+
+    private static final String POSTGRES_COLUMNS_WHERE = "WHERE t.\"TBL_ID\" IN (:ids) ";
+
+    private static final String COLUMNS_ORDER = "ORDER BY t.TBL_ID, c.INTEGER_IDX";
+
+    private static final String POSTGRES_COLUMNS_ORDER = "ORDER BY t.\"TBL_ID\", c.\"INTEGER_IDX\"";
+
+    /**
+     * Maximum number of ids in a single {@code IN} clause
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    /**
+     * When more tables than this have changed all the columns are loaded with a single query
+     */
+    private static final int MAX_INCREMENTAL_TABLES = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean postgres;
+
+    private final long refreshIntervalMillis;
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hive-metastore-catalog-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param jdbcTemplate           the template used to query the metastore database
+     * @param postgres               {@code true} if the metastore database is Postgres
+     * @param refreshIntervalSeconds how long the catalog is served before it is refreshed
+     */
+    public HiveMetastoreCatalog(JdbcTemplate jdbcTemplate, boolean postgres, long refreshIntervalSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgres = postgres;
+        this.refreshIntervalMillis = TimeUnit.SECONDS.toMillis(refreshIntervalSeconds);
+    }
+
+    /**
+     * @return the names of all the databases, sorted
+     */
+    public List<String> getDatabaseNames() {
+        return getSnapshot().databases;
+    }
+
+    /**
+     * @param database the database name
+     * @return the names of the tables in the database, sorted
+     */
+    public List<String> getTableNames(String database) {
+        List<String> tables = new ArrayList<>();
+        for (CatalogTable table : tablesInDatabase(getSnapshot(), database).values()) {
+            tables.add(table.name);
+        }
+        return tables;
+    }
+
+    /**
+     * @return every table as {@code database.table}, sorted
+     */
+    public List<String> getAllTables() {
+        List<String> tables = new ArrayList<>();
+        for (CatalogTable table : getSnapshot().tablesByName.values()) {
+            tables.add(table.getQualifiedName());
+        }
+        return tables;
+    }
+
+    /**
+     * Find the tables whose qualified name, {@code database.table}, or table name starts with the given prefix, ignoring case.
+     * Tables matching on the qualified name are listed first.
+     *
+     * @param prefix the prefix to search for
+     * @param limit  the maximum number of tables to return
+     * @return the matching tables as {@code database.table}
+     */
+    public List<String> searchTables(String prefix, int limit) {
+        Snapshot current = getSnapshot();
+        String key = (prefix == null) ? "" : prefix.toLowerCase(Locale.ROOT);
+        Set<String> matches = new LinkedHashSet<>();
+        for (CatalogTable table : prefixRange(current.tablesByName, key).values()) {
+            if (matches.size() >= limit) {
+                return new ArrayList<>(matches);
+            }
+            matches.add(table.getQualifiedName());
+        }
+        for (List<CatalogTable> tables : prefixRange(current.tablesByTableName, key).values()) {
+            for (CatalogTable table : tables) {
+                if (matches.size() >= limit) {
+                    return new ArrayList<>(matches);
+                }
+                matches.add(table.getQualifiedName());
+            }
+        }
+        return new ArrayList<>(matches);
+    }
+
+    /**
+     * @return the schema of the table, or {@code null} if the table does not exist
+     */
+    public TableSchema getTableSchema(String database, String table) {
+        CatalogTable catalogTable = getSnapshot().tablesByName.get(qualifiedKey(database, table));
+        return catalogTable != null ? catalogTable.toTableSchema() : null;
+    }
+
+    /**
+     * @return the schema of every table
+     */
+    public List<TableSchema> getTableSchemas() {
+        List<TableSchema> schemas = new ArrayList<>();
+        for (CatalogTable table : getSnapshot().tablesByName.values()) {
+            schemas.add(table.toTableSchema());
+        }
+        return schemas;
+    }
+
+    /**
+     * @param tablesFilter the tables to include as {@code database.table}, or {@code null} for all tables
+     * @return a row for each column of the tables
+     */
+    public List<DatabaseMetadata> getTableColumns(Collection<String> tablesFilter) {
+        Snapshot current = getSnapshot();
+        Collection<CatalogTable> tables;
+        if (tablesFilter == null) {
+            tables = current.tablesByName.values();
+        } else {
+            tables = new ArrayList<>();
+            for (String name : tablesFilter) {
+                CatalogTable table = current.tablesByName.get(name.toLowerCase(Locale.ROOT));
+                if (table != null) {
+                    tables.add(table);
+                }
+            }
+        }
+        List<DatabaseMetadata> metadata = new ArrayList<>();
+        for (CatalogTable table : tables) {
+            for (CatalogColumn column : table.columns) {
+                DefaultDatabaseMetadata row = new DefaultDatabaseMetadata();
+                row.setDatabaseName(table.database);
+                row.setTableName(table.name);
+                row.setColumnName(column.name);
+                metadata.add(row);
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * Reload the tables and the columns of the changed tables now
+     */
+    public synchronized void refresh() throws DataAccessException {
+        long start = System.currentTimeMillis();
+        Snapshot previous = snapshot;
+        List<String> databases = queryDatabases();
+        List<CatalogTable> tables = queryTables();
+
+        List<Long> changedIds = new ArrayList<>();
+        for (CatalogTable table : tables) {
+            CatalogTable cached = (previous != null) ? previous.tablesById.get(table.id) : null;
+            if (cached == null || !cached.isSameVersion(table)) {
+                changedIds.add(table.id);
+            } else {
+                table.columns = cached.columns;
+            }
+        }
+
+        Map<Long, List<CatalogColumn>> columns;
+        if (previous == null || changedIds.size() > MAX_INCREMENTAL_TABLES) {
+            columns = queryColumns(null);
+        } else {
+            columns = queryColumns(changedIds);
+        }
+        for (CatalogTable table : tables) {
+            List<CatalogColumn> tableColumns = columns.get(table.id);
+            if (tableColumns != null) {
+                table.columns = tableColumns;
+            }
+        }
+
+        snapshot = new Snapshot(databases, tables, System.currentTimeMillis());
+        log.debug("Refreshed the Hive metastore catalog with {} tables, {} changed, in {} ms", tables.size(), changedIds.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Stop the background refresh
+     */
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Get the current catalog, loading it on first use and triggering a background refresh once it is stale
+     */
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                return snapshot;
+            }
+        }
+        if (System.currentTimeMillis() - current.loadTime > refreshIntervalMillis && refreshing.compareAndSet(false, true)) {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh();
+                } catch (Exception e) {
+                    log.error("Unable to refresh the Hive metastore catalog. The previous catalog will be used: {}", e.getMessage(), e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+        return current;
+    }
+
+    List<String> queryDatabases() {
+        return jdbcTemplate.query(postgres ? POSTGRES_DATABASES_QUERY : DATABASES_QUERY, (rs, i) -> rs.getString("DATABASE_NAME"));
+    }
+
+    List<CatalogTable> queryTables() {
+        return jdbcTemplate.query(postgres ? POSTGRES_TABLES_QUERY : TABLES_QUERY,
+                                  (rs, i) -> new CatalogTable(rs.getLong("TBL_ID"), rs.getString("DATABASE_NAME"), rs.getString("TBL_NAME"), rs.getLong("CREATE_TIME"),
+                                                              rs.getString("DDL_TIME")));
+    }
+
+    /**
+     * @param tableIds the tables to load the columns of, or {@code null} for all tables
+     * @return the columns of each table in order
+     */
+    Map<Long, List<CatalogColumn>> queryColumns(List<Long> tableIds) {
+        final Map<Long, List<CatalogColumn>> columns = new HashMap<>();
+        if (tableIds == null) {
+            jdbcTemplate.query(postgres ? POSTGRES_COLUMNS_QUERY + POSTGRES_COLUMNS_ORDER : COLUMNS_QUERY + COLUMNS_ORDER,
+                               rs -> {
+                                   addColumn(columns, rs.getLong("TBL_ID"), rs.getString("COLUMN_NAME"), rs.getString("TYPE_NAME"), rs.getString("COMMENT"));
+                               });
+        } else if (!tableIds.isEmpty()) {
+            NamedParameterJdbcTemplate namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+            String query = postgres ? POSTGRES_COLUMNS_QUERY + POSTGRES_COLUMNS_WHERE + POSTGRES_COLUMNS_ORDER : COLUMNS_QUERY + COLUMNS_WHERE + COLUMNS_ORDER;
+            for (List<Long> ids : Iterables.partition(tableIds, MAX_IDS_PER_QUERY)) {
+                namedTemplate.query(query, new MapSqlParameterSource("ids", ids),
+                                    rs -> {
+                                        addColumn(columns, rs.getLong("TBL_ID"), rs.getString("COLUMN_NAME"), rs.getString("TYPE_NAME"), rs.getString("COMMENT"));
+                                    });
+            }
+        }
+        return columns;
+    }
+
+    private void addColumn(Map<Long, List<CatalogColumn>> columns, long tableId, String name, String type, String comment) {
+        columns.computeIfAbsent(tableId, id -> new ArrayList<>()).add(new CatalogColumn(name, type, comment));
+    }
+
+    private static String qualifiedKey(String database, String table) {
+        return (database + "." + table).toLowerCase(Locale.ROOT);
+    }
+
+    private static NavigableMap<String, CatalogTable> tablesInDatabase(Snapshot snapshot, String database) {
+        return prefixRange(snapshot.tablesByName, (database + ".").toLowerCase(Locale.ROOT));
+    }
+
+    private static <V> NavigableMap<String, V> prefixRange(NavigableMap<String, V> map, String prefix) {
+        return prefix.isEmpty() ? map : map.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * An immutable copy of the catalog
+     */
+    private static class Snapshot {
+
+        private final List<String> databases;
+        private final Map<Long, CatalogTable> tablesById = new HashMap<>();
+        private final NavigableMap<String, CatalogTable> tablesByName = new TreeMap<>();
+        private final NavigableMap<String, List<CatalogTable>> tablesByTableName = new TreeMap<>();
+        private final long loadTime;
+
+        Snapshot(List<String> databases, List<CatalogTable> tables, long loadTime) {
+            List<String> sortedDatabases = new ArrayList<>(databases);
+            Collections.sort(sortedDatabases);
+            this.databases = Collections.unmodifiableList(sortedDatabases);
+            for (CatalogTable table : tables) {
+                tablesById.put(table.id, table);
+                tablesByName.put(qualifiedKey(table.database, table.name), table);
+                tablesByTableName.computeIfAbsent(table.name.toLowerCase(Locale.ROOT), name -> new ArrayList<>()).add(table);
+            }
+            this.loadTime = loadTime;
+        }
+    }
+
+    /**
+     * A table in the metastore
+     */
+    static class CatalogTable {
+
+        private final long id;
+        private final String database;
+        private final String name;
+        private final long createTime;
+        private final String ddlTime;
+        private List<CatalogColumn> columns = Collections.emptyList();
+
+        CatalogTable(long id, String database, String name, long createTime, String ddlTime) {
+            this.id = id;
+            this.database = database;
+            this.name = name;
+            this.createTime = createTime;
+            this.ddlTime = ddlTime;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        String getDatabase() {
+            return database;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        long getCreateTime() {
+            return createTime;
+        }
+
+        String getDdlTime() {
+            return ddlTime;
+        }
+
+        String getQualifiedName() {
+            return database + "." + name;
+        }
+
+        /**
+         * @return {@code true} if the table has not been re-created, renamed or altered since the other copy was read
+         */
+        boolean isSameVersion(CatalogTable other) {
+            return createTime == other.createTime && Objects.equals(ddlTime, other.ddlTime) && Objects.equals(database, other.database) && Objects.equals(name, other.name);
+        }
+
+        TableSchema toTableSchema() {
+            DefaultTableSchema schema = new DefaultTableSchema();
+            schema.setName(name);
+            schema.setSchemaName(database);
+            List<Field> fields = new ArrayList<>(columns.size());
+            for (CatalogColumn column : columns) {
+                DefaultField field = new DefaultField();
+                field.setName(column.name);
+                field.setNativeDataType(column.type);
+                field.setDerivedDataType(column.type);
+                field.setDescription(column.comment);
+                fields.add(field);
+            }
+            schema.setFields(fields);
+            return schema;
+        }
+    }
+
+    /**
+     * A column of a table in the metastore
+     */
+    static class CatalogColumn {
+
+        private final String name;
+        private final String type;
+        private final String comment;
+
+        CatalogColumn(String name, String type, String comment) {
+            this.name = name;
+            this.type = type;
+            this.comment = comment;
+        }
+    }
+}
@@ -29,9 +29,11 @@ import com.thinkbiganalytics.discovery.schema.Field;
 import com.thinkbiganalytics.discovery.schema.TableSchema;
 import com.thinkbiganalytics.jdbc.util.DatabaseType;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -42,9 +44,13 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.sql.DataSource;
 
@@ -61,6 +67,21 @@ public class HiveMetastoreService {
     private JdbcTemplate hiveMetatoreJdbcTemplate;
     private DatabaseType metastoreDatabaseType = null;
 
+    /**
+     * {@code true} to serve table listings and columns from an in-memory copy of the metastore.  Off by default since tables created or altered
+     * outside of Kylo are not seen until the next refresh.
+     */
+    @Value("${hive.metastore.catalog.enabled:false}")
+    private boolean catalogEnabled = false;
+
+    /**
+     * How long, in seconds, the in-memory copy of the metastore is served before it is refreshed
+     */
+    @Value("${hive.metastore.catalog.refreshInterval:60}")
+    private long catalogRefreshInterval = 60;
+
+    private volatile HiveMetastoreCatalog catalog;
+
     public DataSource getDataSource() {
 
         return hiveMetatoreJdbcTemplate.getDataSource();
@@ -80,7 +101,78 @@ public class HiveMetastoreService {
     }
 
 
+    /**
+     * Get the in-memory copy of the metastore
+     *
+     * @return the catalog, or {@code null} if it is disabled
+     */
+    public HiveMetastoreCatalog getCatalog() {
+        if (catalogEnabled && catalog == null) {
+            synchronized (this) {
+                if (catalog == null) {
+                    catalog = new HiveMetastoreCatalog(hiveMetatoreJdbcTemplate, DatabaseType.POSTGRES.equals(getMetastoreDatabaseType()), catalogRefreshInterval);
+                }
+            }
+        }
+        return catalog;
+    }
+
+    @PreDestroy
+    public void shutdownCatalog() {
+        if (catalog != null) {
+            catalog.shutdown();
+        }
+    }
+
+    /**
+     * @return the names of the databases in the metastore, or {@code null} if the catalog is disabled
+     */
+    public List<String> getDatabaseNames() throws DataAccessException {
+        return getCatalog() != null ? getCatalog().getDatabaseNames() : null;
+    }
+
+    /**
+     * @param schema the database name
+     * @return the names of the tables in the database, or {@code null} if the catalog is disabled
+     */
+    public List<String> getTableNames(String schema) throws DataAccessException {
+        return getCatalog() != null ? getCatalog().getTableNames(schema) : null;
+    }
+
+    /**
+     * Find the tables whose qualified name or table name starts with the given prefix
+     *
+     * @param prefix the prefix to search for
+     * @param limit  the maximum number of tables to return
+     * @return the matching tables as {@code database.table}
+     */
+    public List<String> searchTables(String prefix, int limit) throws DataAccessException {
+        if (getCatalog() != null) {
+            return getCatalog().searchTables(prefix, limit);
+        }
+        return filterTables(getAllTables(), prefix, limit);
+    }
+
+    /**
+     * Filter a list of tables to those whose qualified name or table name starts with the given prefix
+     *
+     * @param tables the tables as {@code database.table}
+     * @param prefix the prefix to search for
+     * @param limit  the maximum number of tables to return
+     * @return the matching tables
+     */
+    public static List<String> filterTables(List<String> tables, String prefix, int limit) {
+        String lowerPrefix = prefix.toLowerCase();
+        return tables.stream()
+            .filter(table -> table.toLowerCase().startsWith(lowerPrefix) || StringUtils.substringAfter(table, ".").toLowerCase().startsWith(lowerPrefix))
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
     public List<DatabaseMetadata> getTableColumns(List<String> tablesFilter) throws DataAccessException {
+        if (getCatalog() != null) {
+            return getCatalog().getTableColumns(tablesFilter);
+        }
 
         String query = "SELECT d.NAME as \"DATABASE_NAME\", t.TBL_NAME, c.COLUMN_NAME "
                        + "FROM COLUMNS_V2 c "
@@ -115,8 +207,9 @@ public class HiveMetastoreService {
 
     private List<DatabaseMetadata> filterDatabaseMetadata(List<DatabaseMetadata> allTables, List<String> tablesFilter) {
         List<DatabaseMetadata> results = new ArrayList<>();
+        Set<String> tables = new HashSet<>(tablesFilter);
         allTables.forEach(metadata -> {
-            if (tablesFilter.contains(metadata.getDatabaseName() + "." + metadata.getTableName())) {
+            if (tables.contains(metadata.getDatabaseName() + "." + metadata.getTableName())) {
                 results.add(metadata);
             }
         });
@@ -124,6 +217,9 @@ public class HiveMetastoreService {
     }
 
     public List<String> getAllTables() throws DataAccessException {
+        if (getCatalog() != null) {
+            return getCatalog().getAllTables();
+        }
 
         String query = "SELECT d.NAME as \"DATABASE_NAME\", t.TBL_NAME FROM TBLS t JOIN DBS d on d.DB_ID = t.DB_ID ORDER BY d.NAME, t.TBL_NAME";
         if (DatabaseType.POSTGRES.equals(getMetastoreDatabaseType())) {
@@ -142,8 +238,11 @@ public class HiveMetastoreService {
 
 
     public List<TableSchema> getTableSchemas() throws DataAccessException {
+        if (getCatalog() != null) {
+            return getCatalog().getTableSchemas();
+        }
 
-        String query = "SELECT d.NAME as \"DATABASE_NAME\", t.TBL_NAME, c.COLUMN_NAME c.TYPE_NAME "
+        String query = "SELECT d.NAME as \"DATABASE_NAME\", t.TBL_NAME, c.COLUMN_NAME, c.TYPE_NAME "
                        + "FROM COLUMNS_V2 c "
                        + "JOIN  SDS s on s.CD_ID = c.CD_ID "
                        + "JOIN  TBLS t ON s.SD_ID = t.SD_ID "
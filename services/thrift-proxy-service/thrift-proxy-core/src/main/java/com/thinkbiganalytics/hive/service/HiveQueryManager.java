@@ -0,0 +1,410 @@
+package com.thinkbiganalytics.hive.service;
+
+/*-
+ * #%L
+ * thinkbig-thrift-proxy-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.schema.QueryResultColumn;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+/**
+ * Runs Hive queries in the background so that their rows can be fetched a page at a time.
+ *
+ * <p>A submitted query is identified by a query id. Its rows are read as they are produced, up to {@code maxRows}, and kept as arrays of values
+ * until the query is cancelled or has not been accessed for {@code expireSeconds}. Each user may run at most {@code maxConcurrentPerUser}
+ * queries at the same time, and at most {@code maxRetainedPerUser} queries are kept for each user. When a user submits a query beyond that,
+ * the completed queries of the user that were least recently accessed are discarded.</p>
+ */
+public class HiveQueryManager {
+
+    private static final Logger log = LoggerFactory.getLogger(HiveQueryManager.class);
+
+    /**
+     * The number of rows requested from Hive in each fetch
+     */
+    private static final int FETCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+    private final int maxConcurrentPerUser;
+    private final int maxRetainedPerUser;
+    private final int maxRows;
+    private final long expireMillis;
+
+    /**
+     * Queries keyed by id
+     */
+    private final Map<String, HiveQuery> queries = new ConcurrentHashMap<>();
+
+    /**
+     * Limits the number of running queries for each user
+     */
+    private final Map<String, Semaphore> userPermits = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+    private final ScheduledExecutorService expirer;
+
+    /**
+     * @param dataSource           the Hive data source
+     * @param maxConcurrentPerUser the maximum number of queries a user may run at the same time
+     * @param maxRetainedPerUser   the maximum number of running or completed queries kept for a user, at least {@code maxConcurrentPerUser}
+     * @param maxRows              the maximum number of rows read for a query
+     * @param expireSeconds        the number of seconds a query is kept after it was last accessed
+     */
+    public HiveQueryManager(@Nonnull final DataSource dataSource, final int maxConcurrentPerUser, final int maxRetainedPerUser, final int maxRows,
+                            final long expireSeconds) {
+        this.dataSource = dataSource;
+        this.maxConcurrentPerUser = Math.max(maxConcurrentPerUser, 1);
+        this.maxRetainedPerUser = Math.max(maxRetainedPerUser, this.maxConcurrentPerUser);
+        this.maxRows = Math.max(maxRows, 1);
+        this.expireMillis = TimeUnit.SECONDS.toMillis(Math.max(expireSeconds, 1));
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "hive-query-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.expirer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "hive-query-expirer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long interval = Math.min(expireMillis, TimeUnit.MINUTES.toMillis(1));
+        expirer.scheduleWithFixedDelay(this::expireQueries, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts running the query as the current user.
+     *
+     * @param query the query
+     * @return the first, empty, page of the query with its id
+     * @throws QueryLimitException if the user is already running the maximum number of queries
+     */
+    @Nonnull
+    public HiveQueryPage submit(@Nonnull final String query) {
+        final String user = getCurrentUser();
+        final Semaphore permits = userPermits.computeIfAbsent(user, key -> new Semaphore(maxConcurrentPerUser));
+        if (!permits.tryAcquire()) {
+            throw new QueryLimitException("You are already running " + maxConcurrentPerUser + " queries. Wait for one to complete or cancel it.");
+        }
+
+        final String sql = HiveService.isShowQuery(query) ? query : HiveService.safeQuery(query, maxRows);
+        final HiveQuery hiveQuery = new HiveQuery(UUID.randomUUID().toString(), user);
+        synchronized (permits) {
+            discardCompletedQueries(user);
+            queries.put(hiveQuery.id, hiveQuery);
+        }
+        try {
+            hiveQuery.future = executor.submit(new DelegatingSecurityContextRunnable(() -> {
+                try {
+                    run(hiveQuery, sql);
+                } finally {
+                    permits.release();
+                }
+            }));
+        } catch (final RuntimeException e) {
+            permits.release();
+            queries.remove(hiveQuery.id);
+            throw e;
+        }
+        return hiveQuery.getPage(0, 0);
+    }
+
+    /**
+     * Gets a page of rows of a query, waiting for rows to be read if none are available after the cursor.
+     *
+     * @param queryId     the query id
+     * @param cursor      the index of the first row
+     * @param limit       the maximum number of rows
+     * @param waitMillis  the maximum time to wait for rows
+     * @return the page, or {@code null} if the query does not exist for the current user
+     */
+    @Nullable
+    public HiveQueryPage fetch(@Nonnull final String queryId, final int cursor, final int limit, final long waitMillis) throws InterruptedException {
+        final HiveQuery query = getQuery(queryId);
+        if (query == null) {
+            return null;
+        }
+        query.awaitRows(Math.max(cursor, 0), waitMillis);
+        return query.getPage(Math.max(cursor, 0), Math.max(limit, 0));
+    }
+
+    /**
+     * Cancels a query and discards its rows.
+     *
+     * @param queryId the query id
+     * @return {@code true} if the query was cancelled, or {@code false} if it does not exist for the current user
+     */
+    public boolean cancel(@Nonnull final String queryId) {
+        final HiveQuery query = getQuery(queryId);
+        if (query == null) {
+            return false;
+        }
+        queries.remove(queryId);
+        query.cancel();
+        return true;
+    }
+
+    /**
+     * Cancels all the queries.
+     */
+    @PreDestroy
+    public void shutdown() {
+        expirer.shutdownNow();
+        queries.values().forEach(HiveQuery::cancel);
+        queries.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the query and reads its rows.
+     */
+    private void run(@Nonnull final HiveQuery query, @Nonnull final String sql) {
+        Connection connection = null;
+        Statement statement = null;
+        ResultSet rs = null;
+        try {
+            connection = dataSource.getConnection();
+            statement = connection.createStatement();
+            if (!query.setStatement(statement)) {
+                return;
+            }
+            //  Setting in order to query complex formats like parquet
+            statement.execute("set hive.optimize.index.filter=false");
+            statement.setFetchSize(FETCH_SIZE);
+            rs = statement.executeQuery(sql);
+
+            final List<QueryResultColumn> columns = HiveService.createColumns(rs.getMetaData());
+            query.setColumns(columns);
+            final int columnCount = columns.size();
+            final List<Object[]> batch = new ArrayList<>();
+            int rowCount = 0;
+            while (rowCount < maxRows && query.isRunning() && rs.next()) {
+                rowCount++;
+                final Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                batch.add(row);
+                if (batch.size() >= FETCH_SIZE) {
+                    query.addRows(batch);
+                    batch.clear();
+                }
+            }
+            query.addRows(batch);
+            query.complete(HiveQueryPage.Status.COMPLETE, null);
+        } catch (final Exception e) {
+            if (query.isRunning()) {
+                log.error("Error running Hive query {}", query.id, e);
+                query.complete(HiveQueryPage.Status.FAILED, (e.getMessage() != null) ? e.getMessage() : e.toString());
+            }
+        } finally {
+            JdbcUtils.closeResultSet(rs);
+            JdbcUtils.closeStatement(statement);
+            JdbcUtils.closeConnection(connection);
+        }
+    }
+
+    /**
+     * Discards the least recently accessed completed queries of the user, so that a new query can be kept within {@code maxRetainedPerUser}.
+     */
+    private void discardCompletedQueries(@Nonnull final String user) {
+        final List<HiveQuery> retained = new ArrayList<>();
+        queries.values().stream().filter(query -> query.user.equals(user)).forEach(retained::add);
+
+        retained.stream()
+            .filter(query -> !query.isRunning())
+            .sorted(Comparator.comparingLong(query -> query.lastAccess))
+            .limit(Math.max(retained.size() - maxRetainedPerUser + 1, 0))
+            .forEach(query -> {
+                log.debug("Discarding Hive query {} of {}", query.id, query.user);
+                queries.remove(query.id);
+                query.cancel();
+            });
+    }
+
+    @Nullable
+    private HiveQuery getQuery(@Nonnull final String queryId) {
+        final HiveQuery query = queries.get(queryId);
+        if (query != null && query.user.equals(getCurrentUser())) {
+            query.lastAccess = System.currentTimeMillis();
+            return query;
+        }
+        return null;
+    }
+
+    /**
+     * Cancels the queries that have not been accessed recently.
+     */
+    private void expireQueries() {
+        final long expireTime = System.currentTimeMillis() - expireMillis;
+        queries.values().removeIf(query -> {
+            if (query.lastAccess < expireTime) {
+                log.debug("Expiring Hive query {} of {}", query.id, query.user);
+                query.cancel();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @Nonnull
+    private String getCurrentUser() {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (authentication != null && authentication.getName() != null) ? authentication.getName() : "";
+    }
+
+    /**
+     * Thrown when a user submits more queries than allowed.
+     */
+    public static class QueryLimitException extends RuntimeException {
+
+        private static final long serialVersionUID = 6318962212412476345L;
+
+        public QueryLimitException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The state and rows of a submitted query.
+     */
+    private class HiveQuery {
+
+        private final String id;
+        private final String user;
+        private final List<Object[]> rows = new ArrayList<>();
+        private List<QueryResultColumn> columns;
+        private HiveQueryPage.Status status = HiveQueryPage.Status.RUNNING;
+        private String message;
+        private Statement statement;
+        private Future<?> future;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        HiveQuery(String id, String user) {
+            this.id = id;
+            this.user = user;
+        }
+
+        synchronized boolean isRunning() {
+            return status == HiveQueryPage.Status.RUNNING;
+        }
+
+        /**
+         * Sets the statement used to cancel the query.
+         *
+         * @return {@code false} if the query has already been cancelled
+         */
+        synchronized boolean setStatement(Statement statement) {
+            this.statement = statement;
+            return isRunning();
+        }
+
+        synchronized void setColumns(List<QueryResultColumn> columns) {
+            this.columns = columns;
+        }
+
+        synchronized void addRows(List<Object[]> batch) {
+            rows.addAll(batch);
+            notifyAll();
+        }
+
+        synchronized void complete(HiveQueryPage.Status status, String message) {
+            if (isRunning()) {
+                this.status = status;
+                this.message = message;
+                this.statement = null;
+            }
+            notifyAll();
+        }
+
+        synchronized void awaitRows(int cursor, long waitMillis) throws InterruptedException {
+            final long deadline = System.currentTimeMillis() + waitMillis;
+            long remaining = waitMillis;
+            while (isRunning() && rows.size() <= cursor && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+
+        synchronized HiveQueryPage getPage(int cursor, int limit) {
+            final int start = Math.min(cursor, rows.size());
+            final int end = Math.min(start + limit, rows.size());
+            final HiveQueryPage page = new HiveQueryPage();
+            page.setQueryId(id);
+            page.setStatus(status);
+            page.setMessage(message);
+            page.setColumns(columns);
+            page.setRows(new ArrayList<>(rows.subList(start, end)));
+            page.setCursor(start);
+            page.setNextCursor(end);
+            page.setRowCount(rows.size());
+            page.setTruncated(status == HiveQueryPage.Status.COMPLETE && rows.size() >= maxRows);
+            return page;
+        }
+
+        void cancel() {
+            final Statement running;
+            synchronized (this) {
+                running = statement;
+                complete(HiveQueryPage.Status.CANCELLED, null);
+                rows.clear();
+            }
+            if (running != null) {
+                try {
+                    running.cancel();
+                } catch (SQLException e) {
+                    log.debug("Unable to cancel Hive query {}: {}", id, e.toString());
+                }
+            }
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.thinkbiganalytics.hive.service;
+
+/*-
+ * #%L
+ * thinkbig-thrift-proxy-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.thinkbiganalytics.discovery.schema.QueryResultColumn;
+
+import java.util.List;
+
+/**
+ * A page of rows from a query submitted to the {@link HiveQueryManager}.
+ *
+ * <p>Each row is an array of values in the order of the columns. The {@code nextCursor} is passed back to fetch the following page.</p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HiveQueryPage {
+
+    /**
+     * The state of a query
+     */
+    public enum Status {
+        RUNNING, COMPLETE, FAILED, CANCELLED
+    }
+
+    private String queryId;
+    private Status status;
+    private String message;
+    private List<QueryResultColumn> columns;
+    private List<Object[]> rows;
+    private int cursor;
+    private int nextCursor;
+    private int rowCount;
+    private boolean truncated;
+
+    public String getQueryId() {
+        return queryId;
+    }
+
+    public void setQueryId(String queryId) {
+        this.queryId = queryId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the error message if the query failed
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public List<QueryResultColumn> getColumns() {
+        return columns;
+    }
+
+    public void setColumns(List<QueryResultColumn> columns) {
+        this.columns = columns;
+    }
+
+    public List<Object[]> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<Object[]> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * @return the index of the first row in this page
+     */
+    public int getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(int cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * @return the index of the first row of the next page
+     */
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(int nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return the number of rows read so far
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * @return {@code true} if the query stopped at the maximum number of rows
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    /**
+     * @return {@code true} if there are more rows after this page, or the query may still produce more
+     */
+    public boolean isHasMore() {
+        return status == Status.RUNNING || nextCursor < rowCount;
+    }
+}
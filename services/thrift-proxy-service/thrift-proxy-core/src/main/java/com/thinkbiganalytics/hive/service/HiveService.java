@@ -189,15 +189,59 @@ public class HiveService {
 
     // TODO: Temporary until we determine how we want to ensure DDL isn't sent through
     private String safeQuery(String query) {
-        return "SELECT kylo_.* FROM (" + query + ") kylo_ LIMIT 1000";
+        return safeQuery(query, 1000);
+    }
+
+    /**
+     * Wraps the query so that only a select statement may be run and at most {@code limit} rows are returned.
+     */
+    static String safeQuery(String query, int limit) {
+        return "SELECT kylo_.* FROM (" + query + ") kylo_ LIMIT " + limit;
+    }
+
+    /**
+     * Determines if the query is run as is instead of being wrapped by {@link #safeQuery(String, int)}.
+     */
+    static boolean isShowQuery(String query) {
+        return query != null && query.toLowerCase().startsWith("show");
+    }
+
+    /**
+     * Creates the columns of a query result, numbering the display names that appear more than once.
+     *
+     * @param rsMetaData the result set metadata
+     * @return the columns
+     */
+    static List<QueryResultColumn> createColumns(ResultSetMetaData rsMetaData) throws SQLException {
+        final List<QueryResultColumn> columns = new ArrayList<>();
+        final Map<String, Integer> displayNameMap = new HashMap<>();
+        for (int i = 1; i <= rsMetaData.getColumnCount(); i++) {
+            DefaultQueryResultColumn column = new DefaultQueryResultColumn();
+            column.setField(rsMetaData.getColumnName(i));
+            String displayName = rsMetaData.getColumnLabel(i);
+            column.setHiveColumnLabel(displayName);
+            //remove the table name if it exists
+            displayName = StringUtils.substringAfterLast(displayName, ".");
+            Integer count = 0;
+            if (displayNameMap.containsKey(displayName)) {
+                count = displayNameMap.get(displayName);
+                count++;
+            }
+            displayNameMap.put(displayName, count);
+            column.setDisplayName(displayName + "" + (count > 0 ? count : ""));
+
+            column.setTableName(StringUtils.substringAfterLast(rsMetaData.getColumnName(i), "."));
+            column.setDataType(ParserHelper.sqlTypeToHiveType(rsMetaData.getColumnType(i)));
+            columns.add(column);
+        }
+        return columns;
     }
 
 
     public QueryResult query(String query) throws DataAccessException {
         final DefaultQueryResult queryResult = new DefaultQueryResult(query);
         final List<QueryResultColumn> columns = new ArrayList<>();
-        final Map<String, Integer> displayNameMap = new HashMap<>();
-        if (query != null && !query.toLowerCase().startsWith("show")) {
+        if (query != null && !isShowQuery(query)) {
             query = safeQuery(query);
         }
         try {
@@ -207,27 +251,7 @@ public class HiveService {
                 @Override
                 public Map<String, Object> mapRow(ResultSet rs, int rowNum) throws SQLException {
                     if (columns.isEmpty()) {
-                        ResultSetMetaData rsMetaData = rs.getMetaData();
-                        for (int i = 1; i <= rsMetaData.getColumnCount(); i++) {
-                            String colName = rsMetaData.getColumnName(i);
-                            DefaultQueryResultColumn column = new DefaultQueryResultColumn();
-                            column.setField(rsMetaData.getColumnName(i));
-                            String displayName = rsMetaData.getColumnLabel(i);
-                            column.setHiveColumnLabel(displayName);
-                            //remove the table name if it exists
-                            displayName = StringUtils.substringAfterLast(displayName, ".");
-                            Integer count = 0;
-                            if (displayNameMap.containsKey(displayName)) {
-                                count = displayNameMap.get(displayName);
-                                count++;
-                            }
-                            displayNameMap.put(displayName, count);
-                            column.setDisplayName(displayName + "" + (count > 0 ? count : ""));
-
-                            column.setTableName(StringUtils.substringAfterLast(rsMetaData.getColumnName(i), "."));
-                            column.setDataType(ParserHelper.sqlTypeToHiveType(rsMetaData.getColumnType(i)));
-                            columns.add(column);
-                        }
+                        columns.addAll(createColumns(rs.getMetaData()));
                         queryResult.setColumns(columns);
                     }
                     Map<String, Object> row = new LinkedHashMap<>();
@@ -0,0 +1,114 @@
+package com.thinkbiganalytics.hive.service;
+
+/*-
+ * #%L
+ * thinkbig-thrift-proxy-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.schema.TableSchema;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HiveMetastoreCatalogTest {
+
+    @Test
+    public void testListingAndSearch() {
+        TestCatalog catalog = new TestCatalog();
+        catalog.tables.add(new HiveMetastoreCatalog.CatalogTable(1, "sales", "orders", 100, "100"));
+        catalog.tables.add(new HiveMetastoreCatalog.CatalogTable(2, "sales", "customers", 100, "100"));
+        catalog.tables.add(new HiveMetastoreCatalog.CatalogTable(3, "marketing", "orders_summary", 100, "100"));
+
+        assertThat(catalog.getDatabaseNames()).containsExactly("default", "marketing", "sales");
+        assertThat(catalog.getTableNames("sales")).containsExactly("customers", "orders");
+        assertThat(catalog.getAllTables()).containsExactly("marketing.orders_summary", "sales.customers", "sales.orders");
+        assertThat(catalog.searchTables("sales.c", 10)).containsExactly("sales.customers");
+        assertThat(catalog.searchTables("ORD", 10)).containsExactly("sales.orders", "marketing.orders_summary");
+        assertThat(catalog.searchTables("ord", 1)).hasSize(1);
+
+        TableSchema schema = catalog.getTableSchema("sales", "orders");
+        assertThat(schema.getFields()).extracting("name").containsExactly("id", "total");
+        assertThat(catalog.getTableColumns(Collections.singletonList("sales.orders"))).hasSize(2);
+    }
+
+    @Test
+    public void testRefreshOnlyLoadsChangedTables() {
+        TestCatalog catalog = new TestCatalog();
+        catalog.tables.add(new HiveMetastoreCatalog.CatalogTable(1, "sales", "orders", 100, "100"));
+        catalog.tables.add(new HiveMetastoreCatalog.CatalogTable(2, "sales", "customers", 100, "100"));
+        catalog.refresh();
+        assertThat(catalog.columnRequests).containsExactly((List<Long>) null);
+
+        catalog.tables.clear();
+        catalog.tables.add(new HiveMetastoreCatalog.CatalogTable(1, "sales", "orders", 100, "200"));
+        catalog.tables.add(new HiveMetastoreCatalog.CatalogTable(2, "sales", "customers", 100, "100"));
+        catalog.tables.add(new HiveMetastoreCatalog.CatalogTable(4, "sales", "returns", 300, "300"));
+        catalog.refresh();
+
+        assertThat(catalog.columnRequests.get(1)).containsExactly(1L, 4L);
+        assertThat(catalog.getTableSchema("sales", "customers").getFields()).hasSize(2);
+        assertThat(catalog.getAllTables()).contains("sales.returns");
+    }
+
+    /**
+     * Catalog reading from in-memory tables instead of the metastore database
+     */
+    private static class TestCatalog extends HiveMetastoreCatalog {
+
+        private final List<CatalogTable> tables = new ArrayList<>();
+        private final List<List<Long>> columnRequests = new ArrayList<>();
+
+        TestCatalog() {
+            super(null, false, 60);
+        }
+
+        @Override
+        List<String> queryDatabases() {
+            return Arrays.asList("sales", "marketing", "default");
+        }
+
+        @Override
+        List<CatalogTable> queryTables() {
+            List<CatalogTable> copy = new ArrayList<>();
+            for (CatalogTable table : tables) {
+                copy.add(new CatalogTable(table.getId(), table.getDatabase(), table.getName(), table.getCreateTime(), table.getDdlTime()));
+            }
+            return copy;
+        }
+
+        @Override
+        Map<Long, List<CatalogColumn>> queryColumns(List<Long> tableIds) {
+            columnRequests.add(tableIds);
+            Map<Long, List<CatalogColumn>> columns = new HashMap<>();
+            for (CatalogTable table : tables) {
+                if (tableIds == null || tableIds.contains(table.getId())) {
+                    columns.put(table.getId(), Arrays.asList(new CatalogColumn("id", "int", null), new CatalogColumn("total", "double", null)));
+                }
+            }
+            return columns;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.thinkbiganalytics.hive.service;
+
+/*-
+ * #%L
+ * thinkbig-thrift-proxy-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HiveQueryManagerTest {
+
+    private HiveQueryManager manager;
+
+    @After
+    public void tearDown() {
+        if (manager != null) {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    public void testFetchPages() throws Exception {
+        manager = new HiveQueryManager(mockDataSource(25, null), 2, 5, 20, 60);
+
+        HiveQueryPage submitted = manager.submit("select * from sales.orders");
+        assertThat(submitted.getQueryId()).isNotNull();
+
+        HiveQueryPage page = manager.fetch(submitted.getQueryId(), 0, 15, 5000);
+        while (page.getStatus() == HiveQueryPage.Status.RUNNING) {
+            page = manager.fetch(submitted.getQueryId(), 0, 15, 5000);
+        }
+        assertThat(page.getColumns()).extracting("displayName").containsExactly("id", "name");
+        assertThat(page.getRows()).hasSize(15);
+        assertThat(page.getRows().get(0)).containsExactly(0, "row0");
+        assertThat(page.getNextCursor()).isEqualTo(15);
+        assertThat(page.isHasMore()).isTrue();
+
+        page = manager.fetch(submitted.getQueryId(), page.getNextCursor(), 15, 5000);
+        assertThat(page.getRows()).hasSize(5);
+        assertThat(page.getRows().get(0)).containsExactly(15, "row15");
+        assertThat(page.isTruncated()).isTrue();
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    public void testUserQueryLimitAndCancel() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        manager = new HiveQueryManager(mockDataSource(1, latch), 1, 5, 100, 60);
+
+        HiveQueryPage submitted = manager.submit("select * from sales.orders");
+        try {
+            manager.submit("select * from sales.customers");
+            throw new AssertionError("Expected the second query to be rejected");
+        } catch (HiveQueryManager.QueryLimitException e) {
+            // expected
+        }
+
+        assertThat(manager.cancel(submitted.getQueryId())).isTrue();
+        latch.countDown();
+        assertThat(manager.fetch(submitted.getQueryId(), 0, 10, 0)).isNull();
+    }
+
+    @Test
+    public void testDiscardLeastRecentlyUsedCompletedQueries() throws Exception {
+        manager = new HiveQueryManager(mockDataSource(3, null), 2, 2, 100, 60);
+
+        String first = awaitCompletion(manager.submit("select * from sales.orders")).getQueryId();
+        String second = awaitCompletion(manager.submit("select * from sales.customers")).getQueryId();
+        Thread.sleep(5);
+        assertThat(manager.fetch(first, 0, 10, 0).getRows()).hasSize(3);
+
+        String third = awaitCompletion(manager.submit("select * from sales.products")).getQueryId();
+        assertThat(manager.fetch(second, 0, 10, 0)).isNull();
+        assertThat(manager.fetch(first, 0, 10, 0).getRows()).hasSize(3);
+        assertThat(manager.fetch(third, 0, 10, 0).getRows()).hasSize(3);
+    }
+
+    /**
+     * Fetch the query until it is no longer running
+     */
+    private HiveQueryPage awaitCompletion(HiveQueryPage page) throws Exception {
+        while (page.getStatus() == HiveQueryPage.Status.RUNNING) {
+            page = manager.fetch(page.getQueryId(), 0, 0, 5000);
+        }
+        return page;
+    }
+
+    /**
+     * Mock a data source returning {@code rowCount} rows of an id and a name, waiting for the latch before executing each query
+     */
+    private DataSource mockDataSource(int rowCount, CountDownLatch latch) throws Exception {
+        ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metaData.getColumnCount()).thenReturn(2);
+        Mockito.when(metaData.getColumnName(1)).thenReturn("kylo_.id");
+        Mockito.when(metaData.getColumnLabel(1)).thenReturn("kylo_.id");
+        Mockito.when(metaData.getColumnType(1)).thenReturn(Types.INTEGER);
+        Mockito.when(metaData.getColumnName(2)).thenReturn("kylo_.name");
+        Mockito.when(metaData.getColumnLabel(2)).thenReturn("kylo_.name");
+        Mockito.when(metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+
+        AtomicInteger row = new AtomicInteger(-1);
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getMetaData()).thenReturn(metaData);
+        Mockito.when(rs.next()).thenAnswer(invocation -> row.incrementAndGet() < rowCount);
+        Mockito.when(rs.getObject(1)).thenAnswer(invocation -> row.get());
+        Mockito.when(rs.getObject(2)).thenAnswer(invocation -> "row" + row.get());
+
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(statement.executeQuery(Mockito.anyString())).thenAnswer(invocation -> {
+            if (latch != null) {
+                latch.await();
+            }
+            row.set(-1);
+            return rs;
+        });
+        Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        DataSource dataSource = Mockito.mock(DataSource.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
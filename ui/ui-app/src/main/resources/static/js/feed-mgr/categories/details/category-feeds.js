@@ -16,6 +16,30 @@ define(['angular','feed-mgr/categories/module-name'], function (angular,moduleNa
          */
         self.model = CategoriesService.model;
 
+        /**
+         * The current page of feeds, starting at 1.
+         * @type {number}
+         */
+        self.currentPage = 1;
+
+        /**
+         * The number of feeds in each page.
+         * @type {number}
+         */
+        self.rowsPerPage = 10;
+
+        /**
+         * Loads the requested page of feeds.
+         *
+         * @param {number} page the page number
+         * @param {number} limit the number of feeds in each page
+         */
+        self.onPaginationChange = function(page, limit) {
+            self.currentPage = page;
+            self.rowsPerPage = limit;
+            return CategoriesService.getRelatedFeeds(self.model, (page - 1) * limit, limit);
+        };
+
         /**
          * Navigates to the specified feed.
          *
@@ -10,6 +10,7 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
         self.allowExport = false;
 
         self.feedData = [];
+        self.totalFeeds = 0;
         this.loading = true;
         this.cardTitle = 'Feeds';
 
@@ -28,7 +29,7 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
         this.pageName = "feeds";
         this.paginationData = PaginationDataService.paginationData(this.pageName);
         this.paginationId = 'feeds';
-        PaginationDataService.setRowsPerPageOptions(this.pageName, ['5', '10', '20', '50', 'All']);
+        PaginationDataService.setRowsPerPageOptions(this.pageName, ['5', '10', '20', '50', '100']);
         this.currentPage = PaginationDataService.currentPage(self.pageName) || 1;
         this.viewType = PaginationDataService.viewType(this.pageName);
         this.sortOptions = loadSortOptions();
@@ -43,8 +44,19 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
 
         $scope.$watch(function () {
             return self.filter;
-        }, function (newVal) {
-            PaginationDataService.filter(self.pageName, newVal)
+        }, function (newVal, oldVal) {
+            PaginationDataService.filter(self.pageName, newVal);
+            if (newVal != oldVal) {
+                self.onPaginationChange(1);
+            }
+        })
+
+        $scope.$watch(function () {
+            return self.paginationData.rowsPerPage;
+        }, function (newVal, oldVal) {
+            if (newVal != oldVal) {
+                self.onPaginationChange(1);
+            }
         })
 
         this.onViewTypeChange = function(viewType) {
@@ -54,11 +66,13 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
         this.onOrderChange = function(order) {
             PaginationDataService.sort(self.pageName, order);
             TableOptionsService.setSortOption(self.pageName, order);
+            return getFeeds();
         };
 
         this.onPaginationChange = function(page, limit) {
             PaginationDataService.currentPage(self.pageName, null, page);
             self.currentPage = page;
+            return getFeeds();
         };
 
         /**
@@ -70,6 +84,7 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
             var savedSort = PaginationDataService.sort(self.pageName, sortString);
             var updatedOption = TableOptionsService.toggleSort(self.pageName, option);
             TableOptionsService.setSortOption(self.pageName, sortString);
+            getFeeds();
         }
 
         /**
@@ -77,7 +92,7 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
          * @returns {*[]}
          */
         function loadSortOptions() {
-            var options = {'Feed': 'feedName', 'State': 'state', 'Category': 'category.name', 'Type': 'templateName', 'Last Modified': 'updateDate'};
+            var options = {'Feed': 'feedName', 'State': 'state', 'Category': 'categoryName', 'Last Modified': 'updateDate'};
             var sortOptions = TableOptionsService.newSortOptions(self.pageName, options, 'updateDate', 'desc');
             TableOptionsService.initializeSortOption(self.pageName);
             return sortOptions;
@@ -89,14 +104,21 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
             }
         }
 
+        /**
+         * Loads the current page of feeds.  The feeds are filtered, sorted, and paged by the server.
+         */
         function getFeeds() {
+            var limit = self.paginationData.rowsPerPage;
+            var start = (limit * self.currentPage) - limit;
+            var params = {start: start, limit: limit, sort: PaginationDataService.sort(self.pageName), filter: self.filter};
 
             var successFn = function(response) {
                 self.loading = false;
                 //simplify feedData
                 var simpleFeedData = [];
                 if (response.data) {
-                    angular.forEach(response.data, function(feed) {
+                    self.totalFeeds = response.data.recordsFiltered;
+                    angular.forEach(response.data.data, function(feed) {
                         if (feed.state == 'ENABLED') {
                             feed.stateIcon = 'check_circle'
                         }
@@ -123,7 +145,7 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
                 self.loading = false;
 
             }
-            var promise = $http.get(RestUrlService.GET_FEEDS_URL);
+            var promise = $http.get(RestUrlService.GET_FEED_SUMMARIES_URL, {params: params});
             promise.then(successFn, errorFn);
             return promise;
 
@@ -76,7 +76,8 @@ define(['angular','feed-mgr/module-name','constants/AccessConstants'], function
          * @property {string|null} icon the name of a Material Design icon
          * @property {string|null} iconColor the color of the icon
          * @property {Object.<string,string>} userProperties map of user-defined property name to value
-         * @property {Array<Object>} relatedFeedSummaries the feeds within this category
+         * @property {Array<Object>} relatedFeedSummaries the current page of feeds within this category
+         * @property {number} relatedFeedsTotal the number of feeds within this category
          */
 
         /**
@@ -122,9 +123,19 @@ define(['angular','feed-mgr/module-name','constants/AccessConstants'], function
                 });
                 return promise;
             },
-            getRelatedFeeds: function (category) {
-                var promise = $http.get(RestUrlService.CATEGORIES_URL + "/" + category.id + "/feeds").then(function (response) {
-                    category.relatedFeedSummaries = response.data || [];
+            /**
+             * Loads a page of the feeds within the category.
+             *
+             * @param {CategoryModel} category the category
+             * @param {number} [start] the index of the first feed, defaults to 0
+             * @param {number} [limit] the number of feeds, defaults to 10
+             * @returns {Promise} resolves when the feeds are loaded
+             */
+            getRelatedFeeds: function (category, start, limit) {
+                var params = {start: start || 0, limit: limit || 10, sort: "feedName"};
+                var promise = $http.get(RestUrlService.GET_CATEGORY_FEED_SUMMARIES_URL(category.id), {params: params}).then(function (response) {
+                    category.relatedFeedSummaries = (response.data && response.data.data) ? response.data.data : [];
+                    category.relatedFeedsTotal = (response.data) ? response.data.recordsFiltered : 0;
                 });
                 return promise;
             },
@@ -183,6 +194,7 @@ define(['angular','feed-mgr/module-name','constants/AccessConstants'], function
                         userFields: [],
                         userProperties: [],
                         relatedFeedSummaries: [],
+                        relatedFeedsTotal: 0,
                         securityGroups: [],
                         roleMemberships:[],
                         owner:null};
@@ -125,6 +125,8 @@ define(['angular', 'feed-mgr/module-name'], function (angular, moduleName) {
 
         this.GET_FEED_NAMES_URL = self.FEEDS_BASE_URL + "/names";
 
+        this.GET_FEED_SUMMARIES_URL = self.FEEDS_BASE_URL + "/summaries";
+
         this.GET_POSSIBLE_FEED_PRECONDITIONS_URL = self.FEEDS_BASE_URL + "/possible-preconditions";
 
         this.GET_POSSIBLE_SLA_METRIC_OPTIONS_URL = self.SLA_BASE_URL + "/available-metrics";
@@ -195,6 +197,16 @@ define(['angular', 'feed-mgr/module-name'], function (angular, moduleName) {
             return self.CATEGORIES_URL + "/" + categoryId + "/user-fields";
         };
 
+        /**
+         * Gets the URL for retrieving a page of the feeds in a category.
+         *
+         * @param {string} categoryId the category id
+         * @returns {string} the URL
+         */
+        this.GET_CATEGORY_FEED_SUMMARIES_URL = function (categoryId) {
+            return self.CATEGORIES_URL + "/" + categoryId + "/feeds/summaries";
+        };
+
         /**
          * URL for retrieving the user fields for a new category.
          * @type {string}
@@ -9,6 +9,7 @@ define(['angular',
         'ops-mgr/services/IconStatusService',
         'ops-mgr/services/Nvd3ChartService',
         'ops-mgr/services/OpsManagerJobService',
+        'ops-mgr/services/OpsManagerEventStreamService',
         'ops-mgr/services/OpsManagerRestUrlService',
         'ops-mgr/services/ProvenanceEventStatsService',
         'ops-mgr/services/ServicesStatusService',
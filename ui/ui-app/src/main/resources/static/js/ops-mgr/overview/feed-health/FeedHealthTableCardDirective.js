@@ -17,7 +17,7 @@ define(['angular','ops-mgr/overview/module-name'], function (angular,moduleName)
         };
     };
 
-    var controller = function ($scope,$rootScope,$http,$interval, OpsManagerFeedService, TableOptionsService,PaginationDataService, TabService,AlertsService, StateService,EventService) {
+    var controller = function ($scope,$rootScope,$http,$interval,$timeout, OpsManagerFeedService, TableOptionsService,PaginationDataService, TabService,AlertsService, StateService,EventService,OpsManagerEventStreamService) {
         var self = this;
         this.pageName="feed-health";
 
@@ -52,8 +52,47 @@ define(['angular','ops-mgr/overview/module-name'], function (angular,moduleName)
             return PaginationDataService.currentPage(self.pageName,tab.title);
         }
 
+        /**
+         * The feed summaries currently displayed
+         */
+        this.feedSummaries = [];
+
+        /**
+         * Polling is slowed down by this factor while the event stream is connected.  Feed health events are only sent when a job completes, so
+         * polling still picks up jobs starting and jobs abandoned or failed by a user.
+         */
+        var CONNECTED_REFRESH_FACTOR = 6;
+
         this.setRefreshInterval();
 
+        /**
+         * Pending update triggered by feed health events
+         */
+        var updateTimeout = null;
+
+        /**
+         * Names of the feeds whose health changed since the last update
+         */
+        var changedFeedNames = {};
+
+        //Update the feeds whose health changed
+        OpsManagerEventStreamService.subscribe($scope, OpsManagerEventStreamService.FEED_HEALTH, function (data) {
+            if (data && data.feedName) {
+                changedFeedNames[data.feedName] = true;
+            }
+            if (updateTimeout == null) {
+                updateTimeout = $timeout(function () {
+                    updateTimeout = null;
+                    var feedNames = Object.keys(changedFeedNames);
+                    changedFeedNames = {};
+                    angular.forEach(feedNames, updateFeed);
+                }, 1000);
+            }
+        });
+        OpsManagerEventStreamService.onConnectionChange($scope, function () {
+            self.setRefreshInterval();
+        });
+
         this.onTabSelected = function(tab) {
             TabService.selectedTab(self.pageName,tab);
 
@@ -120,8 +159,8 @@ define(['angular','ops-mgr/overview/module-name'], function (angular,moduleName)
                     var feeds = [];
                     if (response.data) {
                         //transform the data for UI
-                        self.feeds = response.data.feedSummary;
-                        groupFeedsIntoTabs(response.data.feedSummary);
+                        self.feedSummaries = response.data.feedSummary || [];
+                        groupFeedsIntoTabs(self.feedSummaries);
 
                         if (self.loading) {
                             self.loading = false;
@@ -139,6 +178,28 @@ define(['angular','ops-mgr/overview/module-name'], function (angular,moduleName)
             }
         }
 
+        /**
+         * Replaces the summary of a single feed and regroups the tabs, without reloading every feed
+         * @param feedName the system name of the feed
+         */
+        function updateFeed(feedName) {
+            OpsManagerFeedService.fetchFeedSummary(feedName).then(function (response) {
+                var summary = response.data && response.data.feedSummary && response.data.feedSummary.length > 0 ? response.data.feedSummary[0] : null;
+                var feeds = _.reject(self.feedSummaries, function (feed) {
+                    return feed.feed == feedName;
+                });
+                if (summary != null) {
+                    var index = _.findIndex(self.feedSummaries, function (feed) {
+                        return feed.feed == feedName;
+                    });
+                    feeds.splice(index >= 0 ? index : feeds.length, 0, summary);
+                }
+                self.feedSummaries = feeds;
+                groupFeedsIntoTabs(self.feedSummaries);
+                EventService.broadcastFeedHealthCardRendered();
+            });
+        }
+
         function finishedRequest() {
             self.refreshing = false;
             self.showProgress = false;
@@ -194,8 +255,8 @@ define(['angular','ops-mgr/overview/module-name'], function (angular,moduleName)
         function setRefreshInterval() {
             self.clearRefreshInterval();
             if (self.refreshIntervalTime) {
-                self.refreshInterval = $interval(loadTabData, self.refreshIntervalTime);
-
+                var interval = OpsManagerEventStreamService.isConnected() ? self.refreshIntervalTime * CONNECTED_REFRESH_FACTOR : self.refreshIntervalTime;
+                self.refreshInterval = $interval(loadTabData, interval);
             }
         }
         //Util Functions
@@ -205,6 +266,9 @@ define(['angular','ops-mgr/overview/module-name'], function (angular,moduleName)
 
         $scope.$on('$destroy', function(){
             clearRefreshInterval();
+            if (updateTimeout != null) {
+                $timeout.cancel(updateTimeout);
+            }
         });
 
 
@@ -212,7 +276,7 @@ define(['angular','ops-mgr/overview/module-name'], function (angular,moduleName)
     };
 
 
-    angular.module(moduleName).controller('FeedHealthTableCardController', ["$scope","$rootScope","$http","$interval","OpsManagerFeedService","TableOptionsService","PaginationDataService","TabService","AlertsService","StateService","EventService",controller]);
+    angular.module(moduleName).controller('FeedHealthTableCardController', ["$scope","$rootScope","$http","$interval","$timeout","OpsManagerFeedService","TableOptionsService","PaginationDataService","TabService","AlertsService","StateService","EventService","OpsManagerEventStreamService",controller]);
 
     angular.module(moduleName)
         .directive('tbaFeedHealthTableCard', directive);
@@ -0,0 +1,125 @@
+/**
+ * Keeps a single server-sent event connection per browser tab to the Operations Manager and notifies the subscribers of job, feed health, alert and
+ * service status changes.  Cards should update when notified and poll less often while the stream is connected, since not every change is sent.
+ */
+define(['angular','ops-mgr/module-name'], function (angular,moduleName) {
+    angular.module(moduleName).service('OpsManagerEventStreamService', ["$rootScope","$timeout","OpsManagerRestUrlService",function ($rootScope,$timeout,OpsManagerRestUrlService) {
+
+        var self = this;
+
+        this.JOB = "job";
+        this.FEED_HEALTH = "feed-health";
+        this.ALERT = "alert";
+        this.SERVICE_STATUS = "service-status";
+
+        this.CONNECTION_CHANGED = "OPS_MANAGER_EVENT_STREAM_CONNECTION_CHANGED";
+
+        var EVENT_TYPES = [this.JOB, this.FEED_HEALTH, this.ALERT, this.SERVICE_STATUS];
+
+        /**
+         * The open event source, or null if not connected
+         */
+        var eventSource = null;
+
+        /**
+         * Number of scopes subscribed to the stream
+         */
+        var subscriberCount = 0;
+
+        this.connected = false;
+
+        /**
+         * @returns {boolean} true if the browser supports server-sent events
+         */
+        this.isSupported = function () {
+            return typeof EventSource !== "undefined";
+        };
+
+        /**
+         * @returns {boolean} true if events are being received and polling is not needed
+         */
+        this.isConnected = function () {
+            return self.connected;
+        };
+
+        /**
+         * Calls the callback whenever an event of the given type is received.  The subscription is removed when the scope is destroyed.
+         *
+         * @param scope the scope of the subscriber
+         * @param type the event type
+         * @param callback called with the event data
+         */
+        this.subscribe = function (scope, type, callback) {
+            var deregister = $rootScope.$on(eventName(type), function (event, data) {
+                callback(data);
+            });
+            subscriberCount++;
+            open();
+
+            scope.$on('$destroy', function () {
+                deregister();
+                subscriberCount--;
+                if (subscriberCount <= 0) {
+                    close();
+                }
+            });
+        };
+
+        /**
+         * Calls the callback whenever the stream connects or disconnects.
+         *
+         * @param scope the scope of the subscriber
+         * @param callback called with true when connected and false when disconnected
+         */
+        this.onConnectionChange = function (scope, callback) {
+            var deregister = $rootScope.$on(self.CONNECTION_CHANGED, function (event, connected) {
+                callback(connected);
+            });
+            scope.$on('$destroy', deregister);
+        };
+
+        function eventName(type) {
+            return "OPS_MANAGER_EVENT_" + type;
+        }
+
+        function setConnected(connected) {
+            if (self.connected !== connected) {
+                $timeout(function () {
+                    self.connected = connected;
+                    $rootScope.$broadcast(self.CONNECTION_CHANGED, connected);
+                });
+            }
+        }
+
+        function open() {
+            if (eventSource != null || !self.isSupported()) {
+                return;
+            }
+            // the browser reconnects on its own and sends the Last-Event-ID header so missed events are replayed
+            eventSource = new EventSource(OpsManagerRestUrlService.EVENTS_URL);
+            eventSource.onopen = function () {
+                setConnected(true);
+            };
+            eventSource.onerror = function () {
+                setConnected(false);
+            };
+            angular.forEach(EVENT_TYPES, function (type) {
+                eventSource.addEventListener(type, function (event) {
+                    var data = angular.fromJson(event.data);
+                    $timeout(function () {
+                        $rootScope.$broadcast(eventName(type), data);
+                    });
+                });
+            });
+        }
+
+        function close() {
+            if (eventSource != null) {
+                eventSource.close();
+                eventSource = null;
+            }
+            setConnected(false);
+        }
+
+    }]);
+});
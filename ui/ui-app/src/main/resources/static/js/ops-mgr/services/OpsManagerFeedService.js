@@ -85,6 +85,15 @@ define(['angular','ops-mgr/module-name'], function (angular,moduleName) {
              return promise;
          };
 
+         /**
+          * Fetches the health summary of a single feed
+          * @param feedName the system name of the feed
+          * @returns {*} a promise for the feed status
+          */
+         data.fetchFeedSummary = function (feedName) {
+             return $http.get(data.SPECIFIC_FEED_HEALTH_URL(feedName));
+         };
+
          data.fetchFeedHealth = function () {
              var successFn = function (response) {
 
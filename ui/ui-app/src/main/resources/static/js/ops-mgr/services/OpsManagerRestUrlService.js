@@ -37,6 +37,8 @@ define(['angular','ops-mgr/module-name'], function (angular,moduleName) {
 
         this.DATA_CONFIDENCE_URL = "/proxy/v1/data-confidence/summary";
 
+        this.EVENTS_URL = "/proxy/v1/events";
+
         this.RESTART_JOB_URL = function (executionId) {
             return self.JOBS_BASE + "/" + executionId + "/restart";
         }